@@ -24,12 +24,15 @@ CREATE TABLE seguro_vehicular (
     nro_poliza VARCHAR(50) NOT NULL,
     cobertura ENUM('RC', 'TERCEROS', 'TODO_RIESGO') NOT NULL,
     vencimiento DATE NOT NULL,
+    -- Última modificación (usada para actualizar snapshots de forma incremental)
+    actualizado TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     
     -- Índices
     CONSTRAINT uk_seguro_nro_poliza UNIQUE (nro_poliza),
     INDEX idx_seguro_aseguradora (aseguradora),
     INDEX idx_seguro_vencimiento (vencimiento),
-    INDEX idx_seguro_eliminado (eliminado)
+    INDEX idx_seguro_eliminado_vencimiento (eliminado, vencimiento),
+    INDEX idx_seguro_actualizado (actualizado)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ============================================================================
@@ -46,6 +49,8 @@ CREATE TABLE vehiculo (
     anio INT,
     nro_chasis VARCHAR(50),
     seguro_id BIGINT,
+    -- Última modificación (usada para actualizar snapshots de forma incremental)
+    actualizado TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     
     -- Constraints
     CONSTRAINT uk_vehiculo_dominio UNIQUE (dominio),
@@ -63,7 +68,44 @@ CREATE TABLE vehiculo (
     INDEX idx_vehiculo_marca (marca),
     INDEX idx_vehiculo_modelo (modelo),
     INDEX idx_vehiculo_anio (anio),
-    INDEX idx_vehiculo_eliminado (eliminado)
+    INDEX idx_vehiculo_eliminado_actualizado (eliminado, actualizado),
+    INDEX idx_vehiculo_actualizado (actualizado)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- ============================================================================
+-- Tablas de archivo
+-- Reciben las filas dadas de baja más antiguas que la retención (ArchivadoService).
+-- No tienen claves foráneas ni restricciones UNIQUE: el mismo dominio o póliza
+-- puede aparecer en varias bajas sucesivas
+-- ============================================================================
+
+CREATE TABLE seguro_vehicular_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN NOT NULL,
+    aseguradora VARCHAR(80) NOT NULL,
+    nro_poliza VARCHAR(50) NOT NULL,
+    cobertura ENUM('RC', 'TERCEROS', 'TODO_RIESGO') NOT NULL,
+    vencimiento DATE NOT NULL,
+    actualizado TIMESTAMP(3) NOT NULL,
+    archivado TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    
+    INDEX idx_seguro_archivo_nro_poliza (nro_poliza)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE vehiculo_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN NOT NULL,
+    dominio VARCHAR(10) NOT NULL,
+    marca VARCHAR(50) NOT NULL,
+    modelo VARCHAR(50) NOT NULL,
+    anio INT,
+    nro_chasis VARCHAR(50),
+    seguro_id BIGINT,
+    actualizado TIMESTAMP(3) NOT NULL,
+    archivado TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    
+    INDEX idx_vehiculo_archivo_dominio (dominio),
+    INDEX idx_vehiculo_archivo_seguro (seguro_id)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
 -- ============================================================================
@@ -72,6 +114,8 @@ CREATE TABLE vehiculo (
 
 ALTER TABLE seguro_vehicular COMMENT = 'Almacena los seguros vehiculares del sistema';
 ALTER TABLE vehiculo COMMENT = 'Almacena los vehículos con relación 1→1 a SeguroVehicular';
+ALTER TABLE seguro_vehicular_archivo COMMENT = 'Seguros dados de baja y archivados';
+ALTER TABLE vehiculo_archivo COMMENT = 'Vehículos dados de baja y archivados';
 
 -- ============================================================================
 -- Verificación de la estructura
@@ -0,0 +1,21 @@
+-- ============================================================================
+-- Migración V001 - Columna de última modificación
+-- Permite completar un snapshot binario con las filas modificadas después
+-- de haberlo generado, sin recorrer las tablas completas
+-- ============================================================================
+
+USE vehiculos_seguros_db;
+
+ALTER TABLE seguro_vehicular
+    ADD COLUMN actualizado TIMESTAMP(3) NOT NULL
+        DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_seguro_actualizado (actualizado);
+
+ALTER TABLE vehiculo
+    ADD COLUMN actualizado TIMESTAMP(3) NOT NULL
+        DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_vehiculo_actualizado (actualizado);
+
+-- ============================================================================
+-- Fin de la migración V001
+-- ============================================================================
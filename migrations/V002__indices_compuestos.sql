@@ -0,0 +1,22 @@
+-- ============================================================================
+-- Migración V002 - Índices compuestos recomendados por AsesorIndices
+-- El índice sobre "eliminado" solo tiene dos valores posibles y casi todas las
+-- filas son FALSE, así que por sí mismo no filtra nada. Se reemplaza por índices
+-- compuestos que lo combinan con la columna por la que realmente se busca.
+-- ============================================================================
+
+USE vehiculos_seguros_db;
+
+-- Seguros activos por vencimiento (vigencia, reportes de vencidos)
+ALTER TABLE seguro_vehicular
+    DROP INDEX idx_seguro_eliminado,
+    ADD INDEX idx_seguro_eliminado_vencimiento (eliminado, vencimiento);
+
+-- Vehículos dados de baja por antigüedad de la baja (archivado, lecturas incrementales)
+ALTER TABLE vehiculo
+    DROP INDEX idx_vehiculo_eliminado,
+    ADD INDEX idx_vehiculo_eliminado_actualizado (eliminado, actualizado);
+
+-- ============================================================================
+-- Fin de la migración V002
+-- ============================================================================
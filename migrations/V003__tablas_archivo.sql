@@ -0,0 +1,42 @@
+-- ============================================================================
+-- Migración V003 - Tablas de archivo para registros dados de baja
+-- Las filas con eliminado = TRUE más antiguas que la retención se mueven a estas
+-- tablas (ArchivadoService) para que las tablas principales no crezcan sin límite
+-- ============================================================================
+
+USE vehiculos_seguros_db;
+
+CREATE TABLE seguro_vehicular_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN NOT NULL,
+    aseguradora VARCHAR(80) NOT NULL,
+    nro_poliza VARCHAR(50) NOT NULL,
+    cobertura ENUM('RC', 'TERCEROS', 'TODO_RIESGO') NOT NULL,
+    vencimiento DATE NOT NULL,
+    actualizado TIMESTAMP(3) NOT NULL,
+    archivado TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    
+    INDEX idx_seguro_archivo_nro_poliza (nro_poliza)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT = 'Seguros dados de baja y archivados';
+
+CREATE TABLE vehiculo_archivo (
+    id BIGINT PRIMARY KEY,
+    eliminado BOOLEAN NOT NULL,
+    dominio VARCHAR(10) NOT NULL,
+    marca VARCHAR(50) NOT NULL,
+    modelo VARCHAR(50) NOT NULL,
+    anio INT,
+    nro_chasis VARCHAR(50),
+    seguro_id BIGINT,
+    actualizado TIMESTAMP(3) NOT NULL,
+    archivado TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    
+    INDEX idx_vehiculo_archivo_dominio (dominio),
+    INDEX idx_vehiculo_archivo_seguro (seguro_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT = 'Vehículos dados de baja y archivados';
+
+-- ============================================================================
+-- Fin de la migración V003
+-- ============================================================================
@@ -0,0 +1,339 @@
+package config;
+
+import util.Registro;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuración de la aplicación tomada de varias fuentes
+ * Precedencia, de mayor a menor: valores cambiados en ejecución con establecer(),
+ * propiedades del sistema (-Dpool.tamanio.maximo=64), variables de entorno
+ * (POOL_TAMANIO_MAXIMO=64: la clave en mayúsculas con '_' en lugar de '.'), el archivo
+ * db.properties (o el indicado con -Dconfig.archivo) y por último el valor por defecto
+ * que pasa quien lee la clave.
+ * Cada componente lee sus claves en el momento de usarlas o se registra con alCambiar()
+ * para aplicar un cambio (por ejemplo, redimensionar el pool). Las claves de ESTATICAS
+ * solo se leen al iniciar: cambiarlas en el archivo no tiene efecto hasta reiniciar y
+ * establecer() las rechaza.
+ */
+public final class Configuracion {
+
+    public static final String ARCHIVO_POR_DEFECTO = "db.properties";
+    public static final long PERIODO_RECARGA_MS_POR_DEFECTO = 10000;
+
+    /**
+     * Claves que solo se leen al iniciar la aplicación
+     */
+    public static final Set<String> ESTATICAS = Set.of(
+        "db.url", "db.user", "db.password", "db.fragmentos",
+        "jdbc.cache.sentencias", "jdbc.fetch.streaming", "config.recarga.ms",
+        "salud.http.puerto", "salud.http.direccion", "snapshot.archivo", "snapshot.periodo.min"
+    );
+
+    private static final Configuracion INSTANCIA = new Configuracion();
+
+    private final Path archivo;
+    private final Map<String, String> enEjecucion = new ConcurrentHashMap<>();
+    private final Map<String, List<Runnable>> oyentes = new ConcurrentHashMap<>();
+    private final Set<String> invalidasInformadas = ConcurrentHashMap.newKeySet();
+
+    private volatile Properties delArchivo;
+    private long ultimaModificacion;
+    private ScheduledExecutorService vigilante;
+
+    private Configuracion() {
+        String ruta = System.getProperty("config.archivo");
+        if (ruta == null) {
+            ruta = System.getenv().getOrDefault("CONFIG_ARCHIVO", ARCHIVO_POR_DEFECTO);
+        }
+        archivo = Paths.get(ruta);
+        ultimaModificacion = modificacionArchivo();
+        delArchivo = leerArchivo();
+    }
+
+    public static Configuracion getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Valor efectivo de una clave, o null si ninguna fuente la define
+     */
+    public String getTexto(String clave) {
+        return valor(clave, delArchivo);
+    }
+
+    public String getTexto(String clave, String porDefecto) {
+        String valor = getTexto(clave);
+        return valor != null ? valor : porDefecto;
+    }
+
+    public int getEntero(String clave, int porDefecto) {
+        String valor = getTexto(clave);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            informarInvalida(clave, valor);
+            return porDefecto;
+        }
+    }
+
+    public long getLargo(String clave, long porDefecto) {
+        String valor = getTexto(clave);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            informarInvalida(clave, valor);
+            return porDefecto;
+        }
+    }
+
+    public double getDecimal(String clave, double porDefecto) {
+        String valor = getTexto(clave);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Double.parseDouble(valor);
+        } catch (NumberFormatException e) {
+            informarInvalida(clave, valor);
+            return porDefecto;
+        }
+    }
+
+    /**
+     * Fuente de la que sale el valor efectivo de una clave
+     */
+    public String origen(String clave) {
+        if (enEjecucion.containsKey(clave)) {
+            return "ejecución";
+        }
+        if (System.getProperty(clave) != null) {
+            return "sistema";
+        }
+        if (System.getenv(variableEntorno(clave)) != null) {
+            return "entorno";
+        }
+        if (delArchivo.getProperty(clave) != null) {
+            return "archivo";
+        }
+        return "defecto";
+    }
+
+    /**
+     * Claves conocidas (las del archivo, las cambiadas en ejecución y las que tienen
+     * oyentes) con su valor efectivo y su origen; las contraseñas se ocultan
+     */
+    public SortedMap<String, String> describir() {
+        Set<String> claves = new HashSet<>(delArchivo.stringPropertyNames());
+        claves.addAll(enEjecucion.keySet());
+        claves.addAll(oyentes.keySet());
+
+        SortedMap<String, String> descripcion = new TreeMap<>();
+        for (String clave : claves) {
+            String valor = getTexto(clave);
+            if (valor != null && clave.contains("password")) {
+                valor = "****";
+            }
+            descripcion.put(clave, (valor != null ? valor : "(sin valor)") + " [" + origen(clave) + "]");
+        }
+        return descripcion;
+    }
+
+    /**
+     * Registra una acción a ejecutar cuando cambia el valor efectivo de alguna de las claves
+     * La acción vuelve a leer sus claves; una misma acción se ejecuta una vez por cambio
+     */
+    public void alCambiar(Runnable accion, String... claves) {
+        for (String clave : claves) {
+            oyentes.computeIfAbsent(clave, c -> new CopyOnWriteArrayList<>()).add(accion);
+        }
+    }
+
+    /**
+     * Cambia una clave en ejecución, por encima de todas las demás fuentes (null la quita)
+     * Si la acción registrada rechaza el valor, se restaura el anterior y se propaga el error
+     */
+    public synchronized void establecer(String clave, String valor) {
+        if (ESTATICAS.contains(clave)) {
+            throw new IllegalArgumentException("La clave " + clave + " solo se lee al iniciar");
+        }
+        String anterior = enEjecucion.get(clave);
+        String efectivoAnterior = getTexto(clave);
+        if (valor == null) {
+            enEjecucion.remove(clave);
+        } else {
+            enEjecucion.put(clave, valor.strip());
+        }
+        if (Objects.equals(efectivoAnterior, getTexto(clave))) {
+            return;
+        }
+
+        invalidasInformadas.remove(clave);
+        try {
+            for (Runnable accion : oyentes.getOrDefault(clave, List.of())) {
+                accion.run();
+            }
+        } catch (RuntimeException e) {
+            if (anterior == null) {
+                enEjecucion.remove(clave);
+            } else {
+                enEjecucion.put(clave, anterior);
+            }
+            for (Runnable accion : oyentes.getOrDefault(clave, List.of())) {
+                accion.run();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Vuelve a leer el archivo y aplica las claves que cambiaron
+     * Devuelve las claves cuyo valor efectivo cambió
+     */
+    public synchronized Set<String> recargar() {
+        Properties anteriores = delArchivo;
+        Properties nuevas = leerArchivo();
+
+        Set<String> claves = new HashSet<>(anteriores.stringPropertyNames());
+        claves.addAll(nuevas.stringPropertyNames());
+        Set<String> cambiadas = new LinkedHashSet<>();
+        for (String clave : claves) {
+            if (!Objects.equals(valor(clave, anteriores), valor(clave, nuevas))) {
+                cambiadas.add(clave);
+            }
+        }
+        delArchivo = nuevas;
+
+        Set<Runnable> acciones = new LinkedHashSet<>();
+        for (String clave : cambiadas) {
+            invalidasInformadas.remove(clave);
+            if (ESTATICAS.contains(clave)) {
+                Registro.advertencia("⚠ La clave " + clave + " cambió en " + archivo + "; se aplica al reiniciar");
+            } else {
+                acciones.addAll(oyentes.getOrDefault(clave, List.of()));
+            }
+        }
+        for (Runnable accion : acciones) {
+            try {
+                accion.run();
+            } catch (RuntimeException e) {
+                Registro.error("✗ Configuración inválida en " + archivo + ": " + e.getMessage());
+            }
+        }
+        if (!cambiadas.isEmpty()) {
+            Registro.info("✓ Configuración recargada: " + String.join(", ", cambiadas));
+        }
+        return cambiadas;
+    }
+
+    /**
+     * Revisa periódicamente la fecha de modificación del archivo y lo recarga si cambió
+     */
+    public synchronized void iniciarRecarga() {
+        if (vigilante != null) {
+            return;
+        }
+        long periodoMs = Math.max(100, getLargo("config.recarga.ms", PERIODO_RECARGA_MS_POR_DEFECTO));
+        vigilante = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "configuracion");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        vigilante.scheduleWithFixedDelay(() -> {
+            long modificacion = modificacionArchivo();
+            boolean cambio;
+            synchronized (this) {
+                cambio = modificacion != ultimaModificacion;
+                ultimaModificacion = modificacion;
+            }
+            if (cambio) {
+                recargar();
+            }
+        }, periodoMs, periodoMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void detenerRecarga() {
+        if (vigilante != null) {
+            vigilante.shutdownNow();
+            vigilante = null;
+        }
+    }
+
+    public Path getArchivo() {
+        return archivo;
+    }
+
+    private String valor(String clave, Properties archivoActual) {
+        String valor = enEjecucion.get(clave);
+        if (valor == null) {
+            valor = System.getProperty(clave);
+        }
+        if (valor == null) {
+            valor = System.getenv(variableEntorno(clave));
+        }
+        if (valor == null) {
+            valor = archivoActual.getProperty(clave);
+        }
+        return valor != null ? valor.strip() : null;
+    }
+
+    /**
+     * pool.tamanio.maximo → POOL_TAMANIO_MAXIMO
+     */
+    static String variableEntorno(String clave) {
+        return clave.toUpperCase(Locale.ROOT).replace('.', '_');
+    }
+
+    private Properties leerArchivo() {
+        Properties propiedades = new Properties();
+        if (!Files.isRegularFile(archivo)) {
+            return propiedades;
+        }
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            propiedades.load(entrada);
+        } catch (IOException | IllegalArgumentException e) {
+            Registro.error("✗ No se pudo leer " + archivo + ": " + e.getMessage());
+            return delArchivo != null ? delArchivo : propiedades;
+        }
+        return propiedades;
+    }
+
+    private long modificacionArchivo() {
+        try {
+            return Files.isRegularFile(archivo) ? Files.getLastModifiedTime(archivo).toMillis() : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void informarInvalida(String clave, String valor) {
+        if (invalidasInformadas.add(clave)) {
+            Registro.advertencia("⚠ Valor inválido para " + clave + ": '" + valor + "'; se usa el valor por defecto");
+        }
+    }
+}
@@ -1,46 +1,125 @@
 package config;
 
+import util.Registro;
+
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 
 /**
  * Clase para gestionar la conexión a la base de datos MySQL
+ * Las conexiones salen de un pool compartido; cerrarlas las devuelve al pool
+ * Con varios fragmentos hay un pool por esquema y cada conexión sale del pool del
+ * fragmento actual del hilo (ver Fragmentos)
+ * URL, usuario y contraseña salen de Configuracion (db.properties, variables de entorno
+ * o propiedades del sistema); los límites del pool se pueden cambiar en ejecución.
  */
 public class DatabaseConnection {
     
-    // Configuración de la base de datos
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/vehiculos_seguros_db?useSSL=false&serverTimezone=America/Argentina/Buenos_Aires&allowPublicKeyRetrieval=true";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = ""; // Si tu MySQL tiene password, ponlo aquí
+    // Valores por defecto si db.properties no define la conexión
+    private static final String DB_URL_POR_DEFECTO = "jdbc:mysql://localhost:3306/vehiculos_seguros_db"
+            + "?useSSL=false&serverTimezone=America/Argentina/Buenos_Aires&allowPublicKeyRetrieval=true";
+    private static final String DB_USER_POR_DEFECTO = "root";
+    public static final int CACHE_SENTENCIAS_POR_DEFECTO = 250;
+    
+    private static final Configuracion CONFIG = Configuracion.getInstancia();
+    
+    // Se leen una sola vez (ver Configuracion.ESTATICAS)
+    private static final String DB_URL = completarUrl(CONFIG.getTexto("db.url", DB_URL_POR_DEFECTO));
+    private static final String DB_USER = CONFIG.getTexto("db.user", DB_USER_POR_DEFECTO);
+    private static final String DB_PASSWORD = CONFIG.getTexto("db.password", "");
+    private static final int FETCH_STREAMING = CONFIG.getEntero("jdbc.fetch.streaming", 0);
+    
+    private static volatile PoolConexiones[] pools = crearPools(1);
+    
+    static {
+        // Cualquiera de estas claves se aplica a todos los pools sin reiniciar
+        CONFIG.alCambiar(DatabaseConnection::aplicarLimitesPool,
+                         "pool.tamanio.maximo", "pool.espera.maxima.ms", "pool.validar.tras.ociosa.ms",
+                         "jdbc.timeout.sentencia.segundos");
+    }
     
     // Cargar el driver MySQL
     static {
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
-            System.out.println("✓ Driver MySQL cargado correctamente");
+            Registro.info("✓ Driver MySQL cargado correctamente");
         } catch (ClassNotFoundException e) {
-            System.err.println("✗ ERROR: No se encontró el driver de MySQL");
-            e.printStackTrace();
+            Registro.error("✗ ERROR: No se encontró el driver de MySQL", e);
         }
     }
     
     /**
-     * Obtiene una nueva conexión a la base de datos
+     * Reparte los datos en n esquemas: vehiculos_seguros_db_0 .. vehiculos_seguros_db_(n-1)
+     * Con n = 1 se usa vehiculos_seguros_db. Se llama al iniciar, antes de abrir conexiones:
+     * los pools anteriores se cierran, y sus conexiones en uso se cierran al devolverse.
+     */
+    public static synchronized void configurarFragmentos(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("La cantidad de fragmentos debe ser mayor a cero");
+        }
+        PoolConexiones[] anteriores = pools;
+        pools = crearPools(n);
+        Fragmentos.setCantidad(n);
+        for (PoolConexiones pool : anteriores) {
+            pool.cerrar();
+        }
+    }
+    
+    /**
+     * Fragmentos indicados en la configuración (db.fragmentos); 1 si no se indica
+     */
+    public static int fragmentosConfigurados() {
+        return Math.max(1, CONFIG.getEntero("db.fragmentos", 1));
+    }
+    
+    /**
+     * Fetch size para los recorridos streaming de los DAOs
+     * Por defecto Integer.MIN_VALUE (el driver entrega fila por fila); con jdbc.fetch.streaming
+     * mayor a cero se usa un cursor del servidor que trae esa cantidad de filas por viaje
+     */
+    public static int tamanioFetchStreaming() {
+        return FETCH_STREAMING > 0 ? FETCH_STREAMING : Integer.MIN_VALUE;
+    }
+    
+    /**
+     * Obtiene una conexión del pool del fragmento actual (en modo autocommit)
      */
     public static Connection getConnection() throws SQLException {
+        return getConnection(Fragmentos.getActual());
+    }
+    
+    /**
+     * Obtiene una conexión del pool de un fragmento determinado (en modo autocommit)
+     */
+    public static Connection getConnection(int fragmento) throws SQLException {
+        PoolConexiones[] actuales = pools;
+        if (fragmento < 0 || fragmento >= actuales.length) {
+            throw new SQLException("Fragmento inexistente: " + fragmento);
+        }
         try {
-            Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            conn.setAutoCommit(true);
-            return conn;
+            return actuales[fragmento].obtener();
         } catch (SQLException e) {
-            System.err.println("✗ Error al conectar a la base de datos:");
-            System.err.println("   URL: " + DB_URL);
-            System.err.println("   Usuario: " + DB_USER);
+            Registro.error("✗ Error al conectar a la base de datos:\n   URL: " + url(fragmento, actuales.length) +
+                           "\n   Usuario: " + DB_USER);
             throw e;
         }
     }
     
+    /**
+     * Conexión para un sondeo de salud: espera a lo sumo esperaMs por una libre y no
+     * registra el error si no la consigue (el sondeo lo informa)
+     */
+    public static Connection getConnectionSondeo(int fragmento, long esperaMs) throws SQLException {
+        PoolConexiones[] actuales = pools;
+        if (fragmento < 0 || fragmento >= actuales.length) {
+            throw new SQLException("Fragmento inexistente: " + fragmento);
+        }
+        return actuales[fragmento].obtener(esperaMs);
+    }
+    
     /**
      * Cierra una conexión de forma segura
      */
@@ -49,22 +128,77 @@ public class DatabaseConnection {
             try {
                 conn.close();
             } catch (SQLException e) {
-                System.err.println("Error al cerrar la conexión:");
-                e.printStackTrace();
+                Registro.error("Error al cerrar la conexión:", e);
             }
         }
     }
     
     /**
-     * Prueba la conexión a la base de datos
+     * Abre por anticipado conexiones en el pool de cada fragmento
+     * Devuelve la cantidad de conexiones ociosas listas para usar (sumando todos los pools)
+     */
+    public static int precalentarPool(int cantidad) throws SQLException {
+        int listas = 0;
+        for (PoolConexiones pool : pools) {
+            listas += pool.precalentar(cantidad);
+        }
+        return listas;
+    }
+    
+    /**
+     * Estado y contadores del pool de conexiones (sumados entre fragmentos)
+     */
+    public static PoolConexiones.Metricas getMetricasPool() {
+        PoolConexiones.Metricas total = null;
+        for (PoolConexiones pool : pools) {
+            total = total == null ? pool.getMetricas() : total.sumar(pool.getMetricas());
+        }
+        return total;
+    }
+    
+    /**
+     * Estado y contadores del pool de un fragmento
+     */
+    public static PoolConexiones.Metricas getMetricasPool(int fragmento) {
+        return pools[fragmento].getMetricas();
+    }
+    
+    /**
+     * Cierra las conexiones ociosas de los pools (al terminar la aplicación)
+     */
+    public static void cerrarPool() {
+        for (PoolConexiones pool : pools) {
+            pool.cerrarOciosas();
+        }
+    }
+    
+    /**
+     * Prueba la conexión a la base de datos (a cada fragmento)
+     * Las conexiones usadas quedan en el pool para la primera operación
      */
     public static boolean testConnection() {
-        try (Connection conn = getConnection()) {
-            return conn != null && !conn.isClosed();
-        } catch (SQLException e) {
-            System.err.println("Error al probar la conexión:");
-            e.printStackTrace();
-            return false;
+        for (int fragmento = 0; fragmento < pools.length; fragmento++) {
+            try (Connection conn = getConnection(fragmento)) {
+                if (conn == null || conn.isClosed()) {
+                    return false;
+                }
+            } catch (SQLException e) {
+                Registro.error("Error al probar la conexión:", e);
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Obtiene la hora actual del servidor de base de datos (precisión de milisegundos)
+     * Se usa como referencia para lecturas incrementales por la columna "actualizado"
+     */
+    public static Timestamp horaServidor(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT CURRENT_TIMESTAMP(3)")) {
+            rs.next();
+            return rs.getTimestamp(1);
         }
     }
     
@@ -75,9 +209,96 @@ public class DatabaseConnection {
         System.out.println("╔════════════════════════════════════════════════════════╗");
         System.out.println("║         CONFIGURACIÓN DE BASE DE DATOS                ║");
         System.out.println("╠════════════════════════════════════════════════════════╣");
-        System.out.println("║ Base de Datos: vehiculos_seguros_db                   ║");
-        System.out.println("║ Usuario:       root                                    ║");
-        System.out.println("║ Host:          localhost:3306                          ║");
+        System.out.println(String.format("║ Base de Datos: %-40s║", recortar(nombreBase())));
+        System.out.println(String.format("║ Fragmentos:    %-40d║", pools.length));
+        System.out.println(String.format("║ Usuario:       %-40s║", recortar(DB_USER)));
+        System.out.println(String.format("║ Host:          %-40s║", recortar(host())));
         System.out.println("╚════════════════════════════════════════════════════════╝");
     }
-}
\ No newline at end of file
+    
+    private static PoolConexiones[] crearPools(int n) {
+        PoolConexiones[] nuevos = new PoolConexiones[n];
+        for (int k = 0; k < n; k++) {
+            nuevos[k] = new PoolConexiones(
+                    url(k, n), DB_USER, DB_PASSWORD, PoolConexiones.TAMANIO_MAXIMO_POR_DEFECTO,
+                    PoolConexiones.ESPERA_MAXIMA_MS_POR_DEFECTO, PoolConexiones.VALIDAR_TRAS_OCIOSA_MS_POR_DEFECTO);
+            try {
+                aplicarLimites(nuevos[k]);
+            } catch (IllegalArgumentException e) {
+                Registro.error("✗ Configuración de pool inválida, se usan los valores por defecto: " + e.getMessage());
+            }
+        }
+        return nuevos;
+    }
+    
+    private static void aplicarLimitesPool() {
+        for (PoolConexiones pool : pools) {
+            aplicarLimites(pool);
+        }
+    }
+    
+    private static void aplicarLimites(PoolConexiones pool) {
+        pool.configurar(CONFIG.getEntero("pool.tamanio.maximo", PoolConexiones.TAMANIO_MAXIMO_POR_DEFECTO),
+                        CONFIG.getLargo("pool.espera.maxima.ms", PoolConexiones.ESPERA_MAXIMA_MS_POR_DEFECTO),
+                        CONFIG.getLargo("pool.validar.tras.ociosa.ms", PoolConexiones.VALIDAR_TRAS_OCIOSA_MS_POR_DEFECTO));
+        pool.setTimeoutSentenciaSegundos(CONFIG.getEntero("jdbc.timeout.sentencia.segundos", 0));
+    }
+    
+    /**
+     * Agrega a la URL configurada los parámetros de rendimiento que no indique:
+     * sentencias preparadas en el servidor y cacheadas por conexión, y cursor del
+     * servidor si se pidió un fetch size fijo
+     */
+    private static String completarUrl(String url) {
+        String completa = agregarParametro(url, "useServerPrepStmts", "true");
+        completa = agregarParametro(completa, "cachePrepStmts", "true");
+        completa = agregarParametro(completa, "prepStmtCacheSize",
+                String.valueOf(CONFIG.getEntero("jdbc.cache.sentencias", CACHE_SENTENCIAS_POR_DEFECTO)));
+        completa = agregarParametro(completa, "prepStmtCacheSqlLimit", "2048");
+        if (CONFIG.getEntero("jdbc.fetch.streaming", 0) > 0) {
+            completa = agregarParametro(completa, "useCursorFetch", "true");
+        }
+        return completa;
+    }
+    
+    private static String agregarParametro(String url, String nombre, String valor) {
+        int consulta = url.indexOf('?');
+        if (consulta >= 0 && ("&" + url.substring(consulta + 1)).contains("&" + nombre + "=")) {
+            return url;
+        }
+        return url + (consulta >= 0 ? "&" : "?") + nombre + "=" + valor;
+    }
+    
+    /**
+     * jdbc:mysql://host:puerto/base?parametros → base
+     */
+    private static String nombreBase() {
+        String sinParametros = DB_URL.split("\\?", 2)[0];
+        return sinParametros.substring(sinParametros.lastIndexOf('/') + 1);
+    }
+    
+    private static String host() {
+        String sinParametros = DB_URL.split("\\?", 2)[0];
+        int inicio = sinParametros.indexOf("//");
+        int fin = sinParametros.lastIndexOf('/');
+        return inicio >= 0 && fin > inicio + 2 ? sinParametros.substring(inicio + 2, fin) : sinParametros;
+    }
+    
+    private static String recortar(String texto) {
+        return texto.length() > 40 ? texto.substring(0, 37) + "..." : texto;
+    }
+    
+    /**
+     * URL del fragmento k de n
+     * Con varios fragmentos cada sesión genera IDs k+1, k+1+n, k+1+2n... así los IDs no
+     * se repiten entre esquemas y el resto indica el fragmento de origen
+     */
+    private static String url(int k, int n) {
+        if (n == 1) {
+            return DB_URL;
+        }
+        String[] partes = DB_URL.split("\\?", 2);
+        return partes[0] + "_" + k + "?" + (partes.length > 1 ? partes[1] + "&" : "")
+               + "sessionVariables=auto_increment_increment=" + n + ",auto_increment_offset=" + (k + 1);
+    }
+}
@@ -0,0 +1,164 @@
+package config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reparto de los datos en fragmentos (esquemas vehiculos_seguros_db_0 .. _N-1)
+ * Cada vehículo vive en el fragmento que indica el hash de su dominio y su seguro vive
+ * en el mismo fragmento. Los IDs de cada esquema avanzan de a N desde k+1
+ * (auto_increment_increment / auto_increment_offset), así son únicos entre fragmentos y
+ * el resto de un ID de vehículo indica dónde está.
+ * El fragmento en uso es por hilo: DatabaseConnection.getConnection() entrega una
+ * conexión del fragmento actual, por eso los DAOs no necesitan saber de fragmentos.
+ * Con un solo fragmento (el valor por defecto) todo va al esquema vehiculos_seguros_db.
+ */
+public final class Fragmentos {
+
+    /**
+     * Trabajo a ejecutar dentro de un fragmento
+     */
+    @FunctionalInterface
+    public interface Tarea<T> {
+        T ejecutar() throws Exception;
+    }
+
+    private static final ThreadLocal<Integer> ACTUAL = ThreadLocal.withInitial(() -> 0);
+
+    private static final ExecutorService EJECUTOR = Executors.newCachedThreadPool(r -> {
+        Thread hilo = new Thread(r, "fragmentos");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    private static volatile int cantidad = 1;
+
+    private Fragmentos() {
+    }
+
+    public static int getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Solo la llama DatabaseConnection al crear los pools de cada fragmento
+     */
+    static void setCantidad(int n) {
+        cantidad = n;
+    }
+
+    /**
+     * Fragmento en el que trabaja el hilo actual
+     */
+    public static int getActual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Fragmento de un dominio: hash FNV-1a del dominio sin espacios y en mayúsculas
+     * No depende de String.hashCode ni de la JVM: un dominio cae siempre en el mismo fragmento
+     */
+    public static int deDominio(String dominio) {
+        return deClave(dominio.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Fragmento inicial de un seguro que todavía no tiene vehículo (hash del número de póliza)
+     */
+    public static int dePoliza(String nroPoliza) {
+        return deClave(nroPoliza.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Fragmento en el que se generó un ID
+     * Para vehículos es siempre su fragmento; un seguro puede haberse movido a otro
+     */
+    public static int deId(long id) {
+        return (int) Math.floorMod(id - 1, (long) cantidad);
+    }
+
+    /**
+     * Ejecuta la tarea con el fragmento indicado como actual y después restaura el anterior
+     */
+    public static <T> T en(int fragmento, Tarea<T> tarea) throws Exception {
+        if (fragmento < 0 || fragmento >= cantidad) {
+            throw new IllegalArgumentException("Fragmento inexistente: " + fragmento);
+        }
+        int anterior = ACTUAL.get();
+        ACTUAL.set(fragmento);
+        try {
+            return tarea.ejecutar();
+        } finally {
+            ACTUAL.set(anterior);
+        }
+    }
+
+    /**
+     * Ejecuta la tarea en todos los fragmentos en paralelo y devuelve los resultados en
+     * orden de fragmento; con un solo fragmento se ejecuta en el hilo actual
+     * Si alguna falla se espera al resto y se propaga el primer error.
+     */
+    public static <T> List<T> enTodos(Tarea<T> tarea) throws Exception {
+        int n = cantidad;
+        if (n == 1) {
+            return Collections.singletonList(en(0, tarea));
+        }
+
+        List<Future<T>> pendientes = new ArrayList<>(n);
+        for (int k = 0; k < n; k++) {
+            int fragmento = k;
+            pendientes.add(EJECUTOR.submit(() -> en(fragmento, tarea)));
+        }
+
+        List<T> resultados = new ArrayList<>(n);
+        Exception error = null;
+        for (Future<T> pendiente : pendientes) {
+            try {
+                resultados.add(pendiente.get());
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error = e.getCause() instanceof Exception causa ? causa : e;
+                }
+                resultados.add(null);
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        return resultados;
+    }
+
+    /**
+     * Une los resultados de varios fragmentos en el orden indicado, hasta el límite
+     * (Integer.MAX_VALUE para no cortar). Cada parte puede venir en cualquier orden
+     */
+    public static <T> List<T> unir(List<List<T>> partes, Comparator<? super T> orden, int limite) {
+        List<T> todos = new ArrayList<>();
+        for (List<T> parte : partes) {
+            todos.addAll(parte);
+        }
+        todos.sort(orden);
+        return todos.size() > limite ? new ArrayList<>(todos.subList(0, limite)) : todos;
+    }
+
+    private static int deClave(String clave) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : clave.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        // Los bits bajos de FNV dependen solo de los bits bajos de cada byte: mezclar los altos
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) Math.floorMod(hash, (long) cantidad);
+    }
+}
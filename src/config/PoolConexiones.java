@@ -0,0 +1,387 @@
+package config;
+
+import util.Registro;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones físicas a MySQL
+ * Las conexiones se entregan envueltas: close() no cierra la conexión física sino que
+ * la devuelve al pool, revirtiendo cualquier transacción abierta y restaurando el
+ * autocommit. Así se conservan el handshake y la caché de sentencias preparadas del
+ * driver entre operaciones. Una conexión ociosa por más de un umbral se valida antes
+ * de entregarla. Tamaño, espera, umbral de validación y timeout de sentencias se pueden
+ * cambiar con el pool en uso.
+ */
+public final class PoolConexiones {
+
+    public static final int TAMANIO_MAXIMO_POR_DEFECTO = 32;
+    public static final long ESPERA_MAXIMA_MS_POR_DEFECTO = 10000;
+    public static final long VALIDAR_TRAS_OCIOSA_MS_POR_DEFECTO = 30000;
+
+    private static final int TIMEOUT_VALIDACION_SEGUNDOS = 2;
+
+    /**
+     * Estado y contadores del pool
+     * ultimoUsoSano es la hora (epoch ms) en que se devolvió por última vez una conexión
+     * abierta, o 0 si todavía no se devolvió ninguna
+     */
+    public record Metricas(int tamanioMaximo, int enUso, int ociosas, long creadas, long reutilizadas,
+                           long descartadas, long esperas, long esperaTotalMs, long agotadas,
+                           long ultimoUsoSano) {
+
+        /**
+         * Suma de dos pools (varios fragmentos); el último uso es el más reciente
+         */
+        public Metricas sumar(Metricas otra) {
+            return new Metricas(tamanioMaximo + otra.tamanioMaximo, enUso + otra.enUso, ociosas + otra.ociosas,
+                                creadas + otra.creadas, reutilizadas + otra.reutilizadas,
+                                descartadas + otra.descartadas, esperas + otra.esperas,
+                                esperaTotalMs + otra.esperaTotalMs, agotadas + otra.agotadas,
+                                Math.max(ultimoUsoSano, otra.ultimoUsoSano));
+        }
+
+        /**
+         * Espera promedio de los pedidos que no encontraron una conexión libre
+         */
+        public double esperaPromedioMs() {
+            return esperas == 0 ? 0 : (double) esperaTotalMs / esperas;
+        }
+
+        /**
+         * Proporción de conexiones en uso (puede superar 1 mientras el pool se achica)
+         */
+        public double utilizacion() {
+            return tamanioMaximo == 0 ? 0 : (double) enUso / tamanioMaximo;
+        }
+    }
+
+    private final String url;
+    private final String usuario;
+    private final String password;
+    private volatile int tamanioMaximo;
+    private volatile long esperaMaximaMs;
+    private volatile long validarTrasOciosaMs;
+    private volatile int timeoutSentenciaSegundos;
+    // Protegido por ociosas: un pool cerrado no guarda más conexiones devueltas
+    private boolean cerrado;
+
+    private final Cupo cupo;
+    private final Deque<Ociosa> ociosas = new ArrayDeque<>();
+
+    private final AtomicLong creadas = new AtomicLong();
+    private final AtomicLong reutilizadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong esperas = new AtomicLong();
+    private final AtomicLong esperaTotalNanos = new AtomicLong();
+    private final AtomicLong agotadas = new AtomicLong();
+    private volatile long ultimoUsoSano;
+
+    private record Ociosa(Connection fisica, long desdeNanos) {
+    }
+
+    /**
+     * Semáforo que además puede achicarse (reducePermits es protegido)
+     */
+    private static final class Cupo extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        Cupo(int permisos) {
+            super(permisos, true);
+        }
+
+        void reducir(int permisos) {
+            reducePermits(permisos);
+        }
+    }
+
+    public PoolConexiones(String url, String usuario, String password, int tamanioMaximo,
+                          long esperaMaximaMs, long validarTrasOciosaMs) {
+        if (tamanioMaximo <= 0 || esperaMaximaMs < 0 || validarTrasOciosaMs < 0) {
+            throw new IllegalArgumentException("Parámetros de pool inválidos");
+        }
+        this.url = url;
+        this.usuario = usuario;
+        this.password = password;
+        this.tamanioMaximo = tamanioMaximo;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.validarTrasOciosaMs = validarTrasOciosaMs;
+        this.cupo = new Cupo(tamanioMaximo);
+    }
+
+    /**
+     * Cambia los límites con el pool en uso
+     * Al achicarlo no se corta ninguna conexión prestada: las nuevas esperan hasta que
+     * se devuelvan las que sobran, y las ociosas de más se cierran al devolverse.
+     */
+    public synchronized void configurar(int tamanioMaximo, long esperaMaximaMs, long validarTrasOciosaMs) {
+        if (tamanioMaximo <= 0 || esperaMaximaMs < 0 || validarTrasOciosaMs < 0) {
+            throw new IllegalArgumentException("Parámetros de pool inválidos");
+        }
+        int diferencia = tamanioMaximo - this.tamanioMaximo;
+        if (diferencia > 0) {
+            cupo.release(diferencia);
+        } else if (diferencia < 0) {
+            cupo.reducir(-diferencia);
+        }
+        this.tamanioMaximo = tamanioMaximo;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.validarTrasOciosaMs = validarTrasOciosaMs;
+    }
+
+    /**
+     * Timeout que se aplica a cada sentencia creada desde las conexiones del pool (0: sin límite)
+     */
+    public void setTimeoutSentenciaSegundos(int segundos) {
+        if (segundos < 0) {
+            throw new IllegalArgumentException("El timeout de sentencias no puede ser negativo");
+        }
+        this.timeoutSentenciaSegundos = segundos;
+    }
+
+    /**
+     * Entrega una conexión del pool, creando una nueva si no hay ociosas
+     */
+    public Connection obtener() throws SQLException {
+        return obtener(esperaMaximaMs);
+    }
+
+    /**
+     * Entrega una conexión del pool esperando a lo sumo esperaMs por una libre
+     */
+    public Connection obtener(long esperaMs) throws SQLException {
+        if (!cupo.tryAcquire()) {
+            esperas.incrementAndGet();
+            long inicio = System.nanoTime();
+            try {
+                if (!cupo.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+                    agotadas.incrementAndGet();
+                    throw new SQLException("Pool de conexiones agotado: " + tamanioMaximo +
+                                           " en uso durante más de " + esperaMs + " ms");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrumpido mientras se esperaba una conexión", e);
+            } finally {
+                esperaTotalNanos.addAndGet(System.nanoTime() - inicio);
+            }
+        }
+
+        try {
+            Connection fisica = tomarOciosaValida();
+            if (fisica == null) {
+                fisica = DriverManager.getConnection(url, usuario, password);
+                creadas.incrementAndGet();
+            } else {
+                reutilizadas.incrementAndGet();
+            }
+            fisica.setAutoCommit(true);
+            return envolver(fisica);
+        } catch (SQLException | RuntimeException e) {
+            cupo.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Abre conexiones hasta tener la cantidad indicada de ociosas
+     * Devuelve la cantidad de conexiones listas en el pool
+     */
+    public int precalentar(int cantidad) throws SQLException {
+        int objetivo = Math.min(cantidad, tamanioMaximo);
+        Connection[] abiertas = new Connection[objetivo];
+        int cantidadAbiertas = 0;
+        try {
+            for (int i = 0; i < objetivo; i++) {
+                abiertas[i] = obtener();
+                cantidadAbiertas++;
+            }
+        } finally {
+            for (int i = 0; i < cantidadAbiertas; i++) {
+                abiertas[i].close();
+            }
+        }
+        return cantidadOciosas();
+    }
+
+    /**
+     * Cierra el pool (reemplazado por otro): cierra las conexiones ociosas y, desde ahora,
+     * también cada conexión en uso cuando se devuelva
+     */
+    public void cerrar() {
+        synchronized (ociosas) {
+            cerrado = true;
+        }
+        cerrarOciosas();
+    }
+
+    /**
+     * Cierra las conexiones ociosas; el pool sigue en uso
+     */
+    public void cerrarOciosas() {
+        while (true) {
+            Ociosa ociosa;
+            synchronized (ociosas) {
+                ociosa = ociosas.pollFirst();
+            }
+            if (ociosa == null) {
+                return;
+            }
+            cerrarFisica(ociosa.fisica());
+        }
+    }
+
+    public Metricas getMetricas() {
+        int libres = cupo.availablePermits();
+        return new Metricas(tamanioMaximo, tamanioMaximo - libres, cantidadOciosas(), creadas.get(),
+                            reutilizadas.get(), descartadas.get(), esperas.get(),
+                            TimeUnit.NANOSECONDS.toMillis(esperaTotalNanos.get()), agotadas.get(), ultimoUsoSano);
+    }
+
+    private int cantidadOciosas() {
+        synchronized (ociosas) {
+            return ociosas.size();
+        }
+    }
+
+    /**
+     * Toma la conexión ociosa más reciente; las ociosas por mucho tiempo se validan
+     */
+    private Connection tomarOciosaValida() {
+        while (true) {
+            Ociosa ociosa;
+            synchronized (ociosas) {
+                ociosa = ociosas.pollFirst();
+            }
+            if (ociosa == null) {
+                return null;
+            }
+
+            Connection fisica = ociosa.fisica();
+            long ociosaMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ociosa.desdeNanos());
+            try {
+                if (ociosaMs < validarTrasOciosaMs || fisica.isValid(TIMEOUT_VALIDACION_SEGUNDOS)) {
+                    return fisica;
+                }
+            } catch (SQLException e) {
+                // Se descarta abajo
+            }
+            cerrarFisica(fisica);
+        }
+    }
+
+    /**
+     * Devuelve una conexión física al pool dejándola sin transacción abierta
+     */
+    private void devolver(Connection fisica) {
+        try {
+            if (fisica.isClosed()) {
+                descartadas.incrementAndGet();
+                return;
+            }
+            if (!fisica.getAutoCommit()) {
+                fisica.rollback();
+                fisica.setAutoCommit(true);
+            }
+            if (fisica.isReadOnly()) {
+                fisica.setReadOnly(false);
+            }
+            fisica.clearWarnings();
+            ultimoUsoSano = System.currentTimeMillis();
+            synchronized (ociosas) {
+                if (!cerrado && ociosas.size() < tamanioMaximo) {
+                    ociosas.addFirst(new Ociosa(fisica, System.nanoTime()));
+                    return;
+                }
+            }
+            // El pool se achicó o se cerró: sobra esta conexión
+            cerrarFisica(fisica);
+        } catch (SQLException e) {
+            cerrarFisica(fisica);
+        } finally {
+            cupo.release();
+        }
+    }
+
+    private void cerrarFisica(Connection fisica) {
+        descartadas.incrementAndGet();
+        try {
+            fisica.close();
+        } catch (SQLException e) {
+            Registro.error("Error al cerrar conexión: " + e.getMessage());
+        }
+    }
+
+    private Connection envolver(Connection fisica) {
+        return (Connection) Proxy.newProxyInstance(PoolConexiones.class.getClassLoader(),
+                                                   new Class<?>[] { Connection.class },
+                                                   new ConexionPrestada(fisica));
+    }
+
+    /**
+     * Conexión entregada por el pool; close() la devuelve una sola vez
+     */
+    private final class ConexionPrestada implements InvocationHandler {
+        private final Connection fisica;
+        private boolean devuelta;
+
+        ConexionPrestada(Connection fisica) {
+            this.fisica = fisica;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!devuelta) {
+                            devuelta = true;
+                            devolver(fisica);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    synchronized (this) {
+                        return devuelta || fisica.isClosed();
+                    }
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPrestada[" + fisica + "]";
+                default:
+                    break;
+            }
+
+            synchronized (this) {
+                if (devuelta) {
+                    throw new SQLException("La conexión ya fue devuelta al pool");
+                }
+            }
+            Object resultado;
+            try {
+                resultado = metodo.invoke(fisica, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            int timeout = timeoutSentenciaSegundos;
+            if (timeout > 0 && resultado instanceof Statement sentencia) {
+                sentencia.setQueryTimeout(timeout);
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package dao;
+
+import config.Fragmentos;
+import entities.SeguroVehicular;
+import entities.Vehiculo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Cargador por lotes con alcance de pedido (estilo DataLoader)
+ * Junta las lecturas individuales por ID que llegan dentro de una ventana corta y las
+ * resuelve con una sola consulta leerPorIds. También memoriza los resultados, así un
+ * mismo ID pedido varias veces durante el pedido se consulta una única vez.
+ * Debe crearse una instancia por pedido y descartarse al terminar.
+ * Las consultas corren en los hilos que piden las lecturas, no en un pool propio: el
+ * primero cuya ventana vence (ver leer) despacha el lote de todos, y un lote que llega
+ * a tamanioMaximo lo despacha quien lo llenó. Los futuros de cargar se completan así o
+ * al llamar a despachar o close.
+ * Cada lectura se resuelve en el fragmento que tenía como actual el hilo que la pidió
+ * (quien despacha puede tener otro); lecturas pedidas desde fragmentos distintos van
+ * en lotes distintos.
+ *
+ * @param <T> Tipo de entidad que se carga
+ */
+public class CargadorPorLotes<T> implements AutoCloseable {
+
+    /**
+     * Función que resuelve un lote de IDs (normalmente un leerPorIds del DAO)
+     */
+    @FunctionalInterface
+    public interface FuncionLote<T> {
+        Map<Long, T> cargar(Collection<Long> ids) throws Exception;
+    }
+
+    private static final long VENTANA_POR_DEFECTO_MICROS = 1000;
+
+    private final FuncionLote<T> funcion;
+    private final long ventanaMicros;
+    private final int tamanioMaximo;
+
+    private final Map<Long, CompletableFuture<T>> resultados = new HashMap<>();
+    // Fragmento del hilo que pidió cada lectura → lecturas pendientes
+    private Map<Integer, Map<Long, CompletableFuture<T>>> pendientes = new HashMap<>();
+    private int cantidadPendientes;
+
+    public CargadorPorLotes(FuncionLote<T> funcion) {
+        this(funcion, VENTANA_POR_DEFECTO_MICROS, SqlLotes.TAMANIO_LOTE);
+    }
+
+    public CargadorPorLotes(FuncionLote<T> funcion, long ventanaMicros, int tamanioMaximo) {
+        this.funcion = funcion;
+        this.ventanaMicros = ventanaMicros;
+        this.tamanioMaximo = tamanioMaximo;
+    }
+
+    /**
+     * Cargador de vehículos sobre VehiculoDao.leerPorIds
+     */
+    public static CargadorPorLotes<Vehiculo> deVehiculos(VehiculoDao dao) {
+        return new CargadorPorLotes<>(dao::leerPorIds);
+    }
+
+    /**
+     * Cargador de seguros sobre SeguroVehicularDao.leerPorIds
+     */
+    public static CargadorPorLotes<SeguroVehicular> deSeguros(SeguroVehicularDao dao) {
+        return new CargadorPorLotes<>(dao::leerPorIds);
+    }
+
+    /**
+     * Encola la lectura de un ID; el futuro se completa con null si el ID no existe
+     * Si con este ID el lote llega a tamanioMaximo, lo despacha en el hilo actual
+     */
+    public CompletableFuture<T> cargar(long id) {
+        CompletableFuture<T> futuro;
+        boolean lleno;
+        synchronized (this) {
+            futuro = resultados.get(id);
+            if (futuro != null) {
+                return futuro;
+            }
+
+            futuro = new CompletableFuture<>();
+            resultados.put(id, futuro);
+            pendientes.computeIfAbsent(Fragmentos.getActual(), k -> new HashMap<>()).put(id, futuro);
+            cantidadPendientes++;
+            lleno = cantidadPendientes >= tamanioMaximo;
+        }
+
+        if (lleno) {
+            despachar();
+        }
+        return futuro;
+    }
+
+    /**
+     * Encola varios IDs de una vez
+     */
+    public List<CompletableFuture<T>> cargarTodos(Collection<Long> ids) {
+        List<CompletableFuture<T>> futuros = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            futuros.add(cargar(id));
+        }
+        return futuros;
+    }
+
+    /**
+     * Lectura bloqueante de un ID (se agrupa con las demás lecturas concurrentes)
+     * Espera la ventana a que otro hilo despache el lote; si no, lo despacha este
+     */
+    public T leer(long id) throws Exception {
+        CompletableFuture<T> futuro = cargar(id);
+        try {
+            try {
+                return futuro.get(ventanaMicros, TimeUnit.MICROSECONDS);
+            } catch (TimeoutException e) {
+                despachar();
+                return futuro.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            throw causa instanceof Exception ? (Exception) causa : e;
+        }
+    }
+
+    /**
+     * Resuelve inmediatamente todas las lecturas pendientes con una sola consulta por
+     * lote y fragmento
+     */
+    public void despachar() {
+        Map<Integer, Map<Long, CompletableFuture<T>>> porFragmento;
+        synchronized (this) {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            porFragmento = pendientes;
+            pendientes = new HashMap<>();
+            cantidadPendientes = 0;
+        }
+
+        for (Map.Entry<Integer, Map<Long, CompletableFuture<T>>> parte : porFragmento.entrySet()) {
+            despacharFragmento(parte.getKey(), parte.getValue());
+        }
+    }
+
+    private void despacharFragmento(int fragmento, Map<Long, CompletableFuture<T>> lote) {
+        try {
+            Map<Long, T> encontrados = Fragmentos.en(fragmento, () -> funcion.cargar(lote.keySet()));
+            for (Map.Entry<Long, CompletableFuture<T>> entrada : lote.entrySet()) {
+                entrada.getValue().complete(encontrados.get(entrada.getKey()));
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                // No memorizar errores: un pedido posterior puede reintentar
+                resultados.keySet().removeAll(lote.keySet());
+            }
+            for (CompletableFuture<T> futuro : lote.values()) {
+                futuro.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Despacha lo pendiente y descarta los resultados memorizados
+     */
+    @Override
+    public void close() {
+        despachar();
+        synchronized (this) {
+            resultados.clear();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package dao;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catálogo de las sentencias SQL declaradas como constantes en los DAOs
+ * Lo usan las herramientas que necesitan recorrer todo el SQL de la aplicación
+ * (análisis de planes de ejecución, preparación anticipada de sentencias)
+ */
+public final class CatalogoSql {
+
+    /**
+     * DAOs cuyas constantes SQL forman parte del catálogo
+     */
+    public static final List<Class<?>> DAOS = Collections.unmodifiableList(Arrays.asList(
+        VehiculoDao.class,
+        SeguroVehicularDao.class
+    ));
+
+    /**
+     * Cantidad de marcadores usada al expandir las plantillas IN (%s)
+     */
+    private static final int MARCADORES_PLANTILLA = 3;
+
+    private CatalogoSql() {
+    }
+
+    /**
+     * Devuelve las sentencias de todos los DAOs con clave "Dao.CONSTANTE"
+     * Las plantillas con lista IN (%s) se expanden con una cantidad fija de marcadores
+     */
+    public static Map<String, String> consultas() {
+        Map<String, String> consultas = new LinkedHashMap<>();
+        for (Class<?> dao : DAOS) {
+            consultas.putAll(consultasDe(dao));
+        }
+        return consultas;
+    }
+
+    /**
+     * Devuelve las sentencias SQL declaradas en un DAO
+     */
+    public static Map<String, String> consultasDe(Class<?> dao) {
+        Map<String, String> consultas = new LinkedHashMap<>();
+
+        for (Field campo : dao.getDeclaredFields()) {
+            int mod = campo.getModifiers();
+            if (!Modifier.isStatic(mod) || !Modifier.isFinal(mod) || campo.getType() != String.class) {
+                continue;
+            }
+
+            try {
+                campo.setAccessible(true);
+                String sql = (String) campo.get(null);
+                if (esSentenciaSql(sql)) {
+                    if (sql.contains("%s")) {
+                        sql = String.format(sql, SqlLotes.marcadores(MARCADORES_PLANTILLA));
+                    }
+                    consultas.put(dao.getSimpleName() + "." + campo.getName(), sql);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("No se pudo leer " + campo, e);
+            }
+        }
+
+        return consultas;
+    }
+
+    private static boolean esSentenciaSql(String texto) {
+        if (texto == null) {
+            return false;
+        }
+        String inicio = texto.stripLeading().toUpperCase();
+        return inicio.startsWith("SELECT ") || inicio.startsWith("INSERT ")
+            || inicio.startsWith("UPDATE ") || inicio.startsWith("DELETE ");
+    }
+}
@@ -0,0 +1,16 @@
+package dao;
+
+/**
+ * Callback que recibe las filas de una consulta a medida que se leen del cursor
+ * Permite recorrer tablas grandes sin materializar una lista completa en memoria
+ *
+ * @param <T> Tipo de fila que entrega el DAO
+ */
+@FunctionalInterface
+public interface ProcesadorFilas<T> {
+
+    /**
+     * Procesa una fila leída del ResultSet
+     */
+    void procesar(T fila) throws Exception;
+}
@@ -2,11 +2,17 @@ package dao;
 
 import config.DatabaseConnection;
 import entities.Cobertura;
+import entities.SeguroResumen;
 import entities.SeguroVehicular;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 
 /**
  * DAO para la entidad SeguroVehicular
@@ -14,19 +20,57 @@ import java.util.List;
  */
 public class SeguroVehicularDao implements GenericDao<SeguroVehicular> {
     
+    /**
+     * Resultado de un upsert por número de póliza
+     */
+    public record ResultadoUpsert(int insertados, int actualizados, int sinCambios) {
+        
+        public static final ResultadoUpsert VACIO = new ResultadoUpsert(0, 0, 0);
+        
+        public ResultadoUpsert sumar(ResultadoUpsert otro) {
+            return new ResultadoUpsert(insertados + otro.insertados, actualizados + otro.actualizados, 
+                                       sinCambios + otro.sinCambios);
+        }
+        
+        public int total() {
+            return insertados + actualizados + sinCambios;
+        }
+    }
+    
     // Consultas SQL
     private static final String INSERT = 
         "INSERT INTO seguro_vehicular (aseguradora, nro_poliza, cobertura, vencimiento, eliminado) " +
         "VALUES (?, ?, ?, ?, ?)";
     
+    // Copia de un seguro que se muda de fragmento: conserva el ID
+    private static final String INSERT_CON_ID = 
+        "INSERT INTO seguro_vehicular (id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private static final String DELETE_FISICO = 
+        "DELETE FROM seguro_vehicular WHERE id = ?";
+    
     private static final String SELECT_BY_ID = 
         "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
         "FROM seguro_vehicular WHERE id = ?";
     
+    private static final String SELECT_BY_ID_FOR_UPDATE = 
+        "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
+        "FROM seguro_vehicular WHERE id = ? FOR UPDATE";
+    
+    private static final String SELECT_BY_IDS = 
+        "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
+        "FROM seguro_vehicular WHERE id IN (%s)";
+    
     private static final String SELECT_ALL = 
         "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
         "FROM seguro_vehicular WHERE eliminado = FALSE ORDER BY id";
     
+    // Paginado por clave (keyset): cada página sigue al último ID de la anterior
+    private static final String SELECT_PAGINA = 
+        "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
+        "FROM seguro_vehicular WHERE eliminado = FALSE AND id > ? ORDER BY id LIMIT ?";
+    
     private static final String UPDATE = 
         "UPDATE seguro_vehicular SET aseguradora = ?, nro_poliza = ?, cobertura = ?, " +
         "vencimiento = ?, eliminado = ? WHERE id = ?";
@@ -38,6 +82,72 @@ public class SeguroVehicularDao implements GenericDao<SeguroVehicular> {
         "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
         "FROM seguro_vehicular WHERE nro_poliza = ? AND eliminado = FALSE";
     
+    // Incluye los eliminados: la restricción UNIQUE de nro_poliza abarca todas las filas
+    private static final String SELECT_BY_POLIZAS_FOR_UPDATE = 
+        "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
+        "FROM seguro_vehicular WHERE nro_poliza IN (%s) FOR UPDATE";
+    
+    // Una póliza recibida del archivo de la aseguradora queda activa aunque estuviera dada de baja
+    private static final String UPSERT_BY_POLIZA = 
+        "INSERT INTO seguro_vehicular (aseguradora, nro_poliza, cobertura, vencimiento, eliminado) " +
+        "VALUES (?, ?, ?, ?, FALSE) AS nuevo " +
+        "ON DUPLICATE KEY UPDATE aseguradora = nuevo.aseguradora, cobertura = nuevo.cobertura, " +
+        "vencimiento = nuevo.vencimiento, eliminado = FALSE";
+    
+    private static final String SELECT_IDS_BY_POLIZAS = 
+        "SELECT id, nro_poliza FROM seguro_vehicular WHERE nro_poliza IN (%s)";
+    
+    // Mismo criterio que la validación del servicio: solo cuentan los vehículos activos
+    private static final String SELECT_DISPONIBLES = 
+        "SELECT s.id, s.nro_poliza, s.aseguradora FROM seguro_vehicular s " +
+        "WHERE s.eliminado = FALSE AND NOT EXISTS " +
+        "(SELECT 1 FROM vehiculo v WHERE v.seguro_id = s.id AND v.eliminado = FALSE) " +
+        "ORDER BY s.id";
+    
+    // Bajas anteriores al corte que ya no están referenciadas por ningún vehículo
+    private static final String SELECT_IDS_ARCHIVABLES = 
+        "SELECT s.id FROM seguro_vehicular s " +
+        "WHERE s.id > ? AND s.eliminado = TRUE AND s.actualizado < ? " +
+        "AND NOT EXISTS (SELECT 1 FROM vehiculo v WHERE v.seguro_id = s.id) " +
+        "ORDER BY s.id LIMIT ?";
+    
+    private static final String INSERT_ARCHIVO = 
+        "INSERT INTO seguro_vehicular_archivo " +
+        "(id, eliminado, aseguradora, nro_poliza, cobertura, vencimiento, actualizado) " +
+        "SELECT s.id, s.eliminado, s.aseguradora, s.nro_poliza, s.cobertura, s.vencimiento, s.actualizado " +
+        "FROM seguro_vehicular s WHERE s.id IN (%s) AND s.eliminado = TRUE " +
+        "AND NOT EXISTS (SELECT 1 FROM vehiculo v WHERE v.seguro_id = s.id)";
+    
+    private static final String DELETE_ARCHIVADOS = 
+        "DELETE FROM seguro_vehicular WHERE id IN (%s) AND eliminado = TRUE " +
+        "AND NOT EXISTS (SELECT 1 FROM vehiculo v WHERE v.seguro_id = seguro_vehicular.id)";
+    
+    private static final String SELECT_ARCHIVADO_BY_ID = 
+        "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
+        "FROM seguro_vehicular_archivo WHERE id = ?";
+    
+    // Seguros activos más los eliminados que siguen asignados a un vehículo activo
+    private static final String SELECT_ACTIVOS_O_ASIGNADOS = 
+        "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
+        "FROM seguro_vehicular WHERE eliminado = FALSE " +
+        "OR id IN (SELECT seguro_id FROM vehiculo WHERE eliminado = FALSE AND seguro_id IS NOT NULL) " +
+        "ORDER BY id";
+    
+    // Todos los IDs de la tabla (incluidas las bajas lógicas), para conciliar copias en memoria
+    private static final String SELECT_IDS = 
+        "SELECT id FROM seguro_vehicular";
+    
+    private static final String SELECT_MODIFICADOS_DESDE = 
+        "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
+        "FROM seguro_vehicular WHERE actualizado >= ?";
+    
+    private static final String SELECT_BY_ASEGURADORA = 
+        "SELECT id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado " +
+        "FROM seguro_vehicular WHERE aseguradora = ?";
+    
+    private static final String DELETE_LOGICAL_BY_IDS = 
+        "UPDATE seguro_vehicular SET eliminado = TRUE WHERE id IN (%s) AND eliminado = FALSE";
+    
     @Override
     public void crear(SeguroVehicular entity) throws Exception {
         try (Connection conn = DatabaseConnection.getConnection()) {
@@ -89,6 +199,92 @@ public class SeguroVehicularDao implements GenericDao<SeguroVehicular> {
         }
     }
     
+    /**
+     * Lee un seguro bloqueando su fila hasta el fin de la transacción (SELECT ... FOR UPDATE)
+     * Quien asigna un seguro a un vehículo bloquea primero el seguro y después el vehículo
+     */
+    public SeguroVehicular bloquear(long id, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_FOR_UPDATE)) {
+            stmt.setLong(1, id);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToEntity(rs);
+                }
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Inserta el seguro con su ID actual en lugar de generar uno nuevo
+     * Se usa para mudar un seguro al fragmento del vehículo al que se asigna
+     */
+    public void crearConId(SeguroVehicular entity, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_CON_ID)) {
+            stmt.setLong(1, entity.getId());
+            stmt.setString(2, entity.getAseguradora());
+            stmt.setString(3, entity.getNroPoliza());
+            stmt.setString(4, entity.getCobertura().name());
+            stmt.setDate(5, Date.valueOf(entity.getVencimiento()));
+            stmt.setBoolean(6, entity.getEliminado() != null ? entity.getEliminado() : false);
+            
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("Error al copiar el seguro, ninguna fila afectada. ID: " + entity.getId());
+            }
+        }
+    }
+    
+    /**
+     * Borra físicamente un seguro (la copia de origen de un seguro mudado de fragmento)
+     * La FK de vehiculo impide borrar un seguro asignado
+     */
+    public void borrarFisico(long id, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(DELETE_FISICO)) {
+            stmt.setLong(1, id);
+            
+            if (stmt.executeUpdate() == 0) {
+                throw new SQLException("Error al borrar el seguro, ninguna fila afectada. ID: " + id);
+            }
+        }
+    }
+    
+    /**
+     * Lee varios seguros por ID con consultas IN (...) en lotes
+     * Devuelve un mapa ID → seguro; los IDs inexistentes no aparecen en el mapa
+     */
+    public Map<Long, SeguroVehicular> leerPorIds(Collection<Long> ids) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return leerPorIds(ids, conn);
+        }
+    }
+    
+    /**
+     * Lee varios seguros por ID usando una conexión externa
+     */
+    public Map<Long, SeguroVehicular> leerPorIds(Collection<Long> ids, Connection conn) throws Exception {
+        Map<Long, SeguroVehicular> seguros = new HashMap<>();
+        
+        for (List<Long> lote : SqlLotes.dividir(ids)) {
+            String sql = String.format(SELECT_BY_IDS, SqlLotes.marcadores(lote.size()));
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setLong(i + 1, lote.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        SeguroVehicular seguro = mapResultSetToEntity(rs);
+                        seguros.put(seguro.getId(), seguro);
+                    }
+                }
+            }
+        }
+        
+        return seguros;
+    }
+    
     @Override
     public List<SeguroVehicular> leerTodos() throws Exception {
         try (Connection conn = DatabaseConnection.getConnection()) {
@@ -111,6 +307,36 @@ public class SeguroVehicularDao implements GenericDao<SeguroVehicular> {
         return seguros;
     }
     
+    /**
+     * Lee una página de seguros activos a continuación del ID indicado
+     * El costo no depende de la posición de la página (no usa OFFSET)
+     */
+    public List<SeguroVehicular> leerPagina(long desdeId, int limite) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return leerPagina(desdeId, limite, conn);
+        }
+    }
+    
+    /**
+     * Lee una página de seguros activos usando una conexión externa
+     */
+    public List<SeguroVehicular> leerPagina(long desdeId, int limite, Connection conn) throws Exception {
+        List<SeguroVehicular> seguros = new ArrayList<>(limite);
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_PAGINA)) {
+            stmt.setLong(1, desdeId);
+            stmt.setInt(2, limite);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    seguros.add(mapResultSetToEntity(rs));
+                }
+            }
+        }
+        
+        return seguros;
+    }
+    
     @Override
     public void actualizar(SeguroVehicular entity) throws Exception {
         try (Connection conn = DatabaseConnection.getConnection()) {
@@ -181,6 +407,378 @@ public class SeguroVehicularDao implements GenericDao<SeguroVehicular> {
         }
     }
     
+    /**
+     * Inserta o actualiza seguros tomando el número de póliza como clave
+     * Debe ejecutarse dentro de una transacción. Las filas existentes se leen y bloquean
+     * con una sola consulta por lote (FOR UPDATE) para clasificarlas; las que no cambiaron
+     * no se escriben, y las nuevas o modificadas se envían en un único batch de
+     * INSERT ... ON DUPLICATE KEY UPDATE, que también resuelve una inserción concurrente
+     * de la misma póliza. Al terminar, cada entidad queda con su ID asignado.
+     * Si la misma póliza aparece varias veces (sin distinguir mayúsculas), se toma la primera.
+     */
+    public ResultadoUpsert upsertPorPoliza(Collection<SeguroVehicular> seguros, Connection conn) throws Exception {
+        return upsertPorPoliza(seguros, conn, null, null);
+    }
+    
+    /**
+     * Igual que upsertPorPoliza, agregando a las listas indicadas (si no son null)
+     * los seguros que efectivamente se insertaron o se modificaron
+     */
+    public ResultadoUpsert upsertPorPoliza(Collection<SeguroVehicular> seguros, Connection conn,
+                                           List<SeguroVehicular> insertados, 
+                                           List<SeguroVehicular> actualizados) throws Exception {
+        // Igual que al buscar las existentes: pólizas que solo difieren en mayúsculas son la misma
+        Map<String, SeguroVehicular> porPoliza = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (SeguroVehicular seguro : seguros) {
+            porPoliza.putIfAbsent(seguro.getNroPoliza(), seguro);
+        }
+        
+        ResultadoUpsert resultado = ResultadoUpsert.VACIO;
+        for (List<String> lote : SqlLotes.dividir(porPoliza.keySet())) {
+            resultado = resultado.sumar(upsertLote(lote, porPoliza, conn, insertados, actualizados));
+        }
+        return resultado;
+    }
+    
+    private ResultadoUpsert upsertLote(List<String> polizas, Map<String, SeguroVehicular> porPoliza, 
+                                       Connection conn, List<SeguroVehicular> insertados,
+                                       List<SeguroVehicular> actualizados) throws Exception {
+        // La columna usa una collation que no distingue mayúsculas
+        Map<String, SeguroVehicular> existentes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        try (PreparedStatement stmt = conn.prepareStatement(
+                String.format(SELECT_BY_POLIZAS_FOR_UPDATE, SqlLotes.marcadores(polizas.size())))) {
+            for (int i = 0; i < polizas.size(); i++) {
+                stmt.setString(i + 1, polizas.get(i));
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    SeguroVehicular existente = mapResultSetToEntity(rs);
+                    existentes.put(existente.getNroPoliza(), existente);
+                }
+            }
+        }
+        
+        int sinCambios = 0;
+        List<SeguroVehicular> nuevos = new ArrayList<>();
+        List<SeguroVehicular> modificados = new ArrayList<>();
+        List<SeguroVehicular> aEscribir = new ArrayList<>();
+        
+        for (String poliza : polizas) {
+            SeguroVehicular seguro = porPoliza.get(poliza);
+            SeguroVehicular existente = existentes.get(poliza);
+            seguro.setEliminado(false);
+            
+            if (existente == null) {
+                seguro.setId(null);
+                nuevos.add(seguro);
+            } else {
+                seguro.setId(existente.getId());
+                if (mismosDatos(existente, seguro)) {
+                    sinCambios++;
+                    continue;
+                }
+                modificados.add(seguro);
+            }
+            aEscribir.add(seguro);
+        }
+        
+        if (!aEscribir.isEmpty()) {
+            upsertEnLote(aEscribir, conn);
+        }
+        
+        if (insertados != null) {
+            insertados.addAll(nuevos);
+        }
+        if (actualizados != null) {
+            actualizados.addAll(modificados);
+        }
+        
+        return new ResultadoUpsert(nuevos.size(), modificados.size(), sinCambios);
+    }
+    
+    /**
+     * IDs de las pólizas indicadas que existen (incluidas las dadas de baja)
+     * Devuelve un mapa póliza → ID que no distingue mayúsculas, como la columna
+     */
+    public Map<String, Long> buscarIdsPorPolizas(Collection<String> polizas, Connection conn) throws Exception {
+        Map<String, Long> ids = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (List<String> lote : SqlLotes.dividir(polizas)) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    String.format(SELECT_IDS_BY_POLIZAS, SqlLotes.marcadores(lote.size())))) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setString(i + 1, lote.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.put(rs.getString("nro_poliza"), rs.getLong("id"));
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * Completa el ID de los seguros recién insertados buscándolos por póliza
+     */
+    private void asignarIdsPorPoliza(List<SeguroVehicular> seguros, Connection conn) throws SQLException {
+        Map<String, SeguroVehicular> sinId = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (SeguroVehicular seguro : seguros) {
+            if (seguro.getId() == null) {
+                sinId.put(seguro.getNroPoliza(), seguro);
+            }
+        }
+        
+        for (List<String> lote : SqlLotes.dividir(sinId.keySet())) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    String.format(SELECT_IDS_BY_POLIZAS, SqlLotes.marcadores(lote.size())))) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setString(i + 1, lote.get(i));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        SeguroVehicular seguro = sinId.get(rs.getString("nro_poliza"));
+                        if (seguro != null) {
+                            seguro.setId(rs.getLong("id"));
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Compara los datos que escribe el upsert (una fila dada de baja nunca es igual)
+     */
+    private static boolean mismosDatos(SeguroVehicular existente, SeguroVehicular seguro) {
+        return !Boolean.TRUE.equals(existente.getEliminado())
+            && Objects.equals(existente.getAseguradora(), seguro.getAseguradora())
+            && existente.getCobertura() == seguro.getCobertura()
+            && Objects.equals(existente.getVencimiento(), seguro.getVencimiento());
+    }
+    
+    /**
+     * Lee un seguro por ID buscando también en la tabla de archivo
+     */
+    public SeguroVehicular leerIncluyendoArchivo(long id) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return leerIncluyendoArchivo(id, conn);
+        }
+    }
+    
+    /**
+     * Lee un seguro por ID buscando también en la tabla de archivo, usando una conexión externa
+     */
+    public SeguroVehicular leerIncluyendoArchivo(long id, Connection conn) throws Exception {
+        SeguroVehicular seguro = leer(id, conn);
+        return seguro != null ? seguro : leerArchivado(id, conn);
+    }
+    
+    /**
+     * Lee un seguro de la tabla de archivo
+     */
+    public SeguroVehicular leerArchivado(long id, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_ARCHIVADO_BY_ID)) {
+            stmt.setLong(1, id);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToEntity(rs);
+                }
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Busca el siguiente lote de IDs archivables: bajas anteriores al corte que no están
+     * referenciadas por ningún vehículo (recorrido por clave primaria a partir de desdeId)
+     */
+    public List<Long> idsArchivables(Timestamp corte, long desdeId, int limite, Connection conn) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_IDS_ARCHIVABLES)) {
+            stmt.setLong(1, desdeId);
+            stmt.setTimestamp(2, corte);
+            stmt.setInt(3, limite);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        
+        return ids;
+    }
+    
+    /**
+     * Copia los seguros indicados a la tabla de archivo y los borra de la tabla principal
+     * Debe ejecutarse dentro de una transacción: si alguna fila dejó de ser archivable
+     * (por ejemplo, se asignó a un vehículo) se lanza una excepción para hacer rollback
+     */
+    public int archivar(List<Long> ids, Connection conn) throws Exception {
+        int copiados = SqlLotes.ejecutarConIds(conn, INSERT_ARCHIVO, ids);
+        int borrados = SqlLotes.ejecutarConIds(conn, DELETE_ARCHIVADOS, ids);
+        
+        if (copiados != borrados) {
+            throw new SQLException("Los seguros a archivar cambiaron durante el proceso (copiados: " + 
+                                   copiados + ", borrados: " + borrados + ")");
+        }
+        return borrados;
+    }
+    
+    /**
+     * Lista los seguros activos que no están asignados a ningún vehículo activo
+     */
+    public List<SeguroResumen> listarDisponibles() throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return listarDisponibles(conn);
+        }
+    }
+    
+    /**
+     * Lista los seguros disponibles usando una conexión externa
+     */
+    public List<SeguroResumen> listarDisponibles(Connection conn) throws Exception {
+        List<SeguroResumen> disponibles = new ArrayList<>();
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_DISPONIBLES);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                disponibles.add(new SeguroResumen(
+                    rs.getLong("id"),
+                    rs.getString("nro_poliza"),
+                    rs.getString("aseguradora")));
+            }
+        }
+        
+        return disponibles;
+    }
+    
+    /**
+     * Recorre en modo streaming los seguros activos y los eliminados que siguen
+     * asignados a algún vehículo activo, usando una conexión externa
+     */
+    public long recorrerActivosOAsignados(ProcesadorFilas<SeguroVehicular> procesador, 
+                                          Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_ACTIVOS_O_ASIGNADOS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            return recorrer(stmt, procesador);
+        }
+    }
+    
+    /**
+     * Recorre los seguros (incluidos los eliminados) modificados a partir del instante indicado
+     */
+    public long recorrerModificadosDesde(Timestamp desde, ProcesadorFilas<SeguroVehicular> procesador, 
+                                         Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_MODIFICADOS_DESDE,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setTimestamp(1, desde);
+            return recorrer(stmt, procesador);
+        }
+    }
+    
+    /**
+     * Recorre en modo streaming los IDs de todos los seguros de la tabla, incluidas las bajas
+     * lógicas (no los archivados)
+     */
+    public long recorrerIds(ProcesadorFilas<Long> procesador, Connection conn) throws Exception {
+        long filas = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_IDS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(DatabaseConnection.tamanioFetchStreaming());
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    procesador.procesar(rs.getLong("id"));
+                    filas++;
+                }
+            }
+        }
+        return filas;
+    }
+    
+    /**
+     * Recorre en modo streaming todos los seguros de una aseguradora (incluidos los eliminados)
+     */
+    public long recorrerPorAseguradora(String aseguradora, ProcesadorFilas<SeguroVehicular> procesador, 
+                                       Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ASEGURADORA,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setString(1, aseguradora);
+            return recorrer(stmt, procesador);
+        }
+    }
+    
+    /**
+     * Actualiza varios seguros por ID en un único batch
+     */
+    public void actualizarEnLote(List<SeguroVehicular> seguros, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(UPDATE)) {
+            for (SeguroVehicular entity : seguros) {
+                stmt.setString(1, entity.getAseguradora());
+                stmt.setString(2, entity.getNroPoliza());
+                stmt.setString(3, entity.getCobertura().name());
+                stmt.setDate(4, Date.valueOf(entity.getVencimiento()));
+                stmt.setBoolean(5, entity.getEliminado());
+                stmt.setLong(6, entity.getId());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+    
+    /**
+     * Inserta varios seguros en un único batch de INSERT ... ON DUPLICATE KEY UPDATE
+     * Si la póliza ya existe (por ejemplo, registrada con otra aseguradora) se actualiza.
+     * Los seguros que no tenían ID quedan con el ID de su fila.
+     */
+    public void upsertEnLote(List<SeguroVehicular> seguros, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_BY_POLIZA)) {
+            for (SeguroVehicular seguro : seguros) {
+                stmt.setString(1, seguro.getAseguradora());
+                stmt.setString(2, seguro.getNroPoliza());
+                stmt.setString(3, seguro.getCobertura().name());
+                stmt.setDate(4, Date.valueOf(seguro.getVencimiento()));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        
+        asignarIdsPorPoliza(seguros, conn);
+    }
+    
+    /**
+     * Baja lógica de varios seguros; devuelve la cantidad que estaba activa
+     */
+    public int eliminarEnLote(Collection<Long> ids, Connection conn) throws Exception {
+        int eliminados = 0;
+        for (List<Long> lote : SqlLotes.dividir(ids)) {
+            eliminados += SqlLotes.ejecutarConIds(conn, DELETE_LOGICAL_BY_IDS, lote);
+        }
+        return eliminados;
+    }
+    
+    /**
+     * Ejecuta una consulta de seguros en modo streaming (ver DatabaseConnection.tamanioFetchStreaming)
+     */
+    private long recorrer(PreparedStatement stmt, ProcesadorFilas<SeguroVehicular> procesador) throws Exception {
+        long filas = 0;
+        stmt.setFetchSize(DatabaseConnection.tamanioFetchStreaming());
+        
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                procesador.procesar(mapResultSetToEntity(rs));
+                filas++;
+            }
+        }
+        
+        return filas;
+    }
+    
     /**
      * Mapea un ResultSet a una entidad SeguroVehicular
      */
@@ -0,0 +1,74 @@
+package dao;
+
+import config.Configuracion;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Utilidades para consultas con listas IN (...) divididas en lotes
+ */
+final class SqlLotes {
+
+    /**
+     * Cantidad máxima de parámetros por consulta IN
+     * Mantiene las sentencias cortas y permite reutilizar el mismo SQL en todos los lotes completos
+     */
+    static final int TAMANIO_LOTE = 500;
+
+    private SqlLotes() {
+    }
+
+    /**
+     * Genera "?, ?, ..., ?" con la cantidad de marcadores indicada
+     */
+    static String marcadores(int cantidad) {
+        StringBuilder sb = new StringBuilder(cantidad * 3);
+        for (int i = 0; i < cantidad; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Ejecuta una sentencia de modificación cuya plantilla tiene una lista IN (%s) de IDs
+     * Devuelve la cantidad de filas afectadas
+     */
+    static int ejecutarConIds(Connection conn, String plantilla, List<Long> ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(plantilla, marcadores(ids.size())))) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setLong(i + 1, ids.get(i));
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Quita duplicados y nulos y divide los valores en lotes de TAMANIO_LOTE
+     * (o de sql.lote.in si está configurado)
+     */
+    static <T> List<List<T>> dividir(Collection<T> valores) {
+        if (valores == null || valores.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<T> unicos = new ArrayList<>(new LinkedHashSet<>(valores));
+        unicos.remove(null);
+
+        int tamanio = Math.max(1, Configuracion.getInstancia().getEntero("sql.lote.in", TAMANIO_LOTE));
+        List<List<T>> lotes = new ArrayList<>();
+        for (int desde = 0; desde < unicos.size(); desde += tamanio) {
+            lotes.add(unicos.subList(desde, Math.min(desde + tamanio, unicos.size())));
+        }
+        return lotes;
+    }
+}
@@ -1,12 +1,18 @@
 package dao;
 
 import config.DatabaseConnection;
+import entities.Cobertura;
 import entities.SeguroVehicular;
 import entities.Vehiculo;
+import entities.VehiculoResumen;
 
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DAO para la entidad Vehiculo
@@ -26,6 +32,22 @@ public class VehiculoDao implements GenericDao<Vehiculo> {
         "SELECT id, dominio, marca, modelo, anio, nro_chasis, seguro_id, eliminado " +
         "FROM vehiculo WHERE id = ?";
     
+    private static final String SELECT_BY_ID_FOR_UPDATE = 
+        "SELECT id, dominio, marca, modelo, anio, nro_chasis, seguro_id, eliminado " +
+        "FROM vehiculo WHERE id = ? FOR UPDATE";
+    
+    // Usa el índice único uk_vehiculo_seguro_id
+    private static final String SELECT_BY_SEGURO_FOR_UPDATE = 
+        "SELECT id, dominio, marca, modelo, anio, nro_chasis, seguro_id, eliminado " +
+        "FROM vehiculo WHERE seguro_id = ? FOR UPDATE";
+    
+    private static final String UPDATE_SEGURO = 
+        "UPDATE vehiculo SET seguro_id = ? WHERE id = ? AND eliminado = FALSE";
+    
+    private static final String SELECT_BY_IDS = 
+        "SELECT id, dominio, marca, modelo, anio, nro_chasis, seguro_id, eliminado " +
+        "FROM vehiculo WHERE id IN (%s)";
+    
     private static final String SELECT_ALL = 
         "SELECT id, dominio, marca, modelo, anio, nro_chasis, seguro_id, eliminado " +
         "FROM vehiculo WHERE eliminado = FALSE ORDER BY id";
@@ -45,6 +67,93 @@ public class VehiculoDao implements GenericDao<Vehiculo> {
         "SELECT id, dominio, marca, modelo, anio, nro_chasis, seguro_id, eliminado " +
         "FROM vehiculo WHERE nro_chasis = ? AND eliminado = FALSE";
     
+    // Solo las claves naturales, para armar índices de existencia en memoria
+    private static final String SELECT_CLAVES_ACTIVAS = 
+        "SELECT id, dominio, nro_chasis FROM vehiculo WHERE eliminado = FALSE";
+    
+    private static final String SELECT_ALL_CON_SEGURO = 
+        "SELECT v.id, v.dominio, v.marca, v.modelo, v.anio, v.nro_chasis, v.seguro_id, v.eliminado, " +
+        "s.aseguradora, s.nro_poliza, s.cobertura, s.vencimiento, s.eliminado AS seguro_eliminado " +
+        "FROM vehiculo v LEFT JOIN seguro_vehicular s ON s.id = v.seguro_id " +
+        "WHERE v.eliminado = FALSE ORDER BY v.id";
+    
+    private static final String SELECT_CON_SEGURO_BY_DOMINIOS = 
+        "SELECT v.id, v.dominio, v.marca, v.modelo, v.anio, v.nro_chasis, v.seguro_id, v.eliminado, " +
+        "s.aseguradora, s.nro_poliza, s.cobertura, s.vencimiento, s.eliminado AS seguro_eliminado " +
+        "FROM vehiculo v LEFT JOIN seguro_vehicular s ON s.id = v.seguro_id " +
+        "WHERE v.eliminado = FALSE AND v.dominio IN (%s)";
+    
+    // Paginado por clave (keyset): cada página sigue al último ID de la anterior
+    private static final String SELECT_PAGINA_CON_SEGURO = 
+        "SELECT v.id, v.dominio, v.marca, v.modelo, v.anio, v.nro_chasis, v.seguro_id, v.eliminado, " +
+        "s.aseguradora, s.nro_poliza, s.cobertura, s.vencimiento, s.eliminado AS seguro_eliminado " +
+        "FROM vehiculo v LEFT JOIN seguro_vehicular s ON s.id = v.seguro_id " +
+        "WHERE v.eliminado = FALSE AND v.id > ? ORDER BY v.id LIMIT ?";
+    
+    // Vehículos activos sin seguro o con el seguro vencido a una fecha. Va en dos ramas
+    // para que cada una use su índice: seguro_id IS NULL por uk_vehiculo_seguro_id y
+    // vencimiento < ? por idx_seguro_vencimiento (un OR sobre el LEFT JOIN recorre toda la tabla)
+    private static final String SELECT_SIN_COBERTURA = 
+        "SELECT v.id, v.dominio, v.marca, v.modelo, v.anio, v.nro_chasis, v.seguro_id, v.eliminado, " +
+        "NULL AS aseguradora, NULL AS nro_poliza, NULL AS cobertura, NULL AS vencimiento, NULL AS seguro_eliminado " +
+        "FROM vehiculo v WHERE v.seguro_id IS NULL AND v.eliminado = FALSE " +
+        "UNION ALL " +
+        "SELECT v.id, v.dominio, v.marca, v.modelo, v.anio, v.nro_chasis, v.seguro_id, v.eliminado, " +
+        "s.aseguradora, s.nro_poliza, s.cobertura, s.vencimiento, s.eliminado AS seguro_eliminado " +
+        "FROM seguro_vehicular s JOIN vehiculo v ON v.seguro_id = s.id " +
+        "WHERE s.vencimiento < ? AND v.eliminado = FALSE";
+    
+    // Misma consulta paginada por clave: cada rama corta en el límite antes de unirse
+    private static final String SELECT_SIN_COBERTURA_PAGINA = 
+        "(SELECT v.id, v.dominio, v.marca, v.modelo, v.anio, v.nro_chasis, v.seguro_id, v.eliminado, " +
+        "NULL AS aseguradora, NULL AS nro_poliza, NULL AS cobertura, NULL AS vencimiento, NULL AS seguro_eliminado " +
+        "FROM vehiculo v WHERE v.seguro_id IS NULL AND v.eliminado = FALSE AND v.id > ? " +
+        "ORDER BY v.id LIMIT ?) " +
+        "UNION ALL " +
+        "(SELECT v.id, v.dominio, v.marca, v.modelo, v.anio, v.nro_chasis, v.seguro_id, v.eliminado, " +
+        "s.aseguradora, s.nro_poliza, s.cobertura, s.vencimiento, s.eliminado AS seguro_eliminado " +
+        "FROM seguro_vehicular s JOIN vehiculo v ON v.seguro_id = s.id " +
+        "WHERE s.vencimiento < ? AND v.eliminado = FALSE AND v.id > ? ORDER BY v.id LIMIT ?) " +
+        "ORDER BY id LIMIT ?";
+    
+    private static final String SELECT_RESUMENES = 
+        "SELECT v.id, v.dominio, v.marca, v.modelo, s.nro_poliza " +
+        "FROM vehiculo v LEFT JOIN seguro_vehicular s ON s.id = v.seguro_id " +
+        "WHERE v.eliminado = FALSE ORDER BY v.id";
+    
+    private static final String SELECT_IDS_ARCHIVABLES = 
+        "SELECT id FROM vehiculo WHERE id > ? AND eliminado = TRUE AND actualizado < ? " +
+        "ORDER BY id LIMIT ?";
+    
+    private static final String INSERT_ARCHIVO = 
+        "INSERT INTO vehiculo_archivo " +
+        "(id, eliminado, dominio, marca, modelo, anio, nro_chasis, seguro_id, actualizado) " +
+        "SELECT id, eliminado, dominio, marca, modelo, anio, nro_chasis, seguro_id, actualizado " +
+        "FROM vehiculo WHERE id IN (%s) AND eliminado = TRUE";
+    
+    private static final String DELETE_ARCHIVADOS = 
+        "DELETE FROM vehiculo WHERE id IN (%s) AND eliminado = TRUE";
+    
+    private static final String SELECT_ARCHIVADO_BY_ID = 
+        "SELECT id, dominio, marca, modelo, anio, nro_chasis, seguro_id, eliminado " +
+        "FROM vehiculo_archivo WHERE id = ?";
+    
+    private static final String SELECT_ARCHIVADOS_BY_DOMINIO = 
+        "SELECT id, dominio, marca, modelo, anio, nro_chasis, seguro_id, eliminado " +
+        "FROM vehiculo_archivo WHERE dominio = ? ORDER BY id";
+    
+    // Incluye vehículos eliminados para poder quitarlos de los modelos en memoria
+    private static final String SELECT_MODIFICADOS_DESDE_CON_SEGURO = 
+        "SELECT v.id, v.dominio, v.marca, v.modelo, v.anio, v.nro_chasis, v.seguro_id, v.eliminado, " +
+        "s.aseguradora, s.nro_poliza, s.cobertura, s.vencimiento, s.eliminado AS seguro_eliminado " +
+        "FROM vehiculo v LEFT JOIN seguro_vehicular s ON s.id = v.seguro_id " +
+        "WHERE v.actualizado >= ? " +
+        "UNION " +
+        "SELECT v.id, v.dominio, v.marca, v.modelo, v.anio, v.nro_chasis, v.seguro_id, v.eliminado, " +
+        "s.aseguradora, s.nro_poliza, s.cobertura, s.vencimiento, s.eliminado AS seguro_eliminado " +
+        "FROM seguro_vehicular s JOIN vehiculo v ON v.seguro_id = s.id " +
+        "WHERE s.actualizado >= ?";
+    
     /**
      * Constructor
      */
@@ -118,6 +227,102 @@ public class VehiculoDao implements GenericDao<Vehiculo> {
         }
     }
     
+    /**
+     * Lee un vehículo bloqueando su fila hasta el fin de la transacción (SELECT ... FOR UPDATE)
+     * El seguro queda referenciado solo por ID, sin otra consulta
+     */
+    public Vehiculo bloquear(long id, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_BY_ID_FOR_UPDATE)) {
+            stmt.setLong(1, id);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Vehiculo vehiculo = mapearVehiculo(rs);
+                long seguroId = rs.getLong("seguro_id");
+                if (!rs.wasNull() && seguroId > 0) {
+                    SeguroVehicular seguro = new SeguroVehicular();
+                    seguro.setId(seguroId);
+                    vehiculo.setSeguro(seguro);
+                }
+                return vehiculo;
+            }
+        }
+    }
+    
+    /**
+     * Busca y bloquea el vehículo (activo o no) que tiene asignado el seguro indicado
+     * Al ser una lectura con bloqueo ve el último valor confirmado, aunque la transacción
+     * ya haya leído antes con otra vista
+     */
+    public Vehiculo bloquearPorSeguro(long seguroId, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_BY_SEGURO_FOR_UPDATE)) {
+            stmt.setLong(1, seguroId);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? mapearVehiculo(rs) : null;
+            }
+        }
+    }
+    
+    /**
+     * Cambia solo el seguro de un vehículo activo (null para quitarlo)
+     * Devuelve false si el vehículo no existe o está eliminado
+     */
+    public boolean actualizarSeguro(long vehiculoId, Long seguroId, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(UPDATE_SEGURO)) {
+            if (seguroId != null) {
+                stmt.setLong(1, seguroId);
+            } else {
+                stmt.setNull(1, Types.BIGINT);
+            }
+            stmt.setLong(2, vehiculoId);
+            return stmt.executeUpdate() == 1;
+        }
+    }
+    
+    /**
+     * Lee varios vehículos por ID con consultas IN (...) en lotes
+     * Los seguros asociados también se cargan en lote, sin una consulta por vehículo.
+     * Devuelve un mapa ID → vehículo; los IDs inexistentes no aparecen en el mapa
+     */
+    public Map<Long, Vehiculo> leerPorIds(Collection<Long> ids) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return leerPorIds(ids, conn);
+        }
+    }
+    
+    /**
+     * Lee varios vehículos por ID usando una conexión externa
+     */
+    public Map<Long, Vehiculo> leerPorIds(Collection<Long> ids, Connection conn) throws Exception {
+        List<Vehiculo> vehiculos = new ArrayList<>();
+        List<Long> seguroIds = new ArrayList<>();
+        
+        for (List<Long> lote : SqlLotes.dividir(ids)) {
+            String sql = String.format(SELECT_BY_IDS, SqlLotes.marcadores(lote.size()));
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setLong(i + 1, lote.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    leerFilas(rs, vehiculos, seguroIds);
+                }
+            }
+        }
+        
+        asignarSeguros(vehiculos, seguroIds, conn);
+        
+        Map<Long, Vehiculo> resultado = new HashMap<>();
+        for (Vehiculo v : vehiculos) {
+            resultado.put(v.getId(), v);
+        }
+        return resultado;
+    }
+    
     @Override
     public List<Vehiculo> leerTodos() throws Exception {
         try (Connection conn = DatabaseConnection.getConnection()) {
@@ -128,15 +333,16 @@ public class VehiculoDao implements GenericDao<Vehiculo> {
     @Override
     public List<Vehiculo> leerTodos(Connection conn) throws Exception {
         List<Vehiculo> vehiculos = new ArrayList<>();
+        List<Long> seguroIds = new ArrayList<>();
         
         try (PreparedStatement stmt = conn.prepareStatement(SELECT_ALL);
              ResultSet rs = stmt.executeQuery()) {
-            
-            while (rs.next()) {
-                vehiculos.add(mapResultSetToEntity(rs, conn));
-            }
+            leerFilas(rs, vehiculos, seguroIds);
         }
         
+        // Los seguros se cargan en lote en lugar de una consulta por vehículo
+        asignarSeguros(vehiculos, seguroIds, conn);
+        
         return vehiculos;
     }
     
@@ -225,6 +431,34 @@ public class VehiculoDao implements GenericDao<Vehiculo> {
         }
     }
     
+    /**
+     * Busca varios vehículos activos por dominio junto con su seguro, con consultas
+     * IN (...) en lotes unidas a seguro_vehicular (sin una consulta de seguro por fila)
+     * Devuelve un mapa dominio en mayúsculas → vehículo; los inexistentes no aparecen
+     */
+    public Map<String, Vehiculo> buscarPorDominiosConSeguro(Collection<String> dominios, Connection conn) throws Exception {
+        Map<String, Vehiculo> resultado = new HashMap<>();
+        
+        for (List<String> lote : SqlLotes.dividir(dominios)) {
+            String sql = String.format(SELECT_CON_SEGURO_BY_DOMINIOS, SqlLotes.marcadores(lote.size()));
+            
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < lote.size(); i++) {
+                    stmt.setString(i + 1, lote.get(i));
+                }
+                
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Vehiculo vehiculo = mapResultSetConSeguro(rs);
+                        resultado.put(vehiculo.getDominio().trim().toUpperCase(), vehiculo);
+                    }
+                }
+            }
+        }
+        
+        return resultado;
+    }
+    
     /**
      * Busca un vehículo por número de chasis
      */
@@ -250,11 +484,370 @@ public class VehiculoDao implements GenericDao<Vehiculo> {
         }
     }
     
+    /**
+     * Lee un vehículo por ID buscando también en la tabla de archivo
+     */
+    public Vehiculo leerIncluyendoArchivo(long id) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return leerIncluyendoArchivo(id, conn);
+        }
+    }
+    
+    /**
+     * Lee un vehículo por ID buscando también en la tabla de archivo, usando una conexión externa
+     */
+    public Vehiculo leerIncluyendoArchivo(long id, Connection conn) throws Exception {
+        Vehiculo vehiculo = leer(id, conn);
+        if (vehiculo != null) {
+            return vehiculo;
+        }
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_ARCHIVADO_BY_ID)) {
+            stmt.setLong(1, id);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetArchivado(rs, conn);
+                }
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Busca en la tabla de archivo todas las bajas archivadas de un dominio
+     */
+    public List<Vehiculo> buscarArchivadosPorDominio(String dominio) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return buscarArchivadosPorDominio(dominio, conn);
+        }
+    }
+    
+    /**
+     * Busca en la tabla de archivo todas las bajas archivadas de un dominio usando una conexión externa
+     */
+    public List<Vehiculo> buscarArchivadosPorDominio(String dominio, Connection conn) throws Exception {
+        List<Vehiculo> vehiculos = new ArrayList<>();
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_ARCHIVADOS_BY_DOMINIO)) {
+            stmt.setString(1, dominio);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    vehiculos.add(mapResultSetArchivado(rs, conn));
+                }
+            }
+        }
+        
+        return vehiculos;
+    }
+    
+    /**
+     * Busca el siguiente lote de IDs de vehículos dados de baja antes del corte
+     * (recorrido por clave primaria a partir de desdeId)
+     */
+    public List<Long> idsArchivables(Timestamp corte, long desdeId, int limite, Connection conn) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_IDS_ARCHIVABLES)) {
+            stmt.setLong(1, desdeId);
+            stmt.setTimestamp(2, corte);
+            stmt.setInt(3, limite);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        
+        return ids;
+    }
+    
+    /**
+     * Copia los vehículos indicados a la tabla de archivo y los borra de la tabla principal
+     * Debe ejecutarse dentro de una transacción: si alguna fila dejó de estar dada de baja
+     * se lanza una excepción para hacer rollback
+     */
+    public int archivar(List<Long> ids, Connection conn) throws Exception {
+        int copiados = SqlLotes.ejecutarConIds(conn, INSERT_ARCHIVO, ids);
+        int borrados = SqlLotes.ejecutarConIds(conn, DELETE_ARCHIVADOS, ids);
+        
+        if (copiados != borrados) {
+            throw new SQLException("Los vehículos a archivar cambiaron durante el proceso (copiados: " + 
+                                   copiados + ", borrados: " + borrados + ")");
+        }
+        return borrados;
+    }
+    
+    /**
+     * Lista los vehículos activos como proyección liviana (sin armar entidades completas)
+     */
+    public List<VehiculoResumen> listarResumenes() throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return listarResumenes(conn);
+        }
+    }
+    
+    /**
+     * Lista los vehículos activos como proyección liviana usando una conexión externa
+     */
+    public List<VehiculoResumen> listarResumenes(Connection conn) throws Exception {
+        List<VehiculoResumen> resumenes = new ArrayList<>();
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_RESUMENES);
+             ResultSet rs = stmt.executeQuery()) {
+            
+            while (rs.next()) {
+                resumenes.add(mapResultSetToResumen(rs));
+            }
+        }
+        
+        return resumenes;
+    }
+    
+    /**
+     * Lee una página de vehículos activos con su seguro, a continuación del ID indicado
+     * El costo no depende de la posición de la página (no usa OFFSET)
+     */
+    public List<Vehiculo> leerPagina(long desdeId, int limite) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return leerPagina(desdeId, limite, conn);
+        }
+    }
+    
+    /**
+     * Lee una página de vehículos activos con su seguro usando una conexión externa
+     */
+    public List<Vehiculo> leerPagina(long desdeId, int limite, Connection conn) throws Exception {
+        List<Vehiculo> vehiculos = new ArrayList<>(limite);
+        
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_PAGINA_CON_SEGURO)) {
+            stmt.setLong(1, desdeId);
+            stmt.setInt(2, limite);
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    vehiculos.add(mapResultSetConSeguro(rs));
+                }
+            }
+        }
+        
+        return vehiculos;
+    }
+    
+    /**
+     * Recorre todos los vehículos activos junto con su seguro usando un único JOIN
+     * Las filas se leen en modo streaming (ver DatabaseConnection.tamanioFetchStreaming),
+     * por lo que la memoria usada no depende del tamaño de la tabla
+     */
+    public long recorrerTodosConSeguro(ProcesadorFilas<Vehiculo> procesador) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return recorrerTodosConSeguro(procesador, conn);
+        }
+    }
+    
+    /**
+     * Recorre todos los vehículos activos con su seguro usando una conexión externa
+     * Mientras dura el recorrido la conexión no puede usarse para otras consultas
+     */
+    public long recorrerTodosConSeguro(ProcesadorFilas<Vehiculo> procesador, Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_ALL_CON_SEGURO,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            return recorrerConSeguro(stmt, procesador);
+        }
+    }
+    
+    /**
+     * Recorre el ID, dominio y chasis de los vehículos activos en modo streaming
+     * Los vehículos entregados solo tienen cargados esos tres campos
+     */
+    public long recorrerClavesActivas(ProcesadorFilas<Vehiculo> procesador, Connection conn) throws Exception {
+        long filas = 0;
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_CLAVES_ACTIVAS,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(DatabaseConnection.tamanioFetchStreaming());
+            
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Vehiculo vehiculo = new Vehiculo();
+                    vehiculo.setId(rs.getLong("id"));
+                    vehiculo.setDominio(rs.getString("dominio"));
+                    vehiculo.setNroChasis(rs.getString("nro_chasis"));
+                    procesador.procesar(vehiculo);
+                    filas++;
+                }
+            }
+        }
+        return filas;
+    }
+    
+    /**
+     * Lee una página de vehículos activos sin seguro o con el seguro vencido a la fecha
+     * indicada (vencimiento anterior a esa fecha), ordenados por ID
+     */
+    public List<Vehiculo> leerPaginaSinCobertura(LocalDate fecha, long desdeId, int limite) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SIN_COBERTURA_PAGINA)) {
+            stmt.setLong(1, desdeId);
+            stmt.setInt(2, limite);
+            stmt.setDate(3, Date.valueOf(fecha));
+            stmt.setLong(4, desdeId);
+            stmt.setInt(5, limite);
+            stmt.setInt(6, limite);
+            
+            List<Vehiculo> vehiculos = new ArrayList<>(limite);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    vehiculos.add(mapResultSetConSeguro(rs));
+                }
+            }
+            return vehiculos;
+        }
+    }
+    
+    /**
+     * Recorre en modo streaming los vehículos activos sin seguro o con el seguro vencido
+     * a la fecha indicada; las filas no llegan ordenadas
+     */
+    public long recorrerSinCobertura(LocalDate fecha, ProcesadorFilas<Vehiculo> procesador) throws Exception {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SIN_COBERTURA,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setDate(1, Date.valueOf(fecha));
+            return recorrerConSeguro(stmt, procesador);
+        }
+    }
+    
+    /**
+     * Recorre los vehículos (incluidos los eliminados) cuyo registro o cuyo seguro
+     * se modificó a partir del instante indicado, usando una conexión externa
+     */
+    public long recorrerModificadosDesde(Timestamp desde, ProcesadorFilas<Vehiculo> procesador, 
+                                         Connection conn) throws Exception {
+        try (PreparedStatement stmt = conn.prepareStatement(SELECT_MODIFICADOS_DESDE_CON_SEGURO,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setTimestamp(1, desde);
+            stmt.setTimestamp(2, desde);
+            return recorrerConSeguro(stmt, procesador);
+        }
+    }
+    
+    /**
+     * Ejecuta una consulta del JOIN vehiculo-seguro en modo streaming
+     */
+    private long recorrerConSeguro(PreparedStatement stmt, ProcesadorFilas<Vehiculo> procesador) throws Exception {
+        long filas = 0;
+        stmt.setFetchSize(DatabaseConnection.tamanioFetchStreaming());
+        
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                procesador.procesar(mapResultSetConSeguro(rs));
+                filas++;
+            }
+        }
+        
+        return filas;
+    }
+    
+    /**
+     * Mapea una fila de la proyección de listado
+     */
+    private VehiculoResumen mapResultSetToResumen(ResultSet rs) throws SQLException {
+        return new VehiculoResumen(
+            rs.getLong("id"),
+            rs.getString("dominio"),
+            rs.getString("marca"),
+            rs.getString("modelo"),
+            rs.getString("nro_poliza"));
+    }
+    
+    /**
+     * Mapea una fila del JOIN vehiculo-seguro sin consultas adicionales
+     */
+    private Vehiculo mapResultSetConSeguro(ResultSet rs) throws SQLException {
+        Vehiculo vehiculo = mapearVehiculo(rs);
+        
+        long seguroId = rs.getLong("seguro_id");
+        if (!rs.wasNull() && seguroId > 0) {
+            SeguroVehicular seguro = new SeguroVehicular();
+            seguro.setId(seguroId);
+            seguro.setEliminado(rs.getBoolean("seguro_eliminado"));
+            seguro.setAseguradora(rs.getString("aseguradora"));
+            seguro.setNroPoliza(rs.getString("nro_poliza"));
+            seguro.setCobertura(Cobertura.valueOf(rs.getString("cobertura")));
+            
+            Date vencimiento = rs.getDate("vencimiento");
+            if (vencimiento != null) {
+                seguro.setVencimiento(vencimiento.toLocalDate());
+            }
+            vehiculo.setSeguro(seguro);
+        }
+        
+        return vehiculo;
+    }
+    
+    /**
+     * Lee todas las filas de vehículos y guarda, en paralelo, el ID de seguro de cada una
+     */
+    private void leerFilas(ResultSet rs, List<Vehiculo> vehiculos, List<Long> seguroIds) throws SQLException {
+        while (rs.next()) {
+            vehiculos.add(mapearVehiculo(rs));
+            
+            long seguroId = rs.getLong("seguro_id");
+            seguroIds.add(!rs.wasNull() && seguroId > 0 ? seguroId : null);
+        }
+    }
+    
+    /**
+     * Carga en lote los seguros referenciados y los asigna a cada vehículo
+     */
+    private void asignarSeguros(List<Vehiculo> vehiculos, List<Long> seguroIds, Connection conn) throws Exception {
+        Map<Long, SeguroVehicular> seguros = seguroDao.leerPorIds(seguroIds, conn);
+        
+        for (int i = 0; i < vehiculos.size(); i++) {
+            Long seguroId = seguroIds.get(i);
+            if (seguroId != null) {
+                vehiculos.get(i).setSeguro(seguros.get(seguroId));
+            }
+        }
+    }
+    
+    /**
+     * Mapea una fila de la tabla de archivo; el seguro puede estar también archivado
+     */
+    private Vehiculo mapResultSetArchivado(ResultSet rs, Connection conn) throws Exception {
+        Vehiculo vehiculo = mapearVehiculo(rs);
+        
+        long seguroId = rs.getLong("seguro_id");
+        if (!rs.wasNull() && seguroId > 0) {
+            vehiculo.setSeguro(seguroDao.leerIncluyendoArchivo(seguroId, conn));
+        }
+        
+        return vehiculo;
+    }
+    
     /**
      * Mapea un ResultSet a una entidad Vehiculo
      * Carga también el SeguroVehicular asociado si existe
      */
     private Vehiculo mapResultSetToEntity(ResultSet rs, Connection conn) throws Exception {
+        Vehiculo vehiculo = mapearVehiculo(rs);
+        
+        // Cargar el SeguroVehicular asociado si existe
+        long seguroId = rs.getLong("seguro_id");
+        if (!rs.wasNull() && seguroId > 0) {
+            SeguroVehicular seguro = seguroDao.leer(seguroId, conn);
+            vehiculo.setSeguro(seguro);
+        }
+        
+        return vehiculo;
+    }
+    
+    /**
+     * Mapea las columnas propias de vehiculo (sin el seguro)
+     */
+    private Vehiculo mapearVehiculo(ResultSet rs) throws SQLException {
         Vehiculo vehiculo = new Vehiculo();
         
         vehiculo.setId(rs.getLong("id"));
@@ -270,13 +863,6 @@ public class VehiculoDao implements GenericDao<Vehiculo> {
         
         vehiculo.setNroChasis(rs.getString("nro_chasis"));
         
-        // Cargar el SeguroVehicular asociado si existe
-        long seguroId = rs.getLong("seguro_id");
-        if (!rs.wasNull() && seguroId > 0) {
-            SeguroVehicular seguro = seguroDao.leer(seguroId, conn);
-            vehiculo.setSeguro(seguro);
-        }
-        
         return vehiculo;
     }
-}
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package entities;
+
+/**
+ * Estado de cobertura de un dominio a la fecha de hoy
+ * Sigue la misma regla que Vehiculo.tieneSeguroVigente()
+ */
+public enum EstadoCobertura {
+    DESCONOCIDO("Dominio no registrado"),
+    SIN_SEGURO("Sin seguro asignado"),
+    VIGENTE("Seguro vigente"),
+    VENCIDO("Seguro vencido");
+
+    private final String descripcion;
+
+    EstadoCobertura(String descripcion) {
+        this.descripcion = descripcion;
+    }
+
+    public String getDescripcion() {
+        return descripcion;
+    }
+
+    /**
+     * Estado de un vehículo activo; null significa que el dominio no existe
+     */
+    public static EstadoCobertura de(Vehiculo vehiculo) {
+        if (vehiculo == null) {
+            return DESCONOCIDO;
+        }
+        if (!vehiculo.tieneSeguro()) {
+            return SIN_SEGURO;
+        }
+        return vehiculo.tieneSeguroVigente() ? VIGENTE : VENCIDO;
+    }
+
+    @Override
+    public String toString() {
+        return this.name() + " - " + descripcion;
+    }
+}
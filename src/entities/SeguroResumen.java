@@ -0,0 +1,7 @@
+package entities;
+
+/**
+ * Proyección liviana de un seguro para listados y selección
+ */
+public record SeguroResumen(long id, String nroPoliza, String aseguradora) {
+}
@@ -0,0 +1,15 @@
+package entities;
+
+/**
+ * Proyección liviana de un vehículo para listados
+ * Contiene solo las columnas que muestran las pantallas de listado
+ */
+public record VehiculoResumen(long id, String dominio, String marca, String modelo, String nroPoliza) {
+
+    /**
+     * Verifica si el vehículo tiene seguro asignado
+     */
+    public boolean tieneSeguro() {
+        return nroPoliza != null;
+    }
+}
@@ -0,0 +1,261 @@
+package eventos;
+
+import util.AnilloAcotado;
+import util.Registro;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bus de eventos en proceso para los cambios confirmados de vehículos y seguros
+ * Los servicios publican después de conn.commit(), nunca antes ni ante un rollback.
+ * Cada suscriptor tiene su propio anillo acotado sin bloqueos y un hilo que lo consume
+ * en lotes, así un suscriptor lento no frena a los servicios ni a los demás suscriptores.
+ * Si el anillo de un suscriptor se llena, los eventos nuevos se descartan para ese
+ * suscriptor y quedan contados en su suscripción.
+ * Los suscriptores sincrónicos, en cambio, procesan cada evento en el hilo que publica,
+ * antes de que publicar() retorne; son para estructuras en memoria que tienen que
+ * reflejar el cambio en cuanto termina la operación del servicio.
+ */
+public final class BusEventos {
+
+    public static final int CAPACIDAD_POR_DEFECTO = 8192;
+    public static final int TAMANIO_LOTE_POR_DEFECTO = 256;
+
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private static final BusEventos INSTANCIA = new BusEventos();
+
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+    private final List<SuscripcionSincrona> sincronas = new CopyOnWriteArrayList<>();
+    private final AtomicLong publicados = new AtomicLong();
+
+    private BusEventos() {
+    }
+
+    public static BusEventos getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Registra un suscriptor con la capacidad y el tamaño de lote por defecto
+     */
+    public Suscripcion suscribir(String nombre, SuscriptorEventos suscriptor) {
+        return suscribir(nombre, suscriptor, CAPACIDAD_POR_DEFECTO, TAMANIO_LOTE_POR_DEFECTO);
+    }
+
+    /**
+     * Registra un suscriptor; recibe solo los eventos publicados a partir de ahora
+     */
+    public Suscripcion suscribir(String nombre, SuscriptorEventos suscriptor, int capacidad, int tamanioLote) {
+        Suscripcion suscripcion = new Suscripcion(nombre, suscriptor, capacidad, tamanioLote);
+        suscripciones.add(suscripcion);
+        suscripcion.hilo.start();
+        return suscripcion;
+    }
+
+    /**
+     * Registra un suscriptor sincrónico: recibe cada evento (en un lote de uno) en el hilo
+     * que lo publica. Debe ser rápido y no bloquear, porque demora al servicio que publica.
+     */
+    public SuscripcionSincrona suscribirSincrono(String nombre, SuscriptorEventos suscriptor) {
+        SuscripcionSincrona suscripcion = new SuscripcionSincrona(nombre, suscriptor);
+        sincronas.add(suscripcion);
+        return suscripcion;
+    }
+
+    /**
+     * Publica un evento para todos los suscriptores; no lanza excepciones
+     * Primero lo procesan los suscriptores sincrónicos y después se encola para los demás
+     */
+    public void publicar(EventoEntidad evento) {
+        publicados.incrementAndGet();
+        for (SuscripcionSincrona sincrona : sincronas) {
+            sincrona.entregar(evento);
+        }
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.entregar(evento);
+        }
+    }
+
+    /**
+     * Publica varios eventos en orden
+     */
+    public void publicarTodos(List<EventoEntidad> eventos) {
+        for (EventoEntidad evento : eventos) {
+            publicar(evento);
+        }
+    }
+
+    public long getPublicados() {
+        return publicados.get();
+    }
+
+    public List<Suscripcion> getSuscripciones() {
+        return new ArrayList<>(suscripciones);
+    }
+
+    public List<SuscripcionSincrona> getSuscripcionesSincronas() {
+        return new ArrayList<>(sincronas);
+    }
+
+    /**
+     * Cancela todas las suscripciones procesando antes los eventos pendientes
+     */
+    public void cerrar() {
+        for (Suscripcion suscripcion : suscripciones) {
+            suscripcion.cancelar();
+        }
+        sincronas.clear();
+    }
+
+    /**
+     * Suscripción sincrónica: sin anillo ni hilo propio, solo contadores
+     */
+    public final class SuscripcionSincrona {
+
+        private final String nombre;
+        private final SuscriptorEventos suscriptor;
+
+        private final AtomicLong procesados = new AtomicLong();
+        private final AtomicLong errores = new AtomicLong();
+
+        private SuscripcionSincrona(String nombre, SuscriptorEventos suscriptor) {
+            this.nombre = nombre;
+            this.suscriptor = suscriptor;
+        }
+
+        private void entregar(EventoEntidad evento) {
+            try {
+                suscriptor.procesar(List.of(evento));
+                procesados.incrementAndGet();
+            } catch (Exception e) {
+                errores.incrementAndGet();
+                Registro.error("✗ Error en suscriptor de eventos '" + nombre + "': " + e.getMessage());
+            }
+        }
+
+        /**
+         * Deja de recibir eventos
+         */
+        public void cancelar() {
+            sincronas.remove(this);
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public long getProcesados() {
+            return procesados.get();
+        }
+
+        public long getErrores() {
+            return errores.get();
+        }
+    }
+
+    /**
+     * Suscripción activa: anillo propio, hilo consumidor y contadores
+     */
+    public final class Suscripcion {
+
+        private final String nombre;
+        private final SuscriptorEventos suscriptor;
+        private final AnilloAcotado<EventoEntidad> anillo;
+        private final int tamanioLote;
+        private final Thread hilo;
+
+        private final AtomicLong procesados = new AtomicLong();
+        private final AtomicLong descartados = new AtomicLong();
+        private final AtomicLong errores = new AtomicLong();
+        private volatile boolean esperando;
+        private volatile boolean activa = true;
+
+        private Suscripcion(String nombre, SuscriptorEventos suscriptor, int capacidad, int tamanioLote) {
+            this.nombre = nombre;
+            this.suscriptor = suscriptor;
+            this.anillo = new AnilloAcotado<>(capacidad);
+            this.tamanioLote = tamanioLote;
+            this.hilo = new Thread(this::consumir, "eventos-" + nombre);
+            this.hilo.setDaemon(true);
+        }
+
+        private void entregar(EventoEntidad evento) {
+            if (!anillo.ofrecer(evento)) {
+                descartados.incrementAndGet();
+                return;
+            }
+            if (esperando) {
+                LockSupport.unpark(hilo);
+            }
+        }
+
+        private void consumir() {
+            List<EventoEntidad> lote = new ArrayList<>(tamanioLote);
+
+            while (activa || !anillo.estaVacio()) {
+                if (anillo.drenar(lote, tamanioLote) == 0) {
+                    esperando = true;
+                    // Volver a mirar después de marcar la espera para no perder un unpark
+                    if (anillo.estaVacio() && activa) {
+                        LockSupport.parkNanos(this, ESPERA_MAXIMA_NANOS);
+                    }
+                    esperando = false;
+                    continue;
+                }
+
+                try {
+                    suscriptor.procesar(lote);
+                    procesados.addAndGet(lote.size());
+                } catch (Exception e) {
+                    errores.incrementAndGet();
+                    Registro.error("✗ Error en suscriptor de eventos '" + nombre + "': " + e.getMessage());
+                } finally {
+                    lote.clear();
+                }
+            }
+        }
+
+        /**
+         * Deja de recibir eventos; los ya encolados se procesan antes de terminar
+         */
+        public void cancelar() {
+            suscripciones.remove(this);
+            activa = false;
+            LockSupport.unpark(hilo);
+            if (Thread.currentThread() == hilo) {
+                return;
+            }
+            try {
+                hilo.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public String getNombre() {
+            return nombre;
+        }
+
+        public long getProcesados() {
+            return procesados.get();
+        }
+
+        public long getDescartados() {
+            return descartados.get();
+        }
+
+        public long getErrores() {
+            return errores.get();
+        }
+
+        public int getPendientes() {
+            return anillo.tamanio();
+        }
+    }
+}
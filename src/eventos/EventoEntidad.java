@@ -0,0 +1,44 @@
+package eventos;
+
+import entities.SeguroVehicular;
+import entities.Vehiculo;
+
+/**
+ * Evento de cambio confirmado sobre un vehículo o un seguro
+ * Lleva las claves naturales para que los suscriptores puedan invalidar índices por
+ * dominio o póliza sin volver a leer la entidad.
+ *
+ * @param tipo            Tipo de cambio
+ * @param id              ID del vehículo o del seguro según el tipo
+ * @param idRelacionado   Para eventos de vehículo, el ID del seguro asignado (o el desasignado); si no, null
+ * @param clave           Dominio del vehículo o número de póliza del seguro
+ * @param claveSecundaria Número de chasis del vehículo; null en eventos de seguro
+ * @param instante        Momento de la publicación (epoch en milisegundos)
+ */
+public record EventoEntidad(TipoEvento tipo, long id, Long idRelacionado, String clave,
+                            String claveSecundaria, long instante) {
+
+    /**
+     * Evento de vehículo con el seguro que tiene asignado
+     */
+    public static EventoEntidad deVehiculo(TipoEvento tipo, Vehiculo vehiculo) {
+        SeguroVehicular seguro = vehiculo.getSeguro();
+        return deVehiculo(tipo, vehiculo, seguro != null ? seguro.getId() : null);
+    }
+
+    /**
+     * Evento de vehículo indicando el seguro relacionado
+     */
+    public static EventoEntidad deVehiculo(TipoEvento tipo, Vehiculo vehiculo, Long seguroId) {
+        return new EventoEntidad(tipo, vehiculo.getId(), seguroId, vehiculo.getDominio(),
+                                 vehiculo.getNroChasis(), System.currentTimeMillis());
+    }
+
+    /**
+     * Evento de seguro
+     */
+    public static EventoEntidad deSeguro(TipoEvento tipo, SeguroVehicular seguro) {
+        return new EventoEntidad(tipo, seguro.getId(), null, seguro.getNroPoliza(), null,
+                                 System.currentTimeMillis());
+    }
+}
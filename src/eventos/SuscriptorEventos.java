@@ -0,0 +1,14 @@
+package eventos;
+
+import java.util.List;
+
+/**
+ * Consumidor de eventos del bus
+ * Recibe los eventos en lotes, en orden de publicación, desde un hilo propio del bus
+ * (o de a uno en el hilo que publica, si la suscripción es sincrónica).
+ * Una excepción se informa y no detiene la suscripción.
+ */
+@FunctionalInterface
+public interface SuscriptorEventos {
+    void procesar(List<EventoEntidad> lote) throws Exception;
+}
@@ -0,0 +1,28 @@
+package eventos;
+
+/**
+ * Tipos de cambio que se publican después de confirmar una transacción
+ */
+public enum TipoEvento {
+    VEHICULO_CREADO(true),
+    VEHICULO_ACTUALIZADO(true),
+    VEHICULO_ELIMINADO(true),
+    SEGURO_ASIGNADO(true),
+    SEGURO_DESASIGNADO(true),
+    SEGURO_CREADO(false),
+    SEGURO_ACTUALIZADO(false),
+    SEGURO_ELIMINADO(false);
+
+    private final boolean deVehiculo;
+
+    TipoEvento(boolean deVehiculo) {
+        this.deVehiculo = deVehiculo;
+    }
+
+    /**
+     * Indica si el ID del evento es de un vehículo (si no, es de un seguro)
+     */
+    public boolean esDeVehiculo() {
+        return deVehiculo;
+    }
+}
@@ -1,17 +1,41 @@
 package main;
 
+import dao.CargadorPorLotes;
 import entities.Cobertura;
+import entities.EstadoCobertura;
+import entities.SeguroResumen;
 import entities.SeguroVehicular;
 import entities.Vehiculo;
+import entities.VehiculoResumen;
+import readmodel.FlotaColumnar;
+import service.AnaliticaService;
+import service.ArchivadoService;
+import service.CachesPorClave;
+import service.LimitadorConcurrencia;
+import service.ReintentosTransaccion;
+import service.ExportacionService;
+import service.FiltroExistenciaVehiculos;
+import service.InstantaneaVersionada;
 import service.SeguroVehicularService;
 import service.VehiculoService;
+import util.CacheCercana;
+import util.Registro;
 
+import java.io.BufferedWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.InputMismatchException;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Function;
 
 /**
  * Menú de consola para la aplicación
@@ -19,15 +43,22 @@ import java.util.Scanner;
  */
 public class AppMenu {
     
+    private static final long ESPERA_REGISTRO_MS = 200;
+    private static final int FILAS_POR_PAGINA = 40;
+    
     private final Scanner scanner;
     private final VehiculoService vehiculoService;
     private final SeguroVehicularService seguroService;
+    private final ExportacionService exportacionService;
+    private final ArchivadoService archivadoService;
     private final DateTimeFormatter dateFormatter;
     
     public AppMenu() {
         this.scanner = new Scanner(System.in);
         this.vehiculoService = new VehiculoService();
         this.seguroService = new SeguroVehicularService();
+        this.exportacionService = new ExportacionService();
+        this.archivadoService = new ArchivadoService();
         this.dateFormatter = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     }
     
@@ -114,6 +145,15 @@ public class AppMenu {
                     case 8:
                         desasignarSeguroDeVehiculo();
                         break;
+                    case 9:
+                        listarVehiculosResumido();
+                        break;
+                    case 10:
+                        listarVehiculosSinCobertura();
+                        break;
+                    case 11:
+                        buscarVehiculosPorIds();
+                        break;
                     case 0:
                         volver = true;
                         break;
@@ -139,6 +179,9 @@ public class AppMenu {
         System.out.println("║  6. Eliminar vehículo (baja lógica)                        ║");
         System.out.println("║  7. Asignar seguro a vehículo                              ║");
         System.out.println("║  8. Desasignar seguro de vehículo                          ║");
+        System.out.println("║  9. Listado resumido de vehículos                          ║");
+        System.out.println("║ 10. Listar vehículos sin seguro vigente                    ║");
+        System.out.println("║ 11. Buscar varios vehículos por ID                         ║");
         System.out.println("║  0. Volver al menú principal                               ║");
         System.out.println("╚════════════════════════════════════════════════════════════╝");
     }
@@ -173,8 +216,46 @@ private void crearVehiculo() throws Exception {
     
     private void listarVehiculos() throws Exception {
         System.out.println("\n═══ LISTADO DE VEHÍCULOS ═══");
+        listarPaginado(tablaVehiculos(), "vehículos", vehiculoService::getPagina, Vehiculo::getId,
+                       this::escribirVehiculo);
+    }
+    
+    private void listarVehiculosSinCobertura() throws Exception {
+        System.out.println("\n═══ VEHÍCULOS SIN SEGURO VIGENTE ═══");
+        listarPaginado(tablaVehiculos(), "vehículos sin seguro vigente", vehiculoService::getPaginaSinCobertura,
+                       Vehiculo::getId, this::escribirVehiculo);
+    }
+    
+    private TablaConsola tablaVehiculos() {
+        return new TablaConsola(TablaConsola.salidaEstandar())
+            .columna("ID", 8, TablaConsola.Alineacion.DERECHA)
+            .columna("Dominio", 9)
+            .columna("Marca", 14)
+            .columna("Modelo", 16)
+            .columna("Año", 4, TablaConsola.Alineacion.DERECHA)
+            .columna("Nro. Chasis", 18)
+            .columna("Póliza", 14)
+            .columna("Seguro", 10);
+    }
+    
+    private void escribirVehiculo(TablaConsola t, Vehiculo v) {
+        t.celda(v.getId())
+         .celda(v.getDominio())
+         .celda(v.getMarca())
+         .celda(v.getModelo())
+         .celda(v.getAnio() != null ? v.getAnio().toString() : "")
+         .celda(v.getNroChasis());
+        if (v.tieneSeguro()) {
+            t.celda(v.getSeguro().getNroPoliza()).celda(v.getSeguro().estaVigente() ? "VIGENTE" : "VENCIDO");
+        } else {
+            t.celda("").celda("SIN SEGURO");
+        }
+    }
+    
+    private void listarVehiculosResumido() throws Exception {
+        System.out.println("\n═══ LISTADO RESUMIDO DE VEHÍCULOS ═══");
         
-        List<Vehiculo> vehiculos = vehiculoService.getAll();
+        List<VehiculoResumen> vehiculos = vehiculoService.getResumenes();
         
         if (vehiculos.isEmpty()) {
             System.out.println("No hay vehículos registrados.");
@@ -184,9 +265,9 @@ private void crearVehiculo() throws Exception {
         System.out.println("\nTotal de vehículos: " + vehiculos.size());
         System.out.println();
         
-        for (Vehiculo v : vehiculos) {
-            System.out.println(v);
-            System.out.println();
+        for (VehiculoResumen v : vehiculos) {
+            System.out.println("ID: " + v.id() + " | Dominio: " + v.dominio() + " | " + v.marca() + " " + v.modelo() +
+                             " | Póliza: " + (v.tieneSeguro() ? v.nroPoliza() : "SIN SEGURO"));
         }
     }
     
@@ -203,6 +284,46 @@ private void crearVehiculo() throws Exception {
         }
     }
     
+    /**
+     * Todas las lecturas del pedido pasan por un mismo cargador: los IDs repetidos se
+     * leen una vez y el resto se resuelve junto, con una consulta por fragmento
+     */
+    private void buscarVehiculosPorIds() throws Exception {
+        System.out.println("\n═══ BUSCAR VARIOS VEHÍCULOS POR ID ═══");
+        
+        List<Long> ids = new ArrayList<>();
+        for (String texto : leerTexto("IDs separados por comas o espacios: ").split("[,;\\s]+")) {
+            try {
+                ids.add(Long.parseLong(texto));
+            } catch (NumberFormatException e) {
+                System.out.println("⚠ Se ignora el ID inválido: " + texto);
+            }
+        }
+        
+        List<Long> inexistentes = new ArrayList<>();
+        TablaConsola tabla = tablaVehiculos();
+        tabla.linea("");
+        tabla.encabezado();
+        try (CargadorPorLotes<Vehiculo> cargador = vehiculoService.nuevoCargador()) {
+            cargador.cargarTodos(ids);
+            cargador.despachar();
+            for (Long id : ids) {
+                Vehiculo vehiculo = cargador.leer(id);
+                if (vehiculo == null) {
+                    inexistentes.add(id);
+                } else {
+                    escribirVehiculo(tabla, vehiculo);
+                    tabla.finFila();
+                }
+            }
+        }
+        tabla.flush();
+        
+        if (!inexistentes.isEmpty()) {
+            System.out.println("✗ No se encontraron vehículos con ID: " + inexistentes);
+        }
+    }
+    
     private void buscarVehiculoPorDominio() throws Exception {
         System.out.println("\n═══ BUSCAR VEHÍCULO POR DOMINIO ═══");
         
@@ -394,47 +515,34 @@ private void crearVehiculo() throws Exception {
     private void listarSeguros() throws Exception {
         System.out.println("\n═══ LISTADO DE SEGUROS ═══");
         
-        List<SeguroVehicular> seguros = seguroService.getAll();
-        
-        if (seguros.isEmpty()) {
-            System.out.println("No hay seguros registrados.");
-            return;
-        }
-        
-        System.out.println("\nTotal de seguros: " + seguros.size());
-        System.out.println();
-        
-        for (SeguroVehicular s : seguros) {
-            System.out.println(s);
-            System.out.println();
-        }
+        TablaConsola tabla = new TablaConsola(TablaConsola.salidaEstandar())
+            .columna("ID", 8, TablaConsola.Alineacion.DERECHA)
+            .columna("Aseguradora", 22)
+            .columna("Nro. Póliza", 14)
+            .columna("Cobertura", 21)
+            .columna("Vencimiento", 11)
+            .columna("Estado", 8);
+        
+        listarPaginado(tabla, "seguros", seguroService::getPagina, SeguroVehicular::getId, (t, s) -> t
+            .celda(s.getId())
+            .celda(s.getAseguradora())
+            .celda(s.getNroPoliza())
+            .celda(s.getCobertura() != null ? s.getCobertura().getDescripcion() : "")
+            .celda(s.getVencimiento() != null ? s.getVencimiento().format(dateFormatter) : "")
+            .celda(s.estaVigente() ? "VIGENTE" : "VENCIDO"));
     }
     
     private void listarSegurosDisponibles() throws Exception {
         System.out.println("\n═══ SEGUROS DISPONIBLES (sin asignar) ═══");
         
-        List<SeguroVehicular> todosSeguros = seguroService.getAll();
-        List<Vehiculo> todosVehiculos = vehiculoService.getAll();
+        List<SeguroResumen> disponibles = seguroService.getDisponibles();
         
-        boolean hayDisponibles = false;
-        
-        for (SeguroVehicular seguro : todosSeguros) {
-            boolean asignado = false;
-            for (Vehiculo v : todosVehiculos) {
-                if (v.getSeguro() != null && v.getSeguro().getId().equals(seguro.getId())) {
-                    asignado = true;
-                    break;
-                }
-            }
-            
-            if (!asignado) {
-                System.out.println("ID: " + seguro.getId() + " | Póliza: " + seguro.getNroPoliza() + 
-                                 " | Aseguradora: " + seguro.getAseguradora());
-                hayDisponibles = true;
-            }
+        for (SeguroResumen seguro : disponibles) {
+            System.out.println("ID: " + seguro.id() + " | Póliza: " + seguro.nroPoliza() + 
+                             " | Aseguradora: " + seguro.aseguradora());
         }
         
-        if (!hayDisponibles) {
+        if (disponibles.isEmpty()) {
             System.out.println("No hay seguros disponibles (todos están asignados)");
         }
     }
@@ -564,6 +672,21 @@ private void crearVehiculo() throws Exception {
                     case 2:
                         simularRollback();
                         break;
+                    case 3:
+                        exportarFlota();
+                        break;
+                    case 4:
+                        archivarBajas();
+                        break;
+                    case 5:
+                        mostrarMetricasCarga();
+                        break;
+                    case 6:
+                        verificarCoberturaLote();
+                        break;
+                    case 7:
+                        analizarFlota();
+                        break;
                     case 0:
                         volver = true;
                         break;
@@ -584,6 +707,11 @@ private void crearVehiculo() throws Exception {
         System.out.println("╠════════════════════════════════════════════════════════════╣");
         System.out.println("║  1. Crear vehículo CON seguro nuevo (transacción)          ║");
         System.out.println("║  2. Simular ROLLBACK (demostración)                        ║");
+        System.out.println("║  3. Exportar flota con seguros (CSV / JSON)                ║");
+        System.out.println("║  4. Archivar bajas antiguas                                ║");
+        System.out.println("║  5. Ver métricas de carga por tipo de operación            ║");
+        System.out.println("║  6. Verificar cobertura de dominios en lote                ║");
+        System.out.println("║  7. Análisis de la flota (réplica en memoria)              ║");
         System.out.println("║  0. Volver al menú principal                               ║");
         System.out.println("╚════════════════════════════════════════════════════════════╝");
     }
@@ -644,10 +772,241 @@ private void crearVehiculo() throws Exception {
         }
     }
     
+    private void exportarFlota() throws Exception {
+        System.out.println("\n═══ EXPORTAR FLOTA CON SEGUROS ═══");
+        
+        ExportacionService.Formato formato = leerFormatoExportacion();
+        boolean comprimir = leerTexto("¿Comprimir con gzip? (S/N): ").toUpperCase().equals("S");
+        boolean sinCobertura = leerTexto("¿Solo vehículos sin seguro vigente? (S/N): ").toUpperCase().equals("S");
+        
+        String nombrePorDefecto = (sinCobertura ? "sin_cobertura." : "flota.") + formato.getExtension() + 
+                                  (comprimir ? ".gz" : "");
+        Path destino = Paths.get(leerTextoConDefault("Archivo de destino [" + nombrePorDefecto + "]: ", nombrePorDefecto));
+        
+        long inicio = System.nanoTime();
+        long filas = sinCobertura 
+                ? exportacionService.exportarSinCobertura(destino, formato, comprimir)
+                : exportacionService.exportarFlota(destino, formato, comprimir);
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        
+        System.out.println("\n✓ Exportación finalizada");
+        System.out.println("  Archivo: " + destino.toAbsolutePath());
+        System.out.println("  Filas:   " + filas);
+        System.out.printf("  Tiempo:  %.2f s (%.0f filas/s)%n", segundos, segundos > 0 ? filas / segundos : filas);
+    }
+    
+    private void archivarBajas() throws Exception {
+        System.out.println("\n═══ ARCHIVAR BAJAS ANTIGUAS ═══");
+        
+        Integer dias = leerEnteroOpcional("Días de retención (Enter para " + 
+                                          ArchivadoService.DIAS_RETENCION_POR_DEFECTO + "): ");
+        int diasRetencion = dias != null ? dias : ArchivadoService.DIAS_RETENCION_POR_DEFECTO;
+        
+        String confirmacion = leerTexto("¿Mover al archivo las bajas de más de " + diasRetencion + 
+                                        " días? (S/N): ").toUpperCase();
+        if (!confirmacion.equals("S")) {
+            System.out.println("✗ Operación cancelada");
+            return;
+        }
+        
+        ArchivadoService.Resultado resultado = archivadoService.archivarBajas(diasRetencion);
+        
+        System.out.println("\n✓ Archivado finalizado");
+        System.out.println("  Vehículos archivados: " + resultado.vehiculos());
+        System.out.println("  Seguros archivados:   " + resultado.seguros());
+        System.out.println("  Lotes:                " + resultado.lotes());
+    }
+    
+    private void verificarCoberturaLote() throws Exception {
+        System.out.println("\n═══ VERIFICAR COBERTURA DE DOMINIOS ═══");
+        System.out.println("Archivo de texto con los dominios separados por líneas, comas o espacios\n");
+        
+        Path origen = Paths.get(leerTexto("Archivo de dominios: "));
+        List<String> dominios = new ArrayList<>();
+        for (String linea : Files.readAllLines(origen, StandardCharsets.UTF_8)) {
+            for (String dominio : linea.split("[,;\\s]+")) {
+                if (!dominio.isEmpty()) {
+                    dominios.add(dominio);
+                }
+            }
+        }
+        Path destino = Paths.get(leerTextoConDefault("Archivo de resultado [cobertura.csv]: ", "cobertura.csv"));
+        
+        long inicio = System.nanoTime();
+        Map<String, EstadoCobertura> estados = vehiculoService.verificarCobertura(dominios);
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        
+        Map<EstadoCobertura, Integer> totales = new EnumMap<>(EstadoCobertura.class);
+        try (BufferedWriter salida = Files.newBufferedWriter(destino, StandardCharsets.UTF_8)) {
+            salida.write("dominio,estado\n");
+            for (Map.Entry<String, EstadoCobertura> estado : estados.entrySet()) {
+                salida.write(estado.getKey());
+                salida.write(',');
+                salida.write(estado.getValue().name());
+                salida.write('\n');
+                totales.merge(estado.getValue(), 1, Integer::sum);
+            }
+        }
+        
+        System.out.println("\n✓ Verificación finalizada");
+        System.out.println("  Archivo:  " + destino.toAbsolutePath());
+        System.out.printf("  Dominios: %d en %.2f s%n", estados.size(), segundos);
+        for (EstadoCobertura estado : EstadoCobertura.values()) {
+            System.out.printf("  %-12s %d%n", estado.name() + ":", totales.getOrDefault(estado, 0));
+        }
+    }
+    
+    /**
+     * Totales de la flota desde la réplica columnar, sin consultar la base
+     * (salvo que la réplica haya vencido o se pida refrescarla)
+     */
+    private void analizarFlota() throws Exception {
+        System.out.println("\n═══ ANÁLISIS DE LA FLOTA ═══");
+        
+        AnaliticaService analitica = AnaliticaService.getInstancia();
+        boolean refrescar = leerTexto("¿Refrescar la réplica desde la base? (S/N): ").toUpperCase().equals("S");
+        FlotaColumnar flota = refrescar ? analitica.refrescar() : analitica.obtener();
+        
+        String marca = leerTextoOpcional("Filtrar por marca (Enter para todas): ");
+        boolean porMarca = marca != null && !marca.trim().isEmpty();
+        FlotaColumnar.Consulta seleccion = flota.consulta();
+        FlotaColumnar.Consulta sinCobertura = flota.consulta();
+        if (porMarca) {
+            seleccion.marca(marca);
+            sinCobertura.marca(marca);
+        }
+        
+        int total = seleccion.contar();
+        System.out.printf("%nRéplica de %d vehículos, armada hace %d s%n", flota.cantidad(), analitica.getEdadMs() / 1000);
+        System.out.println("Vehículos seleccionados: " + total);
+        if (total == 0) {
+            return;
+        }
+        System.out.printf("Año promedio: %.1f%n", seleccion.promedioAnio());
+        System.out.println("Sin seguro vigente hoy: " + sinCobertura.sinSeguroVigenteAl(LocalDate.now()).contar());
+        
+        System.out.println("\nPor cobertura:");
+        for (Map.Entry<Cobertura, Integer> c : seleccion.contarPorCobertura().entrySet()) {
+            System.out.printf("  %-30s %8d%n", c.getKey().name(), c.getValue());
+        }
+        System.out.println("\nPor aseguradora:");
+        imprimirConteo(seleccion.contarPorAseguradora());
+        if (!porMarca) {
+            System.out.println("\nPor marca:");
+            imprimirConteo(seleccion.contarPorMarca());
+        }
+    }
+    
+    private void imprimirConteo(Map<String, Integer> conteo) {
+        conteo.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .forEach(e -> System.out.printf("  %-30s %8d%n", e.getKey(), e.getValue()));
+    }
+    
+    private void mostrarMetricasCarga() {
+        System.out.println("\n═══ MÉTRICAS DE CARGA ═══");
+        System.out.printf("%-10s %9s %9s %11s %11s %10s%n",
+                          "Tipo", "En curso", "Espera", "Aceptadas", "Rechazadas", "Espera ms");
+        
+        for (LimitadorConcurrencia.Metricas m : LimitadorConcurrencia.getInstancia().getMetricas()) {
+            System.out.printf("%-10s %4d/%-4d %4d/%-4d %11d %11d %10.1f%n",
+                              m.clase(), m.enCurso(), m.concurrenciaMaxima(), m.enEspera(), m.esperaMaxima(),
+                              m.aceptadas(), m.rechazadas(), m.esperaPromedioMs());
+        }
+        
+        ReintentosTransaccion.Metricas r = ReintentosTransaccion.getInstancia().getMetricas();
+        System.out.println("\nTransacciones: " + r.ejecuciones() + " | Reintentos: " + r.reintentos() + 
+                           " | Exitosas tras reintento: " + r.exitosasTrasReintento() + 
+                           " | Agotadas: " + r.agotadas());
+        if (!r.fallasPorCodigo().isEmpty()) {
+            System.out.println("Fallas transitorias por código: " + r.fallasPorCodigo());
+        }
+        
+        FiltroExistenciaVehiculos.Metricas f = FiltroExistenciaVehiculos.getInstancia().getMetricas();
+        if (f.listo()) {
+            System.out.printf("%nFiltro de existencia: %d vehículos, %d KB en %d etapas, tasa estimada %.4f%s%n",
+                              f.vehiculosCargados(), f.filtro().bytes() / 1024, f.filtro().etapas(),
+                              f.filtro().tasaEstimada(), f.filtro().saturado() ? " (saturado)" : "");
+            System.out.printf("Búsquedas: %d | Resueltas sin base: %d (%.1f%%) | Reconstrucciones: %d (última %d ms)%n",
+                              f.consultas(), f.descartadas(), f.proporcionDescartadas() * 100,
+                              f.reconstrucciones(), f.ultimaReconstruccionMs());
+        } else {
+            System.out.println("\nFiltro de existencia: no cargado (las búsquedas van a la base)");
+        }
+        
+        System.out.println("\nListados compartidos (versión de datos " + InstantaneaVersionada.getVersion() + "):");
+        for (InstantaneaVersionada.Metricas l : InstantaneaVersionada.getMetricasTodas()) {
+            System.out.printf("  %-20s %8d elementos (versión %d) | Aciertos: %d | Armados: %d%n",
+                              l.nombre(), l.elementos(), l.version(), l.aciertos(), l.materializaciones());
+        }
+        
+        System.out.println("\nBúsquedas por dominio, chasis y póliza en caché:");
+        for (CacheCercana.Metricas c : CachesPorClave.getMetricas()) {
+            System.out.printf("  %-10s %6d claves | Aciertos: %d (+%d inexistentes) | Fallos: %d | Tasa: %.1f%% | Expulsadas: %d%n",
+                              c.nombre(), c.claves(), c.aciertos(), c.aciertosNegativos(), c.fallos(),
+                              c.proporcionAciertos() * 100, c.expulsiones());
+        }
+    }
+    
     // ========================================================================
     // MÉTODOS AUXILIARES DE LECTURA
     // ========================================================================
     
+    @FunctionalInterface
+    private interface LectorPagina<T> {
+        List<T> leer(long desdeId, int limite) throws Exception;
+    }
+    
+    @FunctionalInterface
+    private interface EscritorFila<T> {
+        void escribir(TablaConsola tabla, T elemento);
+    }
+    
+    /**
+     * Muestra un listado de a una página por pantalla, pidiendo cada página a la base
+     * a continuación del último ID mostrado; la primera pantalla sale sin esperar al resto
+     */
+    private <T> void listarPaginado(TablaConsola tabla, String nombre, LectorPagina<T> lector,
+                                    Function<T, Long> id, EscritorFila<T> escritor) throws Exception {
+        long ultimoId = 0;
+        int mostrados = 0;
+        int pagina = 0;
+        
+        while (true) {
+            List<T> elementos = lector.leer(ultimoId, FILAS_POR_PAGINA);
+            if (elementos.isEmpty()) {
+                break;
+            }
+            
+            pagina++;
+            tabla.linea("");
+            tabla.encabezado();
+            for (T elemento : elementos) {
+                escritor.escribir(tabla, elemento);
+                tabla.finFila();
+            }
+            tabla.flush();
+            
+            mostrados += elementos.size();
+            ultimoId = id.apply(elementos.get(elementos.size() - 1));
+            if (elementos.size() < FILAS_POR_PAGINA) {
+                break;
+            }
+            
+            String respuesta = leerTextoOpcional("── Página " + pagina + " (" + mostrados + " " + nombre +
+                                                 ") · Enter: siguiente · Q: terminar ── ");
+            if (respuesta != null && respuesta.equalsIgnoreCase("q")) {
+                return;
+            }
+        }
+        
+        if (mostrados == 0) {
+            System.out.println("No hay " + nombre + " registrados.");
+        } else {
+            System.out.println("\nTotal de " + nombre + ": " + mostrados);
+        }
+    }
+    
     private String leerTexto(String mensaje) {
         System.out.print(mensaje);
         String texto = scanner.nextLine().trim();
@@ -671,6 +1030,8 @@ private void crearVehiculo() throws Exception {
     }
     
     private int leerEntero(String mensaje) {
+        // Que los mensajes de los servicios salgan antes del próximo menú
+        Registro.vaciar(ESPERA_REGISTRO_MS);
         while (true) {
             try {
                 System.out.print(mensaje);
@@ -746,6 +1107,25 @@ private void crearVehiculo() throws Exception {
         }
     }
     
+    private ExportacionService.Formato leerFormatoExportacion() {
+        while (true) {
+            System.out.println("\nFormatos de exportación:");
+            System.out.println("  1. CSV");
+            System.out.println("  2. JSON (una línea por registro)");
+            
+            int opcion = leerEntero("Seleccione el formato: ");
+            
+            switch (opcion) {
+                case 1:
+                    return ExportacionService.Formato.CSV;
+                case 2:
+                    return ExportacionService.Formato.JSONL;
+                default:
+                    System.out.println("✗ Opción inválida");
+            }
+        }
+    }
+    
     private void manejarExcepcion(Exception e) {
         System.err.println("\n✗ ERROR: " + e.getMessage());
         scanner.nextLine(); // Limpiar buffer en caso de error
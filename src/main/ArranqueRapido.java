@@ -0,0 +1,152 @@
+package main;
+
+import config.DatabaseConnection;
+import config.Fragmentos;
+import dao.CatalogoSql;
+import service.SeguroVehicularService;
+import service.VehiculoService;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arranque rápido de la aplicación
+ * Antes de mostrar el menú abre las conexiones del pool, prepara en cada una todas las
+ * sentencias de los DAOs (quedan en la caché de sentencias del driver) y carga las
+ * clases del camino caliente ejecutando una lectura real por servicio. Mide el tiempo
+ * desde el inicio de la JVM hasta quedar listo para atender el primer pedido.
+ * El mismo recorrido sirve como corrida de entrenamiento para generar el archivo
+ * AppCDS (ver perfil "appcds" del pom.xml); en ese caso una base caída no es un error.
+ */
+public final class ArranqueRapido {
+
+    public static final int CONEXIONES_POR_DEFECTO = 4;
+
+    /**
+     * Clases del camino caliente que se cargan e inicializan por anticipado
+     */
+    private static final List<String> CLASES_CALIENTES = List.of(
+        "main.AppMenu",
+        "service.ExportacionService",
+        "service.ArchivadoService",
+        "service.LimitadorConcurrencia",
+        "service.ReintentosTransaccion",
+        "eventos.BusEventos",
+        "eventos.EventoEntidad",
+        "entities.SeguroVehicular",
+        "entities.Cobertura",
+        "entities.VehiculoResumen",
+        "entities.SeguroResumen",
+        "java.time.format.DateTimeFormatter",
+        "java.util.Scanner"
+    );
+
+    /**
+     * Resultado del arranque
+     */
+    public record Resultado(int conexiones, int sentenciasPreparadas, int sentenciasFallidas,
+                            long jvmHastaMainMs, long precalentamientoMs, long listoDesdeInicioJvmMs) {
+    }
+
+    private ArranqueRapido() {
+    }
+
+    /**
+     * Precalienta pool, sentencias y clases
+     * Con base de datos caída lanza SQLException salvo que se pida tolerarlo
+     */
+    public static Resultado ejecutar(int conexiones, boolean tolerarBaseCaida) throws SQLException {
+        long inicio = System.nanoTime();
+        long jvmHastaMainMs = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        cargarClases();
+
+        int preparadas = 0;
+        int fallidas = 0;
+        int listas = 0;
+        try {
+            List<Connection> abiertas = new ArrayList<>();
+            try {
+                // Las conexiones pedidas se abren en el pool de cada fragmento
+                for (int fragmento = 0; fragmento < Fragmentos.getCantidad(); fragmento++) {
+                    for (int i = 0; i < conexiones; i++) {
+                        abiertas.add(DatabaseConnection.getConnection(fragmento));
+                    }
+                }
+                Map<String, String> consultas = CatalogoSql.consultas();
+                for (Connection conn : abiertas) {
+                    for (Map.Entry<String, String> consulta : consultas.entrySet()) {
+                        if (preparar(conn, consulta.getKey(), consulta.getValue())) {
+                            preparadas++;
+                        } else {
+                            fallidas++;
+                        }
+                    }
+                }
+            } finally {
+                for (Connection conn : abiertas) {
+                    DatabaseConnection.closeConnection(conn);
+                }
+            }
+            listas = DatabaseConnection.getMetricasPool().ociosas();
+
+            primerPedido();
+
+        } catch (Exception e) {
+            if (!tolerarBaseCaida) {
+                throw e instanceof SQLException sql ? sql
+                        : new SQLException("Error en el arranque rápido: " + e.getMessage(), e);
+            }
+            System.err.println("⚠ Base de datos no disponible durante el arranque rápido: " + e.getMessage());
+        }
+
+        long precalentamientoMs = (System.nanoTime() - inicio) / 1_000_000;
+        long listoMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        return new Resultado(listas, preparadas, fallidas, jvmHastaMainMs, precalentamientoMs, listoMs);
+    }
+
+    private static void cargarClases() {
+        ClassLoader cargador = ArranqueRapido.class.getClassLoader();
+        for (String nombre : CLASES_CALIENTES) {
+            try {
+                Class.forName(nombre, true, cargador);
+            } catch (ClassNotFoundException e) {
+                System.err.println("⚠ Clase no encontrada al precalentar: " + nombre);
+            }
+        }
+    }
+
+    /**
+     * Prepara una sentencia en el servidor; al cerrarla queda en la caché de la conexión
+     */
+    private static boolean preparar(Connection conn, String nombre, String sql) {
+        try {
+            conn.prepareStatement(sql).close();
+            return true;
+        } catch (SQLException e) {
+            System.err.println("⚠ No se pudo preparar " + nombre + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Recorre el camino completo de una lectura por servicio (limitador, DAO y driver)
+     */
+    private static void primerPedido() throws Exception {
+        new VehiculoService().getById(0);
+        new SeguroVehicularService().getById(0);
+    }
+
+    public static void mostrar(Resultado resultado) {
+        System.out.println("✓ Arranque rápido: " + resultado.conexiones() + " conexiones listas, " +
+                           resultado.sentenciasPreparadas() + " sentencias preparadas" +
+                           (resultado.sentenciasFallidas() > 0 ? " (" + resultado.sentenciasFallidas() + " fallidas)" : ""));
+        System.out.println("  JVM → main: " + resultado.jvmHastaMainMs() + " ms | precalentamiento: " +
+                           resultado.precalentamientoMs() + " ms | listo para atender: " +
+                           resultado.listoDesdeInicioJvmMs() + " ms desde el inicio de la JVM");
+    }
+}
@@ -0,0 +1,496 @@
+package main;
+
+import config.DatabaseConnection;
+import dao.CatalogoSql;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Asesor de índices y verificación de planes de ejecución
+ * Ejecuta EXPLAIN FORMAT=JSON sobre cada constante SQL de los DAOs, marca recorridos
+ * completos y ordenamientos en archivo, y propone índices compuestos o de cobertura.
+ * Debe ejecutarse contra una base con un volumen de datos realista: con pocas filas
+ * MySQL elige recorridos completos aunque existan índices adecuados.
+ *
+ * Uso:
+ *   AsesorIndices                          analiza e imprime el reporte
+ *   AsesorIndices --linea-base [archivo]   guarda los planes actuales como referencia
+ *   AsesorIndices --verificar [archivo]    compara contra la referencia; sale con código 1 si algún plan empeoró
+ */
+public class AsesorIndices {
+
+    private static final String ARCHIVO_POR_DEFECTO = "planes_consultas.properties";
+
+    private static final Map<String, Integer> COSTO_ACCESO = new LinkedHashMap<>();
+
+    static {
+        COSTO_ACCESO.put("system", 0);
+        COSTO_ACCESO.put("const", 0);
+        COSTO_ACCESO.put("eq_ref", 1);
+        COSTO_ACCESO.put("ref", 2);
+        COSTO_ACCESO.put("unique_subquery", 2);
+        COSTO_ACCESO.put("fulltext", 2);
+        COSTO_ACCESO.put("ref_or_null", 3);
+        COSTO_ACCESO.put("index_subquery", 3);
+        COSTO_ACCESO.put("index_merge", 3);
+        COSTO_ACCESO.put("range", 4);
+        COSTO_ACCESO.put("index", 6);
+        COSTO_ACCESO.put("ALL", 7);
+    }
+
+    private static final Pattern ACCESO = Pattern.compile("\"access_type\"\\s*:\\s*\"(\\w+)\"");
+    private static final Pattern INDICE = Pattern.compile("\"key\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern NOMBRE_TABLA = Pattern.compile("^\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern FILESORT = Pattern.compile("\"using_filesort\"\\s*:\\s*true");
+    private static final Pattern TEMPORAL = Pattern.compile("\"using_temporary_table\"\\s*:\\s*true");
+
+    private static final Pattern COLUMNA_PARAMETRO = Pattern.compile(
+        "(?i)(\\w+)\\s*(?:=|<=|>=|<>|<|>|\\bIN\\s*\\()[\\s?,]*$");
+    private static final Pattern CONDICION = Pattern.compile(
+        "(?i)(?:(\\w+)\\.)?(\\w+)\\s*(=|\\bIN\\s*\\(|<=|>=|<|>|\\bBETWEEN\\b)");
+    private static final Pattern TABLA_FROM = Pattern.compile(
+        "(?i)\\b(?:FROM|JOIN|UPDATE)\\s+(\\w+)(?:\\s+(?!WHERE|ON|SET|LEFT|JOIN|ORDER|INNER)(\\w+))?");
+
+    public static void main(String[] args) {
+        String modo = args.length > 0 ? args[0] : "--analizar";
+        Path archivo = Paths.get(args.length > 1 ? args[1] : ARCHIVO_POR_DEFECTO);
+
+        System.out.println("══════════════════════════════════════════════════════════");
+        System.out.println("         ASESOR DE ÍNDICES Y PLANES DE EJECUCIÓN");
+        System.out.println("══════════════════════════════════════════════════════════\n");
+
+        try {
+            Map<String, Plan> planes = obtenerPlanes();
+
+            switch (modo) {
+                case "--linea-base":
+                    guardarLineaBase(planes, archivo);
+                    System.out.println("✓ Línea base guardada en " + archivo.toAbsolutePath());
+                    break;
+                case "--verificar":
+                    int regresiones = verificar(planes, archivo);
+                    if (regresiones > 0) {
+                        System.out.println("\n✗✗✗ " + regresiones + " PLAN(ES) EMPEORARON ✗✗✗");
+                        System.exit(1);
+                    }
+                    System.out.println("\n✓✓✓ NINGÚN PLAN EMPEORÓ ✓✓✓");
+                    break;
+                default:
+                    imprimirReporte(planes);
+            }
+        } catch (Exception e) {
+            System.err.println("✗ ERROR: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Ejecuta EXPLAIN sobre todas las consultas del catálogo (los INSERT no se analizan)
+     */
+    private static Map<String, Plan> obtenerPlanes() throws Exception {
+        Map<String, Plan> planes = new TreeMap<>();
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (Map.Entry<String, String> consulta : CatalogoSql.consultas().entrySet()) {
+                String sql = consulta.getValue();
+                if (sql.stripLeading().toUpperCase().startsWith("INSERT")) {
+                    continue;
+                }
+
+                try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN FORMAT=JSON " + sql)) {
+                    asignarParametros(stmt, sql);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        rs.next();
+                        planes.put(consulta.getKey(), Plan.desdeJson(sql, rs.getString(1)));
+                    }
+                }
+            }
+        }
+
+        return planes;
+    }
+
+    /**
+     * Asigna valores de ejemplo a cada parámetro según la columna con la que se compara
+     */
+    private static void asignarParametros(PreparedStatement stmt, String sql) throws Exception {
+        int indice = 0;
+        for (int pos = sql.indexOf('?'); pos >= 0; pos = sql.indexOf('?', pos + 1)) {
+            String previo = sql.substring(0, pos);
+            Matcher m = COLUMNA_PARAMETRO.matcher(previo);
+            String columna = m.find() ? m.group(1).toLowerCase() : "";
+            if (previo.trim().toUpperCase().endsWith("LIMIT") || previo.trim().toUpperCase().endsWith("OFFSET")) {
+                columna = "limit";
+            }
+            stmt.setObject(++indice, valorDeEjemplo(columna));
+        }
+    }
+
+    private static Object valorDeEjemplo(String columna) {
+        switch (columna) {
+            case "eliminado":
+                return Boolean.FALSE;
+            case "vencimiento":
+                return java.sql.Date.valueOf(LocalDate.now());
+            case "actualizado":
+                return new Timestamp(System.currentTimeMillis());
+            case "anio":
+                return 2020;
+            case "limit":
+                return 100;
+            case "cobertura":
+                return "RC";
+            default:
+                return columna.equals("id") || columna.endsWith("_id") ? (Object) 1L : "X";
+        }
+    }
+
+    private static void imprimirReporte(Map<String, Plan> planes) {
+        int conProblemas = 0;
+        Set<String> propuestas = new LinkedHashSet<>();
+
+        for (Map.Entry<String, Plan> entrada : planes.entrySet()) {
+            Plan plan = entrada.getValue();
+            List<String> problemas = plan.problemas();
+
+            System.out.println((problemas.isEmpty() ? "✓ " : "⚠ ") + entrada.getKey());
+            System.out.println("    Plan: " + plan.resumen());
+            for (String problema : problemas) {
+                System.out.println("    - " + problema);
+            }
+
+            if (!problemas.isEmpty()) {
+                conProblemas++;
+                for (String propuesta : plan.proponerIndices()) {
+                    System.out.println("    → " + propuesta);
+                    propuestas.add(propuesta);
+                }
+            }
+        }
+
+        System.out.println("\n══════════════════════════════════════════════════════════");
+        System.out.println("Consultas analizadas: " + planes.size() + " | Con problemas: " + conProblemas);
+        if (!propuestas.isEmpty()) {
+            System.out.println("\nÍndices propuestos:");
+            for (String propuesta : propuestas) {
+                System.out.println("  " + propuesta);
+            }
+        }
+    }
+
+    private static void guardarLineaBase(Map<String, Plan> planes, Path archivo) throws IOException {
+        Properties props = new Properties();
+        for (Map.Entry<String, Plan> entrada : planes.entrySet()) {
+            props.setProperty(entrada.getKey(), entrada.getValue().serializar());
+        }
+        try (Writer w = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8)) {
+            props.store(w, "Planes de ejecución de referencia (generado por AsesorIndices)");
+        }
+    }
+
+    /**
+     * Compara los planes actuales contra la línea base y devuelve la cantidad de regresiones
+     */
+    private static int verificar(Map<String, Plan> planes, Path archivo) throws IOException {
+        if (!Files.isRegularFile(archivo)) {
+            guardarLineaBase(planes, archivo);
+            System.out.println("⚠ No existía línea base; se generó en " + archivo.toAbsolutePath());
+            return 0;
+        }
+
+        Properties props = new Properties();
+        try (Reader r = Files.newBufferedReader(archivo, StandardCharsets.UTF_8)) {
+            props.load(r);
+        }
+
+        int regresiones = 0;
+        for (Map.Entry<String, Plan> entrada : planes.entrySet()) {
+            String base = props.getProperty(entrada.getKey());
+            if (base == null) {
+                System.out.println("• " + entrada.getKey() + ": nueva consulta (sin referencia)");
+                continue;
+            }
+
+            List<String> diferencias = entrada.getValue().regresionesRespectoDe(Plan.deserializar(base));
+            if (diferencias.isEmpty()) {
+                System.out.println("✓ " + entrada.getKey());
+            } else {
+                regresiones++;
+                System.out.println("✗ " + entrada.getKey());
+                for (String d : diferencias) {
+                    System.out.println("    - " + d);
+                }
+            }
+        }
+        return regresiones;
+    }
+
+    /**
+     * Acceso a una tabla dentro de un plan
+     */
+    private record Acceso(String tabla, String tipo, String indice) {
+
+        int costo() {
+            return COSTO_ACCESO.getOrDefault(tipo, 5);
+        }
+    }
+
+    /**
+     * Resumen de un plan de ejecución
+     */
+    private static final class Plan {
+
+        private final String sql;
+        private final List<Acceso> accesos = new ArrayList<>();
+        private boolean filesort;
+        private boolean temporal;
+
+        private Plan(String sql) {
+            this.sql = sql;
+        }
+
+        static Plan desdeJson(String sql, String json) {
+            Plan plan = new Plan(sql);
+            plan.filesort = FILESORT.matcher(json).find();
+            plan.temporal = TEMPORAL.matcher(json).find();
+
+            // Cada bloque de tabla empieza en "table_name"; access_type y key aparecen dentro del bloque
+            String[] bloques = json.split("\"table_name");
+            for (int i = 1; i < bloques.length; i++) {
+                Matcher nombre = NOMBRE_TABLA.matcher(bloques[i]);
+                Matcher acceso = ACCESO.matcher(bloques[i]);
+                Matcher indice = INDICE.matcher(bloques[i]);
+                if (nombre.find() && acceso.find()) {
+                    plan.accesos.add(new Acceso(nombre.group(1), acceso.group(1),
+                                                indice.find() ? indice.group(1) : null));
+                }
+            }
+            return plan;
+        }
+
+        static Plan deserializar(String texto) {
+            Plan plan = new Plan(null);
+            String[] partes = texto.split("\\|");
+            if (!partes[0].isEmpty()) {
+                for (String acceso : partes[0].split(";")) {
+                    String[] campos = acceso.split(":", -1);
+                    plan.accesos.add(new Acceso(campos[0], campos[1], campos[2].isEmpty() ? null : campos[2]));
+                }
+            }
+            for (int i = 1; i < partes.length; i++) {
+                plan.filesort |= partes[i].equals("filesort");
+                plan.temporal |= partes[i].equals("temporal");
+            }
+            return plan;
+        }
+
+        String serializar() {
+            StringBuilder sb = new StringBuilder();
+            for (Acceso a : accesos) {
+                if (sb.length() > 0) {
+                    sb.append(';');
+                }
+                sb.append(a.tabla()).append(':').append(a.tipo()).append(':').append(a.indice() != null ? a.indice() : "");
+            }
+            if (filesort) {
+                sb.append("|filesort");
+            }
+            if (temporal) {
+                sb.append("|temporal");
+            }
+            return sb.toString();
+        }
+
+        String resumen() {
+            return serializar().replace(";", ", ").replace("|", " + ");
+        }
+
+        List<String> problemas() {
+            List<String> problemas = new ArrayList<>();
+            for (Acceso a : accesos) {
+                if (a.tipo().equals("ALL")) {
+                    problemas.add("Recorrido completo de la tabla " + a.tabla());
+                } else if (a.tipo().equals("index")) {
+                    problemas.add("Recorrido completo del índice " + a.indice() + " en " + a.tabla());
+                }
+            }
+            if (filesort) {
+                problemas.add("Ordenamiento en archivo (filesort)");
+            }
+            if (temporal) {
+                problemas.add("Tabla temporal");
+            }
+            return problemas;
+        }
+
+        List<String> regresionesRespectoDe(Plan base) {
+            List<String> regresiones = new ArrayList<>();
+            for (Acceso anterior : base.accesos) {
+                for (Acceso actual : accesos) {
+                    if (actual.tabla().equals(anterior.tabla()) && actual.costo() > anterior.costo()) {
+                        regresiones.add(actual.tabla() + ": " + anterior.tipo() + " (" + anterior.indice() + ") → "
+                                        + actual.tipo() + " (" + actual.indice() + ")");
+                    }
+                }
+            }
+            if (filesort && !base.filesort) {
+                regresiones.add("Aparece un filesort");
+            }
+            if (temporal && !base.temporal) {
+                regresiones.add("Aparece una tabla temporal");
+            }
+            return regresiones;
+        }
+
+        /**
+         * Propone un índice por tabla: columnas comparadas por igualdad, luego la primera
+         * columna de rango o las del ORDER BY; si además cubre las columnas leídas se
+         * propone la versión de cobertura
+         */
+        List<String> proponerIndices() {
+            Map<String, String> alias = new LinkedHashMap<>();
+            Matcher tablas = TABLA_FROM.matcher(sql);
+            while (tablas.find()) {
+                alias.put(tablas.group(1).toLowerCase(), tablas.group(1).toLowerCase());
+                if (tablas.group(2) != null) {
+                    alias.put(tablas.group(2).toLowerCase(), tablas.group(1).toLowerCase());
+                }
+            }
+            String tablaPrincipal = alias.isEmpty() ? null : alias.values().iterator().next();
+
+            String upper = sql.toUpperCase();
+            int where = upper.indexOf(" WHERE ");
+            int orderBy = upper.lastIndexOf(" ORDER BY ");
+            int fin = primeroPositivo(upper.indexOf(" ORDER BY ", Math.max(where, 0)),
+                                      upper.indexOf(" LIMIT "), upper.indexOf(" UNION "), sql.length());
+
+            Map<String, Set<String>> igualdad = new LinkedHashMap<>();
+            Map<String, Set<String>> rango = new LinkedHashMap<>();
+            if (where >= 0) {
+                Matcher c = CONDICION.matcher(sql.substring(where + 7, Math.max(fin, where + 7)));
+                while (c.find()) {
+                    String tabla = c.group(1) != null ? alias.get(c.group(1).toLowerCase()) : tablaPrincipal;
+                    String columna = c.group(2).toLowerCase();
+                    if (tabla == null || esPalabraReservada(columna)) {
+                        continue;
+                    }
+                    String op = c.group(3).toUpperCase();
+                    Map<String, Set<String>> destino = op.equals("=") || op.startsWith("IN") ? igualdad : rango;
+                    destino.computeIfAbsent(tabla, k -> new LinkedHashSet<>()).add(columna);
+                }
+            }
+
+            Map<String, List<String>> orden = new LinkedHashMap<>();
+            if (orderBy >= 0) {
+                String clausula = sql.substring(orderBy + 10).split("(?i)\\bLIMIT\\b")[0];
+                for (String parte : clausula.split(",")) {
+                    String[] ref = parte.trim().split("\\s+")[0].split("\\.");
+                    String tabla = ref.length == 2 ? alias.get(ref[0].toLowerCase()) : tablaPrincipal;
+                    if (tabla != null) {
+                        orden.computeIfAbsent(tabla, k -> new ArrayList<>()).add(ref[ref.length - 1].toLowerCase());
+                    }
+                }
+            }
+
+            List<String> propuestas = new ArrayList<>();
+            for (Acceso a : accesos) {
+                if (a.costo() < COSTO_ACCESO.get("index") && !filesort) {
+                    continue;
+                }
+
+                Set<String> columnas = new LinkedHashSet<>(igualdad.getOrDefault(a.tabla(), Set.of()));
+                Set<String> rangos = rango.getOrDefault(a.tabla(), Set.of());
+                if (!rangos.isEmpty()) {
+                    columnas.add(rangos.iterator().next());
+                } else {
+                    columnas.addAll(orden.getOrDefault(a.tabla(), List.of()));
+                }
+                columnas.remove("id");
+                if (columnas.isEmpty()) {
+                    continue;
+                }
+
+                propuestas.add(crearIndice(a.tabla(), columnas));
+
+                Set<String> cobertura = new LinkedHashSet<>(columnas);
+                cobertura.addAll(columnasLeidas(a.tabla(), alias, tablaPrincipal));
+                cobertura.remove("id");
+                if (cobertura.size() > columnas.size() && cobertura.size() <= 6) {
+                    propuestas.add(crearIndice(a.tabla(), cobertura) + " -- cobertura");
+                }
+            }
+            return propuestas;
+        }
+
+        private Set<String> columnasLeidas(String tabla, Map<String, String> alias, String tablaPrincipal) {
+            Set<String> columnas = new LinkedHashSet<>();
+            String upper = sql.toUpperCase();
+            if (!upper.startsWith("SELECT ")) {
+                return columnas;
+            }
+            String lista = sql.substring(7, upper.indexOf(" FROM "));
+            for (String parte : lista.split(",")) {
+                String[] ref = parte.trim().split("\\s+")[0].split("\\.");
+                String t = ref.length == 2 ? alias.get(ref[0].toLowerCase()) : tablaPrincipal;
+                if (tabla.equals(t)) {
+                    columnas.add(ref[ref.length - 1].toLowerCase());
+                }
+            }
+            return columnas;
+        }
+
+        private static String crearIndice(String tabla, Set<String> columnas) {
+            String nombre = "idx_" + tabla + "_" + String.join("_", columnas);
+            if (nombre.length() > 64) {
+                nombre = nombre.substring(0, 64);
+            }
+            return "CREATE INDEX " + nombre + " ON " + tabla + " (" + String.join(", ", columnas) + ");";
+        }
+
+        private static boolean esPalabraReservada(String palabra) {
+            switch (palabra) {
+                case "and":
+                case "or":
+                case "not":
+                case "exists":
+                case "select":
+                case "where":
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private static int primeroPositivo(int... posiciones) {
+            int minimo = Integer.MAX_VALUE;
+            for (int p : posiciones) {
+                if (p >= 0 && p < minimo) {
+                    minimo = p;
+                }
+            }
+            return minimo;
+        }
+    }
+}
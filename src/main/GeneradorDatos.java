@@ -0,0 +1,745 @@
+package main;
+
+import config.DatabaseConnection;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Generador de datos sintéticos de flota y pólizas para pruebas de capacidad
+ * Produce N vehículos y M seguros con distribuciones realistas de marcas, modelos,
+ * aseguradoras y coberturas. La salida es determinística: la misma semilla, cantidades
+ * y fecha de referencia generan exactamente los mismos datos. Los valores únicos
+ * (dominio, chasis y póliza) se obtienen de una permutación del número de fila, así
+ * no hace falta recordar los ya generados aunque sean decenas de millones.
+ * Los dominios respetan el formato validado por VehiculoService (ABC123 o AB123CD).
+ *
+ * Uso:
+ *   GeneradorDatos [opciones]
+ *     --vehiculos N           cantidad de vehículos (por defecto 10000)
+ *     --seguros M             cantidad de seguros (por defecto igual a vehículos)
+ *     --asignados R           proporción de vehículos con seguro, 0..1 (por defecto 0.8)
+ *     --eliminados R          proporción de vehículos dados de baja, 0..1 (por defecto 0)
+ *     --semilla S             semilla del generador (por defecto 1)
+ *     --desde K               número de la primera fila; sirve para generar otro rango sin repetir valores
+ *     --fecha-referencia F    fecha base de vencimientos y años, yyyy-MM-dd (por defecto hoy)
+ *     --destino base|sql|csv  carga directa con inserts por lotes, script SQL o archivos CSV (por defecto base)
+ *     --salida RUTA           archivo .sql o directorio de los CSV
+ *     --id-inicial ID         primer ID de cada tabla (por defecto el siguiente al máximo en base, o 1)
+ *     --lote L                filas por INSERT (por defecto 1000)
+ */
+public class GeneradorDatos {
+
+    private static final int LOTE_POR_DEFECTO = 1000;
+    private static final long PROGRESO_CADA = 1_000_000;
+
+    // Espacios de dominios: ABC123 (26^3 * 1000) y AB123CD (26^4 * 1000)
+    private static final long DOMINIOS_VIEJOS = 26L * 26 * 26 * 1000;
+    private static final long DOMINIOS_NUEVOS = 26L * 26 * 26 * 26 * 1000;
+    private static final long CAPACIDAD_DOMINIOS = DOMINIOS_VIEJOS + DOMINIOS_NUEVOS;
+    private static final long POLIZAS = 10_000_000_000L;
+    private static final long MASCARA_CHASIS = (1L << 40) - 1;
+
+    // Multiplicadores coprimos con el tamaño de cada espacio: k → (k * A + B) mod N es biyectiva
+    private static final long MULT_DOMINIO_VIEJO = 9_999_991L;
+    private static final long MULT_DOMINIO_NUEVO = 2_654_435_761L;
+    private static final long MULT_POLIZA = 3_141_592_653L;
+    private static final long MULT_CHASIS = 0x9E3779B97L;
+
+    // Caracteres válidos en un VIN (sin I, O, Q ni Z): 32 símbolos de 5 bits
+    private static final String ALFABETO_VIN = "0123456789ABCDEFGHJKLMNPRSTUVWXY";
+
+    private record Marca(String nombre, int peso, String wmi, String[] modelos) {
+    }
+
+    private record Aseguradora(String nombre, int peso, String codigo) {
+    }
+
+    private static final Marca[] MARCAS = {
+        new Marca("Toyota", 16, "8AJ", new String[] {"Hilux", "Corolla Cross", "Yaris", "Etios", "SW4", "Corolla"}),
+        new Marca("Volkswagen", 13, "8AW", new String[] {"Amarok", "Gol Trend", "Polo", "T-Cross", "Taos", "Vento"}),
+        new Marca("Fiat", 13, "8AP", new String[] {"Cronos", "Argo", "Toro", "Strada", "Mobi", "Pulse"}),
+        new Marca("Ford", 11, "8AF", new String[] {"Ranger", "Ka", "Territory", "EcoSport", "Focus", "Fiesta"}),
+        new Marca("Chevrolet", 10, "8AG", new String[] {"Onix", "Cruze", "Tracker", "S10", "Prisma", "Spin"}),
+        new Marca("Renault", 9, "8A1", new String[] {"Sandero", "Logan", "Kangoo", "Duster", "Alaskan", "Kwid"}),
+        new Marca("Peugeot", 9, "8AD", new String[] {"208", "2008", "308", "Partner", "3008"}),
+        new Marca("Citroën", 4, "8BC", new String[] {"C3", "C4 Cactus", "Berlingo", "C3 Aircross"}),
+        new Marca("Nissan", 4, "3N1", new String[] {"Frontier", "Kicks", "Versa", "March", "Sentra"}),
+        new Marca("Honda", 3, "93H", new String[] {"HR-V", "Civic", "City", "WR-V"}),
+        new Marca("Jeep", 3, "988", new String[] {"Renegade", "Compass", "Commander"}),
+        new Marca("Hyundai", 2, "KMH", new String[] {"Creta", "HB20", "Tucson"}),
+        new Marca("Kia", 2, "KNA", new String[] {"Rio", "Sportage", "Seltos"}),
+        new Marca("Suzuki", 1, "JS2", new String[] {"Swift", "Vitara"})
+    };
+
+    private static final Aseguradora[] ASEGURADORAS = {
+        new Aseguradora("Federación Patronal", 14, "FPS"),
+        new Aseguradora("Sancor Seguros", 12, "SAN"),
+        new Aseguradora("La Caja Seguros", 10, "CAJ"),
+        new Aseguradora("San Cristóbal Seguros", 9, "SCR"),
+        new Aseguradora("Rivadavia Seguros", 8, "RIV"),
+        new Aseguradora("Mercantil Andina", 7, "MAN"),
+        new Aseguradora("La Segunda", 7, "LSG"),
+        new Aseguradora("Allianz Argentina", 6, "ALZ"),
+        new Aseguradora("Río Uruguay Seguros", 6, "RUS"),
+        new Aseguradora("Provincia Seguros", 6, "PRO"),
+        new Aseguradora("Zurich Argentina", 5, "ZUR"),
+        new Aseguradora("ATM Seguros", 4, "ATM"),
+        new Aseguradora("Mapfre Argentina", 4, "MAP"),
+        new Aseguradora("Galeno Seguros", 2, "GAL")
+    };
+
+    private static final String[] COBERTURAS = {"RC", "TERCEROS", "TODO_RIESGO"};
+    private static final int[] PESOS_COBERTURA = {30, 50, 20};
+
+    private static final int[] PESOS_MARCA = new int[MARCAS.length];
+    private static final int[] PESOS_ASEGURADORA = new int[ASEGURADORAS.length];
+
+    static {
+        for (int i = 0; i < MARCAS.length; i++) {
+            PESOS_MARCA[i] = MARCAS[i].peso();
+        }
+        for (int i = 0; i < ASEGURADORAS.length; i++) {
+            PESOS_ASEGURADORA[i] = ASEGURADORAS[i].peso();
+        }
+    }
+
+    /**
+     * Parámetros de una generación
+     */
+    private static final class Parametros {
+        long vehiculos = 10_000;
+        long seguros = -1;
+        double asignados = 0.8;
+        double eliminados = 0;
+        long semilla = 1;
+        long desde = 0;
+        LocalDate fechaReferencia = LocalDate.now();
+        String destino = "base";
+        Path salida;
+        long idInicial = -1;
+        int lote = LOTE_POR_DEFECTO;
+    }
+
+    /**
+     * Fila reutilizable de seguro_vehicular
+     */
+    private static final class FilaSeguro {
+        long id;
+        String aseguradora;
+        final StringBuilder poliza = new StringBuilder(16);
+        String cobertura;
+        LocalDate vencimiento;
+    }
+
+    /**
+     * Fila reutilizable de vehiculo
+     */
+    private static final class FilaVehiculo {
+        long id;
+        final StringBuilder dominio = new StringBuilder(8);
+        String marca;
+        String modelo;
+        int anio;
+        final StringBuilder chasis = new StringBuilder(17);
+        long seguroId;
+        boolean eliminado;
+    }
+
+    /**
+     * Destino de las filas generadas
+     */
+    private interface Destino {
+        void seguro(FilaSeguro fila) throws Exception;
+
+        void vehiculo(FilaVehiculo fila) throws Exception;
+
+        /**
+         * Escribe lo pendiente; se llama al terminar cada tabla
+         */
+        void vaciar() throws Exception;
+
+        void cerrar() throws Exception;
+    }
+
+    public static void main(String[] args) {
+        System.out.println("══════════════════════════════════════════════════════════");
+        System.out.println("         GENERADOR DE DATOS DE CAPACIDAD");
+        System.out.println("══════════════════════════════════════════════════════════\n");
+
+        try {
+            Parametros p = leerParametros(args);
+            generar(p);
+        } catch (IllegalArgumentException e) {
+            System.err.println("✗ " + e.getMessage());
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println("✗ ERROR: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private static Parametros leerParametros(String[] args) {
+        Parametros p = new Parametros();
+        for (int i = 0; i < args.length; i++) {
+            String opcion = args[i];
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Falta el valor de " + opcion);
+            }
+            String valor = args[++i];
+            switch (opcion) {
+                case "--vehiculos" -> p.vehiculos = Long.parseLong(valor);
+                case "--seguros" -> p.seguros = Long.parseLong(valor);
+                case "--asignados" -> p.asignados = Double.parseDouble(valor);
+                case "--eliminados" -> p.eliminados = Double.parseDouble(valor);
+                case "--semilla" -> p.semilla = Long.parseLong(valor);
+                case "--desde" -> p.desde = Long.parseLong(valor);
+                case "--fecha-referencia" -> p.fechaReferencia = LocalDate.parse(valor);
+                case "--destino" -> p.destino = valor;
+                case "--salida" -> p.salida = Paths.get(valor);
+                case "--id-inicial" -> p.idInicial = Long.parseLong(valor);
+                case "--lote" -> p.lote = Integer.parseInt(valor);
+                default -> throw new IllegalArgumentException("Opción desconocida: " + opcion);
+            }
+        }
+
+        if (p.seguros < 0) {
+            p.seguros = p.vehiculos;
+        }
+        if (p.vehiculos < 0 || p.desde < 0 || p.lote <= 0) {
+            throw new IllegalArgumentException("Las cantidades deben ser positivas");
+        }
+        if (p.asignados < 0 || p.asignados > 1 || p.eliminados < 0 || p.eliminados > 1) {
+            throw new IllegalArgumentException("Las proporciones deben estar entre 0 y 1");
+        }
+        if (p.desde + p.vehiculos > CAPACIDAD_DOMINIOS) {
+            throw new IllegalArgumentException("No hay dominios suficientes: máximo " + CAPACIDAD_DOMINIOS);
+        }
+        if (p.desde + p.seguros > POLIZAS) {
+            throw new IllegalArgumentException("No hay números de póliza suficientes: máximo " + POLIZAS);
+        }
+        if (!p.destino.equals("base") && p.salida == null) {
+            throw new IllegalArgumentException("El destino " + p.destino + " requiere --salida");
+        }
+        return p;
+    }
+
+    private static void generar(Parametros p) throws Exception {
+        Destino destino;
+        long idSeguro;
+        long idVehiculo;
+
+        switch (p.destino) {
+            case "base" -> {
+                DestinoBase base = new DestinoBase(p.lote);
+                destino = base;
+                idSeguro = p.idInicial > 0 ? p.idInicial : base.siguienteId("seguro_vehicular");
+                idVehiculo = p.idInicial > 0 ? p.idInicial : base.siguienteId("vehiculo");
+            }
+            case "sql" -> {
+                destino = new DestinoSql(p.salida, p.lote);
+                idSeguro = idVehiculo = Math.max(1, p.idInicial);
+            }
+            case "csv" -> {
+                destino = new DestinoCsv(p.salida);
+                idSeguro = idVehiculo = Math.max(1, p.idInicial);
+            }
+            default -> throw new IllegalArgumentException("Destino desconocido: " + p.destino);
+        }
+
+        System.out.println("Vehículos: " + p.vehiculos + " | Seguros: " + p.seguros + " | Semilla: " + p.semilla +
+                           " | Fecha de referencia: " + p.fechaReferencia + " | Destino: " + p.destino);
+
+        long inicio = System.nanoTime();
+        try {
+            generarSeguros(p, idSeguro, destino);
+            destino.vaciar();
+            generarVehiculos(p, idVehiculo, idSeguro, destino);
+            destino.vaciar();
+        } finally {
+            destino.cerrar();
+        }
+
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long filas = p.seguros + p.vehiculos;
+        System.out.printf("%n✓ %d filas generadas en %.1f s (%.0f filas/s)%n", filas, segundos,
+                          segundos > 0 ? filas / segundos : filas);
+    }
+
+    private static void generarSeguros(Parametros p, long idInicial, Destino destino) throws Exception {
+        Azar azar = new Azar();
+        FilaSeguro fila = new FilaSeguro();
+        long referencia = p.fechaReferencia.toEpochDay();
+
+        for (long i = 0; i < p.seguros; i++) {
+            long k = p.desde + i;
+            azar.reiniciar(p.semilla, 1, k);
+
+            Aseguradora aseguradora = ASEGURADORAS[azar.elegir(PESOS_ASEGURADORA)];
+            fila.id = idInicial + i;
+            fila.aseguradora = aseguradora.nombre();
+            poliza(fila.poliza, aseguradora.codigo(), k);
+            fila.cobertura = COBERTURAS[azar.elegir(PESOS_COBERTURA)];
+            // Entre cuatro meses vencido y un año por delante: cerca de un cuarto vencidos
+            fila.vencimiento = LocalDate.ofEpochDay(referencia - 120 + azar.entero(486));
+
+            destino.seguro(fila);
+            progreso("seguros", i + 1);
+        }
+    }
+
+    private static void generarVehiculos(Parametros p, long idInicial, long idSeguroInicial,
+                                         Destino destino) throws Exception {
+        Azar azar = new Azar();
+        FilaVehiculo fila = new FilaVehiculo();
+        int anioReferencia = p.fechaReferencia.getYear();
+        long siguienteSeguro = 0;
+
+        for (long i = 0; i < p.vehiculos; i++) {
+            long k = p.desde + i;
+            azar.reiniciar(p.semilla, 2, k);
+
+            Marca marca = MARCAS[azar.elegir(PESOS_MARCA)];
+            fila.id = idInicial + i;
+            dominio(fila.dominio, k);
+            fila.marca = marca.nombre();
+            fila.modelo = marca.modelos()[azar.entero(marca.modelos().length)];
+            // Antigüedad con distribución exponencial (media 7 años), a lo sumo 30
+            fila.anio = anioReferencia - (int) Math.min(30, -Math.log(1 - azar.decimal()) * 7);
+            chasis(fila.chasis, marca.wmi(), azar, k);
+
+            // Cada seguro se asigna a un único vehículo, en orden
+            fila.seguroId = 0;
+            if (azar.decimal() < p.asignados && siguienteSeguro < p.seguros) {
+                fila.seguroId = idSeguroInicial + siguienteSeguro++;
+            }
+            fila.eliminado = azar.decimal() < p.eliminados;
+
+            destino.vehiculo(fila);
+            progreso("vehículos", i + 1);
+        }
+    }
+
+    private static void progreso(String tabla, long filas) {
+        if (filas % PROGRESO_CADA == 0) {
+            System.out.println("  " + filas + " " + tabla + "...");
+        }
+    }
+
+    // ========================================================================
+    // VALORES ÚNICOS
+    // ========================================================================
+
+    /**
+     * Dominio de la fila k: primero se agota el formato ABC123 y luego AB123CD
+     */
+    static void dominio(StringBuilder destino, long k) {
+        destino.setLength(0);
+        if (k < DOMINIOS_VIEJOS) {
+            long n = Math.floorMod(k * MULT_DOMINIO_VIEJO + 7_777, DOMINIOS_VIEJOS);
+            letras(destino, n / 1000, 3);
+            digitos(destino, n % 1000, 3);
+        } else {
+            long n = Math.floorMod((k - DOMINIOS_VIEJOS) * MULT_DOMINIO_NUEVO + 12_345, DOMINIOS_NUEVOS);
+            long l = n / 1000;
+            letras(destino, l / 676, 2);
+            digitos(destino, n % 1000, 3);
+            letras(destino, l % 676, 2);
+        }
+    }
+
+    /**
+     * Número de póliza de la fila k: código de aseguradora y diez dígitos únicos
+     */
+    static void poliza(StringBuilder destino, String codigo, long k) {
+        destino.setLength(0);
+        destino.append(codigo).append('-');
+        digitos(destino, Math.floorMod(k * MULT_POLIZA + 1_234_567, POLIZAS), 10);
+    }
+
+    /**
+     * Chasis estilo VIN de 17 caracteres: fabricante, 6 caracteres de descripción y
+     * 8 caracteres (40 bits) que identifican la fila
+     */
+    static void chasis(StringBuilder destino, String wmi, Azar azar, long k) {
+        destino.setLength(0);
+        destino.append(wmi);
+        for (int i = 0; i < 6; i++) {
+            destino.append(ALFABETO_VIN.charAt(azar.entero(ALFABETO_VIN.length())));
+        }
+        long serie = (k * MULT_CHASIS + 0x5DEECE66DL) & MASCARA_CHASIS;
+        for (int desplazamiento = 35; desplazamiento >= 0; desplazamiento -= 5) {
+            destino.append(ALFABETO_VIN.charAt((int) ((serie >>> desplazamiento) & 31)));
+        }
+    }
+
+    private static void letras(StringBuilder destino, long valor, int cantidad) {
+        int inicio = destino.length();
+        for (int i = 0; i < cantidad; i++) {
+            destino.insert(inicio, (char) ('A' + valor % 26));
+            valor /= 26;
+        }
+    }
+
+    private static void digitos(StringBuilder destino, long valor, int cantidad) {
+        int inicio = destino.length();
+        for (int i = 0; i < cantidad; i++) {
+            destino.insert(inicio, (char) ('0' + valor % 10));
+            valor /= 10;
+        }
+    }
+
+    /**
+     * Generador pseudoaleatorio splitmix64 que se reinicia por fila
+     * Cada fila depende solo de (semilla, tabla, número de fila), no de las anteriores
+     */
+    static final class Azar {
+        private long estado;
+
+        void reiniciar(long semilla, int tabla, long fila) {
+            estado = mezclar(semilla * 0x9E3779B97F4A7C15L + tabla) ^ fila;
+        }
+
+        long siguiente() {
+            estado += 0x9E3779B97F4A7C15L;
+            return mezclar(estado);
+        }
+
+        int entero(int limite) {
+            return (int) ((siguiente() >>> 33) % limite);
+        }
+
+        double decimal() {
+            return (siguiente() >>> 11) * 0x1.0p-53;
+        }
+
+        int elegir(int[] pesos) {
+            int total = 0;
+            for (int peso : pesos) {
+                total += peso;
+            }
+            int valor = entero(total);
+            for (int i = 0; i < pesos.length; i++) {
+                valor -= pesos[i];
+                if (valor < 0) {
+                    return i;
+                }
+            }
+            return pesos.length - 1;
+        }
+
+        private static long mezclar(long z) {
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    // ========================================================================
+    // DESTINOS
+    // ========================================================================
+
+    private static final String COLUMNAS_SEGURO = "(id, aseguradora, nro_poliza, cobertura, vencimiento, eliminado)";
+    private static final String COLUMNAS_VEHICULO =
+        "(id, dominio, marca, modelo, anio, nro_chasis, seguro_id, eliminado)";
+
+    /**
+     * Carga directa con INSERT de varias filas por sentencia, una transacción por lote
+     * Los valores del lote se acumulan y se vinculan al completar el lote; el último,
+     * incompleto, usa una sentencia de su tamaño
+     */
+    private static final class DestinoBase implements Destino {
+        private final Connection conn;
+        private final int lote;
+        private final Map<String, PreparedStatement> sentencias = new HashMap<>();
+        private Object[] valores = new Object[0];
+        private String tablaActual;
+        private String columnasActuales;
+        private int cantidadColumnas;
+        private int filasEnLote;
+        private int parametro;
+
+        DestinoBase(int lote) throws SQLException {
+            this.conn = DatabaseConnection.getConnection();
+            this.lote = lote;
+            conn.setAutoCommit(false);
+        }
+
+        long siguienteId(String tabla) throws SQLException {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + tabla)) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+
+        @Override
+        public void seguro(FilaSeguro fila) throws SQLException {
+            inicioFila("seguro_vehicular", COLUMNAS_SEGURO, 6);
+            valores[parametro++] = fila.id;
+            valores[parametro++] = fila.aseguradora;
+            valores[parametro++] = fila.poliza.toString();
+            valores[parametro++] = fila.cobertura;
+            valores[parametro++] = java.sql.Date.valueOf(fila.vencimiento);
+            valores[parametro++] = Boolean.FALSE;
+            finFila();
+        }
+
+        @Override
+        public void vehiculo(FilaVehiculo fila) throws SQLException {
+            inicioFila("vehiculo", COLUMNAS_VEHICULO, 8);
+            valores[parametro++] = fila.id;
+            valores[parametro++] = fila.dominio.toString();
+            valores[parametro++] = fila.marca;
+            valores[parametro++] = fila.modelo;
+            valores[parametro++] = fila.anio;
+            valores[parametro++] = fila.chasis.toString();
+            valores[parametro++] = fila.seguroId > 0 ? (Object) fila.seguroId : null;
+            valores[parametro++] = fila.eliminado;
+            finFila();
+        }
+
+        private void inicioFila(String tabla, String columnas, int columnasPorFila) throws SQLException {
+            if (!tabla.equals(tablaActual)) {
+                vaciar();
+                tablaActual = tabla;
+                columnasActuales = columnas;
+                cantidadColumnas = columnasPorFila;
+                valores = new Object[lote * columnasPorFila];
+            }
+        }
+
+        private void finFila() throws SQLException {
+            if (++filasEnLote == lote) {
+                vaciar();
+            }
+        }
+
+        @Override
+        public void vaciar() throws SQLException {
+            if (filasEnLote == 0) {
+                return;
+            }
+
+            String clave = tablaActual + ":" + filasEnLote;
+            PreparedStatement stmt = sentencias.get(clave);
+            if (stmt == null) {
+                stmt = conn.prepareStatement(insertMultiple(tablaActual, columnasActuales, cantidadColumnas,
+                                                            filasEnLote));
+                sentencias.put(clave, stmt);
+            }
+
+            for (int i = 0; i < parametro; i++) {
+                if (valores[i] == null) {
+                    stmt.setNull(i + 1, Types.BIGINT);
+                } else {
+                    stmt.setObject(i + 1, valores[i]);
+                }
+            }
+            stmt.executeUpdate();
+            conn.commit();
+
+            filasEnLote = 0;
+            parametro = 0;
+        }
+
+        @Override
+        public void cerrar() throws SQLException {
+            try {
+                for (PreparedStatement stmt : sentencias.values()) {
+                    stmt.close();
+                }
+                conn.rollback();
+                conn.setAutoCommit(true);
+            } finally {
+                conn.close();
+            }
+        }
+    }
+
+    private static String insertMultiple(String tabla, String columnas, int cantidadColumnas, int filas) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tabla).append(' ').append(columnas)
+                                                             .append(" VALUES ");
+        for (int f = 0; f < filas; f++) {
+            sql.append(f == 0 ? "(" : ", (");
+            for (int c = 0; c < cantidadColumnas; c++) {
+                sql.append(c == 0 ? "?" : ", ?");
+            }
+            sql.append(')');
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Script SQL con INSERT de varias filas y un COMMIT por lote
+     */
+    private static final class DestinoSql implements Destino {
+        private final Writer salida;
+        private final int lote;
+        private final StringBuilder linea = new StringBuilder(256);
+        private String tablaActual;
+        private int filasEnLote;
+
+        DestinoSql(Path archivo, int lote) throws IOException {
+            this.salida = abrir(archivo);
+            this.lote = lote;
+            salida.write("USE vehiculos_seguros_db;\nSET autocommit = 0;\n");
+        }
+
+        @Override
+        public void seguro(FilaSeguro fila) throws IOException {
+            inicioFila("seguro_vehicular", COLUMNAS_SEGURO);
+            linea.append(fila.id).append(", ");
+            texto(fila.aseguradora).append(", ");
+            texto(fila.poliza).append(", '").append(fila.cobertura).append("', '")
+                 .append(fila.vencimiento).append("', FALSE)");
+            finFila();
+        }
+
+        @Override
+        public void vehiculo(FilaVehiculo fila) throws IOException {
+            inicioFila("vehiculo", COLUMNAS_VEHICULO);
+            linea.append(fila.id).append(", ");
+            texto(fila.dominio).append(", ");
+            texto(fila.marca).append(", ");
+            texto(fila.modelo).append(", ").append(fila.anio).append(", ");
+            texto(fila.chasis).append(", ");
+            if (fila.seguroId > 0) {
+                linea.append(fila.seguroId);
+            } else {
+                linea.append("NULL");
+            }
+            linea.append(fila.eliminado ? ", TRUE)" : ", FALSE)");
+            finFila();
+        }
+
+        private void inicioFila(String tabla, String columnas) throws IOException {
+            if (!tabla.equals(tablaActual)) {
+                vaciar();
+                tablaActual = tabla;
+            }
+            linea.setLength(0);
+            if (filasEnLote == 0) {
+                linea.append("INSERT INTO ").append(tabla).append(' ').append(columnas).append(" VALUES\n(");
+            } else {
+                linea.append(",\n(");
+            }
+        }
+
+        private void finFila() throws IOException {
+            salida.append(linea);
+            if (++filasEnLote == lote) {
+                vaciar();
+            }
+        }
+
+        private StringBuilder texto(CharSequence valor) {
+            linea.append('\'');
+            for (int i = 0; i < valor.length(); i++) {
+                char c = valor.charAt(i);
+                if (c == '\'' || c == '\\') {
+                    linea.append(c);
+                }
+                linea.append(c);
+            }
+            return linea.append('\'');
+        }
+
+        @Override
+        public void vaciar() throws IOException {
+            if (filasEnLote > 0) {
+                salida.write(";\nCOMMIT;\n");
+                filasEnLote = 0;
+            }
+        }
+
+        @Override
+        public void cerrar() throws IOException {
+            vaciar();
+            salida.write("SET autocommit = 1;\n");
+            salida.close();
+        }
+    }
+
+    /**
+     * Un archivo CSV por tabla, con encabezado, para LOAD DATA INFILE
+     */
+    private static final class DestinoCsv implements Destino {
+        private final Writer seguros;
+        private final Writer vehiculos;
+        private final StringBuilder linea = new StringBuilder(256);
+
+        DestinoCsv(Path directorio) throws IOException {
+            Files.createDirectories(directorio);
+            this.seguros = abrir(directorio.resolve("seguro_vehicular.csv"));
+            this.vehiculos = abrir(directorio.resolve("vehiculo.csv"));
+            seguros.write("id,aseguradora,nro_poliza,cobertura,vencimiento,eliminado\n");
+            vehiculos.write("id,dominio,marca,modelo,anio,nro_chasis,seguro_id,eliminado\n");
+        }
+
+        @Override
+        public void seguro(FilaSeguro fila) throws IOException {
+            linea.setLength(0);
+            linea.append(fila.id).append(',');
+            campo(fila.aseguradora).append(',').append(fila.poliza).append(',').append(fila.cobertura)
+                .append(',').append(fila.vencimiento).append(",0\n");
+            seguros.append(linea);
+        }
+
+        @Override
+        public void vehiculo(FilaVehiculo fila) throws IOException {
+            linea.setLength(0);
+            linea.append(fila.id).append(',').append(fila.dominio).append(',');
+            campo(fila.marca).append(',');
+            campo(fila.modelo).append(',').append(fila.anio).append(',').append(fila.chasis).append(',');
+            if (fila.seguroId > 0) {
+                linea.append(fila.seguroId);
+            } else {
+                linea.append("\\N");
+            }
+            linea.append(fila.eliminado ? ",1\n" : ",0\n");
+            vehiculos.append(linea);
+        }
+
+        private StringBuilder campo(String valor) {
+            if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0) {
+                return linea.append(valor);
+            }
+            return linea.append('"').append(valor.replace("\"", "\"\"")).append('"');
+        }
+
+        @Override
+        public void vaciar() throws IOException {
+            seguros.flush();
+            vehiculos.flush();
+        }
+
+        @Override
+        public void cerrar() throws IOException {
+            try {
+                seguros.close();
+            } finally {
+                vehiculos.close();
+            }
+        }
+    }
+
+    private static Writer abrir(Path archivo) throws IOException {
+        return new BufferedWriter(Files.newBufferedWriter(archivo, StandardCharsets.UTF_8), 1 << 20);
+    }
+}
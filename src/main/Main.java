@@ -1,24 +1,78 @@
 package main;
 
+import config.Configuracion;
 import config.DatabaseConnection;
+import service.FiltroExistenciaVehiculos;
+import service.SnapshotService;
+import util.Registro;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
 /**
  * Clase principal que inicia la aplicación
  * Sistema de Gestión de Vehículos y Seguros
+ * Opciones:
+ *   --arranque-rapido  precalienta pool, sentencias y clases antes de mostrar el menú
+ *   --entrenar-cds     corrida de entrenamiento para el archivo AppCDS: precalienta y termina
+ *   --debug            muestra también los mensajes de nivel DEBUG
+ *   --fragmentos N     reparte los datos en N esquemas vehiculos_seguros_db_0 .. _N-1
+ *                      (tiene prioridad sobre db.fragmentos)
+ * El resto de la configuración sale de db.properties (ver Configuracion) y se vuelve a
+ * leer mientras la aplicación está abierta.
  */
 public class Main {
     
+    private static final long ESPERA_REGISTRO_MS = 1000;
+    
     public static void main(String[] args) {
+        List<String> opciones = Arrays.asList(args);
+        Configuracion config = Configuracion.getInstancia();
+        if (opciones.contains("--debug")) {
+            config.establecer("registro.nivel", Registro.Nivel.DEBUG.name());
+        }
+        try {
+            aplicarNivelRegistro();
+        } catch (IllegalArgumentException e) {
+            Registro.advertencia("⚠ " + e.getMessage());
+        }
+        config.alCambiar(Main::aplicarNivelRegistro, "registro.nivel");
+        
+        int indiceFragmentos = opciones.indexOf("--fragmentos");
+        if (indiceFragmentos < 0 && DatabaseConnection.fragmentosConfigurados() > 1) {
+            DatabaseConnection.configurarFragmentos(DatabaseConnection.fragmentosConfigurados());
+        } else if (indiceFragmentos >= 0) {
+            try {
+                DatabaseConnection.configurarFragmentos(Integer.parseInt(opciones.get(indiceFragmentos + 1)));
+            } catch (RuntimeException e) {
+                System.err.println("✗ --fragmentos requiere una cantidad mayor a cero");
+                System.exit(1);
+            }
+        }
+        
+        if (opciones.contains("--entrenar-cds")) {
+            entrenarCds();
+            return;
+        }
+        
         mostrarBanner();
         
         // Verificar conexión a la base de datos
         System.out.println("Verificando conexión a la base de datos...");
-        if (!DatabaseConnection.testConnection()) {
+        boolean conectado;
+        if (opciones.contains("--arranque-rapido")) {
+            conectado = arranqueRapido();
+        } else {
+            conectado = DatabaseConnection.testConnection();
+        }
+        if (!conectado) {
             System.err.println("\n✗ ERROR: No se pudo conectar a la base de datos");
             System.err.println("Por favor verifica:");
             System.err.println("  1. Que MySQL esté corriendo en XAMPP");
             System.err.println("  2. Que la base de datos 'vehiculos_seguros_db' exista");
-            System.err.println("  3. Las credenciales en DatabaseConnection.java");
+            System.err.println("  3. Las credenciales en " + config.getArchivo());
             System.err.println("\nEjecuta los scripts:");
             System.err.println("  - db_create.sql (crear base de datos y tablas)");
             System.err.println("  - db_data.sql (cargar datos de prueba)");
@@ -27,13 +81,65 @@ public class Main {
         
         System.out.println("✓ Conexión exitosa a la base de datos\n");
         
+        // Los cambios en db.properties se aplican sin reiniciar
+        config.iniciarRecarga();
+        
+        // Estado para el orquestador (JMX y, si está configurado, HTTP)
+        ServidorSalud.iniciar();
+        
+        // Caché negativa de dominios y chasis; se carga en segundo plano
+        FiltroExistenciaVehiculos.getInstancia().iniciar();
+        
+        // Arranque en caliente de los modelos en memoria desde el snapshot; también en segundo plano
+        SnapshotService snapshots = new SnapshotService();
+        snapshots.iniciar();
+        
         // Iniciar el menú de la aplicación
         AppMenu menu = new AppMenu();
         menu.mostrarMenu();
+        Registro.vaciar(ESPERA_REGISTRO_MS);
         
         System.out.println("\n╔════════════════════════════════════════════════════════════╗");
         System.out.println("║        ¡Gracias por usar el sistema!                      ║");
         System.out.println("╚════════════════════════════════════════════════════════════╝");
+        ServidorSalud.detener();
+        snapshots.detenerSnapshots();
+        DatabaseConnection.cerrarPool();
+    }
+    
+    private static boolean arranqueRapido() {
+        try {
+            ArranqueRapido.mostrar(ArranqueRapido.ejecutar(ArranqueRapido.CONEXIONES_POR_DEFECTO, false));
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error en el arranque rápido: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Carga las mismas clases que un arranque real sin requerir la base de datos
+     */
+    private static void entrenarCds() {
+        try {
+            ArranqueRapido.mostrar(ArranqueRapido.ejecutar(ArranqueRapido.CONEXIONES_POR_DEFECTO, true));
+        } catch (SQLException e) {
+            System.err.println("Error en la corrida de entrenamiento: " + e.getMessage());
+        } finally {
+            DatabaseConnection.cerrarPool();
+        }
+    }
+    
+    /**
+     * Nivel mínimo del registro según registro.nivel (INFO si no está configurado)
+     */
+    private static void aplicarNivelRegistro() {
+        String nivel = Configuracion.getInstancia().getTexto("registro.nivel", Registro.Nivel.INFO.name());
+        try {
+            Registro.setNivelMinimo(Registro.Nivel.valueOf(nivel.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Nivel de registro inválido: " + nivel);
+        }
     }
     
     private static void mostrarBanner() {
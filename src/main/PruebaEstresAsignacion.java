@@ -0,0 +1,350 @@
+package main;
+
+import config.DatabaseConnection;
+import service.ClaseOperacion;
+import service.LimitadorConcurrencia;
+import service.VehiculoService;
+import util.Registro;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prueba de estrés de asignación de seguros con muchos hilos concurrentes
+ * Crea sus propios vehículos y seguros (marcados con un prefijo de corrida), lanza
+ * cientos de hilos que asignan y desasignan seguros al azar sobre pocos seguros para
+ * forzar la contención, y al final verifica en la base que ningún seguro quedó en más
+ * de un vehículo. Los rechazos esperados ("ya está asignado", "no tiene un seguro
+ * asignado") cuentan como conflictos; cualquier otro error, por ejemplo una violación
+ * de la clave única o un deadlock que agotó los reintentos, hace fallar la prueba.
+ *
+ * Uso:
+ *   PruebaEstresAsignacion [opciones]
+ *     --hilos N          hilos asignadores (por defecto 200)
+ *     --operaciones N    operaciones por hilo (por defecto 50)
+ *     --vehiculos N      vehículos de la prueba (por defecto 400)
+ *     --seguros N        seguros de la prueba (por defecto 40)
+ *     --conservar        no borra los datos de la prueba al terminar
+ */
+public class PruebaEstresAsignacion {
+
+    private static final String PREFIJO = "ESTRES-";
+    private static final int CONCURRENCIA_MAXIMA = 32;
+    private static final long TIMEOUT_ESCRITURA_MS = 60000;
+
+    private static final String INSERT_SEGURO =
+        "INSERT INTO seguro_vehicular (aseguradora, nro_poliza, cobertura, vencimiento) VALUES (?, ?, 'TERCEROS', ?)";
+    private static final String INSERT_VEHICULO =
+        "INSERT INTO vehiculo (dominio, marca, modelo, anio, nro_chasis) VALUES (?, 'Prueba', 'Estrés', 2020, ?)";
+    private static final String SELECT_IDS_SEGUROS =
+        "SELECT id FROM seguro_vehicular WHERE nro_poliza LIKE ? ORDER BY id";
+    private static final String SELECT_IDS_VEHICULOS =
+        "SELECT id FROM vehiculo WHERE nro_chasis LIKE ? ORDER BY id";
+    private static final String SELECT_SEGUROS_DUPLICADOS =
+        "SELECT seguro_id, COUNT(*) FROM vehiculo WHERE seguro_id IS NOT NULL AND nro_chasis LIKE ? " +
+        "GROUP BY seguro_id HAVING COUNT(*) > 1";
+    private static final String SELECT_ASIGNADOS =
+        "SELECT COUNT(*) FROM vehiculo WHERE seguro_id IS NOT NULL AND nro_chasis LIKE ?";
+    private static final String DELETE_VEHICULOS =
+        "DELETE FROM vehiculo WHERE nro_chasis LIKE ?";
+    private static final String DELETE_SEGUROS =
+        "DELETE FROM seguro_vehicular WHERE nro_poliza LIKE ?";
+
+    /**
+     * Parámetros de una corrida
+     */
+    private static final class Parametros {
+        int hilos = 200;
+        int operaciones = 50;
+        int vehiculos = 400;
+        int seguros = 40;
+        boolean conservar;
+    }
+
+    /**
+     * Contadores compartidos por los hilos
+     */
+    private static final class Resultados {
+        final AtomicLong asignaciones = new AtomicLong();
+        final AtomicLong desasignaciones = new AtomicLong();
+        final AtomicLong conflictos = new AtomicLong();
+        final AtomicLong inesperados = new AtomicLong();
+        final Map<String, AtomicLong> errores = new ConcurrentHashMap<>();
+    }
+
+    public static void main(String[] args) {
+        System.out.println("══════════════════════════════════════════════════════════");
+        System.out.println("       PRUEBA DE ESTRÉS DE ASIGNACIÓN DE SEGUROS");
+        System.out.println("══════════════════════════════════════════════════════════\n");
+
+        int codigo;
+        try {
+            Parametros p = leerParametros(args);
+            codigo = ejecutar(p) ? 0 : 1;
+        } catch (IllegalArgumentException e) {
+            System.err.println("✗ " + e.getMessage());
+            codigo = 2;
+        } catch (Exception e) {
+            System.err.println("✗ ERROR: " + e.getMessage());
+            e.printStackTrace();
+            codigo = 1;
+        } finally {
+            DatabaseConnection.cerrarPool();
+        }
+        System.exit(codigo);
+    }
+
+    private static Parametros leerParametros(String[] args) {
+        Parametros p = new Parametros();
+        for (int i = 0; i < args.length; i++) {
+            String opcion = args[i];
+            if (opcion.equals("--conservar")) {
+                p.conservar = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Falta el valor de " + opcion);
+            }
+            String valor = args[++i];
+            switch (opcion) {
+                case "--hilos" -> p.hilos = Integer.parseInt(valor);
+                case "--operaciones" -> p.operaciones = Integer.parseInt(valor);
+                case "--vehiculos" -> p.vehiculos = Integer.parseInt(valor);
+                case "--seguros" -> p.seguros = Integer.parseInt(valor);
+                default -> throw new IllegalArgumentException("Opción desconocida: " + opcion);
+            }
+        }
+
+        if (p.hilos <= 0 || p.operaciones <= 0 || p.vehiculos <= 0 || p.seguros <= 0) {
+            throw new IllegalArgumentException("Las cantidades deben ser positivas");
+        }
+        if (p.vehiculos > 99999) {
+            throw new IllegalArgumentException("Como máximo 99999 vehículos por corrida");
+        }
+        return p;
+    }
+
+    /**
+     * Ejecuta la prueba completa; devuelve true si no hubo errores inesperados ni duplicados
+     */
+    private static boolean ejecutar(Parametros p) throws Exception {
+        String corrida = Long.toString(System.currentTimeMillis() % (36L * 36 * 36 * 36), 36).toUpperCase();
+        String marca = PREFIJO + corrida + "-";
+        String patron = marca + "%";
+
+        Registro.Nivel nivelAnterior = Registro.getNivelMinimo();
+        try {
+            List<Long> seguros = new ArrayList<>();
+            List<Long> vehiculos = new ArrayList<>();
+            crearDatos(p, corrida, marca, patron, seguros, vehiculos);
+            System.out.println("✓ Corrida " + corrida + ": " + vehiculos.size() + " vehículos y " +
+                               seguros.size() + " seguros creados");
+
+            // Dejar entrar a todos los hilos: la contención se busca en la base, no en el limitador
+            LimitadorConcurrencia.getInstancia().configurar(ClaseOperacion.ESCRITURA,
+                    Math.min(p.hilos, CONCURRENCIA_MAXIMA), p.hilos, TIMEOUT_ESCRITURA_MS);
+            Registro.setNivelMinimo(Registro.Nivel.ERROR);
+
+            Resultados resultados = new Resultados();
+            long inicio = System.nanoTime();
+            correr(p, seguros, vehiculos, resultados);
+            long duracionMs = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+
+            Registro.setNivelMinimo(nivelAnterior);
+            Registro.vaciar(1000);
+
+            long duplicados = verificar(patron);
+            mostrar(p, resultados, duracionMs, duplicados, contarAsignados(patron));
+            return duplicados == 0 && resultados.inesperados.get() == 0;
+
+        } finally {
+            Registro.setNivelMinimo(nivelAnterior);
+            if (p.conservar) {
+                System.out.println("ℹ Datos conservados (prefijo " + marca + ")");
+            } else {
+                limpiar(patron);
+            }
+        }
+    }
+
+    private static void crearDatos(Parametros p, String corrida, String marca, String patron,
+                                   List<Long> seguros, List<Long> vehiculos) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_SEGURO)) {
+                for (int i = 0; i < p.seguros; i++) {
+                    stmt.setString(1, "Prueba de estrés");
+                    stmt.setString(2, marca + "S" + i);
+                    stmt.setObject(3, LocalDate.now().plusYears(1));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_VEHICULO)) {
+                for (int i = 0; i < p.vehiculos; i++) {
+                    // Dominio de 10 caracteres fuera del formato válido: no choca con datos reales
+                    stmt.setString(1, "E" + corrida + String.format("%05d", i));
+                    stmt.setString(2, marca + "V" + i);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            conn.commit();
+
+            leerIds(conn, SELECT_IDS_SEGUROS, patron, seguros);
+            leerIds(conn, SELECT_IDS_VEHICULOS, patron, vehiculos);
+        }
+    }
+
+    private static void leerIds(Connection conn, String sql, String patron, List<Long> ids) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, patron);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Lanza los hilos y espera a que terminen; todos arrancan a la vez
+     */
+    private static void correr(Parametros p, List<Long> seguros, List<Long> vehiculos,
+                               Resultados resultados) throws InterruptedException {
+        VehiculoService servicio = new VehiculoService();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Thread> hilos = new ArrayList<>(p.hilos);
+
+        for (int h = 0; h < p.hilos; h++) {
+            Thread hilo = new Thread(() -> {
+                try {
+                    largada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ThreadLocalRandom azar = ThreadLocalRandom.current();
+                for (int i = 0; i < p.operaciones; i++) {
+                    long vehiculoId = vehiculos.get(azar.nextInt(vehiculos.size()));
+                    // Tres de cada cuatro operaciones asignan, para mantener los seguros disputados
+                    if (azar.nextInt(4) < 3) {
+                        long seguroId = seguros.get(azar.nextInt(seguros.size()));
+                        operar(resultados, resultados.asignaciones,
+                               () -> servicio.asignarSeguro(vehiculoId, seguroId));
+                    } else {
+                        operar(resultados, resultados.desasignaciones,
+                               () -> servicio.desasignarSeguro(vehiculoId));
+                    }
+                }
+            }, "asignador-" + h);
+            hilos.add(hilo);
+            hilo.start();
+        }
+
+        largada.countDown();
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+    }
+
+    private interface Accion {
+        void ejecutar() throws Exception;
+    }
+
+    private static void operar(Resultados resultados, AtomicLong exitos, Accion accion) {
+        try {
+            accion.ejecutar();
+            exitos.incrementAndGet();
+        } catch (Exception e) {
+            String mensaje = String.valueOf(e.getMessage());
+            if (mensaje.contains("ya está asignado") || mensaje.contains("no tiene un seguro asignado")) {
+                resultados.conflictos.incrementAndGet();
+            } else {
+                resultados.inesperados.incrementAndGet();
+                resultados.errores.computeIfAbsent(mensaje, m -> new AtomicLong()).incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Cuenta los seguros que quedaron asignados a más de un vehículo
+     */
+    private static long verificar(String patron) throws SQLException {
+        long duplicados = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_SEGUROS_DUPLICADOS)) {
+            stmt.setString(1, patron);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    duplicados++;
+                    System.err.println("✗ Seguro " + rs.getLong(1) + " asignado a " + rs.getLong(2) + " vehículos");
+                }
+            }
+        }
+        return duplicados;
+    }
+
+    private static long contarAsignados(String patron) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SELECT_ASIGNADOS)) {
+            stmt.setString(1, patron);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Borra los datos de la corrida: primero los vehículos, que referencian a los seguros
+     */
+    private static void limpiar(String patron) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int vehiculos;
+            int seguros;
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_VEHICULOS)) {
+                stmt.setString(1, patron);
+                vehiculos = stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(DELETE_SEGUROS)) {
+                stmt.setString(1, patron);
+                seguros = stmt.executeUpdate();
+            }
+            System.out.println("✓ Datos de prueba eliminados (" + vehiculos + " vehículos, " + seguros + " seguros)");
+        } catch (SQLException e) {
+            System.err.println("⚠ No se pudieron borrar los datos de prueba: " + e.getMessage());
+        }
+    }
+
+    private static void mostrar(Parametros p, Resultados r, long duracionMs, long duplicados, long asignados) {
+        long total = r.asignaciones.get() + r.desasignaciones.get() + r.conflictos.get() + r.inesperados.get();
+        System.out.println();
+        System.out.println("Hilos: " + p.hilos + " | operaciones: " + total + " en " + duracionMs + " ms (" +
+                           (total * 1000 / duracionMs) + " op/s)");
+        System.out.println("  Asignaciones:       " + r.asignaciones.get());
+        System.out.println("  Desasignaciones:    " + r.desasignaciones.get());
+        System.out.println("  Conflictos:         " + r.conflictos.get());
+        System.out.println("  Errores inesperados: " + r.inesperados.get());
+        for (Map.Entry<String, AtomicLong> error : r.errores.entrySet()) {
+            System.out.println("    " + error.getValue().get() + " × " + error.getKey());
+        }
+        System.out.println("  Vehículos con seguro al final: " + asignados + " (máximo " + p.seguros + ")");
+        System.out.println();
+        if (duplicados == 0 && r.inesperados.get() == 0) {
+            System.out.println("✓ Ningún seguro quedó asignado a más de un vehículo");
+        } else {
+            System.out.println("✗ La prueba falló: " + duplicados + " seguros duplicados, " +
+                               r.inesperados.get() + " errores inesperados");
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package main;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Atributos de salud publicados por JMX (vehiculoseguro:type=Salud)
+ * Todos salen de MonitorSalud: leerlos seguido no agrega carga a la base.
+ */
+public interface SaludMXBean {
+
+    boolean isVivo();
+
+    boolean isListo();
+
+    List<String> getMotivos();
+
+    long getSondeoHaceMs();
+
+    /** -1 si todavía no se usó ninguna conexión */
+    long getUltimoUsoHaceMs();
+
+    /** Mayor retraso entre las réplicas, -1 si no hay réplicas o no se pudo consultar */
+    long getRetrasoReplicaS();
+
+    int getConexionesEnUso();
+
+    int getConexionesMaximas();
+
+    int getConexionesOciosas();
+
+    double getUtilizacionPool();
+
+    long getEsperasPool();
+
+    double getEsperaPromedioPoolMs();
+
+    long getPedidosSinConexion();
+
+    long getOperacionesRechazadas();
+
+    long getReintentos();
+
+    long getTransaccionesAgotadas();
+
+    long getEventosPublicados();
+
+    int getEventosPendientes();
+
+    long getEventosDescartados();
+
+    boolean isFiltroListo();
+
+    double getFiltroProporcionDescartadas();
+
+    /**
+     * Configuración efectiva con el origen de cada valor
+     */
+    Map<String, String> getConfiguracion();
+
+    /**
+     * Cambia una clave en ejecución (ver Configuracion.establecer)
+     */
+    void establecerConfiguracion(String clave, String valor);
+}
@@ -0,0 +1,423 @@
+package main;
+
+import config.Configuracion;
+import config.PoolConexiones;
+import service.FiltroExistenciaVehiculos;
+import service.LimitadorConcurrencia;
+import service.MonitorSalud;
+import service.ReintentosTransaccion;
+import util.CacheCercana;
+import util.Registro;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Publica el estado de MonitorSalud para el orquestador
+ * Por HTTP, en la dirección local y el puerto de salud.http.puerto (0: no se publica):
+ *   GET /salud/vivo   200 si la base responde, 503 si no
+ *   GET /salud/listo  200 si además puede atender (réplicas al día, pool sin agotar)
+ *   GET /salud        informe completo en JSON (200 o 503 según listo)
+ * Por JMX, siempre, como vehiculoseguro:type=Salud (ver SaludMXBean).
+ * Un solo hilo atiende los pedidos: cada uno lee el sondeo cacheado y métricas en memoria.
+ */
+public final class ServidorSalud {
+
+    public static final String NOMBRE_JMX = "vehiculoseguro:type=Salud";
+    public static final String DIRECCION_POR_DEFECTO = "127.0.0.1";
+
+    private static HttpServer servidor;
+    private static ObjectName registrado;
+
+    private ServidorSalud() {
+    }
+
+    /**
+     * Registra el MXBean y, si hay un puerto configurado, abre el endpoint HTTP
+     */
+    public static synchronized void iniciar() {
+        registrarJmx();
+
+        Configuracion config = Configuracion.getInstancia();
+        int puerto = config.getEntero("salud.http.puerto", 0);
+        if (puerto <= 0 || servidor != null) {
+            return;
+        }
+        String direccion = config.getTexto("salud.http.direccion", DIRECCION_POR_DEFECTO);
+        try {
+            servidor = HttpServer.create(new InetSocketAddress(direccion, puerto), 0);
+            servidor.createContext("/salud", ServidorSalud::atender);
+            servidor.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread hilo = new Thread(r, "salud-http");
+                hilo.setDaemon(true);
+                return hilo;
+            }));
+            servidor.start();
+            Registro.info("✓ Salud publicada en http://" + direccion + ":" + puerto + "/salud");
+        } catch (IOException | IllegalArgumentException e) {
+            servidor = null;
+            Registro.error("✗ No se pudo abrir el endpoint de salud en " + direccion + ":" + puerto + ": " + e.getMessage());
+        }
+    }
+
+    public static synchronized void detener() {
+        if (servidor != null) {
+            servidor.stop(0);
+            servidor = null;
+        }
+        if (registrado != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registrado);
+            } catch (JMException e) {
+                // Ya no estaba registrado
+            }
+            registrado = null;
+        }
+    }
+
+    private static void registrarJmx() {
+        if (registrado != null) {
+            return;
+        }
+        try {
+            MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(NOMBRE_JMX);
+            if (!mbeans.isRegistered(nombre)) {
+                mbeans.registerMBean(new StandardMBean(new Salud(), SaludMXBean.class, true), nombre);
+            }
+            registrado = nombre;
+        } catch (JMException e) {
+            Registro.error("✗ No se pudo registrar " + NOMBRE_JMX + ": " + e.getMessage());
+        }
+    }
+
+    private static void atender(HttpExchange intercambio) throws IOException {
+        try (intercambio) {
+            if (!"GET".equals(intercambio.getRequestMethod())) {
+                responder(intercambio, 405, "text/plain", "Solo GET\n");
+                return;
+            }
+            MonitorSalud monitor = MonitorSalud.getInstancia();
+            switch (intercambio.getRequestURI().getPath()) {
+                case "/salud/vivo" -> {
+                    boolean vivo = monitor.estaVivo();
+                    responder(intercambio, vivo ? 200 : 503, "text/plain", vivo ? "vivo\n" : "sin base de datos\n");
+                }
+                case "/salud/listo" -> {
+                    MonitorSalud.Informe informe = monitor.getInforme();
+                    String cuerpo = informe.listo() ? "listo\n" : String.join("\n", informe.motivos()) + "\n";
+                    responder(intercambio, informe.listo() ? 200 : 503, "text/plain", cuerpo);
+                }
+                case "/salud", "/salud/" -> {
+                    MonitorSalud.Informe informe = monitor.getInforme();
+                    responder(intercambio, informe.listo() ? 200 : 503, "application/json", json(informe));
+                }
+                default -> responder(intercambio, 404, "text/plain", "No encontrado\n");
+            }
+        } catch (RuntimeException e) {
+            Registro.error("✗ Error en el endpoint de salud: " + e.getMessage());
+        }
+    }
+
+    private static void responder(HttpExchange intercambio, int estado, String tipo, String cuerpo) throws IOException {
+        byte[] bytes = cuerpo.getBytes(StandardCharsets.UTF_8);
+        intercambio.getResponseHeaders().set("Content-Type", tipo + "; charset=utf-8");
+        intercambio.getResponseHeaders().set("Cache-Control", "no-store");
+        intercambio.sendResponseHeaders(estado, bytes.length);
+        try (OutputStream salida = intercambio.getResponseBody()) {
+            salida.write(bytes);
+        }
+    }
+
+    static String json(MonitorSalud.Informe informe) {
+        StringBuilder json = new StringBuilder(1024);
+        json.append("{\"vivo\":").append(informe.vivo())
+            .append(",\"listo\":").append(informe.listo())
+            .append(",\"motivos\":[");
+        for (int i = 0; i < informe.motivos().size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            texto(json, informe.motivos().get(i));
+        }
+        json.append("],\"sondeoHaceMs\":").append(informe.sondeoHaceMs())
+            .append(",\"ultimoUsoHaceMs\":").append(informe.ultimoUsoHaceMs());
+
+        json.append(",\"fragmentos\":[");
+        for (int i = 0; i < informe.fragmentos().size(); i++) {
+            MonitorSalud.EstadoFragmento f = informe.fragmentos().get(i);
+            json.append(i > 0 ? ",{" : "{")
+                .append("\"fragmento\":").append(f.fragmento())
+                .append(",\"vivo\":").append(f.vivo())
+                .append(",\"latenciaMs\":").append(f.latenciaMs())
+                .append(",\"replica\":").append(f.replica())
+                .append(",\"retrasoReplicaS\":").append(f.retrasoReplicaS())
+                .append(",\"error\":");
+            texto(json, f.error());
+            json.append('}');
+        }
+
+        PoolConexiones.Metricas pool = informe.pool();
+        json.append("],\"pool\":{\"tamanioMaximo\":").append(pool.tamanioMaximo())
+            .append(",\"enUso\":").append(pool.enUso())
+            .append(",\"ociosas\":").append(pool.ociosas())
+            .append(",\"utilizacion\":").append(decimal(pool.utilizacion()))
+            .append(",\"creadas\":").append(pool.creadas())
+            .append(",\"reutilizadas\":").append(pool.reutilizadas())
+            .append(",\"descartadas\":").append(pool.descartadas())
+            .append(",\"esperas\":").append(pool.esperas())
+            .append(",\"esperaPromedioMs\":").append(decimal(pool.esperaPromedioMs()))
+            .append(",\"agotadas\":").append(pool.agotadas())
+            .append('}');
+
+        json.append(",\"limitador\":[");
+        List<LimitadorConcurrencia.Metricas> limitador = informe.limitador();
+        for (int i = 0; i < limitador.size(); i++) {
+            LimitadorConcurrencia.Metricas m = limitador.get(i);
+            json.append(i > 0 ? ",{" : "{")
+                .append("\"clase\":\"").append(m.clase()).append('"')
+                .append(",\"enCurso\":").append(m.enCurso())
+                .append(",\"concurrenciaMaxima\":").append(m.concurrenciaMaxima())
+                .append(",\"enEspera\":").append(m.enEspera())
+                .append(",\"esperaMaxima\":").append(m.esperaMaxima())
+                .append(",\"aceptadas\":").append(m.aceptadas())
+                .append(",\"rechazadas\":").append(m.rechazadas())
+                .append(",\"rechazadasPorTimeout\":").append(m.rechazadasPorTimeout())
+                .append(",\"esperaPromedioMs\":").append(decimal(m.esperaPromedioMs()))
+                .append('}');
+        }
+
+        ReintentosTransaccion.Metricas r = informe.reintentos();
+        json.append("],\"reintentos\":{\"ejecuciones\":").append(r.ejecuciones())
+            .append(",\"reintentos\":").append(r.reintentos())
+            .append(",\"exitosasTrasReintento\":").append(r.exitosasTrasReintento())
+            .append(",\"agotadas\":").append(r.agotadas())
+            .append(",\"fallasPorCodigo\":{");
+        boolean primera = true;
+        for (Map.Entry<String, Long> falla : r.fallasPorCodigo().entrySet()) {
+            if (!primera) {
+                json.append(',');
+            }
+            primera = false;
+            texto(json, falla.getKey());
+            json.append(':').append(falla.getValue());
+        }
+
+        MonitorSalud.EstadoBus bus = informe.bus();
+        json.append("}},\"bus\":{\"publicados\":").append(bus.publicados())
+            .append(",\"pendientes\":").append(bus.pendientes())
+            .append(",\"descartados\":").append(bus.descartados())
+            .append(",\"errores\":").append(bus.errores())
+            .append('}');
+
+        FiltroExistenciaVehiculos.Metricas filtro = informe.filtro();
+        json.append(",\"filtro\":{\"listo\":").append(filtro.listo())
+            .append(",\"consultas\":").append(filtro.consultas())
+            .append(",\"descartadas\":").append(filtro.descartadas())
+            .append(",\"reconstrucciones\":").append(filtro.reconstrucciones())
+            .append(",\"vehiculosCargados\":").append(filtro.vehiculosCargados());
+        if (filtro.filtro() != null) {
+            json.append(",\"bytes\":").append(filtro.filtro().bytes())
+                .append(",\"tasaEstimada\":").append(decimal(filtro.filtro().tasaEstimada()))
+                .append(",\"saturado\":").append(filtro.filtro().saturado());
+        }
+
+        json.append("},\"caches\":[");
+        List<CacheCercana.Metricas> caches = informe.caches();
+        for (int i = 0; i < caches.size(); i++) {
+            CacheCercana.Metricas c = caches.get(i);
+            json.append(i > 0 ? ",{" : "{")
+                .append("\"nombre\":");
+            texto(json, c.nombre());
+            json.append(",\"claves\":").append(c.claves())
+                .append(",\"entidades\":").append(c.entidades())
+                .append(",\"aciertos\":").append(c.aciertos())
+                .append(",\"aciertosNegativos\":").append(c.aciertosNegativos())
+                .append(",\"fallos\":").append(c.fallos())
+                .append(",\"proporcionAciertos\":").append(decimal(c.proporcionAciertos()))
+                .append(",\"expulsiones\":").append(c.expulsiones())
+                .append(",\"invalidaciones\":").append(c.invalidaciones())
+                .append('}');
+        }
+        json.append("]}\n");
+        return json.toString();
+    }
+
+    private static String decimal(double valor) {
+        return String.format(Locale.ROOT, "%.4f", valor);
+    }
+
+    private static void texto(StringBuilder json, String valor) {
+        if (valor == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Implementación del MXBean: cada atributo lee el informe (sondeo cacheado)
+     */
+    private static final class Salud implements SaludMXBean {
+
+        private static MonitorSalud.Informe informe() {
+            return MonitorSalud.getInstancia().getInforme();
+        }
+
+        @Override
+        public boolean isVivo() {
+            return MonitorSalud.getInstancia().estaVivo();
+        }
+
+        @Override
+        public boolean isListo() {
+            return informe().listo();
+        }
+
+        @Override
+        public List<String> getMotivos() {
+            return informe().motivos();
+        }
+
+        @Override
+        public long getSondeoHaceMs() {
+            return informe().sondeoHaceMs();
+        }
+
+        @Override
+        public long getUltimoUsoHaceMs() {
+            return informe().ultimoUsoHaceMs();
+        }
+
+        @Override
+        public long getRetrasoReplicaS() {
+            long maximo = -1;
+            for (MonitorSalud.EstadoFragmento f : informe().fragmentos()) {
+                if (f.retrasoReplicaS() != null) {
+                    maximo = Math.max(maximo, f.retrasoReplicaS());
+                }
+            }
+            return maximo;
+        }
+
+        @Override
+        public int getConexionesEnUso() {
+            return informe().pool().enUso();
+        }
+
+        @Override
+        public int getConexionesMaximas() {
+            return informe().pool().tamanioMaximo();
+        }
+
+        @Override
+        public int getConexionesOciosas() {
+            return informe().pool().ociosas();
+        }
+
+        @Override
+        public double getUtilizacionPool() {
+            return informe().pool().utilizacion();
+        }
+
+        @Override
+        public long getEsperasPool() {
+            return informe().pool().esperas();
+        }
+
+        @Override
+        public double getEsperaPromedioPoolMs() {
+            return informe().pool().esperaPromedioMs();
+        }
+
+        @Override
+        public long getPedidosSinConexion() {
+            return informe().pool().agotadas();
+        }
+
+        @Override
+        public long getOperacionesRechazadas() {
+            long total = 0;
+            for (LimitadorConcurrencia.Metricas m : informe().limitador()) {
+                total += m.rechazadas();
+            }
+            return total;
+        }
+
+        @Override
+        public long getReintentos() {
+            return informe().reintentos().reintentos();
+        }
+
+        @Override
+        public long getTransaccionesAgotadas() {
+            return informe().reintentos().agotadas();
+        }
+
+        @Override
+        public long getEventosPublicados() {
+            return informe().bus().publicados();
+        }
+
+        @Override
+        public int getEventosPendientes() {
+            return informe().bus().pendientes();
+        }
+
+        @Override
+        public long getEventosDescartados() {
+            return informe().bus().descartados();
+        }
+
+        @Override
+        public boolean isFiltroListo() {
+            return informe().filtro().listo();
+        }
+
+        @Override
+        public double getFiltroProporcionDescartadas() {
+            return informe().filtro().proporcionDescartadas();
+        }
+
+        @Override
+        public Map<String, String> getConfiguracion() {
+            return Configuracion.getInstancia().describir();
+        }
+
+        @Override
+        public void establecerConfiguracion(String clave, String valor) {
+            Configuracion.getInstancia().establecer(clave, valor);
+        }
+    }
+}
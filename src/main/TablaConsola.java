@@ -0,0 +1,167 @@
+package main;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tabla de texto para listados largos en consola
+ * Los anchos de columna se fijan al definir la tabla, así cada fila se arma en un único
+ * buffer reutilizable rellenando con espacios (sin String.format por campo) y se escribe
+ * a un BufferedWriter grande; la consola recibe una escritura por bloque en lugar de
+ * una por línea. Los valores más largos que la columna se recortan con "…".
+ */
+public final class TablaConsola {
+
+    public static final int TAMANIO_BUFFER = 1 << 16;
+
+    private static final String SEPARADOR = " │ ";
+    private static final String SEPARADOR_ENCABEZADO = "─┼─";
+
+    public enum Alineacion {
+        IZQUIERDA, DERECHA
+    }
+
+    private record Columna(String titulo, int ancho, Alineacion alineacion) {
+    }
+
+    private final Writer salida;
+    private final List<Columna> columnas = new ArrayList<>();
+    private final StringBuilder fila = new StringBuilder(256);
+    private final StringBuilder numero = new StringBuilder(20);
+    private int columnaActual;
+
+    public TablaConsola(Writer salida) {
+        this.salida = salida;
+    }
+
+    /**
+     * Writer con buffer grande sobre la salida estándar; se vacía con flush(), nunca se cierra
+     */
+    public static Writer salidaEstandar() {
+        return new BufferedWriter(new OutputStreamWriter(System.out, charsetConsola()), TAMANIO_BUFFER);
+    }
+
+    /**
+     * Codificación con la que escribe System.out (stdout.encoding desde Java 19)
+     */
+    private static Charset charsetConsola() {
+        String nombre = System.getProperty("stdout.encoding", System.getProperty("native.encoding"));
+        try {
+            return nombre != null ? Charset.forName(nombre) : Charset.defaultCharset();
+        } catch (IllegalArgumentException e) {
+            return Charset.defaultCharset();
+        }
+    }
+
+    public TablaConsola columna(String titulo, int ancho) {
+        return columna(titulo, ancho, Alineacion.IZQUIERDA);
+    }
+
+    public TablaConsola columna(String titulo, int ancho, Alineacion alineacion) {
+        if (ancho <= 0) {
+            throw new IllegalArgumentException("Ancho de columna inválido: " + ancho);
+        }
+        columnas.add(new Columna(titulo, ancho, alineacion));
+        return this;
+    }
+
+    /**
+     * Escribe los títulos y la línea que los separa de las filas
+     */
+    public void encabezado() throws IOException {
+        fila.setLength(0);
+        for (int i = 0; i < columnas.size(); i++) {
+            Columna columna = columnas.get(i);
+            if (i > 0) {
+                fila.append(SEPARADOR);
+            }
+            rellenar(columna.titulo(), columna);
+        }
+        fila.append('\n');
+
+        for (int i = 0; i < columnas.size(); i++) {
+            if (i > 0) {
+                fila.append(SEPARADOR_ENCABEZADO);
+            }
+            repetir('─', columnas.get(i).ancho());
+        }
+        fila.append('\n');
+
+        salida.append(fila);
+        fila.setLength(0);
+    }
+
+    public TablaConsola celda(CharSequence valor) {
+        Columna columna = siguienteColumna();
+        rellenar(valor != null ? valor : "", columna);
+        return this;
+    }
+
+    public TablaConsola celda(long valor) {
+        numero.setLength(0);
+        numero.append(valor);
+        return celda(numero);
+    }
+
+    /**
+     * Agrega la fila armada al buffer de salida; las celdas faltantes quedan vacías
+     */
+    public void finFila() throws IOException {
+        while (columnaActual < columnas.size()) {
+            celda("");
+        }
+        fila.append('\n');
+        salida.append(fila);
+        fila.setLength(0);
+        columnaActual = 0;
+    }
+
+    public void linea(String texto) throws IOException {
+        salida.append(texto).append('\n');
+    }
+
+    /**
+     * Envía a la consola todo lo acumulado
+     */
+    public void flush() throws IOException {
+        salida.flush();
+    }
+
+    private Columna siguienteColumna() {
+        if (columnaActual >= columnas.size()) {
+            throw new IllegalStateException("La fila tiene más celdas que columnas");
+        }
+        if (columnaActual > 0) {
+            fila.append(SEPARADOR);
+        }
+        return columnas.get(columnaActual++);
+    }
+
+    private void rellenar(CharSequence valor, Columna columna) {
+        int ancho = columna.ancho();
+        int largo = valor.length();
+
+        if (largo > ancho) {
+            fila.append(valor, 0, ancho - 1).append('…');
+            return;
+        }
+        if (columna.alineacion() == Alineacion.DERECHA) {
+            repetir(' ', ancho - largo);
+            fila.append(valor);
+        } else {
+            fila.append(valor);
+            repetir(' ', ancho - largo);
+        }
+    }
+
+    private void repetir(char caracter, int veces) {
+        for (int i = 0; i < veces; i++) {
+            fila.append(caracter);
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package readmodel;
+
+import entities.Cobertura;
+import entities.SeguroVehicular;
+import entities.Vehiculo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Réplica columnar de solo lectura de la flota para consultas analíticas
+ * Cada atributo se guarda en un arreglo primitivo y los textos repetidos se codifican
+ * contra un diccionario, así un vehículo ocupa unos 30 bytes en lugar de dos objetos
+ * con campos boxeados. Los filtros recorren arreglos contiguos con bucles simples que
+ * el JIT puede vectorizar.
+ * Los diccionarios no distinguen mayúsculas, igual que las collations de la base:
+ * "Ford" y "FORD" comparten código y se muestran como la primera aparición.
+ */
+public final class FlotaColumnar {
+
+    /** Valor usado en columnas int para representar null */
+    public static final int NULO = Integer.MIN_VALUE;
+
+    private final int cantidad;
+    private final long[] ids;
+    private final int[] anios;
+    private final int[] marcas;
+    private final int[] modelos;
+    private final int[] aseguradoras;
+    private final byte[] coberturas;
+    private final int[] vencimientos;
+
+    private final String[] diccionarioMarcas;
+    private final String[] diccionarioModelos;
+    private final String[] diccionarioAseguradoras;
+    private final Map<String, Integer> codigosMarcas;
+    private final Map<String, Integer> codigosAseguradoras;
+
+    private FlotaColumnar(Constructor c) {
+        this.cantidad = c.cantidad;
+        this.ids = Arrays.copyOf(c.ids, c.cantidad);
+        this.anios = Arrays.copyOf(c.anios, c.cantidad);
+        this.marcas = Arrays.copyOf(c.marcas, c.cantidad);
+        this.modelos = Arrays.copyOf(c.modelos, c.cantidad);
+        this.aseguradoras = Arrays.copyOf(c.aseguradoras, c.cantidad);
+        this.coberturas = Arrays.copyOf(c.coberturas, c.cantidad);
+        this.vencimientos = Arrays.copyOf(c.vencimientos, c.cantidad);
+        this.diccionarioMarcas = c.marcasDic.toArray(new String[0]);
+        this.diccionarioModelos = c.modelosDic.toArray(new String[0]);
+        this.diccionarioAseguradoras = c.aseguradorasDic.toArray(new String[0]);
+        this.codigosMarcas = Map.copyOf(c.marcasIdx);
+        this.codigosAseguradoras = Map.copyOf(c.aseguradorasIdx);
+    }
+
+    /**
+     * Tabla vacía
+     */
+    public static FlotaColumnar vacia() {
+        return new Constructor().construir();
+    }
+
+    /**
+     * Arma la tabla a partir de un modelo en memoria (por ejemplo, un snapshot)
+     */
+    public static FlotaColumnar desde(FlotaEnMemoria flota) {
+        Constructor constructor = new Constructor(flota.cantidadVehiculos());
+        for (Vehiculo v : flota.getVehiculos()) {
+            constructor.agregar(v);
+        }
+        return constructor.construir();
+    }
+
+    public int cantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Inicia una consulta sobre todas las filas
+     */
+    public Consulta consulta() {
+        return new Consulta();
+    }
+
+    /**
+     * Código de diccionario de una marca (-1 si no existe en la tabla)
+     */
+    public int codigoMarca(String marca) {
+        return codigoDe(codigosMarcas, marca);
+    }
+
+    /**
+     * Código de diccionario de una aseguradora (-1 si no existe en la tabla)
+     */
+    public int codigoAseguradora(String aseguradora) {
+        return codigoDe(codigosAseguradoras, aseguradora);
+    }
+
+    public String marca(int codigo) {
+        return diccionarioMarcas[codigo];
+    }
+
+    public String modelo(int codigo) {
+        return diccionarioModelos[codigo];
+    }
+
+    public String aseguradora(int codigo) {
+        return diccionarioAseguradoras[codigo];
+    }
+
+    private static int codigoDe(Map<String, Integer> codigos, String valor) {
+        return valor == null ? -1 : codigos.getOrDefault(plegar(valor), -1);
+    }
+
+    /**
+     * Clave de diccionario de un texto: sin espacios al borde y en mayúsculas
+     */
+    private static String plegar(String valor) {
+        return valor.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Consulta con filtros acumulativos sobre una máscara de selección
+     * Cada filtro es una pasada sobre una columna; no es thread-safe, pero la
+     * tabla subyacente sí puede compartirse entre hilos.
+     */
+    public final class Consulta {
+
+        private final byte[] mascara;
+
+        private Consulta() {
+            mascara = new byte[cantidad];
+            Arrays.fill(mascara, (byte) 1);
+        }
+
+        /**
+         * Filtra por marca (comparación por código de diccionario)
+         */
+        public Consulta marca(String marca) {
+            return columnaIgual(marcas, codigoMarca(marca));
+        }
+
+        /**
+         * Filtra por aseguradora del seguro asignado
+         */
+        public Consulta aseguradora(String aseguradora) {
+            return columnaIgual(aseguradoras, codigoAseguradora(aseguradora));
+        }
+
+        /**
+         * Filtra por rango de año de fabricación (inclusive); excluye los vehículos sin año
+         */
+        public Consulta anioEntre(int desde, int hasta) {
+            for (int i = 0; i < cantidad; i++) {
+                int anio = anios[i];
+                mascara[i] &= (byte) (anio >= desde & anio <= hasta ? 1 : 0);
+            }
+            return this;
+        }
+
+        /**
+         * Filtra por cobertura del seguro asignado
+         */
+        public Consulta cobertura(Cobertura cobertura) {
+            byte ordinal = (byte) cobertura.ordinal();
+            for (int i = 0; i < cantidad; i++) {
+                mascara[i] &= (byte) (coberturas[i] == ordinal ? 1 : 0);
+            }
+            return this;
+        }
+
+        /**
+         * Deja los vehículos con seguro vigente a la fecha (misma regla que tieneSeguroVigente)
+         */
+        public Consulta vigentesAl(LocalDate fecha) {
+            int dia = (int) fecha.toEpochDay();
+            for (int i = 0; i < cantidad; i++) {
+                mascara[i] &= (byte) (vencimientos[i] >= dia ? 1 : 0);
+            }
+            return this;
+        }
+
+        /**
+         * Deja los vehículos sin seguro o con el seguro vencido a la fecha
+         */
+        public Consulta sinSeguroVigenteAl(LocalDate fecha) {
+            int dia = (int) fecha.toEpochDay();
+            for (int i = 0; i < cantidad; i++) {
+                mascara[i] &= (byte) (vencimientos[i] < dia ? 1 : 0);
+            }
+            return this;
+        }
+
+        private Consulta columnaIgual(int[] columna, int codigo) {
+            if (codigo < 0) {
+                Arrays.fill(mascara, (byte) 0);
+                return this;
+            }
+            for (int i = 0; i < cantidad; i++) {
+                mascara[i] &= (byte) (columna[i] == codigo ? 1 : 0);
+            }
+            return this;
+        }
+
+        /**
+         * Cantidad de filas seleccionadas
+         */
+        public int contar() {
+            int total = 0;
+            for (int i = 0; i < cantidad; i++) {
+                total += mascara[i];
+            }
+            return total;
+        }
+
+        /**
+         * IDs de los vehículos seleccionados, de menor a mayor
+         * (las filas no están ordenadas: con varios fragmentos se agregan a medida que llegan)
+         */
+        public long[] ids() {
+            long[] resultado = new long[contar()];
+            int j = 0;
+            for (int i = 0; i < cantidad; i++) {
+                if (mascara[i] != 0) {
+                    resultado[j++] = ids[i];
+                }
+            }
+            Arrays.sort(resultado);
+            return resultado;
+        }
+
+        /**
+         * Promedio del año de fabricación de la selección (ignora los vehículos sin año)
+         */
+        public double promedioAnio() {
+            long suma = 0;
+            int n = 0;
+            for (int i = 0; i < cantidad; i++) {
+                int valido = mascara[i] & (anios[i] != NULO ? 1 : 0);
+                suma += (long) anios[i] * valido;
+                n += valido;
+            }
+            return n == 0 ? 0 : (double) suma / n;
+        }
+
+        /**
+         * Cantidad de vehículos seleccionados por marca
+         */
+        public Map<String, Integer> contarPorMarca() {
+            return agrupar(marcas, diccionarioMarcas);
+        }
+
+        /**
+         * Cantidad de vehículos seleccionados por aseguradora (sin contar los que no tienen seguro)
+         */
+        public Map<String, Integer> contarPorAseguradora() {
+            return agrupar(aseguradoras, diccionarioAseguradoras);
+        }
+
+        /**
+         * Cantidad de vehículos seleccionados por cobertura
+         */
+        public Map<Cobertura, Integer> contarPorCobertura() {
+            int[] conteo = new int[Cobertura.values().length];
+            for (int i = 0; i < cantidad; i++) {
+                if (mascara[i] != 0 && coberturas[i] >= 0) {
+                    conteo[coberturas[i]]++;
+                }
+            }
+            Map<Cobertura, Integer> resultado = new EnumMap<>(Cobertura.class);
+            for (Cobertura c : Cobertura.values()) {
+                if (conteo[c.ordinal()] > 0) {
+                    resultado.put(c, conteo[c.ordinal()]);
+                }
+            }
+            return resultado;
+        }
+
+        private Map<String, Integer> agrupar(int[] columna, String[] diccionario) {
+            int[] conteo = new int[diccionario.length];
+            for (int i = 0; i < cantidad; i++) {
+                if (mascara[i] != 0 && columna[i] >= 0) {
+                    conteo[columna[i]]++;
+                }
+            }
+            Map<String, Integer> resultado = new HashMap<>();
+            for (int codigo = 0; codigo < conteo.length; codigo++) {
+                if (conteo[codigo] > 0) {
+                    resultado.put(diccionario[codigo], conteo[codigo]);
+                }
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Constructor incremental de la tabla; los arreglos crecen al doble cuando se llenan
+     */
+    public static final class Constructor {
+
+        private int cantidad;
+        private long[] ids;
+        private int[] anios;
+        private int[] marcas;
+        private int[] modelos;
+        private int[] aseguradoras;
+        private byte[] coberturas;
+        private int[] vencimientos;
+
+        private final Map<String, Integer> marcasIdx = new HashMap<>();
+        private final Map<String, Integer> modelosIdx = new HashMap<>();
+        private final Map<String, Integer> aseguradorasIdx = new HashMap<>();
+        private final List<String> marcasDic = new ArrayList<>();
+        private final List<String> modelosDic = new ArrayList<>();
+        private final List<String> aseguradorasDic = new ArrayList<>();
+
+        public Constructor() {
+            this(1024);
+        }
+
+        public Constructor(int capacidadInicial) {
+            int capacidad = Math.max(16, capacidadInicial);
+            ids = new long[capacidad];
+            anios = new int[capacidad];
+            marcas = new int[capacidad];
+            modelos = new int[capacidad];
+            aseguradoras = new int[capacidad];
+            coberturas = new byte[capacidad];
+            vencimientos = new int[capacidad];
+        }
+
+        public void agregar(Vehiculo v) {
+            if (cantidad == ids.length) {
+                crecer();
+            }
+
+            int i = cantidad++;
+            ids[i] = v.getId();
+            anios[i] = v.getAnio() != null ? v.getAnio() : NULO;
+            marcas[i] = codificar(v.getMarca(), marcasIdx, marcasDic);
+            modelos[i] = codificar(v.getModelo(), modelosIdx, modelosDic);
+
+            SeguroVehicular s = v.getSeguro();
+            if (s != null) {
+                aseguradoras[i] = codificar(s.getAseguradora(), aseguradorasIdx, aseguradorasDic);
+                coberturas[i] = s.getCobertura() != null ? (byte) s.getCobertura().ordinal() : -1;
+                vencimientos[i] = s.getVencimiento() != null ? (int) s.getVencimiento().toEpochDay() : NULO;
+            } else {
+                aseguradoras[i] = -1;
+                coberturas[i] = -1;
+                vencimientos[i] = NULO;
+            }
+        }
+
+        public FlotaColumnar construir() {
+            return new FlotaColumnar(this);
+        }
+
+        private static int codificar(String valor, Map<String, Integer> indices, List<String> diccionario) {
+            if (valor == null) {
+                return -1;
+            }
+            String clave = plegar(valor);
+            Integer codigo = indices.get(clave);
+            if (codigo == null) {
+                codigo = diccionario.size();
+                indices.put(clave, codigo);
+                diccionario.add(valor);
+            }
+            return codigo;
+        }
+
+        private void crecer() {
+            int capacidad = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacidad);
+            anios = Arrays.copyOf(anios, capacidad);
+            marcas = Arrays.copyOf(marcas, capacidad);
+            modelos = Arrays.copyOf(modelos, capacidad);
+            aseguradoras = Arrays.copyOf(aseguradoras, capacidad);
+            coberturas = Arrays.copyOf(coberturas, capacidad);
+            vencimientos = Arrays.copyOf(vencimientos, capacidad);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package readmodel;
+
+import entities.SeguroVehicular;
+import entities.Vehiculo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Modelo de lectura en memoria con los vehículos activos y sus seguros
+ * Se arma a partir de un snapshot binario o de un recorrido completo de la base
+ * y luego se completa aplicando las filas modificadas desde ese momento. Las filas
+ * borradas físicamente (archivadas) no aparecen como modificadas: se quitan conciliando
+ * los IDs contra la base (retenerVehiculos / retenerSeguros).
+ * No es thread-safe: se construye en un solo hilo y después se publica para lectura.
+ */
+public class FlotaEnMemoria {
+
+    private final Map<Long, SeguroVehicular> seguros = new HashMap<>();
+    private final Map<Long, Vehiculo> vehiculos = new TreeMap<>();
+    private long generadoEn;
+
+    public FlotaEnMemoria(long generadoEn) {
+        this.generadoEn = generadoEn;
+    }
+
+    /**
+     * Instante (epoch millis, hora del servidor de BD) en que se tomaron los datos
+     */
+    public long getGeneradoEn() {
+        return generadoEn;
+    }
+
+    public void setGeneradoEn(long generadoEn) {
+        this.generadoEn = generadoEn;
+    }
+
+    /**
+     * Incorpora o actualiza un seguro
+     * Si ya existía se actualiza la misma instancia para que los vehículos que la
+     * referencian vean los datos nuevos
+     */
+    public void aplicarSeguro(SeguroVehicular seguro) {
+        SeguroVehicular existente = seguros.get(seguro.getId());
+        if (existente == null) {
+            seguros.put(seguro.getId(), seguro);
+            return;
+        }
+        existente.setEliminado(seguro.getEliminado());
+        existente.setAseguradora(seguro.getAseguradora());
+        existente.setNroPoliza(seguro.getNroPoliza());
+        existente.setCobertura(seguro.getCobertura());
+        existente.setVencimiento(seguro.getVencimiento());
+    }
+
+    /**
+     * Incorpora, actualiza o quita (si está eliminado) un vehículo
+     * El seguro del vehículo se resuelve contra los seguros ya cargados
+     */
+    public void aplicarVehiculo(Vehiculo vehiculo) {
+        if (Boolean.TRUE.equals(vehiculo.getEliminado())) {
+            vehiculos.remove(vehiculo.getId());
+            return;
+        }
+
+        SeguroVehicular seguro = vehiculo.getSeguro();
+        if (seguro != null) {
+            aplicarSeguro(seguro);
+            vehiculo.setSeguro(seguros.get(seguro.getId()));
+        }
+        vehiculos.put(vehiculo.getId(), vehiculo);
+    }
+
+    /**
+     * Quita los vehículos cuyo ID no está entre los activos indicados
+     * Devuelve la cantidad de vehículos quitados
+     */
+    public int retenerVehiculos(Set<Long> activos) {
+        int antes = vehiculos.size();
+        vehiculos.keySet().retainAll(activos);
+        return antes - vehiculos.size();
+    }
+
+    /**
+     * Quita los seguros cuyo ID ya no existe en la base
+     * Devuelve la cantidad de seguros quitados
+     */
+    public int retenerSeguros(Set<Long> existentes) {
+        int antes = seguros.size();
+        seguros.keySet().retainAll(existentes);
+        return antes - seguros.size();
+    }
+
+    /**
+     * Busca un seguro cargado por ID
+     */
+    public SeguroVehicular getSeguro(long id) {
+        return seguros.get(id);
+    }
+
+    /**
+     * Busca un vehículo activo por ID
+     */
+    public Vehiculo getVehiculo(long id) {
+        return vehiculos.get(id);
+    }
+
+    /**
+     * Vehículos activos ordenados por ID
+     */
+    public Collection<Vehiculo> getVehiculos() {
+        return Collections.unmodifiableCollection(vehiculos.values());
+    }
+
+    /**
+     * Seguros no eliminados
+     */
+    public List<SeguroVehicular> getSegurosActivos() {
+        List<SeguroVehicular> activos = new ArrayList<>(seguros.size());
+        for (SeguroVehicular s : seguros.values()) {
+            if (!Boolean.TRUE.equals(s.getEliminado())) {
+                activos.add(s);
+            }
+        }
+        return activos;
+    }
+
+    /**
+     * Todos los seguros cargados, incluidos los eliminados que siguen asignados
+     */
+    Collection<SeguroVehicular> getSegurosCargados() {
+        return seguros.values();
+    }
+
+    public int cantidadVehiculos() {
+        return vehiculos.size();
+    }
+
+    public int cantidadSeguros() {
+        return seguros.size();
+    }
+}
@@ -0,0 +1,275 @@
+package readmodel;
+
+import entities.Cobertura;
+import entities.SeguroVehicular;
+import entities.Vehiculo;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binario compacto para snapshots de la flota
+ *
+ * Estructura del archivo (big endian):
+ * <pre>
+ * cabecera   : magic(int) version(int) generadoEn(long) cantSeguros(int) cantVehiculos(int) offsetDiccionario(long)
+ * seguros    : id(long) eliminado(byte) aseguradora(ref) nroPoliza(str) cobertura(byte) vencimiento(int epoch day)
+ * vehiculos  : id(long) dominio(str) marca(ref) modelo(ref) anio(int) nroChasis(str) seguroId(long, 0 = sin seguro)
+ * diccionario: cantidad(int) y cada texto como str
+ * </pre>
+ * Los textos repetidos (marca, modelo, aseguradora) se guardan una sola vez en el
+ * diccionario y los registros los referencian por índice. Los textos únicos se
+ * guardan con prefijo de longitud (unsigned short, 0xFFFF = null).
+ */
+public final class SnapshotFlota {
+
+    private static final int MAGIC = 0x56535346; // "VSSF"
+    private static final int VERSION = 1;
+    private static final int TAMANIO_CABECERA = 32;
+    private static final int TAMANIO_BUFFER = 1 << 20;
+
+    private static final int NULO_INT = Integer.MIN_VALUE;
+    private static final int NULO_STR = 0xFFFF;
+
+    private SnapshotFlota() {
+    }
+
+    /**
+     * Escribe un snapshot completo a partir de un modelo en memoria
+     */
+    public static void escribir(Path destino, FlotaEnMemoria flota) throws IOException {
+        try (Escritor escritor = new Escritor(destino)) {
+            for (SeguroVehicular s : flota.getSegurosCargados()) {
+                escritor.escribirSeguro(s);
+            }
+            for (Vehiculo v : flota.getVehiculos()) {
+                escritor.escribirVehiculo(v);
+            }
+            escritor.finalizar(flota.getGeneradoEn());
+        }
+    }
+
+    /**
+     * Carga un snapshot usando un archivo mapeado en memoria
+     */
+    public static FlotaEnMemoria leer(Path origen) throws IOException {
+        try (FileChannel canal = FileChannel.open(origen, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+
+            if (buffer.remaining() < TAMANIO_CABECERA || buffer.getInt() != MAGIC) {
+                throw new IOException("El archivo no es un snapshot de flota válido: " + origen);
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Versión de snapshot no soportada: " + version);
+            }
+
+            long generadoEn = buffer.getLong();
+            int cantidadSeguros = buffer.getInt();
+            int cantidadVehiculos = buffer.getInt();
+            long offsetDiccionario = buffer.getLong();
+
+            String[] diccionario = leerDiccionario(buffer.duplicate().position((int) offsetDiccionario));
+            FlotaEnMemoria flota = new FlotaEnMemoria(generadoEn);
+
+            for (int i = 0; i < cantidadSeguros; i++) {
+                SeguroVehicular s = new SeguroVehicular();
+                s.setId(buffer.getLong());
+                s.setEliminado(buffer.get() != 0);
+                s.setAseguradora(leerReferencia(buffer, diccionario));
+                s.setNroPoliza(leerTexto(buffer));
+                s.setCobertura(Cobertura.values()[buffer.get()]);
+                int vencimiento = buffer.getInt();
+                if (vencimiento != NULO_INT) {
+                    s.setVencimiento(LocalDate.ofEpochDay(vencimiento));
+                }
+                flota.aplicarSeguro(s);
+            }
+
+            for (int i = 0; i < cantidadVehiculos; i++) {
+                Vehiculo v = new Vehiculo();
+                v.setId(buffer.getLong());
+                v.setDominio(leerTexto(buffer));
+                v.setMarca(leerReferencia(buffer, diccionario));
+                v.setModelo(leerReferencia(buffer, diccionario));
+                int anio = buffer.getInt();
+                if (anio != NULO_INT) {
+                    v.setAnio(anio);
+                }
+                v.setNroChasis(leerTexto(buffer));
+                long seguroId = buffer.getLong();
+                if (seguroId > 0) {
+                    v.setSeguro(flota.getSeguro(seguroId));
+                }
+                flota.aplicarVehiculo(v);
+            }
+
+            return flota;
+        }
+    }
+
+    private static String[] leerDiccionario(ByteBuffer buffer) {
+        String[] diccionario = new String[buffer.getInt()];
+        for (int i = 0; i < diccionario.length; i++) {
+            diccionario[i] = leerTexto(buffer);
+        }
+        return diccionario;
+    }
+
+    private static String leerReferencia(ByteBuffer buffer, String[] diccionario) {
+        int indice = buffer.getInt();
+        return indice < 0 ? null : diccionario[indice];
+    }
+
+    private static String leerTexto(ByteBuffer buffer) {
+        int longitud = Short.toUnsignedInt(buffer.getShort());
+        if (longitud == NULO_STR) {
+            return null;
+        }
+        byte[] bytes = new byte[longitud];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escritor incremental: primero todos los seguros, luego todos los vehículos
+     * Escribe en un archivo temporal y lo renombra al finalizar, así un snapshot
+     * a medio escribir nunca reemplaza al anterior
+     */
+    public static final class Escritor implements AutoCloseable {
+
+        private final Path destino;
+        private final Path temporal;
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANIO_BUFFER);
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> diccionario = new ArrayList<>();
+        private int cantidadSeguros;
+        private int cantidadVehiculos;
+        private boolean finalizado;
+
+        public Escritor(Path destino) throws IOException {
+            this.destino = destino;
+            Path carpeta = destino.toAbsolutePath().getParent();
+            this.temporal = Files.createTempFile(carpeta, destino.getFileName().toString(), ".tmp");
+            this.canal = FileChannel.open(temporal, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            // La cabecera se completa al finalizar
+            buffer.put(new byte[TAMANIO_CABECERA]);
+        }
+
+        public void escribirSeguro(SeguroVehicular s) throws IOException {
+            if (cantidadVehiculos > 0) {
+                throw new IllegalStateException("Los seguros deben escribirse antes que los vehículos");
+            }
+            asegurarEspacio(8 + 1 + 4 + 2 + 200 + 1 + 4);
+            buffer.putLong(s.getId());
+            buffer.put((byte) (Boolean.TRUE.equals(s.getEliminado()) ? 1 : 0));
+            escribirReferencia(s.getAseguradora());
+            escribirTexto(s.getNroPoliza());
+            buffer.put((byte) s.getCobertura().ordinal());
+            buffer.putInt(s.getVencimiento() != null ? (int) s.getVencimiento().toEpochDay() : NULO_INT);
+            cantidadSeguros++;
+        }
+
+        public void escribirVehiculo(Vehiculo v) throws IOException {
+            asegurarEspacio(8 + 2 + 40 + 4 + 4 + 4 + 2 + 200 + 8);
+            buffer.putLong(v.getId());
+            escribirTexto(v.getDominio());
+            escribirReferencia(v.getMarca());
+            escribirReferencia(v.getModelo());
+            buffer.putInt(v.getAnio() != null ? v.getAnio() : NULO_INT);
+            escribirTexto(v.getNroChasis());
+            buffer.putLong(v.getSeguro() != null && v.getSeguro().getId() != null ? v.getSeguro().getId() : 0L);
+            cantidadVehiculos++;
+        }
+
+        /**
+         * Escribe el diccionario, completa la cabecera y publica el archivo
+         */
+        public void finalizar(long generadoEn) throws IOException {
+            vaciar();
+            long offsetDiccionario = canal.position();
+
+            asegurarEspacio(4);
+            buffer.putInt(diccionario.size());
+            for (String texto : diccionario) {
+                asegurarEspacio(2 + 4 * texto.length());
+                escribirTexto(texto);
+            }
+            vaciar();
+
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMANIO_CABECERA);
+            cabecera.putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putLong(generadoEn)
+                    .putInt(cantidadSeguros)
+                    .putInt(cantidadVehiculos)
+                    .putLong(offsetDiccionario)
+                    .flip();
+            canal.write(cabecera, 0);
+            canal.force(true);
+            canal.close();
+
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finalizado = true;
+        }
+
+        private void escribirReferencia(String texto) {
+            if (texto == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            Integer indice = indices.get(texto);
+            if (indice == null) {
+                indice = diccionario.size();
+                indices.put(texto, indice);
+                diccionario.add(texto);
+            }
+            buffer.putInt(indice);
+        }
+
+        private void escribirTexto(String texto) {
+            if (texto == null) {
+                buffer.putShort((short) NULO_STR);
+                return;
+            }
+            byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void asegurarEspacio(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                vaciar();
+            }
+        }
+
+        private void vaciar() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finalizado) {
+                canal.close();
+                Files.deleteIfExists(temporal);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package service;
+
+import config.Configuracion;
+import config.Fragmentos;
+import dao.VehiculoDao;
+import readmodel.FlotaColumnar;
+import readmodel.FlotaEnMemoria;
+
+/**
+ * Servicio de consultas analíticas sobre la réplica columnar de la flota
+ * La réplica es inmutable: cada refresco arma una tabla nueva y la publica de forma
+ * atómica, así los lectores nunca ven una tabla a medio construir. Es única para toda
+ * la aplicación: la arma el arranque en caliente (ver SnapshotService) o, si no hay
+ * snapshot, el primer pedido; después se vuelve a armar cuando tiene más de
+ * analitica.max.edad.ms (0: solo a pedido).
+ */
+public final class AnaliticaService {
+
+    public static final long MAX_EDAD_MS_POR_DEFECTO = 10 * 60 * 1000;
+
+    private static final AnaliticaService INSTANCIA = new AnaliticaService();
+
+    private final VehiculoDao vehiculoDao;
+    private final LimitadorConcurrencia limitador;
+    private volatile FlotaColumnar flota = FlotaColumnar.vacia();
+    // 0 mientras la réplica no se armó nunca
+    private volatile long armadaEnMs;
+
+    private AnaliticaService() {
+        this.vehiculoDao = new VehiculoDao();
+        this.limitador = LimitadorConcurrencia.getInstancia();
+    }
+
+    public static AnaliticaService getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Réplica vigente (puede estar vacía si todavía no se refrescó)
+     */
+    public FlotaColumnar getFlota() {
+        return flota;
+    }
+
+    /**
+     * Réplica para consultar: si nunca se armó o venció analitica.max.edad.ms, se refresca antes
+     */
+    public FlotaColumnar obtener() throws Exception {
+        long maxEdadMs = Configuracion.getInstancia().getLargo("analitica.max.edad.ms", MAX_EDAD_MS_POR_DEFECTO);
+        long armada = armadaEnMs;
+        if (armada != 0 && (maxEdadMs <= 0 || System.currentTimeMillis() - armada < maxEdadMs)) {
+            return flota;
+        }
+        synchronized (this) {
+            if (armadaEnMs != armada) {
+                // Otro hilo la refrescó mientras se esperaba
+                return flota;
+            }
+            return refrescar();
+        }
+    }
+
+    /**
+     * Antigüedad de la réplica en milisegundos (-1 si nunca se armó)
+     */
+    public long getEdadMs() {
+        long armada = armadaEnMs;
+        return armada == 0 ? -1 : System.currentTimeMillis() - armada;
+    }
+
+    /**
+     * Reconstruye la réplica con un recorrido streaming de vehículos y seguros
+     * (todos los fragmentos en paralelo)
+     */
+    public FlotaColumnar refrescar() throws Exception {
+        LimitadorConcurrencia.Permiso permiso = limitador.adquirir(ClaseOperacion.MASIVA);
+        try {
+            long inicio = System.currentTimeMillis();
+            FlotaColumnar.Constructor constructor = new FlotaColumnar.Constructor(Math.max(1024, flota.cantidad()));
+            Fragmentos.enTodos(() -> vehiculoDao.recorrerTodosConSeguro(v -> {
+                synchronized (constructor) {
+                    constructor.agregar(v);
+                }
+            }));
+            publicar(constructor.construir(), inicio);
+            return flota;
+        } finally {
+            permiso.liberar();
+        }
+    }
+
+    /**
+     * Reconstruye la réplica a partir de un modelo en memoria (por ejemplo, tras un arranque en caliente)
+     */
+    public FlotaColumnar refrescarDesde(FlotaEnMemoria flotaEnMemoria) {
+        publicar(FlotaColumnar.desde(flotaEnMemoria), System.currentTimeMillis());
+        return flota;
+    }
+
+    private synchronized void publicar(FlotaColumnar nueva, long armadaEnMs) {
+        flota = nueva;
+        this.armadaEnMs = armadaEnMs;
+    }
+}
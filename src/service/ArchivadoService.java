@@ -0,0 +1,220 @@
+package service;
+
+import config.Configuracion;
+import config.DatabaseConnection;
+import config.Fragmentos;
+import dao.SeguroVehicularDao;
+import dao.VehiculoDao;
+import util.Registro;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio de archivado de bajas lógicas
+ * Mueve los vehículos y seguros dados de baja antes de la ventana de retención a las
+ * tablas *_archivo. Trabaja en lotes chicos recorridos por clave primaria, cada uno en
+ * su propia transacción corta, con una pausa entre lotes para no competir con la carga
+ * normal ni retener bloqueos. Con varios fragmentos se archivan uno después del otro.
+ */
+public class ArchivadoService {
+
+    public static final int DIAS_RETENCION_POR_DEFECTO = 90;
+    public static final int TAMANIO_LOTE_POR_DEFECTO = 200;
+    public static final long PAUSA_ENTRE_LOTES_MS_POR_DEFECTO = 50;
+
+    /**
+     * Cantidad de filas archivadas en una ejecución
+     */
+    public record Resultado(int vehiculos, int seguros, int lotes) {
+        public int total() {
+            return vehiculos + seguros;
+        }
+    }
+
+    private final VehiculoDao vehiculoDao;
+    private final SeguroVehicularDao seguroDao;
+    private final LimitadorConcurrencia limitador;
+    private int tamanioLote = TAMANIO_LOTE_POR_DEFECTO;
+    private long pausaEntreLotesMs = PAUSA_ENTRE_LOTES_MS_POR_DEFECTO;
+    private ScheduledExecutorService programador;
+
+    public ArchivadoService() {
+        this.vehiculoDao = new VehiculoDao();
+        this.seguroDao = new SeguroVehicularDao();
+        this.limitador = LimitadorConcurrencia.getInstancia();
+        Configuracion config = Configuracion.getInstancia();
+        try {
+            this.tamanioLote = validarTamanioLote(config.getEntero("archivado.lote", TAMANIO_LOTE_POR_DEFECTO));
+            this.pausaEntreLotesMs = validarPausa(config.getLargo("archivado.pausa.ms", PAUSA_ENTRE_LOTES_MS_POR_DEFECTO));
+        } catch (IllegalArgumentException e) {
+            Registro.advertencia("⚠ Configuración de archivado inválida: " + e.getMessage());
+        }
+    }
+
+    public int getTamanioLote() {
+        return tamanioLote;
+    }
+
+    public void setTamanioLote(int tamanioLote) {
+        this.tamanioLote = validarTamanioLote(tamanioLote);
+    }
+
+    public long getPausaEntreLotesMs() {
+        return pausaEntreLotesMs;
+    }
+
+    public void setPausaEntreLotesMs(long pausaEntreLotesMs) {
+        this.pausaEntreLotesMs = validarPausa(pausaEntreLotesMs);
+    }
+
+    private static int validarTamanioLote(int tamanioLote) {
+        if (tamanioLote <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser mayor a cero");
+        }
+        return tamanioLote;
+    }
+
+    private static long validarPausa(long pausaEntreLotesMs) {
+        if (pausaEntreLotesMs < 0) {
+            throw new IllegalArgumentException("La pausa entre lotes no puede ser negativa");
+        }
+        return pausaEntreLotesMs;
+    }
+
+    /**
+     * Archiva las bajas cuya última modificación es anterior a la retención indicada
+     * Primero los vehículos: al salir de la tabla principal liberan la referencia
+     * a sus seguros, que así pueden archivarse en la misma ejecución
+     */
+    public Resultado archivarBajas(int diasRetencion) throws Exception {
+        if (diasRetencion < 0) {
+            throw new IllegalArgumentException("Los días de retención no pueden ser negativos");
+        }
+
+        LimitadorConcurrencia.Permiso permiso = limitador.adquirir(ClaseOperacion.MASIVA);
+        try {
+            Timestamp corte;
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                Timestamp ahora = DatabaseConnection.horaServidor(conn);
+                corte = new Timestamp(ahora.getTime() - TimeUnit.DAYS.toMillis(diasRetencion));
+            } catch (Exception e) {
+                throw new Exception("Error al archivar bajas: " + e.getMessage(), e);
+            }
+
+            int[] lotes = new int[1];
+            int vehiculos = 0;
+            int seguros = 0;
+            for (int fragmento = 0; fragmento < Fragmentos.getCantidad(); fragmento++) {
+                vehiculos += Fragmentos.en(fragmento, () ->
+                    archivarPorLotes(corte, lotes, vehiculoDao::idsArchivables, vehiculoDao::archivar));
+                seguros += Fragmentos.en(fragmento, () ->
+                    archivarPorLotes(corte, lotes, seguroDao::idsArchivables, seguroDao::archivar));
+            }
+
+            return new Resultado(vehiculos, seguros, lotes[0]);
+        } finally {
+            permiso.liberar();
+        }
+    }
+
+    @FunctionalInterface
+    private interface BuscadorLote {
+        List<Long> buscar(Timestamp corte, long desdeId, int limite, Connection conn) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface ArchivadorLote {
+        int archivar(List<Long> ids, Connection conn) throws Exception;
+    }
+
+    /**
+     * Recorre una tabla por clave primaria archivando un lote por transacción
+     */
+    private int archivarPorLotes(Timestamp corte, int[] lotes, BuscadorLote buscador,
+                                 ArchivadorLote archivador) throws Exception {
+        int total = 0;
+        long ultimoId = 0;
+
+        while (true) {
+            List<Long> ids;
+            Connection conn = null;
+            try {
+                conn = DatabaseConnection.getConnection();
+                conn.setAutoCommit(false);
+
+                ids = buscador.buscar(corte, ultimoId, tamanioLote, conn);
+                if (ids.isEmpty()) {
+                    conn.commit();
+                    return total;
+                }
+
+                total += archivador.archivar(ids, conn);
+                conn.commit();
+                lotes[0]++;
+
+            } catch (Exception e) {
+                if (conn != null) {
+                    try {
+                        conn.rollback();
+                    } catch (Exception rollbackEx) {
+                        Registro.error("Error en rollback: " + rollbackEx.getMessage());
+                    }
+                }
+                throw new Exception("Error al archivar bajas: " + e.getMessage(), e);
+            } finally {
+                if (conn != null) {
+                    try {
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    } catch (Exception e) {
+                        Registro.error("Error al cerrar conexión: " + e.getMessage());
+                    }
+                }
+            }
+
+            ultimoId = ids.get(ids.size() - 1);
+            if (ids.size() < tamanioLote) {
+                return total;
+            }
+            if (pausaEntreLotesMs > 0) {
+                Thread.sleep(pausaEntreLotesMs);
+            }
+        }
+    }
+
+    /**
+     * Programa el archivado periódico en un hilo de fondo
+     */
+    public synchronized void programarArchivado(int diasRetencion, long periodo, TimeUnit unidad) {
+        detenerArchivado();
+
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "archivado-bajas");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                archivarBajas(diasRetencion);
+            } catch (Exception e) {
+                Registro.error("✗ " + e.getMessage());
+            }
+        }, periodo, periodo, unidad);
+    }
+
+    /**
+     * Detiene el archivado periódico
+     */
+    public synchronized void detenerArchivado() {
+        if (programador != null) {
+            programador.shutdown();
+            programador = null;
+        }
+    }
+}
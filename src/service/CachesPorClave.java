@@ -0,0 +1,100 @@
+package service;
+
+import config.Configuracion;
+import entities.SeguroVehicular;
+import entities.Vehiculo;
+import eventos.BusEventos;
+import eventos.EventoEntidad;
+import util.CacheCercana;
+import util.Registro;
+
+import java.util.List;
+
+/**
+ * Cachés cercanas de las búsquedas por dominio, chasis y póliza
+ * Son compartidas por todas las instancias de los servicios. Un suscriptor sincrónico
+ * del bus invalida, con cada cambio confirmado, el ID afectado (con todas sus claves,
+ * también las anteriores a un cambio de dominio, chasis o póliza), las claves nuevas que
+ * pudieran estar guardadas como inexistentes y los vehículos que tienen guardado el
+ * seguro que cambió. Capacidad y TTLs salen de cache.claves.* y se aplican al cambiarlos.
+ * Las escrituras hechas por fuera de la aplicación se ven recién cuando vence el TTL.
+ */
+public final class CachesPorClave {
+
+    public static final int CAPACIDAD_POR_DEFECTO = 10000;
+    public static final long TTL_MS_POR_DEFECTO = 30000;
+    public static final long TTL_NEGATIVO_MS_POR_DEFECTO = 5000;
+
+    private static final char PREFIJO_DOMINIO = 'D';
+    private static final char PREFIJO_CHASIS = 'C';
+
+    static final CacheCercana<Vehiculo> VEHICULOS = new CacheCercana<>(
+            "vehículos", CAPACIDAD_POR_DEFECTO, TTL_MS_POR_DEFECTO, TTL_NEGATIVO_MS_POR_DEFECTO,
+            Vehiculo::getId, v -> v.getSeguro() != null ? v.getSeguro().getId() : null);
+
+    static final CacheCercana<SeguroVehicular> SEGUROS = new CacheCercana<>(
+            "seguros", CAPACIDAD_POR_DEFECTO, TTL_MS_POR_DEFECTO, TTL_NEGATIVO_MS_POR_DEFECTO,
+            SeguroVehicular::getId, null);
+
+    static {
+        try {
+            configurar();
+        } catch (IllegalArgumentException e) {
+            Registro.error("✗ " + e.getMessage() + "; se usan los valores por defecto");
+        }
+        Configuracion.getInstancia().alCambiar(CachesPorClave::configurar,
+                "cache.claves.capacidad", "cache.claves.ttl.ms", "cache.claves.ttl.negativo.ms");
+        BusEventos.getInstancia().suscribirSincrono("caches-por-clave", CachesPorClave::procesar);
+    }
+
+    private CachesPorClave() {
+    }
+
+    /**
+     * Métricas de las dos cachés (aciertos, fallos, tamaño)
+     */
+    public static List<CacheCercana.Metricas> getMetricas() {
+        return List.of(VEHICULOS.getMetricas(), SEGUROS.getMetricas());
+    }
+
+    static String claveDominio(String dominio) {
+        return PREFIJO_DOMINIO + FiltroExistenciaVehiculos.normalizar(dominio);
+    }
+
+    static String claveChasis(String nroChasis) {
+        return PREFIJO_CHASIS + FiltroExistenciaVehiculos.normalizar(nroChasis);
+    }
+
+    static String clavePoliza(String nroPoliza) {
+        return FiltroExistenciaVehiculos.normalizar(nroPoliza);
+    }
+
+    private static void configurar() {
+        Configuracion config = Configuracion.getInstancia();
+        int capacidad = config.getEntero("cache.claves.capacidad", CAPACIDAD_POR_DEFECTO);
+        long ttlMs = config.getLargo("cache.claves.ttl.ms", TTL_MS_POR_DEFECTO);
+        long ttlNegativoMs = config.getLargo("cache.claves.ttl.negativo.ms", TTL_NEGATIVO_MS_POR_DEFECTO);
+        VEHICULOS.configurar(capacidad, ttlMs, ttlNegativoMs);
+        SEGUROS.configurar(capacidad, ttlMs, ttlNegativoMs);
+    }
+
+    private static void procesar(List<EventoEntidad> lote) {
+        for (EventoEntidad evento : lote) {
+            if (evento.tipo().esDeVehiculo()) {
+                VEHICULOS.invalidarId(evento.id());
+                if (evento.clave() != null) {
+                    VEHICULOS.invalidarClave(claveDominio(evento.clave()));
+                }
+                if (evento.claveSecundaria() != null) {
+                    VEHICULOS.invalidarClave(claveChasis(evento.claveSecundaria()));
+                }
+            } else {
+                SEGUROS.invalidarId(evento.id());
+                if (evento.clave() != null) {
+                    SEGUROS.invalidarClave(clavePoliza(evento.clave()));
+                }
+                VEHICULOS.invalidarRelacionado(evento.id());
+            }
+        }
+    }
+}
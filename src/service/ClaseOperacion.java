@@ -0,0 +1,39 @@
+package service;
+
+/**
+ * Clases de operación con límite de concurrencia independiente
+ * Valores por defecto: máximo de operaciones simultáneas, máximo en espera y
+ * tiempo máximo de espera por un lugar antes de rechazar.
+ */
+public enum ClaseOperacion {
+    /** Consultas interactivas: búsquedas por ID, dominio o póliza y listados */
+    LECTURA(16, 64, 200),
+    /** Altas, modificaciones, bajas y asignaciones individuales */
+    ESCRITURA(8, 32, 1000),
+    /** Importaciones, sincronizaciones, exportaciones y archivado */
+    MASIVA(2, 2, 5000),
+    /** Tareas programadas de fondo: snapshot de la flota y reconstrucción del filtro de existencia */
+    MANTENIMIENTO(1, 2, 60000);
+
+    private final int concurrenciaPorDefecto;
+    private final int esperaPorDefecto;
+    private final long timeoutPorDefectoMs;
+
+    ClaseOperacion(int concurrenciaPorDefecto, int esperaPorDefecto, long timeoutPorDefectoMs) {
+        this.concurrenciaPorDefecto = concurrenciaPorDefecto;
+        this.esperaPorDefecto = esperaPorDefecto;
+        this.timeoutPorDefectoMs = timeoutPorDefectoMs;
+    }
+
+    public int getConcurrenciaPorDefecto() {
+        return concurrenciaPorDefecto;
+    }
+
+    public int getEsperaPorDefecto() {
+        return esperaPorDefecto;
+    }
+
+    public long getTimeoutPorDefectoMs() {
+        return timeoutPorDefectoMs;
+    }
+}
@@ -0,0 +1,307 @@
+package service;
+
+import config.Fragmentos;
+import dao.ProcesadorFilas;
+import dao.VehiculoDao;
+import entities.SeguroVehicular;
+import entities.Vehiculo;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Servicio de exportación masiva de la flota
+ * Escribe las filas a medida que llegan del cursor JDBC, sin armar listas intermedias,
+ * por lo que el consumo de memoria se mantiene constante sin importar el tamaño de las tablas
+ * Con varios fragmentos se recorren todos en paralelo sobre el mismo archivo: cada
+ * fragmento sale ordenado por ID, pero las filas de distintos fragmentos quedan intercaladas
+ */
+public class ExportacionService {
+
+    /**
+     * Formatos de salida soportados
+     */
+    public enum Formato {
+        CSV("csv"),
+        JSONL("jsonl");
+
+        private final String extension;
+
+        Formato(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+    }
+
+    private static final int TAMANIO_BUFFER = 256 * 1024;
+
+    private static final String[] COLUMNAS_FLOTA = {
+        "id", "dominio", "marca", "modelo", "anio", "nro_chasis",
+        "seguro_id", "aseguradora", "nro_poliza", "cobertura", "vencimiento", "vigente"
+    };
+
+    /**
+     * Recorrido streaming de vehículos en el fragmento actual
+     */
+    @FunctionalInterface
+    private interface Recorrido {
+        long recorrer(ProcesadorFilas<Vehiculo> procesador) throws Exception;
+    }
+
+    private final VehiculoDao vehiculoDao;
+    private final LimitadorConcurrencia limitador;
+
+    public ExportacionService() {
+        this.vehiculoDao = new VehiculoDao();
+        this.limitador = LimitadorConcurrencia.getInstancia();
+    }
+
+    /**
+     * Exporta todos los vehículos activos con su seguro al archivo indicado
+     * Devuelve la cantidad de filas escritas
+     */
+    public long exportarFlota(Path destino, Formato formato, boolean comprimir) throws Exception {
+        return exportar(destino, formato, comprimir, vehiculoDao::recorrerTodosConSeguro);
+    }
+
+    /**
+     * Exporta los vehículos activos sin seguro vigente hoy (sin seguro o con el seguro
+     * vencido), con las mismas columnas que la flota completa
+     * Devuelve la cantidad de filas escritas
+     */
+    public long exportarSinCobertura(Path destino, Formato formato, boolean comprimir) throws Exception {
+        LocalDate hoy = LocalDate.now();
+        return exportar(destino, formato, comprimir, procesador -> vehiculoDao.recorrerSinCobertura(hoy, procesador));
+    }
+
+    private long exportar(Path destino, Formato formato, boolean comprimir, Recorrido recorrido) throws Exception {
+        if (destino == null) {
+            throw new Exception("El archivo de destino es obligatorio");
+        }
+        if (formato == null) {
+            throw new Exception("El formato de exportación es obligatorio");
+        }
+
+        LimitadorConcurrencia.Permiso permiso = limitador.adquirir(ClaseOperacion.MASIVA);
+        try {
+            try (EscritorFilas escritor = new EscritorFilas(destino, formato, comprimir, COLUMNAS_FLOTA)) {
+                long filas = 0;
+                for (long parcial : Fragmentos.enTodos(() -> {
+                    Object[] valores = new Object[COLUMNAS_FLOTA.length];
+
+                    return recorrido.recorrer(v -> {
+                        cargarValores(v, valores);
+                        synchronized (escritor) {
+                            escritor.escribir(valores);
+                        }
+                    });
+                })) {
+                    filas += parcial;
+                }
+                escritor.finalizar();
+                return filas;
+            }
+        } finally {
+            permiso.liberar();
+        }
+    }
+
+    /**
+     * Copia un vehículo con su seguro en el arreglo de valores de COLUMNAS_FLOTA
+     */
+    private static void cargarValores(Vehiculo v, Object[] valores) {
+        SeguroVehicular s = v.getSeguro();
+        valores[0] = v.getId();
+        valores[1] = v.getDominio();
+        valores[2] = v.getMarca();
+        valores[3] = v.getModelo();
+        valores[4] = v.getAnio();
+        valores[5] = v.getNroChasis();
+        valores[6] = s != null ? s.getId() : null;
+        valores[7] = s != null ? s.getAseguradora() : null;
+        valores[8] = s != null ? s.getNroPoliza() : null;
+        valores[9] = s != null ? s.getCobertura().name() : null;
+        valores[10] = s != null ? s.getVencimiento() : null;
+        valores[11] = v.tieneSeguroVigente();
+    }
+
+    /**
+     * Escritor de filas sobre un FileChannel con buffer grande y gzip opcional
+     * Reutiliza un único StringBuilder para formatear cada fila. Escribe en un archivo
+     * temporal junto al destino que recién reemplaza al destino en finalizar; si la
+     * exportación falla antes, el temporal se borra y el destino queda como estaba.
+     */
+    private static final class EscritorFilas implements AutoCloseable {
+
+        private final Formato formato;
+        private final String[] columnas;
+        private final Path destino;
+        private final Path temporal;
+        private final Writer writer;
+        private final StringBuilder fila = new StringBuilder(256);
+        private boolean finalizado;
+
+        EscritorFilas(Path destino, Formato formato, boolean comprimir, String[] columnas) throws IOException {
+            this.formato = formato;
+            this.columnas = columnas;
+            this.destino = destino;
+
+            Path carpeta = destino.toAbsolutePath().getParent();
+            this.temporal = Files.createTempFile(carpeta, destino.getFileName().toString(), ".tmp");
+            FileChannel canal = null;
+            try {
+                canal = FileChannel.open(temporal, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                OutputStream salida = Channels.newOutputStream(canal);
+                if (comprimir) {
+                    salida = new GZIPOutputStream(salida, TAMANIO_BUFFER);
+                }
+                this.writer = new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANIO_BUFFER);
+
+                if (formato == Formato.CSV) {
+                    writer.write(String.join(",", columnas));
+                    writer.write('\n');
+                }
+            } catch (IOException | RuntimeException e) {
+                // El escritor no llega a construirse: nadie más va a cerrar el canal ni borrar el temporal
+                try {
+                    if (canal != null) {
+                        canal.close();
+                    }
+                    Files.deleteIfExists(temporal);
+                } catch (IOException alCerrar) {
+                    e.addSuppressed(alCerrar);
+                }
+                throw e;
+            }
+        }
+
+        void escribir(Object[] valores) throws IOException {
+            fila.setLength(0);
+
+            if (formato == Formato.CSV) {
+                for (int i = 0; i < valores.length; i++) {
+                    if (i > 0) {
+                        fila.append(',');
+                    }
+                    agregarCsv(valores[i]);
+                }
+            } else {
+                fila.append('{');
+                for (int i = 0; i < valores.length; i++) {
+                    if (i > 0) {
+                        fila.append(',');
+                    }
+                    fila.append('"').append(columnas[i]).append("\":");
+                    agregarJson(valores[i]);
+                }
+                fila.append('}');
+            }
+
+            fila.append('\n');
+            writer.append(fila);
+        }
+
+        private void agregarCsv(Object valor) {
+            if (valor == null) {
+                return;
+            }
+            String texto = valor.toString();
+            boolean requiereComillas = false;
+            for (int i = 0; i < texto.length() && !requiereComillas; i++) {
+                char c = texto.charAt(i);
+                requiereComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+
+            if (!requiereComillas) {
+                fila.append(texto);
+                return;
+            }
+
+            fila.append('"');
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                if (c == '"') {
+                    fila.append('"');
+                }
+                fila.append(c);
+            }
+            fila.append('"');
+        }
+
+        private void agregarJson(Object valor) {
+            if (valor == null) {
+                fila.append("null");
+                return;
+            }
+            if (valor instanceof Number || valor instanceof Boolean) {
+                fila.append(valor);
+                return;
+            }
+
+            String texto = valor.toString();
+            fila.append('"');
+            for (int i = 0; i < texto.length(); i++) {
+                char c = texto.charAt(i);
+                switch (c) {
+                    case '"':
+                        fila.append("\\\"");
+                        break;
+                    case '\\':
+                        fila.append("\\\\");
+                        break;
+                    case '\n':
+                        fila.append("\\n");
+                        break;
+                    case '\r':
+                        fila.append("\\r");
+                        break;
+                    case '\t':
+                        fila.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            fila.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            fila.append(c);
+                        }
+                }
+            }
+            fila.append('"');
+        }
+
+        /**
+         * Cierra el archivo temporal y lo publica en el destino
+         */
+        void finalizar() throws IOException {
+            writer.close();
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finalizado = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!finalizado) {
+                try {
+                    writer.close();
+                } finally {
+                    Files.deleteIfExists(temporal);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package service;
+
+import config.Configuracion;
+import config.DatabaseConnection;
+import config.Fragmentos;
+import dao.VehiculoDao;
+import eventos.BusEventos;
+import eventos.EventoEntidad;
+import util.FiltroBloom;
+import util.Registro;
+
+import java.sql.Connection;
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché negativa de dominios y números de chasis de vehículos activos
+ * Un filtro de Bloom en memoria responde "seguro no existe" sin ir a la base, que es
+ * el caso más común en las búsquedas por dominio (la mayoría de las patentes consultadas
+ * no son de la flota). El filtro se arma con un recorrido streaming de las claves y se
+ * actualiza con un suscriptor sincrónico del bus, así una alta ya está en el filtro
+ * cuando el servicio que la hizo retorna. Las bajas no se pueden quitar de un filtro de
+ * Bloom: se descartan al reconstruirlo periódicamente.
+ * Las escrituras hechas por fuera de la aplicación (otro proceso, scripts SQL) no
+ * publican eventos y recién se ven en la siguiente reconstrucción.
+ * Mientras no termine la primera carga, todas las consultas van a la base.
+ */
+public final class FiltroExistenciaVehiculos {
+
+    public static final double TASA_FALSOS_POSITIVOS_POR_DEFECTO = 0.01;
+    public static final long PRESUPUESTO_BYTES_POR_DEFECTO = 16L * 1024 * 1024;
+    public static final long PERIODO_RECONSTRUCCION_MS_POR_DEFECTO = TimeUnit.MINUTES.toMillis(15);
+
+    private static final long CAPACIDAD_MINIMA = 1024;
+    private static final double MARGEN_CAPACIDAD = 1.25;
+    private static final char PREFIJO_DOMINIO = 'D';
+    private static final char PREFIJO_CHASIS = 'C';
+
+    /**
+     * Estado del filtro y contadores de consultas
+     */
+    public record Metricas(boolean listo, long consultas, long descartadas, long reconstrucciones,
+                           long vehiculosCargados, long ultimaReconstruccionMs, FiltroBloom.Metricas filtro) {
+
+        public double proporcionDescartadas() {
+            return consultas == 0 ? 0 : (double) descartadas / consultas;
+        }
+    }
+
+    private static final FiltroExistenciaVehiculos INSTANCIA = new FiltroExistenciaVehiculos();
+
+    private final VehiculoDao vehiculoDao = new VehiculoDao();
+    private final Object reconstruccion = new Object();
+
+    private volatile double tasaFalsosPositivos = TASA_FALSOS_POSITIVOS_POR_DEFECTO;
+    private volatile long presupuestoBytes = PRESUPUESTO_BYTES_POR_DEFECTO;
+    private long periodoReconstruccionMs = PERIODO_RECONSTRUCCION_MS_POR_DEFECTO;
+
+    private volatile FiltroBloom filtro;
+    private volatile FiltroBloom enConstruccion;
+    private ScheduledExecutorService programador;
+    private BusEventos.SuscripcionSincrona suscripcion;
+
+    private final AtomicLong consultas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong reconstrucciones = new AtomicLong();
+    private volatile long vehiculosCargados;
+    private volatile long ultimaReconstruccionMs;
+
+    private FiltroExistenciaVehiculos() {
+        try {
+            aplicarConfiguracion();
+        } catch (IllegalArgumentException e) {
+            Registro.error("✗ " + e.getMessage() + "; se usan los valores por defecto");
+        }
+        Configuracion.getInstancia().alCambiar(this::aplicarConfiguracion,
+                                               "filtro.tasa", "filtro.presupuesto.bytes", "filtro.periodo.ms");
+    }
+
+    public static FiltroExistenciaVehiculos getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Cambia tasa de falsos positivos, memoria máxima y período de reconstrucción
+     * La tasa y la memoria se aplican en la siguiente reconstrucción
+     */
+    public synchronized void configurar(double tasaFalsosPositivos, long presupuestoBytes, long periodoReconstruccionMs) {
+        if (tasaFalsosPositivos <= 0 || tasaFalsosPositivos >= 1 || presupuestoBytes < Long.BYTES
+                || periodoReconstruccionMs <= 0) {
+            throw new IllegalArgumentException("Parámetros de filtro de existencia inválidos");
+        }
+        this.tasaFalsosPositivos = tasaFalsosPositivos;
+        this.presupuestoBytes = presupuestoBytes;
+        this.periodoReconstruccionMs = periodoReconstruccionMs;
+        if (programador != null) {
+            programar(periodoReconstruccionMs);
+        }
+    }
+
+    private void aplicarConfiguracion() {
+        Configuracion config = Configuracion.getInstancia();
+        configurar(config.getDecimal("filtro.tasa", TASA_FALSOS_POSITIVOS_POR_DEFECTO),
+                   config.getLargo("filtro.presupuesto.bytes", PRESUPUESTO_BYTES_POR_DEFECTO),
+                   config.getLargo("filtro.periodo.ms", PERIODO_RECONSTRUCCION_MS_POR_DEFECTO));
+    }
+
+    /**
+     * Se suscribe a los eventos y programa la carga inicial y las reconstrucciones en
+     * un hilo de fondo; no espera a que termine la primera carga
+     */
+    public synchronized void iniciar() {
+        if (suscripcion == null) {
+            suscripcion = BusEventos.getInstancia().suscribirSincrono("filtro-existencia", this::procesar);
+        }
+        programar(0);
+    }
+
+    /**
+     * Deja de usar el filtro: las consultas vuelven a ir siempre a la base
+     */
+    public synchronized void detener() {
+        if (programador != null) {
+            programador.shutdownNow();
+            programador = null;
+        }
+        if (suscripcion != null) {
+            suscripcion.cancelar();
+            suscripcion = null;
+        }
+        filtro = null;
+    }
+
+    /**
+     * false si el dominio seguro no pertenece a un vehículo activo
+     */
+    public boolean puedeExistirDominio(String dominio) {
+        return puedeExistir(PREFIJO_DOMINIO, dominio);
+    }
+
+    /**
+     * false si el número de chasis seguro no pertenece a un vehículo activo
+     */
+    public boolean puedeExistirChasis(String nroChasis) {
+        return puedeExistir(PREFIJO_CHASIS, nroChasis);
+    }
+
+    /**
+     * Arma un filtro nuevo desde la base (todos los fragmentos en paralelo) y lo pone en uso
+     * Las altas publicadas mientras dura el recorrido se agregan también al filtro nuevo
+     */
+    public void reconstruir() throws Exception {
+        synchronized (reconstruccion) {
+            long inicio = System.nanoTime();
+            long capacidad = Math.max(CAPACIDAD_MINIMA, (long) (vehiculosCargados * 2 * MARGEN_CAPACIDAD));
+            FiltroBloom nuevo = new FiltroBloom(capacidad, tasaFalsosPositivos, presupuestoBytes);
+
+            LimitadorConcurrencia.Permiso permiso = LimitadorConcurrencia.getInstancia().adquirir(ClaseOperacion.MANTENIMIENTO);
+            try {
+                // Publicarlo antes de abrir el recorrido: lo confirmado después lo agregan los eventos
+                enConstruccion = nuevo;
+                long filas = 0;
+                for (long parcial : Fragmentos.enTodos(() -> {
+                    try (Connection conn = DatabaseConnection.getConnection()) {
+                        return vehiculoDao.recorrerClavesActivas(
+                                v -> agregar(nuevo, v.getDominio(), v.getNroChasis()), conn);
+                    }
+                })) {
+                    filas += parcial;
+                }
+
+                // Poner en uso el nuevo antes de dejar de alimentarlo (ver procesar)
+                filtro = nuevo;
+                vehiculosCargados = filas;
+                reconstrucciones.incrementAndGet();
+                ultimaReconstruccionMs = (System.nanoTime() - inicio) / 1_000_000;
+
+            } catch (Exception e) {
+                throw new Exception("Error al reconstruir el filtro de existencia: " + e.getMessage(), e);
+            } finally {
+                enConstruccion = null;
+                permiso.liberar();
+            }
+
+            FiltroBloom.Metricas m = nuevo.getMetricas();
+            Registro.debug("Filtro de existencia: " + vehiculosCargados + " vehículos, " + m.bytes() / 1024 +
+                           " KB, tasa estimada " + String.format("%.4f", m.tasaEstimada()));
+            if (m.saturado()) {
+                Registro.advertencia("⚠ El filtro de existencia superó su presupuesto de memoria: tasa estimada " +
+                                     String.format("%.4f", m.tasaEstimada()));
+            }
+        }
+    }
+
+    public Metricas getMetricas() {
+        FiltroBloom actual = filtro;
+        return new Metricas(actual != null, consultas.get(), descartadas.get(), reconstrucciones.get(),
+                            vehiculosCargados, ultimaReconstruccionMs,
+                            actual != null ? actual.getMetricas() : null);
+    }
+
+    /**
+     * Suscriptor sincrónico: agrega dominio y chasis de cada vehículo creado o modificado
+     * Lee enConstruccion antes que filtro: si ya no hay filtro en construcción es porque
+     * el nuevo está en uso, y la clave no se pierde en ningún orden de ejecución
+     */
+    private void procesar(List<EventoEntidad> lote) {
+        for (EventoEntidad evento : lote) {
+            if (!evento.tipo().esDeVehiculo()) {
+                continue;
+            }
+            FiltroBloom construyendo = enConstruccion;
+            FiltroBloom actual = filtro;
+            if (construyendo != null) {
+                agregar(construyendo, evento.clave(), evento.claveSecundaria());
+            }
+            if (actual != null && actual != construyendo) {
+                agregar(actual, evento.clave(), evento.claveSecundaria());
+            }
+        }
+    }
+
+    private synchronized void programar(long demoraInicialMs) {
+        if (programador != null) {
+            programador.shutdownNow();
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "filtro-existencia");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                reconstruir();
+            } catch (Exception e) {
+                Registro.error("✗ " + e.getMessage());
+            }
+        }, demoraInicialMs, periodoReconstruccionMs, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean puedeExistir(char prefijo, String valor) {
+        FiltroBloom actual = filtro;
+        if (actual == null || valor == null) {
+            return true;
+        }
+        consultas.incrementAndGet();
+        if (actual.puedeContener(prefijo + normalizar(valor))) {
+            return true;
+        }
+        descartadas.incrementAndGet();
+        return false;
+    }
+
+    private static void agregar(FiltroBloom destino, String dominio, String nroChasis) {
+        if (dominio != null) {
+            destino.agregar(PREFIJO_DOMINIO + normalizar(dominio));
+        }
+        if (nroChasis != null && !nroChasis.isBlank()) {
+            destino.agregar(PREFIJO_CHASIS + normalizar(nroChasis));
+        }
+    }
+
+    /**
+     * Lleva la clave a la forma en que la compara la colación utf8mb4_unicode_ci:
+     * sin espacios en los extremos, en mayúsculas y, si tiene caracteres no ASCII, sin
+     * acentos. Dos claves iguales para MySQL quedan iguales aquí (nunca al revés)
+     */
+    static String normalizar(String clave) {
+        String texto = clave.strip();
+        for (int i = 0; i < texto.length(); i++) {
+            if (texto.charAt(i) >= 0x80) {
+                texto = Normalizer.normalize(texto, Normalizer.Form.NFKD).replaceAll("\\p{M}", "");
+                break;
+            }
+        }
+        return texto.toUpperCase(Locale.ROOT);
+    }
+}
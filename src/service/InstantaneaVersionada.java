@@ -0,0 +1,120 @@
+package service;
+
+import config.Configuracion;
+import eventos.BusEventos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copia inmutable de un listado completo, compartida entre todos los lectores
+ * Hay un único número de versión para todos los listados, que sube con cada evento del
+ * bus (los servicios publican después de confirmar, con un suscriptor sincrónico: cuando
+ * el servicio que escribió retorna, la versión ya cambió). La copia se arma de nuevo la
+ * primera vez que se pide con otra versión; si varios hilos la piden a la vez, uno la
+ * arma y el resto espera y usa esa misma lista.
+ * Las escrituras hechas por fuera de la aplicación no publican eventos: para que no
+ * queden ocultas indefinidamente, una copia más vieja que cache.listados.max.edad.ms
+ * también se vuelve a armar (0: sin límite de edad).
+ * Los elementos se comparten entre lectores y no deben modificarse.
+ *
+ * @param <T> Tipo de elemento del listado
+ */
+public final class InstantaneaVersionada<T> {
+
+    public static final long MAX_EDAD_MS_POR_DEFECTO = 60000;
+
+    /**
+     * Estado y contadores de un listado
+     */
+    public record Metricas(String nombre, long version, int elementos, long aciertos, long materializaciones) {
+    }
+
+    private record Copia<T>(long version, long creadaMs, List<T> elementos) {
+    }
+
+    private static final AtomicLong VERSION = new AtomicLong();
+    private static final List<InstantaneaVersionada<?>> REGISTRADAS = new CopyOnWriteArrayList<>();
+
+    static {
+        BusEventos.getInstancia().suscribirSincrono("instantaneas", lote -> VERSION.incrementAndGet());
+    }
+
+    private final String nombre;
+    private volatile Copia<T> copia;
+    private final AtomicLong aciertos = new AtomicLong();
+    private final AtomicLong materializaciones = new AtomicLong();
+
+    public InstantaneaVersionada(String nombre) {
+        this.nombre = nombre;
+        REGISTRADAS.add(this);
+    }
+
+    /**
+     * Versión actual de los datos
+     */
+    public static long getVersion() {
+        return VERSION.get();
+    }
+
+    /**
+     * Invalida todos los listados (para escrituras que no publican eventos)
+     */
+    public static void nuevaVersion() {
+        VERSION.incrementAndGet();
+    }
+
+    /**
+     * Métricas de todos los listados creados
+     */
+    public static List<Metricas> getMetricasTodas() {
+        List<Metricas> metricas = new ArrayList<>();
+        for (InstantaneaVersionada<?> instantanea : REGISTRADAS) {
+            metricas.add(instantanea.getMetricas());
+        }
+        return metricas;
+    }
+
+    /**
+     * Lista vigente (inmodificable); si la versión cambió la arma con el cargador
+     */
+    public List<T> obtener(Operacion<List<T>> cargador) throws Exception {
+        Copia<T> actual = copia;
+        if (vigente(actual)) {
+            aciertos.incrementAndGet();
+            return actual.elementos();
+        }
+        synchronized (this) {
+            actual = copia;
+            if (vigente(actual)) {
+                aciertos.incrementAndGet();
+                return actual.elementos();
+            }
+            // La versión se lee antes de cargar: si una escritura confirma mientras tanto,
+            // la copia queda con la versión anterior y el siguiente pedido la vuelve a armar
+            long version = VERSION.get();
+            long creadaMs = System.currentTimeMillis();
+            List<T> elementos = Collections.unmodifiableList(new ArrayList<>(cargador.ejecutar()));
+            copia = new Copia<>(version, creadaMs, elementos);
+            materializaciones.incrementAndGet();
+            return elementos;
+        }
+    }
+
+    public Metricas getMetricas() {
+        Copia<T> actual = copia;
+        return new Metricas(nombre, actual != null ? actual.version() : -1,
+                            actual != null ? actual.elementos().size() : 0, aciertos.get(), materializaciones.get());
+    }
+
+    private static boolean vigente(Copia<?> copia) {
+        if (copia == null || copia.version() != VERSION.get()) {
+            return false;
+        }
+        long maxEdadMs = Configuracion.getInstancia().getLargo("cache.listados.max.edad.ms", MAX_EDAD_MS_POR_DEFECTO);
+        return maxEdadMs <= 0 || System.currentTimeMillis() - copia.creadaMs() < maxEdadMs;
+    }
+}
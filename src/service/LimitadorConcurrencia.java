@@ -0,0 +1,221 @@
+package service;
+
+import config.Configuracion;
+import util.Registro;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compartimentos de concurrencia (bulkhead) delante de los servicios
+ * Cada clase de operación tiene su propio cupo de operaciones simultáneas y una espera
+ * acotada en cantidad y en tiempo; cuando el cupo y la espera están llenos el pedido se
+ * rechaza enseguida con OperacionRechazadaException. Así una importación masiva ocupa
+ * a lo sumo su cupo de conexiones y las búsquedas interactivas siguen respondiendo.
+ * Los límites son compartidos por todos los servicios. Se toman de la configuración
+ * (limitador.<clase>.concurrencia, .espera y .timeout.ms) y se aplican al cambiarla.
+ */
+public final class LimitadorConcurrencia {
+
+    /**
+     * Lugar ocupado en un compartimento; debe liberarse siempre (en un finally)
+     */
+    public static final class Permiso {
+        private final Compartimento compartimento;
+        private boolean liberado;
+
+        private Permiso(Compartimento compartimento) {
+            this.compartimento = compartimento;
+        }
+
+        public void liberar() {
+            if (!liberado) {
+                liberado = true;
+                compartimento.liberar();
+            }
+        }
+    }
+
+    /**
+     * Estado y contadores de un compartimento
+     */
+    public record Metricas(ClaseOperacion clase, int concurrenciaMaxima, int esperaMaxima, long timeoutMs,
+                           int enCurso, int enEspera, long aceptadas, long rechazadas,
+                           long rechazadasPorTimeout, long esperaTotalMs) {
+
+        public double esperaPromedioMs() {
+            return aceptadas == 0 ? 0 : (double) esperaTotalMs / aceptadas;
+        }
+    }
+
+    private static final LimitadorConcurrencia INSTANCIA = new LimitadorConcurrencia();
+
+    private final Map<ClaseOperacion, Compartimento> compartimentos = new EnumMap<>(ClaseOperacion.class);
+
+    private LimitadorConcurrencia() {
+        for (ClaseOperacion clase : ClaseOperacion.values()) {
+            compartimentos.put(clase, new Compartimento(clase, clase.getConcurrenciaPorDefecto(),
+                                                        clase.getEsperaPorDefecto(), clase.getTimeoutPorDefectoMs()));
+            try {
+                aplicarConfiguracion(clase);
+            } catch (IllegalArgumentException e) {
+                Registro.error("✗ " + e.getMessage() + "; se usan los límites por defecto");
+            }
+            String prefijo = prefijo(clase);
+            Configuracion.getInstancia().alCambiar(() -> aplicarConfiguracion(clase), prefijo + "concurrencia",
+                                                   prefijo + "espera", prefijo + "timeout.ms");
+        }
+    }
+
+    public static LimitadorConcurrencia getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Cambia los límites de una clase de operación
+     * Las operaciones en curso terminan con el cupo anterior; las nuevas usan el nuevo
+     */
+    public synchronized void configurar(ClaseOperacion clase, int concurrenciaMaxima, int esperaMaxima, long timeoutMs) {
+        if (concurrenciaMaxima <= 0 || esperaMaxima < 0 || timeoutMs < 0) {
+            throw new IllegalArgumentException("Límites inválidos para " + clase);
+        }
+        Compartimento anterior = compartimentos.get(clase);
+        compartimentos.put(clase, new Compartimento(clase, concurrenciaMaxima, esperaMaxima, timeoutMs, anterior));
+    }
+
+    private void aplicarConfiguracion(ClaseOperacion clase) {
+        Configuracion config = Configuracion.getInstancia();
+        String prefijo = prefijo(clase);
+        configurar(clase,
+                   config.getEntero(prefijo + "concurrencia", clase.getConcurrenciaPorDefecto()),
+                   config.getEntero(prefijo + "espera", clase.getEsperaPorDefecto()),
+                   config.getLargo(prefijo + "timeout.ms", clase.getTimeoutPorDefectoMs()));
+    }
+
+    /**
+     * LECTURA → limitador.lectura.
+     */
+    private static String prefijo(ClaseOperacion clase) {
+        return "limitador." + clase.name().toLowerCase(Locale.ROOT) + ".";
+    }
+
+    /**
+     * Ocupa un lugar de la clase indicada, esperando como máximo su timeout
+     */
+    public Permiso adquirir(ClaseOperacion clase) throws OperacionRechazadaException {
+        Compartimento compartimento;
+        synchronized (this) {
+            compartimento = compartimentos.get(clase);
+        }
+        compartimento.adquirir();
+        return new Permiso(compartimento);
+    }
+
+    /**
+     * Ejecuta una operación dentro del cupo de su clase
+     */
+    public <T> T ejecutar(ClaseOperacion clase, Operacion<T> operacion) throws Exception {
+        Permiso permiso = adquirir(clase);
+        try {
+            return operacion.ejecutar();
+        } finally {
+            permiso.liberar();
+        }
+    }
+
+    /**
+     * Métricas actuales de todas las clases de operación
+     */
+    public synchronized List<Metricas> getMetricas() {
+        List<Metricas> metricas = new ArrayList<>();
+        for (Compartimento compartimento : compartimentos.values()) {
+            metricas.add(compartimento.metricas());
+        }
+        return metricas;
+    }
+
+    /**
+     * Cupo de una clase de operación
+     */
+    private static final class Compartimento {
+        private final ClaseOperacion clase;
+        private final int concurrenciaMaxima;
+        private final int esperaMaxima;
+        private final long timeoutMs;
+        private final Semaphore cupo;
+        private final AtomicInteger enEspera = new AtomicInteger();
+
+        // Los contadores se conservan al reconfigurar
+        private final AtomicLong aceptadas;
+        private final AtomicLong rechazadas;
+        private final AtomicLong rechazadasPorTimeout;
+        private final AtomicLong esperaTotalMs;
+
+        Compartimento(ClaseOperacion clase, int concurrenciaMaxima, int esperaMaxima, long timeoutMs) {
+            this(clase, concurrenciaMaxima, esperaMaxima, timeoutMs, null);
+        }
+
+        Compartimento(ClaseOperacion clase, int concurrenciaMaxima, int esperaMaxima, long timeoutMs,
+                      Compartimento anterior) {
+            this.clase = clase;
+            this.concurrenciaMaxima = concurrenciaMaxima;
+            this.esperaMaxima = esperaMaxima;
+            this.timeoutMs = timeoutMs;
+            this.cupo = new Semaphore(concurrenciaMaxima);
+            this.aceptadas = anterior != null ? anterior.aceptadas : new AtomicLong();
+            this.rechazadas = anterior != null ? anterior.rechazadas : new AtomicLong();
+            this.rechazadasPorTimeout = anterior != null ? anterior.rechazadasPorTimeout : new AtomicLong();
+            this.esperaTotalMs = anterior != null ? anterior.esperaTotalMs : new AtomicLong();
+        }
+
+        void adquirir() throws OperacionRechazadaException {
+            // Camino rápido: hay lugar libre
+            if (cupo.tryAcquire()) {
+                aceptadas.incrementAndGet();
+                return;
+            }
+
+            if (enEspera.incrementAndGet() > esperaMaxima) {
+                enEspera.decrementAndGet();
+                rechazadas.incrementAndGet();
+                throw new OperacionRechazadaException(clase, "Sistema saturado: se rechazó la operación de tipo " +
+                                                      clase + " (" + concurrenciaMaxima + " en curso)");
+            }
+
+            long inicio = System.nanoTime();
+            try {
+                if (!cupo.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                    rechazadas.incrementAndGet();
+                    rechazadasPorTimeout.incrementAndGet();
+                    throw new OperacionRechazadaException(clase, "Sistema saturado: la operación de tipo " + clase +
+                                                          " esperó más de " + timeoutMs + " ms");
+                }
+                aceptadas.incrementAndGet();
+                esperaTotalMs.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                rechazadas.incrementAndGet();
+                throw new OperacionRechazadaException(clase, "Operación interrumpida mientras esperaba lugar");
+            } finally {
+                enEspera.decrementAndGet();
+            }
+        }
+
+        void liberar() {
+            cupo.release();
+        }
+
+        Metricas metricas() {
+            return new Metricas(clase, concurrenciaMaxima, esperaMaxima, timeoutMs,
+                                concurrenciaMaxima - cupo.availablePermits(), enEspera.get(),
+                                aceptadas.get(), rechazadas.get(), rechazadasPorTimeout.get(), esperaTotalMs.get());
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package service;
+
+import config.Configuracion;
+import config.DatabaseConnection;
+import config.Fragmentos;
+import config.PoolConexiones;
+import eventos.BusEventos;
+import util.CacheCercana;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Estado de salud de la aplicación para sondeos frecuentes (vivo / listo)
+ * La parte que consulta la base se cachea durante salud.ttl.ms: por más sondeos que
+ * lleguen, cada fragmento recibe a lo sumo una consulta por período, hecha con una
+ * conexión del pool (sin abrir conexiones nuevas) y sin esperar más de
+ * salud.espera.conexion.ms por una libre. Las métricas en memoria (pool, compartimentos,
+ * reintentos, bus, filtro y cachés) se leen en cada pedido porque no cuestan nada.
+ * La consulta del sondeo es SHOW REPLICA STATUS, que además de probar la conexión
+ * informa el retraso si el servidor es una réplica; si el usuario no tiene permiso se
+ * usa Connection.isValid y el retraso queda sin informar.
+ */
+public final class MonitorSalud {
+
+    public static final long TTL_MS_POR_DEFECTO = 1000;
+    public static final long ESPERA_CONEXION_MS_POR_DEFECTO = 200;
+    public static final long RETRASO_REPLICA_MAXIMO_S_POR_DEFECTO = 30;
+
+    private static final int TIMEOUT_SONDEO_SEGUNDOS = 2;
+    /**
+     * Si no hay conexión libre para sondear, una devuelta sana hace menos de este tiempo
+     * basta como prueba de que la base responde (el pool está ocupado, no caído)
+     */
+    private static final long USO_RECIENTE_MS = 5000;
+    /** ER_SPECIFIC_ACCESS_DENIED_ERROR: falta el privilegio REPLICATION CLIENT */
+    private static final int ERROR_SIN_PRIVILEGIO = 1227;
+    /** ER_PARSE_ERROR: servidor anterior a 8.0.22, sin SHOW REPLICA STATUS */
+    private static final int ERROR_SINTAXIS = 1064;
+
+    /**
+     * Resultado del sondeo de un fragmento
+     * retrasoReplicaS es null si el servidor no es réplica, si la replicación está
+     * detenida (replica = true) o si no se pudo consultar
+     */
+    public record EstadoFragmento(int fragmento, boolean vivo, long latenciaMs, boolean replica,
+                                  Long retrasoReplicaS, String error) {
+    }
+
+    /**
+     * Totales de las suscripciones del bus de eventos
+     */
+    public record EstadoBus(long publicados, int pendientes, long descartados, long errores) {
+    }
+
+    /**
+     * Informe completo; sondeoHaceMs es la antigüedad de la parte cacheada
+     */
+    public record Informe(boolean vivo, boolean listo, List<String> motivos, long sondeoHaceMs,
+                          long ultimoUsoHaceMs, List<EstadoFragmento> fragmentos, PoolConexiones.Metricas pool,
+                          List<LimitadorConcurrencia.Metricas> limitador, ReintentosTransaccion.Metricas reintentos,
+                          EstadoBus bus, FiltroExistenciaVehiculos.Metricas filtro,
+                          List<CacheCercana.Metricas> caches) {
+    }
+
+    private record Sondeo(long instante, List<EstadoFragmento> fragmentos, long agotadasPool,
+                          long nuevasAgotadas) {
+    }
+
+    private enum ConsultaReplica { REPLICA, SLAVE, NINGUNA }
+
+    private static final MonitorSalud INSTANCIA = new MonitorSalud();
+
+    private volatile Sondeo ultimo;
+    private volatile ConsultaReplica consultaReplica = ConsultaReplica.REPLICA;
+
+    private MonitorSalud() {
+    }
+
+    public static MonitorSalud getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Informe con el sondeo cacheado (se renueva si venció)
+     */
+    public Informe getInforme() {
+        Configuracion config = Configuracion.getInstancia();
+        Sondeo sondeo = vigente(config.getLargo("salud.ttl.ms", TTL_MS_POR_DEFECTO));
+        long ahora = System.currentTimeMillis();
+
+        List<String> motivos = new ArrayList<>();
+        boolean vivo = true;
+        long retrasoMaximo = config.getLargo("salud.replica.retraso.maximo.s", RETRASO_REPLICA_MAXIMO_S_POR_DEFECTO);
+        for (EstadoFragmento f : sondeo.fragmentos()) {
+            if (!f.vivo()) {
+                vivo = false;
+                motivos.add("fragmento " + f.fragmento() + ": " + f.error());
+            } else if (f.replica() && f.retrasoReplicaS() == null) {
+                motivos.add("fragmento " + f.fragmento() + ": replicación detenida");
+            } else if (f.retrasoReplicaS() != null && f.retrasoReplicaS() > retrasoMaximo) {
+                motivos.add("fragmento " + f.fragmento() + ": réplica atrasada " + f.retrasoReplicaS() + " s");
+            }
+        }
+        if (sondeo.nuevasAgotadas() > 0) {
+            motivos.add("pool agotado: " + sondeo.nuevasAgotadas() + " pedidos sin conexión en el último período");
+        }
+
+        PoolConexiones.Metricas pool = DatabaseConnection.getMetricasPool();
+        return new Informe(vivo, vivo && motivos.isEmpty(), motivos, ahora - sondeo.instante(),
+                           pool.ultimoUsoSano() == 0 ? -1 : ahora - pool.ultimoUsoSano(),
+                           sondeo.fragmentos(), pool, LimitadorConcurrencia.getInstancia().getMetricas(),
+                           ReintentosTransaccion.getInstancia().getMetricas(), estadoBus(),
+                           FiltroExistenciaVehiculos.getInstancia().getMetricas(), CachesPorClave.getMetricas());
+    }
+
+    /**
+     * Solo la parte barata: si la base respondió en el último sondeo (cacheado)
+     */
+    public boolean estaVivo() {
+        long ttlMs = Configuracion.getInstancia().getLargo("salud.ttl.ms", TTL_MS_POR_DEFECTO);
+        for (EstadoFragmento f : vigente(ttlMs).fragmentos()) {
+            if (!f.vivo()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sondeo vigente; si venció lo renueva un solo hilo y el resto usa el resultado
+     */
+    private Sondeo vigente(long ttlMs) {
+        Sondeo actual = ultimo;
+        if (actual != null && System.currentTimeMillis() - actual.instante() < ttlMs) {
+            return actual;
+        }
+        synchronized (this) {
+            actual = ultimo;
+            if (actual != null && System.currentTimeMillis() - actual.instante() < ttlMs) {
+                return actual;
+            }
+            long agotadas = DatabaseConnection.getMetricasPool().agotadas();
+            List<EstadoFragmento> fragmentos = sondearFragmentos();
+            ultimo = new Sondeo(System.currentTimeMillis(), fragmentos, agotadas,
+                                actual == null ? 0 : agotadas - actual.agotadasPool());
+            return ultimo;
+        }
+    }
+
+    private List<EstadoFragmento> sondearFragmentos() {
+        long esperaMs = Configuracion.getInstancia().getLargo("salud.espera.conexion.ms", ESPERA_CONEXION_MS_POR_DEFECTO);
+        try {
+            return Fragmentos.enTodos(() -> sondear(Fragmentos.getActual(), esperaMs));
+        } catch (Exception e) {
+            // sondear no lanza excepciones verificadas: no debería pasar
+            List<EstadoFragmento> fallidos = new ArrayList<>();
+            for (int k = 0; k < Fragmentos.getCantidad(); k++) {
+                fallidos.add(new EstadoFragmento(k, false, -1, false, null, primeraLinea(e.getMessage())));
+            }
+            return fallidos;
+        }
+    }
+
+    private EstadoFragmento sondear(int fragmento, long esperaMs) {
+        long inicio = System.nanoTime();
+        try (Connection conn = DatabaseConnection.getConnectionSondeo(fragmento, esperaMs)) {
+            boolean replica = false;
+            Long retraso = null;
+            ConsultaReplica consulta = consultaReplica;
+            if (consulta == ConsultaReplica.NINGUNA) {
+                if (!conn.isValid(TIMEOUT_SONDEO_SEGUNDOS)) {
+                    return new EstadoFragmento(fragmento, false, latenciaMs(inicio), false, null,
+                                               "la conexión no responde");
+                }
+            } else {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.setQueryTimeout(TIMEOUT_SONDEO_SEGUNDOS);
+                    String sql = consulta == ConsultaReplica.REPLICA ? "SHOW REPLICA STATUS" : "SHOW SLAVE STATUS";
+                    try (ResultSet rs = stmt.executeQuery(sql)) {
+                        if (rs.next()) {
+                            replica = true;
+                            retraso = retrasoReplica(rs);
+                        }
+                    }
+                } catch (SQLException e) {
+                    if (e.getErrorCode() == ERROR_SINTAXIS && consulta == ConsultaReplica.REPLICA) {
+                        consultaReplica = ConsultaReplica.SLAVE;
+                    } else if (e.getErrorCode() == ERROR_SIN_PRIVILEGIO || e.getErrorCode() == ERROR_SINTAXIS) {
+                        consultaReplica = ConsultaReplica.NINGUNA;
+                    } else {
+                        throw e;
+                    }
+                    // La conexión respondió (con un error de permisos o de sintaxis)
+                }
+            }
+            return new EstadoFragmento(fragmento, true, latenciaMs(inicio), replica, retraso, null);
+        } catch (SQLException e) {
+            long ultimoUso = DatabaseConnection.getMetricasPool(fragmento).ultimoUsoSano();
+            boolean usoReciente = System.currentTimeMillis() - ultimoUso < USO_RECIENTE_MS;
+            return new EstadoFragmento(fragmento, usoReciente, latenciaMs(inicio), false, null,
+                                       primeraLinea(e.getMessage()));
+        }
+    }
+
+    private static String primeraLinea(String mensaje) {
+        if (mensaje == null) {
+            return "error desconocido";
+        }
+        int fin = mensaje.indexOf('\n');
+        return fin >= 0 ? mensaje.substring(0, fin) : mensaje;
+    }
+
+    /**
+     * Seconds_Behind_Source (8.0.22+) o Seconds_Behind_Master; null si la replicación está detenida
+     */
+    private static Long retrasoReplica(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String columna = meta.getColumnLabel(i);
+            if (columna.equalsIgnoreCase("Seconds_Behind_Source") || columna.equalsIgnoreCase("Seconds_Behind_Master")) {
+                long segundos = rs.getLong(i);
+                return rs.wasNull() ? null : segundos;
+            }
+        }
+        return null;
+    }
+
+    private static EstadoBus estadoBus() {
+        BusEventos bus = BusEventos.getInstancia();
+        int pendientes = 0;
+        long descartados = 0;
+        long errores = 0;
+        for (BusEventos.Suscripcion s : bus.getSuscripciones()) {
+            pendientes += s.getPendientes();
+            descartados += s.getDescartados();
+            errores += s.getErrores();
+        }
+        for (BusEventos.SuscripcionSincrona s : bus.getSuscripcionesSincronas()) {
+            errores += s.getErrores();
+        }
+        return new EstadoBus(bus.getPublicados(), pendientes, descartados, errores);
+    }
+
+    private static long latenciaMs(long inicioNanos) {
+        return (System.nanoTime() - inicioNanos) / 1_000_000;
+    }
+}
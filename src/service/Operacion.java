@@ -0,0 +1,12 @@
+package service;
+
+/**
+ * Unidad de trabajo de un servicio que devuelve un resultado
+ * La usan el limitador de concurrencia y los reintentos de transacciones
+ *
+ * @param <T> Tipo de resultado
+ */
+@FunctionalInterface
+public interface Operacion<T> {
+    T ejecutar() throws Exception;
+}
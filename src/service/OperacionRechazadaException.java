@@ -0,0 +1,21 @@
+package service;
+
+/**
+ * Se lanza cuando una clase de operación está saturada y el pedido se rechaza
+ * sin llegar a la base de datos
+ */
+public class OperacionRechazadaException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ClaseOperacion clase;
+
+    public OperacionRechazadaException(ClaseOperacion clase, String mensaje) {
+        super(mensaje);
+        this.clase = clase;
+    }
+
+    public ClaseOperacion getClase() {
+        return clase;
+    }
+}
@@ -0,0 +1,195 @@
+package service;
+
+import config.Configuracion;
+import util.Registro;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reintentos automáticos de unidades transaccionales ante fallas transitorias de MySQL
+ * Solo se reintentan los errores en los que el servidor ya revirtió o abandonó la
+ * transacción: deadlock (1213), timeout de espera de bloqueo (1205) y los SQLState de
+ * la clase 40 (rollback de transacción). Cada intento vuelve a ejecutar la unidad
+ * completa (validaciones, transacción y commit), por eso la unidad debe poder repetirse.
+ * Entre intentos se espera un backoff exponencial con jitter completo, sin superar un
+ * presupuesto total de tiempo.
+ */
+public final class ReintentosTransaccion {
+
+    /** ER_LOCK_DEADLOCK */
+    public static final int ERROR_DEADLOCK = 1213;
+    /** ER_LOCK_WAIT_TIMEOUT */
+    public static final int ERROR_LOCK_WAIT_TIMEOUT = 1205;
+
+    public static final int REINTENTOS_POR_DEFECTO = 3;
+    public static final long BACKOFF_BASE_MS_POR_DEFECTO = 20;
+    public static final long BACKOFF_MAXIMO_MS_POR_DEFECTO = 1000;
+    public static final long PRESUPUESTO_MS_POR_DEFECTO = 5000;
+
+    /**
+     * Unidad transaccional sin resultado
+     */
+    @FunctionalInterface
+    public interface Unidad {
+        void ejecutar() throws Exception;
+    }
+
+    /**
+     * Contadores de reintentos
+     */
+    public record Metricas(long ejecuciones, long reintentos, long exitosasTrasReintento, long agotadas,
+                           Map<String, Long> fallasPorCodigo) {
+    }
+
+    private static final ReintentosTransaccion INSTANCIA = new ReintentosTransaccion();
+
+    private volatile int maxReintentos = REINTENTOS_POR_DEFECTO;
+    private volatile long backoffBaseMs = BACKOFF_BASE_MS_POR_DEFECTO;
+    private volatile long backoffMaximoMs = BACKOFF_MAXIMO_MS_POR_DEFECTO;
+    private volatile long presupuestoMs = PRESUPUESTO_MS_POR_DEFECTO;
+
+    private final AtomicLong ejecuciones = new AtomicLong();
+    private final AtomicLong reintentos = new AtomicLong();
+    private final AtomicLong exitosasTrasReintento = new AtomicLong();
+    private final AtomicLong agotadas = new AtomicLong();
+    private final Map<String, AtomicLong> fallasPorCodigo = new ConcurrentHashMap<>();
+
+    private ReintentosTransaccion() {
+        try {
+            aplicarConfiguracion();
+        } catch (IllegalArgumentException e) {
+            Registro.error("✗ " + e.getMessage() + "; se usa la política por defecto");
+        }
+        Configuracion.getInstancia().alCambiar(this::aplicarConfiguracion, "reintentos.maximo",
+                "reintentos.backoff.base.ms", "reintentos.backoff.maximo.ms", "reintentos.presupuesto.ms");
+    }
+
+    public static ReintentosTransaccion getInstancia() {
+        return INSTANCIA;
+    }
+
+    private void aplicarConfiguracion() {
+        Configuracion config = Configuracion.getInstancia();
+        configurar(config.getEntero("reintentos.maximo", REINTENTOS_POR_DEFECTO),
+                   config.getLargo("reintentos.backoff.base.ms", BACKOFF_BASE_MS_POR_DEFECTO),
+                   config.getLargo("reintentos.backoff.maximo.ms", BACKOFF_MAXIMO_MS_POR_DEFECTO),
+                   config.getLargo("reintentos.presupuesto.ms", PRESUPUESTO_MS_POR_DEFECTO));
+    }
+
+    /**
+     * Cambia la política de reintentos
+     */
+    public void configurar(int maxReintentos, long backoffBaseMs, long backoffMaximoMs, long presupuestoMs) {
+        if (maxReintentos < 0 || backoffBaseMs < 0 || backoffMaximoMs < backoffBaseMs || presupuestoMs < 0) {
+            throw new IllegalArgumentException("Política de reintentos inválida");
+        }
+        this.maxReintentos = maxReintentos;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaximoMs = backoffMaximoMs;
+        this.presupuestoMs = presupuestoMs;
+    }
+
+    /**
+     * Ejecuta una unidad transaccional reintentándola ante fallas transitorias
+     */
+    public void ejecutar(String operacion, Unidad unidad) throws Exception {
+        ejecutarConResultado(operacion, () -> {
+            unidad.ejecutar();
+            return null;
+        });
+    }
+
+    /**
+     * Ejecuta una unidad transaccional con resultado reintentándola ante fallas transitorias
+     */
+    public <T> T ejecutarConResultado(String operacion, Operacion<T> unidad) throws Exception {
+        ejecuciones.incrementAndGet();
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(presupuestoMs);
+        int intento = 0;
+
+        while (true) {
+            try {
+                T resultado = unidad.ejecutar();
+                if (intento > 0) {
+                    exitosasTrasReintento.incrementAndGet();
+                }
+                return resultado;
+
+            } catch (Exception e) {
+                SQLException causa = causaTransitoria(e);
+                if (causa == null) {
+                    throw e;
+                }
+                fallasPorCodigo.computeIfAbsent(codigo(causa), k -> new AtomicLong()).incrementAndGet();
+
+                long espera = backoff(intento);
+                if (intento >= maxReintentos || System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(espera) > limite) {
+                    agotadas.incrementAndGet();
+                    throw e;
+                }
+
+                intento++;
+                reintentos.incrementAndGet();
+                Registro.advertencia("⚠ Reintentando " + operacion + " (intento " + (intento + 1) + ") tras " +
+                                     codigo(causa) + ": " + causa.getMessage());
+                Thread.sleep(espera);
+            }
+        }
+    }
+
+    /**
+     * Busca en la cadena de causas una SQLException que se pueda reintentar
+     */
+    public static SQLException causaTransitoria(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql && esTransitoria(sql)) {
+                return sql;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Clasifica una SQLException por código de error de MySQL y SQLState
+     */
+    public static boolean esTransitoria(SQLException e) {
+        if (e.getErrorCode() == ERROR_DEADLOCK || e.getErrorCode() == ERROR_LOCK_WAIT_TIMEOUT) {
+            return true;
+        }
+        if (e instanceof SQLTransactionRollbackException) {
+            return true;
+        }
+        // Clase 40: la transacción fue revertida (40001 serialización, 40000 rollback)
+        String estado = e.getSQLState();
+        return estado != null && estado.startsWith("40");
+    }
+
+    /**
+     * Espera antes del reintento: aleatoria entre 0 y base * 2^intento, con tope
+     */
+    private long backoff(int intento) {
+        long techo = Math.min(backoffMaximoMs, backoffBaseMs << Math.min(intento, 20));
+        return techo <= 0 ? 0 : ThreadLocalRandom.current().nextLong(techo + 1);
+    }
+
+    private static String codigo(SQLException e) {
+        return e.getErrorCode() != 0 ? String.valueOf(e.getErrorCode()) : String.valueOf(e.getSQLState());
+    }
+
+    public Metricas getMetricas() {
+        Map<String, Long> porCodigo = new TreeMap<>();
+        fallasPorCodigo.forEach((codigo, cantidad) -> porCodigo.put(codigo, cantidad.get()));
+        return new Metricas(ejecuciones.get(), reintentos.get(), exitosasTrasReintento.get(), agotadas.get(),
+                            porCodigo);
+    }
+}
@@ -1,36 +1,79 @@
 package service;
 
+import config.Configuracion;
 import config.DatabaseConnection;
+import config.Fragmentos;
 import dao.SeguroVehicularDao;
+import entities.SeguroResumen;
 import entities.SeguroVehicular;
+import eventos.BusEventos;
+import eventos.EventoEntidad;
+import eventos.TipoEvento;
+import util.Registro;
 
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Servicio para la entidad SeguroVehicular
  * Implementa reglas de negocio, validaciones y manejo de transacciones
+ * Con varios fragmentos, un seguro nuevo va al fragmento de su póliza y se muda al de su
+ * vehículo cuando se le asigna (ver VehiculoService); por eso las búsquedas por ID miran
+ * primero el fragmento del ID y después el resto, y las búsquedas por póliza y los
+ * listados consultan todos los fragmentos en paralelo.
  */
 public class SeguroVehicularService implements GenericService<SeguroVehicular> {
     
+    /**
+     * Cantidad de pólizas que se confirman por transacción en un upsert masivo
+     * (por defecto; se cambia con importacion.lote)
+     */
+    private static final int TAMANIO_LOTE_UPSERT = 500;
+    
+    private static final Comparator<SeguroVehicular> POR_ID = Comparator.comparing(SeguroVehicular::getId);
+    
+    /**
+     * Listados completos compartidos por todas las instancias del servicio
+     */
+    private static final InstantaneaVersionada<SeguroVehicular> ACTIVOS = new InstantaneaVersionada<>("seguros");
+    private static final InstantaneaVersionada<SeguroResumen> DISPONIBLES = new InstantaneaVersionada<>("seguros disponibles");
+    
     private final SeguroVehicularDao seguroDao;
+    private final BusEventos bus;
+    private final LimitadorConcurrencia limitador;
+    private final ReintentosTransaccion reintentos;
     
     public SeguroVehicularService() {
         this.seguroDao = new SeguroVehicularDao();
+        this.bus = BusEventos.getInstancia();
+        this.limitador = LimitadorConcurrencia.getInstancia();
+        this.reintentos = ReintentosTransaccion.getInstancia();
     }
     
     @Override
     public void insertar(SeguroVehicular entity) throws Exception {
+        escribir("insertar seguro", () -> insertarEnTransaccion(entity));
+    }
+    
+    private void insertarEnTransaccion(SeguroVehicular entity) throws Exception {
         Connection conn = null;
         try {
             // Validaciones de negocio
             validarSeguro(entity);
             validarPolizaUnica(entity.getNroPoliza(), null);
             
-            // Iniciar transacción
-            conn = DatabaseConnection.getConnection();
+            // Iniciar transacción (un seguro sin vehículo va al fragmento de su póliza)
+            conn = DatabaseConnection.getConnection(Fragmentos.dePoliza(entity.getNroPoliza()));
             conn.setAutoCommit(false);
             
             // Ejecutar operación
@@ -38,15 +81,16 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
             
             // Commit si todo salió bien
             conn.commit();
+            bus.publicar(EventoEntidad.deSeguro(TipoEvento.SEGURO_CREADO, entity));
             
         } catch (Exception e) {
             // Rollback en caso de error
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("ROLLBACK ejecutado en insertar SeguroVehicular");
+                    Registro.advertencia("ROLLBACK ejecutado en insertar SeguroVehicular");
                 } catch (SQLException ex) {
-                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
                 }
             }
             throw new Exception("Error al insertar seguro: " + e.getMessage(), e);
@@ -57,7 +101,7 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
             }
         }
@@ -65,6 +109,16 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
     
     @Override
     public void actualizar(SeguroVehicular entity) throws Exception {
+        // La entidad puede ser la instancia guardada en la caché: sacarla antes de escribir.
+        // La póliza anterior y la nueva se invalidan de nuevo con el evento
+        if (entity.getId() != null) {
+            CachesPorClave.SEGUROS.invalidarId(entity.getId());
+            CachesPorClave.VEHICULOS.invalidarRelacionado(entity.getId());
+        }
+        escribir("actualizar seguro", () -> actualizarEnTransaccion(entity));
+    }
+    
+    private void actualizarEnTransaccion(SeguroVehicular entity) throws Exception {
         Connection conn = null;
         try {
             // Validaciones
@@ -73,7 +127,8 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
             }
             
             // Verificar que existe
-            SeguroVehicular existente = seguroDao.leer(entity.getId());
+            int fragmento = ubicar(entity.getId());
+            SeguroVehicular existente = fragmento < 0 ? null : Fragmentos.en(fragmento, () -> seguroDao.leer(entity.getId()));
             if (existente == null) {
                 throw new Exception("No existe un seguro con ID: " + entity.getId());
             }
@@ -86,7 +141,7 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
             }
             
             // Iniciar transacción
-            conn = DatabaseConnection.getConnection();
+            conn = DatabaseConnection.getConnection(fragmento);
             conn.setAutoCommit(false);
             
             // Ejecutar operación
@@ -94,15 +149,16 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
             
             // Commit
             conn.commit();
+            bus.publicar(EventoEntidad.deSeguro(TipoEvento.SEGURO_ACTUALIZADO, entity));
             
         } catch (Exception e) {
             // Rollback en caso de error
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("ROLLBACK ejecutado en actualizar SeguroVehicular");
+                    Registro.advertencia("ROLLBACK ejecutado en actualizar SeguroVehicular");
                 } catch (SQLException ex) {
-                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
                 }
             }
             throw new Exception("Error al actualizar seguro: " + e.getMessage(), e);
@@ -112,7 +168,7 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
             }
         }
@@ -120,16 +176,21 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
     
     @Override
     public void eliminar(long id) throws Exception {
+        escribir("eliminar seguro", () -> eliminarEnTransaccion(id));
+    }
+    
+    private void eliminarEnTransaccion(long id) throws Exception {
         Connection conn = null;
         try {
             // Verificar que existe
-            SeguroVehicular existente = seguroDao.leer(id);
+            int fragmento = ubicar(id);
+            SeguroVehicular existente = fragmento < 0 ? null : Fragmentos.en(fragmento, () -> seguroDao.leer(id));
             if (existente == null) {
                 throw new Exception("No existe un seguro con ID: " + id);
             }
             
             // Iniciar transacción
-            conn = DatabaseConnection.getConnection();
+            conn = DatabaseConnection.getConnection(fragmento);
             conn.setAutoCommit(false);
             
             // Ejecutar operación (eliminación lógica)
@@ -137,15 +198,16 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
             
             // Commit
             conn.commit();
+            bus.publicar(EventoEntidad.deSeguro(TipoEvento.SEGURO_ELIMINADO, existente));
             
         } catch (Exception e) {
             // Rollback en caso de error
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("ROLLBACK ejecutado en eliminar SeguroVehicular");
+                    Registro.advertencia("ROLLBACK ejecutado en eliminar SeguroVehicular");
                 } catch (SQLException ex) {
-                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
                 }
             }
             throw new Exception("Error al eliminar seguro: " + e.getMessage(), e);
@@ -155,7 +217,131 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Inserta o actualiza un seguro según su número de póliza
+     */
+    public SeguroVehicularDao.ResultadoUpsert upsert(SeguroVehicular entity) throws Exception {
+        return upsertPorPoliza(List.of(entity));
+    }
+    
+    /**
+     * Inserta o actualiza seguros según su número de póliza (archivos de aseguradoras)
+     * Es idempotente: volver a procesar el mismo archivo solo cuenta pólizas sin cambios.
+     * Cada lote de importacion.lote pólizas (TAMANIO_LOTE_UPSERT por defecto) se confirma en su propia transacción para
+     * no retener bloqueos durante todo el archivo; si un lote falla se revierte solo ese
+     * lote y el archivo puede reprocesarse completo sin efectos duplicados.
+     * Con varios fragmentos cada póliza se escribe donde ya existe o, si es nueva, en el
+     * fragmento de su póliza; cada lote se confirma por separado en cada fragmento.
+     * Si una póliza se repite vale la primera aparición, igual que en la sincronización.
+     */
+    public SeguroVehicularDao.ResultadoUpsert upsertPorPoliza(Collection<SeguroVehicular> seguros) throws Exception {
+        // Validar y normalizar todo antes de escribir; las repeticiones se descartan acá
+        // porque caerían en lotes distintos y la última pisaría a la primera
+        List<SeguroVehicular> validos = new ArrayList<>(seguros.size());
+        Set<String> polizas = new HashSet<>();
+        for (SeguroVehicular seguro : seguros) {
+            validarSeguro(seguro);
+            if (polizas.add(SincronizacionCarteraService.clavePoliza(seguro.getNroPoliza()))) {
+                validos.add(seguro);
+            }
+        }
+        
+        // Una importación ocupa un solo lugar de su clase durante todos sus lotes
+        ClaseOperacion clase = validos.size() > 1 ? ClaseOperacion.MASIVA : ClaseOperacion.ESCRITURA;
+        LimitadorConcurrencia.Permiso permiso = limitador.adquirir(clase);
+        try {
+            int tamanioLote = Math.max(1, Configuracion.getInstancia().getEntero("importacion.lote", TAMANIO_LOTE_UPSERT));
+            SeguroVehicularDao.ResultadoUpsert resultado = SeguroVehicularDao.ResultadoUpsert.VACIO;
+            for (int desde = 0; desde < validos.size(); desde += tamanioLote) {
+                List<SeguroVehicular> lote = validos.subList(desde, Math.min(desde + tamanioLote, validos.size()));
+                for (Map.Entry<Integer, List<SeguroVehicular>> parte : repartirPorPoliza(lote).entrySet()) {
+                    resultado = resultado.sumar(reintentos.ejecutarConResultado(
+                            "importar seguros", () -> upsertLote(parte.getValue(), parte.getKey())));
+                }
+            }
+            return resultado;
+        } finally {
+            permiso.liberar();
+        }
+    }
+    
+    /**
+     * Agrupa un lote por el fragmento en el que hay que escribir cada póliza:
+     * el fragmento donde ya existe (con cualquier aseguradora) o, si no existe, el de su póliza
+     */
+    Map<Integer, List<SeguroVehicular>> repartirPorPoliza(List<SeguroVehicular> lote) throws Exception {
+        Map<Integer, List<SeguroVehicular>> porFragmento = new TreeMap<>();
+        if (Fragmentos.getCantidad() == 1) {
+            porFragmento.put(0, lote);
+            return porFragmento;
+        }
+        
+        List<String> polizas = new ArrayList<>(lote.size());
+        for (SeguroVehicular seguro : lote) {
+            polizas.add(seguro.getNroPoliza());
+        }
+        List<Map<String, Long>> existentes = Fragmentos.enTodos(() -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                return seguroDao.buscarIdsPorPolizas(polizas, conn);
+            }
+        });
+        
+        for (SeguroVehicular seguro : lote) {
+            int fragmento = Fragmentos.dePoliza(seguro.getNroPoliza());
+            for (int k = 0; k < existentes.size(); k++) {
+                if (existentes.get(k).containsKey(seguro.getNroPoliza())) {
+                    fragmento = k;
+                    break;
+                }
+            }
+            porFragmento.computeIfAbsent(fragmento, k -> new ArrayList<>()).add(seguro);
+        }
+        return porFragmento;
+    }
+    
+    private SeguroVehicularDao.ResultadoUpsert upsertLote(List<SeguroVehicular> lote, int fragmento) throws Exception {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection(fragmento);
+            conn.setAutoCommit(false);
+            
+            List<SeguroVehicular> insertados = new ArrayList<>();
+            List<SeguroVehicular> actualizados = new ArrayList<>();
+            SeguroVehicularDao.ResultadoUpsert resultado = 
+                seguroDao.upsertPorPoliza(lote, conn, insertados, actualizados);
+            
+            conn.commit();
+            for (SeguroVehicular seguro : insertados) {
+                bus.publicar(EventoEntidad.deSeguro(TipoEvento.SEGURO_CREADO, seguro));
+            }
+            for (SeguroVehicular seguro : actualizados) {
+                bus.publicar(EventoEntidad.deSeguro(TipoEvento.SEGURO_ACTUALIZADO, seguro));
+            }
+            return resultado;
+            
+        } catch (Exception e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    Registro.advertencia("ROLLBACK ejecutado en upsert de SeguroVehicular");
+                } catch (SQLException ex) {
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
+                }
+            }
+            throw new Exception("Error al importar seguros: " + e.getMessage(), e);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
             }
         }
@@ -163,28 +349,126 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
     
     @Override
     public SeguroVehicular getById(long id) throws Exception {
-        return seguroDao.leer(id);
+        return limitador.ejecutar(ClaseOperacion.LECTURA, () -> leerEnFragmentos(id));
     }
     
+    /**
+     * Seguros activos, desde la copia compartida (ver InstantaneaVersionada)
+     * La lista es inmodificable y sus elementos no deben modificarse
+     */
     @Override
     public List<SeguroVehicular> getAll() throws Exception {
-        return seguroDao.leerTodos();
+        return ACTIVOS.obtener(() -> limitador.ejecutar(ClaseOperacion.LECTURA, () ->
+            Fragmentos.unir(Fragmentos.enTodos(seguroDao::leerTodos), POR_ID, Integer.MAX_VALUE)));
+    }
+    
+    /**
+     * Obtiene una página de seguros activos a continuación del ID indicado (0 para empezar)
+     */
+    public List<SeguroVehicular> getPagina(long desdeId, int limite) throws Exception {
+        if (limite <= 0) {
+            throw new Exception("El tamaño de página debe ser mayor a cero");
+        }
+        return limitador.ejecutar(ClaseOperacion.LECTURA, () ->
+            Fragmentos.unir(Fragmentos.enTodos(() -> seguroDao.leerPagina(desdeId, limite)), POR_ID, limite));
     }
     
     /**
-     * Busca un seguro por número de póliza
+     * Obtiene varios seguros por ID en una sola consulta por lote
+     * Devuelve un mapa ID → entidad; los IDs inexistentes no aparecen en el mapa
+     */
+    public Map<Long, SeguroVehicular> getByIds(Collection<Long> ids) throws Exception {
+        return limitador.ejecutar(ClaseOperacion.LECTURA, () -> {
+            Map<Long, SeguroVehicular> encontrados = new HashMap<>();
+            for (Map<Long, SeguroVehicular> parte : Fragmentos.enTodos(() -> seguroDao.leerPorIds(ids))) {
+                encontrados.putAll(parte);
+            }
+            return encontrados;
+        });
+    }
+    
+    /**
+     * Obtiene los seguros activos que no están asignados a ningún vehículo
+     * (desde la copia compartida; la lista es inmodificable)
+     */
+    public List<SeguroResumen> getDisponibles() throws Exception {
+        return DISPONIBLES.obtener(() -> limitador.ejecutar(ClaseOperacion.LECTURA, () ->
+            Fragmentos.unir(Fragmentos.enTodos(seguroDao::listarDisponibles),
+                            Comparator.comparingLong(SeguroResumen::id), Integer.MAX_VALUE)));
+    }
+    
+    /**
+     * Busca un seguro por número de póliza (primero en la caché cercana, ver CachesPorClave)
+     * El seguro devuelto puede estar compartido con otros lectores
      */
     public SeguroVehicular buscarPorPoliza(String nroPoliza) throws Exception {
         if (nroPoliza == null || nroPoliza.trim().isEmpty()) {
             throw new Exception("El número de póliza no puede estar vacío");
         }
-        return seguroDao.buscarPorPoliza(nroPoliza.trim().toUpperCase());
+        String clave = nroPoliza.trim().toUpperCase();
+        return CachesPorClave.SEGUROS.buscar(CachesPorClave.clavePoliza(clave), () ->
+            limitador.ejecutar(ClaseOperacion.LECTURA, () -> buscarEnFragmentos(clave)));
+    }
+    
+    /**
+     * Fragmento en el que está hoy un seguro, o -1 si no existe
+     * Primero se mira el fragmento en el que se generó su ID y después el resto, porque
+     * un seguro asignado a un vehículo de otro fragmento se muda a ese fragmento
+     */
+    int ubicar(long id) throws Exception {
+        int natural = Fragmentos.deId(id);
+        if (Fragmentos.en(natural, () -> seguroDao.leer(id)) != null) {
+            return natural;
+        }
+        if (Fragmentos.getCantidad() > 1) {
+            List<SeguroVehicular> encontrados = Fragmentos.enTodos(() -> seguroDao.leer(id));
+            for (int k = 0; k < encontrados.size(); k++) {
+                if (encontrados.get(k) != null) {
+                    return k;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    private SeguroVehicular leerEnFragmentos(long id) throws Exception {
+        SeguroVehicular seguro = Fragmentos.en(Fragmentos.deId(id), () -> seguroDao.leer(id));
+        if (seguro == null && Fragmentos.getCantidad() > 1) {
+            for (SeguroVehicular encontrado : Fragmentos.enTodos(() -> seguroDao.leer(id))) {
+                if (encontrado != null) {
+                    return encontrado;
+                }
+            }
+        }
+        return seguro;
+    }
+    
+    private SeguroVehicular buscarEnFragmentos(String nroPoliza) throws Exception {
+        for (SeguroVehicular encontrado : Fragmentos.enTodos(() -> seguroDao.buscarPorPoliza(nroPoliza))) {
+            if (encontrado != null) {
+                return encontrado;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Ejecuta una escritura dentro del cupo de ESCRITURA y la reintenta si falla por un
+     * deadlock o un timeout de bloqueo; cada intento es una transacción completa
+     */
+    private void escribir(String operacion, ReintentosTransaccion.Unidad unidad) throws Exception {
+        LimitadorConcurrencia.Permiso permiso = limitador.adquirir(ClaseOperacion.ESCRITURA);
+        try {
+            reintentos.ejecutar(operacion, unidad);
+        } finally {
+            permiso.liberar();
+        }
     }
     
     /**
      * Valida los datos de un SeguroVehicular según reglas de negocio
      */
-    private void validarSeguro(SeguroVehicular seguro) throws Exception {
+    void validarSeguro(SeguroVehicular seguro) throws Exception {
         if (seguro == null) {
             throw new Exception("El seguro no puede ser nulo");
         }
@@ -218,7 +502,7 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
         // Advertencia si el vencimiento es muy antiguo (más de 2 años atrás)
         LocalDate hace2Anios = LocalDate.now().minusYears(2);
         if (seguro.getVencimiento().isBefore(hace2Anios)) {
-            System.out.println("⚠ ADVERTENCIA: El seguro tiene una fecha de vencimiento muy antigua");
+            Registro.advertencia("⚠ ADVERTENCIA: El seguro tiene una fecha de vencimiento muy antigua");
         }
         
         // Normalizar datos
@@ -230,7 +514,7 @@ public class SeguroVehicularService implements GenericService<SeguroVehicular> {
      * Valida que el número de póliza sea único
      */
     private void validarPolizaUnica(String nroPoliza, Long seguroId) throws Exception {
-        SeguroVehicular existente = seguroDao.buscarPorPoliza(nroPoliza.trim().toUpperCase());
+        SeguroVehicular existente = buscarEnFragmentos(nroPoliza.trim().toUpperCase());
         
         if (existente != null) {
             // Si es una actualización y es el mismo seguro, está OK
@@ -0,0 +1,333 @@
+package service;
+
+import config.Configuracion;
+import config.DatabaseConnection;
+import config.Fragmentos;
+import dao.SeguroVehicularDao;
+import entities.SeguroVehicular;
+import eventos.BusEventos;
+import eventos.EventoEntidad;
+import eventos.TipoEvento;
+import util.Registro;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sincronización diferencial de la cartera de una aseguradora
+ * Compara el archivo completo que envía la aseguradora contra sus seguros actuales usando
+ * una huella de 64 bits del contenido de cada fila, y escribe solo las diferencias reales:
+ * pólizas nuevas, pólizas modificadas y bajas lógicas de las que ya no vienen en el archivo.
+ * Las filas sin cambios no se tocan, así los índices de la tabla no se reescriben.
+ * Con varios fragmentos, la cartera actual se lee de todos en paralelo y cada escritura
+ * va al fragmento donde está la póliza. Las que no son de la aseguradora se buscan en todos
+ * los fragmentos antes de insertarlas: si la póliza ya existe en alguno (con otra
+ * aseguradora) se escribe ahí, para que nro_poliza siga siendo única entre fragmentos.
+ */
+public class SincronizacionCarteraService {
+
+    /**
+     * Cantidad de escrituras que se confirman por transacción
+     * (por defecto; se cambia con sincronizacion.lote)
+     */
+    private static final int TAMANIO_LOTE = 500;
+
+    /**
+     * Resultado de una sincronización
+     */
+    public record Resultado(int insertados, int actualizados, int eliminados, int sinCambios) {
+        public int cambios() {
+            return insertados + actualizados + eliminados;
+        }
+    }
+
+    /**
+     * Huella de un seguro existente (lado de construcción del hash join)
+     */
+    private static final class Huella {
+        final long id;
+        final String poliza;
+        final long hash;
+        final boolean eliminado;
+        final int fragmento;
+        boolean vista;
+
+        Huella(long id, String poliza, long hash, boolean eliminado, int fragmento) {
+            this.id = id;
+            this.poliza = poliza;
+            this.hash = hash;
+            this.eliminado = eliminado;
+            this.fragmento = fragmento;
+        }
+    }
+
+    private final SeguroVehicularDao seguroDao;
+    private final SeguroVehicularService seguroService;
+    private final BusEventos bus;
+    private final LimitadorConcurrencia limitador;
+    private final ReintentosTransaccion reintentos;
+
+    public SincronizacionCarteraService() {
+        this.seguroDao = new SeguroVehicularDao();
+        this.seguroService = new SeguroVehicularService();
+        this.bus = BusEventos.getInstancia();
+        this.limitador = LimitadorConcurrencia.getInstancia();
+        this.reintentos = ReintentosTransaccion.getInstancia();
+    }
+
+    /**
+     * Sincroniza la cartera de una aseguradora con el archivo recibido
+     * Todas las pólizas del archivo deben pertenecer a esa aseguradora. Primero se arma en
+     * memoria el mapa póliza → huella de los seguros actuales con un recorrido streaming;
+     * después se recorre el archivo una sola vez comparando huellas. Las escrituras se
+     * aplican en batches de sincronizacion.lote (TAMANIO_LOTE por defecto), cada uno en su propia transacción.
+     */
+    public Resultado sincronizarCartera(String aseguradora, Iterable<SeguroVehicular> archivo) throws Exception {
+        if (aseguradora == null || aseguradora.trim().isEmpty()) {
+            throw new Exception("La aseguradora es obligatoria");
+        }
+        String nombre = aseguradora.trim();
+
+        int tamanioLote = Math.max(1, Configuracion.getInstancia().getEntero("sincronizacion.lote", TAMANIO_LOTE));
+        LimitadorConcurrencia.Permiso permiso = limitador.adquirir(ClaseOperacion.MASIVA);
+        try {
+            Map<String, Huella> actuales = cargarHuellas(nombre);
+
+            List<SeguroVehicular> nuevos = new ArrayList<>();
+            List<SeguroVehicular> modificados = new ArrayList<>();
+            Set<String> polizasNuevas = new HashSet<>();
+            int insertados = 0;
+            int actualizados = 0;
+            int sinCambios = 0;
+
+            for (SeguroVehicular seguro : archivo) {
+                seguroService.validarSeguro(seguro);
+                if (!seguro.getAseguradora().equalsIgnoreCase(nombre)) {
+                    throw new Exception("La póliza " + seguro.getNroPoliza() + " pertenece a otra aseguradora: " +
+                                        seguro.getAseguradora());
+                }
+                seguro.setEliminado(false);
+
+                // Si una póliza se repite en el archivo vale la primera aparición
+                String clave = clavePoliza(seguro.getNroPoliza());
+                Huella huella = actuales.get(clave);
+                if (huella == null) {
+                    if (polizasNuevas.add(clave)) {
+                        nuevos.add(seguro);
+                        insertados++;
+                    }
+                } else if (!huella.vista) {
+                    huella.vista = true;
+                    if (huella.hash == huella(seguro)) {
+                        sinCambios++;
+                    } else {
+                        seguro.setId(huella.id);
+                        modificados.add(seguro);
+                        actualizados++;
+                    }
+                }
+
+                if (nuevos.size() + modificados.size() >= tamanioLote) {
+                    aplicar(nuevos, modificados, null, actuales);
+                }
+            }
+
+            // Las pólizas activas que no vinieron en el archivo se dan de baja
+            List<Huella> bajas = new ArrayList<>();
+            for (Huella huella : actuales.values()) {
+                if (!huella.vista && !huella.eliminado) {
+                    bajas.add(huella);
+                }
+            }
+
+            if (!nuevos.isEmpty() || !modificados.isEmpty()) {
+                aplicar(nuevos, modificados, null, actuales);
+            }
+
+            int eliminados = 0;
+            for (int desde = 0; desde < bajas.size(); desde += tamanioLote) {
+                eliminados += aplicar(nuevos, modificados, bajas.subList(desde, Math.min(desde + tamanioLote, bajas.size())),
+                                      actuales);
+            }
+
+            return new Resultado(insertados, actualizados, eliminados, sinCambios);
+        } finally {
+            permiso.liberar();
+        }
+    }
+
+    /**
+     * Huella de 64 bits (FNV-1a) del contenido sincronizable de un seguro:
+     * aseguradora, cobertura, vencimiento y eliminado
+     */
+    static long huella(SeguroVehicular seguro) {
+        String contenido = (seguro.getAseguradora() != null ? seguro.getAseguradora().toUpperCase(Locale.ROOT) : "") + '|' +
+                           seguro.getCobertura() + '|' +
+                           seguro.getVencimiento() + '|' +
+                           Boolean.TRUE.equals(seguro.getEliminado());
+
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : contenido.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Clave de una póliza en el mapa de huellas: la columna nro_poliza usa una collation
+     * que no distingue mayúsculas, así que "abc-1" y "ABC-1" son la misma póliza
+     */
+    static String clavePoliza(String nroPoliza) {
+        return nroPoliza.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Arma el mapa póliza → huella de los seguros actuales de la aseguradora
+     * Se guarda solo ID, hash, estado y fragmento, no las entidades completas
+     */
+    private Map<String, Huella> cargarHuellas(String aseguradora) throws Exception {
+        Map<String, Huella> huellas = new HashMap<>();
+
+        try {
+            for (Map<String, Huella> parte : Fragmentos.enTodos(() -> {
+                Map<String, Huella> propias = new HashMap<>();
+                int fragmento = Fragmentos.getActual();
+                try (Connection conn = DatabaseConnection.getConnection()) {
+                    seguroDao.recorrerPorAseguradora(aseguradora, seguro ->
+                        propias.put(clavePoliza(seguro.getNroPoliza()),
+                                    new Huella(seguro.getId(), seguro.getNroPoliza(), huella(seguro),
+                                               Boolean.TRUE.equals(seguro.getEliminado()), fragmento)),
+                        conn);
+                }
+                return propias;
+            })) {
+                huellas.putAll(parte);
+            }
+        } catch (Exception e) {
+            throw new Exception("Error al leer la cartera de " + aseguradora + ": " + e.getMessage(), e);
+        }
+
+        return huellas;
+    }
+
+    private void publicarEventos(List<SeguroVehicular> nuevos, List<SeguroVehicular> modificados,
+                                 List<Huella> bajas) {
+        for (SeguroVehicular seguro : nuevos) {
+            bus.publicar(EventoEntidad.deSeguro(TipoEvento.SEGURO_CREADO, seguro));
+        }
+        for (SeguroVehicular seguro : modificados) {
+            bus.publicar(EventoEntidad.deSeguro(TipoEvento.SEGURO_ACTUALIZADO, seguro));
+        }
+        if (bajas != null) {
+            long ahora = System.currentTimeMillis();
+            for (Huella huella : bajas) {
+                bus.publicar(new EventoEntidad(TipoEvento.SEGURO_ELIMINADO, huella.id, null, huella.poliza, null, ahora));
+            }
+        }
+    }
+
+    /**
+     * Escribe las inserciones y actualizaciones pendientes y las bajas indicadas, en una
+     * transacción por fragmento. Después de confirmar todos los fragmentos vacía las
+     * listas de pendientes y devuelve la cantidad de bajas aplicadas
+     */
+    private int aplicar(List<SeguroVehicular> nuevos, List<SeguroVehicular> modificados,
+                        List<Huella> bajas, Map<String, Huella> actuales) throws Exception {
+        // Las nuevas pueden existir con otra aseguradora en cualquier fragmento
+        Map<Integer, List<SeguroVehicular>> nuevosPorFragmento =
+            nuevos.isEmpty() ? Map.of() : seguroService.repartirPorPoliza(nuevos);
+
+        int eliminados = 0;
+        for (int fragmento = 0; fragmento < Fragmentos.getCantidad(); fragmento++) {
+            List<SeguroVehicular> nuevosFragmento = nuevosPorFragmento.getOrDefault(fragmento, List.of());
+            List<SeguroVehicular> modificadosFragmento = new ArrayList<>();
+            for (SeguroVehicular seguro : modificados) {
+                if (actuales.get(clavePoliza(seguro.getNroPoliza())).fragmento == fragmento) {
+                    modificadosFragmento.add(seguro);
+                }
+            }
+            List<Huella> bajasFragmento = new ArrayList<>();
+            if (bajas != null) {
+                for (Huella huella : bajas) {
+                    if (huella.fragmento == fragmento) {
+                        bajasFragmento.add(huella);
+                    }
+                }
+            }
+            if (nuevosFragmento.isEmpty() && modificadosFragmento.isEmpty() && bajasFragmento.isEmpty()) {
+                continue;
+            }
+
+            int destino = fragmento;
+            eliminados += reintentos.ejecutarConResultado("sincronizar cartera", () ->
+                aplicarEnTransaccion(destino, nuevosFragmento, modificadosFragmento, bajasFragmento));
+        }
+
+        // Las listas solo se vacían después de los commits, así un reintento vuelve a escribir
+        // las mismas filas (aplicarEnTransaccion descarta los IDs del intento revertido)
+        nuevos.clear();
+        modificados.clear();
+        return eliminados;
+    }
+
+    private int aplicarEnTransaccion(int fragmento, List<SeguroVehicular> nuevos, List<SeguroVehicular> modificados,
+                                     List<Huella> bajas) throws Exception {
+        Connection conn = null;
+        try {
+            conn = DatabaseConnection.getConnection(fragmento);
+            conn.setAutoCommit(false);
+
+            if (!nuevos.isEmpty()) {
+                // Un intento anterior revertido pudo dejarles IDs que ya no existen
+                for (SeguroVehicular seguro : nuevos) {
+                    seguro.setId(null);
+                }
+                seguroDao.upsertEnLote(nuevos, conn);
+            }
+            if (!modificados.isEmpty()) {
+                seguroDao.actualizarEnLote(modificados, conn);
+            }
+            int eliminados = 0;
+            if (!bajas.isEmpty()) {
+                List<Long> ids = new ArrayList<>(bajas.size());
+                for (Huella huella : bajas) {
+                    ids.add(huella.id);
+                }
+                eliminados = seguroDao.eliminarEnLote(ids, conn);
+            }
+
+            conn.commit();
+            publicarEventos(nuevos, modificados, bajas);
+            return eliminados;
+
+        } catch (Exception e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    Registro.advertencia("ROLLBACK ejecutado en sincronización de cartera");
+                } catch (SQLException ex) {
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
+                }
+            }
+            throw new Exception("Error al sincronizar cartera: " + e.getMessage(), e);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package service;
+
+import config.Configuracion;
+import config.DatabaseConnection;
+import config.Fragmentos;
+import dao.SeguroVehicularDao;
+import dao.VehiculoDao;
+import readmodel.FlotaEnMemoria;
+import readmodel.SnapshotFlota;
+import util.Registro;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servicio de snapshots binarios de la flota para arranque en caliente
+ * Genera el snapshot con un recorrido streaming de la base y, al iniciar, lo carga
+ * desde un archivo mapeado en memoria y lo completa con las filas modificadas después.
+ * Al iniciar la aplicación (iniciar) el arranque en caliente corre en segundo plano, el
+ * resultado alimenta la réplica analítica y el snapshot se regenera periódicamente.
+ */
+public class SnapshotService {
+
+    /**
+     * Margen que se resta al instante del snapshot al buscar modificaciones, para cubrir
+     * transacciones que estaban en curso cuando se generó (aplicar dos veces una fila es inocuo)
+     */
+    private static final long MARGEN_MODIFICACIONES_MS = 5 * 60 * 1000;
+
+    public static final String ARCHIVO_POR_DEFECTO = "flota.snapshot";
+    public static final long PERIODO_MIN_POR_DEFECTO = 15;
+
+    private final VehiculoDao vehiculoDao;
+    private final SeguroVehicularDao seguroDao;
+    private final LimitadorConcurrencia limitador;
+    private ScheduledExecutorService programador;
+
+    public SnapshotService() {
+        this.vehiculoDao = new VehiculoDao();
+        this.seguroDao = new SeguroVehicularDao();
+        this.limitador = LimitadorConcurrencia.getInstancia();
+    }
+
+    /**
+     * Genera un snapshot de la base y lo guarda en el archivo indicado
+     * Las dos lecturas se hacen dentro de una misma transacción de solo lectura
+     * para que seguros y vehículos correspondan al mismo instante. Con varios fragmentos
+     * se abre una transacción en cada uno antes de empezar a escribir; como instante del
+     * snapshot se toma el más antiguo, así aplicarModificaciones no pierde cambios.
+     */
+    public void generarSnapshot(Path destino) throws Exception {
+        LimitadorConcurrencia.Permiso permiso = limitador.adquirir(ClaseOperacion.MANTENIMIENTO);
+        Connection[] conexiones = new Connection[Fragmentos.getCantidad()];
+        try {
+            long instante = Long.MAX_VALUE;
+            for (int fragmento = 0; fragmento < conexiones.length; fragmento++) {
+                Connection conn = DatabaseConnection.getConnection(fragmento);
+                conexiones[fragmento] = conn;
+                conn.setAutoCommit(false);
+                conn.setReadOnly(true);
+                instante = Math.min(instante, DatabaseConnection.horaServidor(conn).getTime());
+            }
+
+            try (SnapshotFlota.Escritor escritor = new SnapshotFlota.Escritor(destino)) {
+                for (Connection conn : conexiones) {
+                    seguroDao.recorrerActivosOAsignados(escritor::escribirSeguro, conn);
+                }
+                for (Connection conn : conexiones) {
+                    vehiculoDao.recorrerTodosConSeguro(escritor::escribirVehiculo, conn);
+                }
+                escritor.finalizar(instante);
+            }
+
+            for (Connection conn : conexiones) {
+                conn.commit();
+            }
+
+        } catch (Exception e) {
+            throw new Exception("Error al generar el snapshot: " + e.getMessage(), e);
+        } finally {
+            for (Connection conn : conexiones) {
+                if (conn != null) {
+                    try {
+                        conn.setReadOnly(false);
+                        conn.setAutoCommit(true);
+                        conn.close();
+                    } catch (Exception e) {
+                        Registro.error("Error al cerrar conexión: " + e.getMessage());
+                    }
+                }
+            }
+            permiso.liberar();
+        }
+    }
+
+    /**
+     * Arranque en caliente: carga el snapshot (si existe) y aplica los cambios posteriores
+     * Si no hay snapshot o está dañado se arma el modelo desde la base y se guarda uno nuevo
+     */
+    public FlotaEnMemoria arranqueEnCaliente(Path archivo) throws Exception {
+        FlotaEnMemoria flota = null;
+
+        if (Files.isRegularFile(archivo)) {
+            try {
+                flota = SnapshotFlota.leer(archivo);
+            } catch (Exception e) {
+                Registro.advertencia("⚠ Snapshot inválido, se regenerará: " + e.getMessage());
+            }
+        }
+
+        if (flota == null) {
+            generarSnapshot(archivo);
+            flota = SnapshotFlota.leer(archivo);
+        }
+
+        aplicarModificaciones(flota);
+        return flota;
+    }
+
+    /**
+     * Arranque en caliente en segundo plano, sin esperar a que termine
+     * Carga snapshot.archivo (lo genera si no existe), aplica los cambios posteriores,
+     * publica el resultado en la réplica analítica y programa la regeneración del archivo
+     * cada snapshot.periodo.min minutos (0: no se regenera). Con snapshot.archivo vacío
+     * no hace nada.
+     */
+    public synchronized void iniciar() {
+        Configuracion config = Configuracion.getInstancia();
+        String nombre = config.getTexto("snapshot.archivo", ARCHIVO_POR_DEFECTO);
+        if (nombre == null || nombre.trim().isEmpty()) {
+            return;
+        }
+        Path archivo = Paths.get(nombre.trim());
+        long periodoMin = config.getLargo("snapshot.periodo.min", PERIODO_MIN_POR_DEFECTO);
+
+        if (periodoMin > 0) {
+            programarSnapshots(archivo, periodoMin, TimeUnit.MINUTES);
+        } else {
+            detenerSnapshots();
+            programador = crearProgramador();
+        }
+        // Mismo hilo que las regeneraciones: corre antes de la primera
+        programador.execute(() -> cargarAlIniciar(archivo));
+    }
+
+    private void cargarAlIniciar(Path archivo) {
+        long inicio = System.nanoTime();
+        try {
+            FlotaEnMemoria flota = arranqueEnCaliente(archivo);
+            AnaliticaService.getInstancia().refrescarDesde(flota);
+            Registro.info("✓ Arranque en caliente: " + flota.cantidadVehiculos() + " vehículos en " +
+                          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) + " ms");
+        } catch (Exception e) {
+            Registro.error("✗ Arranque en caliente: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Aplica al modelo en memoria las filas modificadas desde que fue generado y quita
+     * las que ya no están en la base (archivadas), que no aparecen entre las modificadas
+     */
+    public void aplicarModificaciones(FlotaEnMemoria flota) throws Exception {
+        Timestamp desde = new Timestamp(flota.getGeneradoEn() - MARGEN_MODIFICACIONES_MS);
+        long instante = Long.MAX_VALUE;
+
+        // Primero los seguros de todos los fragmentos para que los vehículos resuelvan la instancia actualizada
+        for (int fragmento = 0; fragmento < Fragmentos.getCantidad(); fragmento++) {
+            try (Connection conn = DatabaseConnection.getConnection(fragmento)) {
+                instante = Math.min(instante, DatabaseConnection.horaServidor(conn).getTime());
+                seguroDao.recorrerModificadosDesde(desde, flota::aplicarSeguro, conn);
+            }
+        }
+        for (int fragmento = 0; fragmento < Fragmentos.getCantidad(); fragmento++) {
+            try (Connection conn = DatabaseConnection.getConnection(fragmento)) {
+                vehiculoDao.recorrerModificadosDesde(desde, flota::aplicarVehiculo, conn);
+            }
+        }
+
+        // Los IDs se leen después de las modificaciones: una fila creada en el medio está en los dos lados
+        Set<Long> vehiculosActivos = new HashSet<>();
+        Set<Long> segurosExistentes = new HashSet<>();
+        for (int fragmento = 0; fragmento < Fragmentos.getCantidad(); fragmento++) {
+            try (Connection conn = DatabaseConnection.getConnection(fragmento)) {
+                vehiculoDao.recorrerClavesActivas(v -> vehiculosActivos.add(v.getId()), conn);
+                seguroDao.recorrerIds(segurosExistentes::add, conn);
+            }
+        }
+        int vehiculosQuitados = flota.retenerVehiculos(vehiculosActivos);
+        int segurosQuitados = flota.retenerSeguros(segurosExistentes);
+        if (vehiculosQuitados + segurosQuitados > 0) {
+            Registro.debug("Snapshot: se quitaron " + vehiculosQuitados + " vehículos y " + segurosQuitados +
+                           " seguros borrados de la base");
+        }
+
+        flota.setGeneradoEn(instante);
+    }
+
+    /**
+     * Programa la generación periódica del snapshot en un hilo de fondo
+     */
+    public synchronized void programarSnapshots(Path destino, long periodo, TimeUnit unidad) {
+        detenerSnapshots();
+
+        programador = crearProgramador();
+        programador.scheduleWithFixedDelay(() -> {
+            try {
+                generarSnapshot(destino);
+            } catch (Exception e) {
+                Registro.error("✗ " + e.getMessage());
+            }
+        }, periodo, periodo, unidad);
+    }
+
+    private static ScheduledExecutorService crearProgramador() {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "snapshot-flota");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+
+    /**
+     * Detiene la generación periódica del snapshot
+     */
+    public synchronized void detenerSnapshots() {
+        if (programador != null) {
+            programador.shutdown();
+            programador = null;
+        }
+    }
+}
@@ -1,32 +1,72 @@
 package service;
 
 import config.DatabaseConnection;
+import config.Fragmentos;
+import dao.CargadorPorLotes;
 import dao.SeguroVehicularDao;
 import dao.VehiculoDao;
+import entities.EstadoCobertura;
 import entities.SeguroVehicular;
 import entities.Vehiculo;
+import entities.VehiculoResumen;
+import eventos.BusEventos;
+import eventos.EventoEntidad;
+import eventos.TipoEvento;
+import util.Registro;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Servicio para la entidad Vehiculo
  * Implementa reglas de negocio, validaciones y manejo de transacciones
  * Maneja la relación 1→1 con SeguroVehicular
+ * Con varios fragmentos, cada vehículo se escribe en el fragmento de su dominio y su
+ * seguro se muda a ese mismo fragmento al asignarlo. Las búsquedas por dominio y por ID
+ * van a un solo fragmento; las búsquedas por chasis y los listados consultan todos en
+ * paralelo y unen los resultados por ID.
  */
 public class VehiculoService implements GenericService<Vehiculo> {
     
+    private static final Comparator<Vehiculo> POR_ID = Comparator.comparing(Vehiculo::getId);
+    
+    /**
+     * Listado completo compartido por todas las instancias del servicio
+     */
+    private static final InstantaneaVersionada<Vehiculo> ACTIVOS = new InstantaneaVersionada<>("vehículos");
+    
     private final VehiculoDao vehiculoDao;
     private final SeguroVehicularDao seguroDao;
+    private final SeguroVehicularService seguroService;
+    private final BusEventos bus;
+    private final LimitadorConcurrencia limitador;
+    private final ReintentosTransaccion reintentos;
+    private final FiltroExistenciaVehiculos filtroExistencia;
     
     public VehiculoService() {
         this.vehiculoDao = new VehiculoDao();
         this.seguroDao = new SeguroVehicularDao();
+        this.seguroService = new SeguroVehicularService();
+        this.bus = BusEventos.getInstancia();
+        this.limitador = LimitadorConcurrencia.getInstancia();
+        this.reintentos = ReintentosTransaccion.getInstancia();
+        this.filtroExistencia = FiltroExistenciaVehiculos.getInstancia();
     }
     
     @Override
     public void insertar(Vehiculo entity) throws Exception {
+        escribir("insertar vehículo", () -> insertarEnTransaccion(entity));
+    }
+    
+    private void insertarEnTransaccion(Vehiculo entity) throws Exception {
         Connection conn = null;
         try {
             // Validaciones de negocio
@@ -37,13 +77,18 @@ public class VehiculoService implements GenericService<Vehiculo> {
                 validarChasisUnico(entity.getNroChasis(), null);
             }
             
-            // Iniciar transacción
-            conn = DatabaseConnection.getConnection();
+            int fragmento = Fragmentos.deDominio(entity.getDominio());
+            if (entity.getSeguro() != null && entity.getSeguro().getId() != null) {
+                mudarSeguro(entity.getSeguro().getId(), fragmento);
+            }
+            
+            // Iniciar transacción en el fragmento del dominio
+            conn = DatabaseConnection.getConnection(fragmento);
             conn.setAutoCommit(false);
             
-            // Si tiene seguro asociado, validar que existe y no esté ya asignado
+            // Si tiene seguro asociado, reservarlo: existe y no está asignado a otro
             if (entity.getSeguro() != null && entity.getSeguro().getId() != null) {
-                validarSeguroDisponible(entity.getSeguro().getId(), null, conn);
+                reservarSeguro(entity.getSeguro().getId(), null, conn);
             }
             
             // Ejecutar operación
@@ -51,16 +96,17 @@ public class VehiculoService implements GenericService<Vehiculo> {
             
             // Commit si todo salió bien
             conn.commit();
-            System.out.println("✓ Vehículo insertado correctamente con ID: " + entity.getId());
+            bus.publicar(EventoEntidad.deVehiculo(TipoEvento.VEHICULO_CREADO, entity));
+            Registro.info("✓ Vehículo insertado correctamente con ID: " + entity.getId());
             
         } catch (Exception e) {
             // Rollback en caso de error
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("✗ ROLLBACK ejecutado en insertar Vehiculo");
+                    Registro.advertencia("✗ ROLLBACK ejecutado en insertar Vehiculo");
                 } catch (SQLException ex) {
-                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
                 }
             }
             throw new Exception("Error al insertar vehículo: " + e.getMessage(), e);
@@ -71,7 +117,7 @@ public class VehiculoService implements GenericService<Vehiculo> {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
             }
         }
@@ -82,6 +128,10 @@ public class VehiculoService implements GenericService<Vehiculo> {
      * Este método demuestra una operación transaccional compleja
      */
     public void insertarVehiculoConSeguro(Vehiculo vehiculo, SeguroVehicular seguro) throws Exception {
+        escribir("insertar vehículo con seguro", () -> insertarVehiculoConSeguroEnTransaccion(vehiculo, seguro));
+    }
+    
+    private void insertarVehiculoConSeguroEnTransaccion(Vehiculo vehiculo, SeguroVehicular seguro) throws Exception {
         Connection conn = null;
         try {
             // Validaciones
@@ -96,34 +146,36 @@ public class VehiculoService implements GenericService<Vehiculo> {
                 throw new Exception("El seguro no puede ser nulo en esta operación");
             }
             
-            // Iniciar transacción
-            conn = DatabaseConnection.getConnection();
+            // Iniciar transacción: vehículo y seguro van al fragmento del dominio
+            conn = DatabaseConnection.getConnection(Fragmentos.deDominio(vehiculo.getDominio()));
             conn.setAutoCommit(false);
             
             // 1. Crear el seguro primero
             seguroDao.crear(seguro, conn);
-            System.out.println("  → Seguro creado con ID: " + seguro.getId());
+            Registro.debug("  → Seguro creado con ID: " + seguro.getId());
             
             // 2. Asignar el seguro al vehículo
             vehiculo.setSeguro(seguro);
             
             // 3. Crear el vehículo
             vehiculoDao.crear(vehiculo, conn);
-            System.out.println("  → Vehículo creado con ID: " + vehiculo.getId());
+            Registro.debug("  → Vehículo creado con ID: " + vehiculo.getId());
             
             // Commit de toda la operación
             conn.commit();
-            System.out.println("✓ Vehículo con seguro insertado correctamente en una transacción");
+            bus.publicar(EventoEntidad.deSeguro(TipoEvento.SEGURO_CREADO, seguro));
+            bus.publicar(EventoEntidad.deVehiculo(TipoEvento.VEHICULO_CREADO, vehiculo));
+            Registro.info("✓ Vehículo con seguro insertado correctamente en una transacción");
             
         } catch (Exception e) {
             // Rollback en caso de error
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("✗ ROLLBACK ejecutado en insertarVehiculoConSeguro");
-                    System.err.println("  Ni el vehículo ni el seguro fueron creados");
+                    Registro.advertencia("✗ ROLLBACK ejecutado en insertarVehiculoConSeguro");
+                    Registro.advertencia("  Ni el vehículo ni el seguro fueron creados");
                 } catch (SQLException ex) {
-                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
                 }
             }
             throw new Exception("Error al insertar vehículo con seguro: " + e.getMessage(), e);
@@ -133,7 +185,7 @@ public class VehiculoService implements GenericService<Vehiculo> {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
             }
         }
@@ -141,6 +193,15 @@ public class VehiculoService implements GenericService<Vehiculo> {
     
     @Override
     public void actualizar(Vehiculo entity) throws Exception {
+        // La entidad puede ser la instancia guardada en la caché: sacarla antes de escribir.
+        // Las claves anteriores y las nuevas se invalidan de nuevo con el evento
+        if (entity.getId() != null) {
+            CachesPorClave.VEHICULOS.invalidarId(entity.getId());
+        }
+        escribir("actualizar vehículo", () -> actualizarEnTransaccion(entity));
+    }
+    
+    private void actualizarEnTransaccion(Vehiculo entity) throws Exception {
         Connection conn = null;
         try {
             // Validaciones
@@ -149,7 +210,8 @@ public class VehiculoService implements GenericService<Vehiculo> {
             }
             
             // Verificar que existe
-            Vehiculo existente = vehiculoDao.leer(entity.getId());
+            int fragmento = Fragmentos.deId(entity.getId());
+            Vehiculo existente = Fragmentos.en(fragmento, () -> vehiculoDao.leer(entity.getId()));
             if (existente == null) {
                 throw new Exception("No existe un vehículo con ID: " + entity.getId());
             }
@@ -158,6 +220,11 @@ public class VehiculoService implements GenericService<Vehiculo> {
             
             // Validar unicidad de dominio si cambió
             if (!existente.getDominio().equalsIgnoreCase(entity.getDominio())) {
+                // Un vehículo no cambia de fragmento
+                if (Fragmentos.deDominio(entity.getDominio()) != fragmento) {
+                    throw new Exception("El dominio " + entity.getDominio() + " corresponde a otro fragmento: " +
+                                        "dé de baja el vehículo y créelo con el nuevo dominio");
+                }
                 validarDominioUnico(entity.getDominio(), entity.getId());
             }
             
@@ -169,17 +236,20 @@ public class VehiculoService implements GenericService<Vehiculo> {
                 }
             }
             
-            // Iniciar transacción
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-            
             // Validar cambio de seguro
             Long nuevoSeguroId = entity.getSeguro() != null ? entity.getSeguro().getId() : null;
             Long seguroActualId = existente.getSeguro() != null ? existente.getSeguro().getId() : null;
+            if (nuevoSeguroId != null && !nuevoSeguroId.equals(seguroActualId)) {
+                mudarSeguro(nuevoSeguroId, fragmento);
+            }
+            
+            // Iniciar transacción
+            conn = DatabaseConnection.getConnection(fragmento);
+            conn.setAutoCommit(false);
             
             // Si se está asignando o cambiando el seguro
             if (nuevoSeguroId != null && !nuevoSeguroId.equals(seguroActualId)) {
-                validarSeguroDisponible(nuevoSeguroId, entity.getId(), conn);
+                reservarSeguro(nuevoSeguroId, entity.getId(), conn);
             }
             
             // Ejecutar operación
@@ -187,16 +257,17 @@ public class VehiculoService implements GenericService<Vehiculo> {
             
             // Commit
             conn.commit();
-            System.out.println("✓ Vehículo actualizado correctamente");
+            bus.publicar(EventoEntidad.deVehiculo(TipoEvento.VEHICULO_ACTUALIZADO, entity, nuevoSeguroId));
+            Registro.info("✓ Vehículo actualizado correctamente");
             
         } catch (Exception e) {
             // Rollback en caso de error
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("✗ ROLLBACK ejecutado en actualizar Vehiculo");
+                    Registro.advertencia("✗ ROLLBACK ejecutado en actualizar Vehiculo");
                 } catch (SQLException ex) {
-                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
                 }
             }
             throw new Exception("Error al actualizar vehículo: " + e.getMessage(), e);
@@ -206,7 +277,7 @@ public class VehiculoService implements GenericService<Vehiculo> {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
             }
         }
@@ -214,16 +285,21 @@ public class VehiculoService implements GenericService<Vehiculo> {
     
     @Override
     public void eliminar(long id) throws Exception {
+        escribir("eliminar vehículo", () -> eliminarEnTransaccion(id));
+    }
+    
+    private void eliminarEnTransaccion(long id) throws Exception {
         Connection conn = null;
         try {
             // Verificar que existe
-            Vehiculo existente = vehiculoDao.leer(id);
+            int fragmento = Fragmentos.deId(id);
+            Vehiculo existente = Fragmentos.en(fragmento, () -> vehiculoDao.leer(id));
             if (existente == null) {
                 throw new Exception("No existe un vehículo con ID: " + id);
             }
             
             // Iniciar transacción
-            conn = DatabaseConnection.getConnection();
+            conn = DatabaseConnection.getConnection(fragmento);
             conn.setAutoCommit(false);
             
             // Ejecutar operación (eliminación lógica)
@@ -231,16 +307,17 @@ public class VehiculoService implements GenericService<Vehiculo> {
             
             // Commit
             conn.commit();
-            System.out.println("✓ Vehículo eliminado correctamente (eliminación lógica)");
+            bus.publicar(EventoEntidad.deVehiculo(TipoEvento.VEHICULO_ELIMINADO, existente));
+            Registro.info("✓ Vehículo eliminado correctamente (eliminación lógica)");
             
         } catch (Exception e) {
             // Rollback en caso de error
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("✗ ROLLBACK ejecutado en eliminar Vehiculo");
+                    Registro.advertencia("✗ ROLLBACK ejecutado en eliminar Vehiculo");
                 } catch (SQLException ex) {
-                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
                 }
             }
             throw new Exception("Error al eliminar vehículo: " + e.getMessage(), e);
@@ -250,7 +327,7 @@ public class VehiculoService implements GenericService<Vehiculo> {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
             }
         }
@@ -258,74 +335,205 @@ public class VehiculoService implements GenericService<Vehiculo> {
     
     @Override
     public Vehiculo getById(long id) throws Exception {
-        return vehiculoDao.leer(id);
+        return limitador.ejecutar(ClaseOperacion.LECTURA, () -> Fragmentos.en(Fragmentos.deId(id), () -> vehiculoDao.leer(id)));
     }
     
+    /**
+     * Vehículos activos con su seguro, desde la copia compartida (ver InstantaneaVersionada)
+     * La lista es inmodificable y sus elementos no deben modificarse
+     */
     @Override
     public List<Vehiculo> getAll() throws Exception {
-        return vehiculoDao.leerTodos();
+        return ACTIVOS.obtener(() -> limitador.ejecutar(ClaseOperacion.LECTURA, () ->
+            Fragmentos.unir(Fragmentos.enTodos(vehiculoDao::leerTodos), POR_ID, Integer.MAX_VALUE)));
+    }
+    
+    /**
+     * Obtiene una página de vehículos activos con su seguro a continuación del ID indicado (0 para empezar)
+     */
+    public List<Vehiculo> getPagina(long desdeId, int limite) throws Exception {
+        if (limite <= 0) {
+            throw new Exception("El tamaño de página debe ser mayor a cero");
+        }
+        return limitador.ejecutar(ClaseOperacion.LECTURA, () ->
+            Fragmentos.unir(Fragmentos.enTodos(() -> vehiculoDao.leerPagina(desdeId, limite)), POR_ID, limite));
+    }
+    
+    /**
+     * Obtiene una página de vehículos activos sin seguro vigente hoy (sin seguro o con el
+     * seguro vencido), a continuación del ID indicado; el filtro se resuelve en SQL
+     */
+    public List<Vehiculo> getPaginaSinCobertura(long desdeId, int limite) throws Exception {
+        if (limite <= 0) {
+            throw new Exception("El tamaño de página debe ser mayor a cero");
+        }
+        LocalDate hoy = LocalDate.now();
+        return limitador.ejecutar(ClaseOperacion.LECTURA, () ->
+            Fragmentos.unir(Fragmentos.enTodos(() -> vehiculoDao.leerPaginaSinCobertura(hoy, desdeId, limite)),
+                            POR_ID, limite));
+    }
+    
+    /**
+     * Obtiene varios vehículos por ID en una sola consulta por lote (una por fragmento)
+     * Devuelve un mapa ID → entidad; los IDs inexistentes no aparecen en el mapa
+     */
+    public Map<Long, Vehiculo> getByIds(Collection<Long> ids) throws Exception {
+        Map<Integer, List<Long>> porFragmento = new HashMap<>();
+        for (Long id : ids) {
+            porFragmento.computeIfAbsent(Fragmentos.deId(id), k -> new ArrayList<>()).add(id);
+        }
+        return limitador.ejecutar(ClaseOperacion.LECTURA, () -> {
+            Map<Long, Vehiculo> encontrados = new HashMap<>();
+            for (Map<Long, Vehiculo> parte : Fragmentos.enTodos(() -> {
+                List<Long> propios = porFragmento.get(Fragmentos.getActual());
+                return propios != null ? vehiculoDao.leerPorIds(propios) : Map.<Long, Vehiculo>of();
+            })) {
+                encontrados.putAll(parte);
+            }
+            return encontrados;
+        });
     }
     
     /**
-     * Busca un vehículo por dominio
+     * Cargador por lotes para un pedido (ver CargadorPorLotes): las lecturas por ID que
+     * se piden juntas se resuelven con getByIds, una consulta por fragmento del ID
+     */
+    public CargadorPorLotes<Vehiculo> nuevoCargador() {
+        return new CargadorPorLotes<>(this::getByIds);
+    }
+    
+    /**
+     * Obtiene el listado liviano de vehículos activos (solo las columnas de listado)
+     */
+    public List<VehiculoResumen> getResumenes() throws Exception {
+        return limitador.ejecutar(ClaseOperacion.LECTURA, () ->
+            Fragmentos.unir(Fragmentos.enTodos(vehiculoDao::listarResumenes),
+                            Comparator.comparingLong(VehiculoResumen::id), Integer.MAX_VALUE));
+    }
+    
+    /**
+     * Busca un vehículo por dominio (primero en la caché cercana, ver CachesPorClave)
+     * El vehículo devuelto puede estar compartido con otros lectores
      */
     public Vehiculo buscarPorDominio(String dominio) throws Exception {
         if (dominio == null || dominio.trim().isEmpty()) {
             throw new Exception("El dominio no puede estar vacío");
         }
-        return vehiculoDao.buscarPorDominio(dominio.trim().toUpperCase());
+        String clave = dominio.trim().toUpperCase();
+        if (!filtroExistencia.puedeExistirDominio(clave)) {
+            return null;
+        }
+        return CachesPorClave.VEHICULOS.buscar(CachesPorClave.claveDominio(clave), () ->
+            limitador.ejecutar(ClaseOperacion.LECTURA, () -> buscarEnFragmento(clave)));
     }
     
     /**
-     * Busca un vehículo por número de chasis
+     * Busca un vehículo por número de chasis (primero en la caché cercana)
+     * El vehículo devuelto puede estar compartido con otros lectores
      */
     public Vehiculo buscarPorChasis(String nroChasis) throws Exception {
         if (nroChasis == null || nroChasis.trim().isEmpty()) {
             throw new Exception("El número de chasis no puede estar vacío");
         }
-        return vehiculoDao.buscarPorChasis(nroChasis.trim().toUpperCase());
+        String clave = nroChasis.trim().toUpperCase();
+        if (!filtroExistencia.puedeExistirChasis(clave)) {
+            return null;
+        }
+        return CachesPorClave.VEHICULOS.buscar(CachesPorClave.claveChasis(clave), () ->
+            limitador.ejecutar(ClaseOperacion.LECTURA, () -> buscarChasisEnFragmentos(clave)));
+    }
+    
+    /**
+     * Estado de cobertura de muchos dominios a la vez (controles de peaje o inspección)
+     * Los dominios que el filtro de existencia descarta no se consultan; el resto se
+     * resuelve con consultas IN (...) por lotes unidas al seguro, en paralelo en cada
+     * fragmento con sus dominios. Devuelve un mapa en el orden recibido, con los dominios
+     * sin espacios y en mayúsculas; los vacíos se ignoran
+     */
+    public Map<String, EstadoCobertura> verificarCobertura(Collection<String> dominios) throws Exception {
+        Map<String, EstadoCobertura> estados = new LinkedHashMap<>();
+        Map<Integer, List<String>> aConsultar = new HashMap<>();
+        
+        for (String dominio : dominios) {
+            if (dominio == null || dominio.isBlank()) {
+                continue;
+            }
+            String clave = dominio.trim().toUpperCase();
+            if (estados.putIfAbsent(clave, EstadoCobertura.DESCONOCIDO) == null
+                    && filtroExistencia.puedeExistirDominio(clave)) {
+                aConsultar.computeIfAbsent(Fragmentos.deDominio(clave), k -> new ArrayList<>()).add(clave);
+            }
+        }
+        
+        if (!aConsultar.isEmpty()) {
+            List<Map<String, Vehiculo>> encontrados = limitador.ejecutar(ClaseOperacion.LECTURA, () ->
+                Fragmentos.enTodos(() -> {
+                    List<String> propios = aConsultar.get(Fragmentos.getActual());
+                    if (propios == null) {
+                        return Map.<String, Vehiculo>of();
+                    }
+                    try (Connection conn = DatabaseConnection.getConnection()) {
+                        return vehiculoDao.buscarPorDominiosConSeguro(propios, conn);
+                    }
+                }));
+            for (Map<String, Vehiculo> parte : encontrados) {
+                for (Map.Entry<String, Vehiculo> encontrado : parte.entrySet()) {
+                    estados.replace(encontrado.getKey(), EstadoCobertura.de(encontrado.getValue()));
+                }
+            }
+        }
+        
+        return estados;
     }
     
     /**
      * Asigna un seguro existente a un vehículo
      */
     public void asignarSeguro(long vehiculoId, long seguroId) throws Exception {
+        escribir("asignar seguro", () -> asignarSeguroEnTransaccion(vehiculoId, seguroId));
+    }
+    
+    private void asignarSeguroEnTransaccion(long vehiculoId, long seguroId) throws Exception {
         Connection conn = null;
         try {
+            // Verificar que existe antes de mover el seguro a su fragmento
+            int fragmento = Fragmentos.deId(vehiculoId);
+            Vehiculo existente = Fragmentos.en(fragmento, () -> vehiculoDao.leer(vehiculoId));
+            if (existente == null || Boolean.TRUE.equals(existente.getEliminado())) {
+                throw new Exception("No existe un vehículo con ID: " + vehiculoId);
+            }
+            
+            // El seguro tiene que estar en el fragmento del vehículo
+            mudarSeguro(seguroId, fragmento);
+            
             // Iniciar transacción
-            conn = DatabaseConnection.getConnection();
+            conn = DatabaseConnection.getConnection(fragmento);
             conn.setAutoCommit(false);
             
-            // Verificar que el vehículo existe
-            Vehiculo vehiculo = vehiculoDao.leer(vehiculoId, conn);
-            if (vehiculo == null) {
-                throw new Exception("No existe un vehículo con ID: " + vehiculoId);
-            }
+            // Bloquear el seguro (y a quien lo tenga) antes que el vehículo destino
+            SeguroVehicular seguro = reservarSeguro(seguroId, vehiculoId, conn);
             
-            // Verificar que el seguro existe
-            SeguroVehicular seguro = seguroDao.leer(seguroId, conn);
-            if (seguro == null) {
-                throw new Exception("No existe un seguro con ID: " + seguroId);
+            Vehiculo vehiculo = vehiculoDao.bloquear(vehiculoId, conn);
+            if (vehiculo == null || Boolean.TRUE.equals(vehiculo.getEliminado())) {
+                throw new Exception("No existe un vehículo con ID: " + vehiculoId);
             }
             
-            // Validar que el seguro no esté ya asignado
-            validarSeguroDisponible(seguroId, vehiculoId, conn);
-            
             // Asignar el seguro
+            vehiculoDao.actualizarSeguro(vehiculoId, seguroId, conn);
             vehiculo.setSeguro(seguro);
-            vehiculoDao.actualizar(vehiculo, conn);
             
             // Commit
             conn.commit();
-            System.out.println("✓ Seguro asignado correctamente al vehículo");
+            bus.publicar(EventoEntidad.deVehiculo(TipoEvento.SEGURO_ASIGNADO, vehiculo));
+            Registro.info("✓ Seguro asignado correctamente al vehículo");
             
         } catch (Exception e) {
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("✗ ROLLBACK ejecutado en asignarSeguro");
+                    Registro.advertencia("✗ ROLLBACK ejecutado en asignarSeguro");
                 } catch (SQLException ex) {
-                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
                 }
             }
             throw new Exception("Error al asignar seguro: " + e.getMessage(), e);
@@ -335,7 +543,7 @@ public class VehiculoService implements GenericService<Vehiculo> {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
             }
         }
@@ -345,10 +553,14 @@ public class VehiculoService implements GenericService<Vehiculo> {
      * Desasigna el seguro de un vehículo
      */
     public void desasignarSeguro(long vehiculoId) throws Exception {
+        escribir("desasignar seguro", () -> desasignarSeguroEnTransaccion(vehiculoId));
+    }
+    
+    private void desasignarSeguroEnTransaccion(long vehiculoId) throws Exception {
         Connection conn = null;
         try {
             // Iniciar transacción
-            conn = DatabaseConnection.getConnection();
+            conn = DatabaseConnection.getConnection(Fragmentos.deId(vehiculoId));
             conn.setAutoCommit(false);
             
             // Verificar que el vehículo existe
@@ -361,21 +573,30 @@ public class VehiculoService implements GenericService<Vehiculo> {
                 throw new Exception("El vehículo no tiene un seguro asignado");
             }
             
+            // Respetar el orden de bloqueo: primero el seguro, después el vehículo
+            seguroDao.bloquear(vehiculo.getSeguro().getId(), conn);
+            vehiculo = vehiculoDao.bloquear(vehiculoId, conn);
+            if (vehiculo == null || vehiculo.getSeguro() == null) {
+                throw new Exception("El vehículo no tiene un seguro asignado");
+            }
+            
             // Desasignar el seguro
+            Long seguroAnteriorId = vehiculo.getSeguro().getId();
+            vehiculoDao.actualizarSeguro(vehiculoId, null, conn);
             vehiculo.setSeguro(null);
-            vehiculoDao.actualizar(vehiculo, conn);
             
             // Commit
             conn.commit();
-            System.out.println("✓ Seguro desasignado correctamente del vehículo");
+            bus.publicar(EventoEntidad.deVehiculo(TipoEvento.SEGURO_DESASIGNADO, vehiculo, seguroAnteriorId));
+            Registro.info("✓ Seguro desasignado correctamente del vehículo");
             
         } catch (Exception e) {
             if (conn != null) {
                 try {
                     conn.rollback();
-                    System.err.println("✗ ROLLBACK ejecutado en desasignarSeguro");
+                    Registro.advertencia("✗ ROLLBACK ejecutado en desasignarSeguro");
                 } catch (SQLException ex) {
-                    System.err.println("Error al hacer rollback: " + ex.getMessage());
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
                 }
             }
             throw new Exception("Error al desasignar seguro: " + e.getMessage(), e);
@@ -385,12 +606,25 @@ public class VehiculoService implements GenericService<Vehiculo> {
                     conn.setAutoCommit(true);
                     conn.close();
                 } catch (SQLException e) {
-                    System.err.println("Error al cerrar conexión: " + e.getMessage());
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
             }
         }
     }
     
+    /**
+     * Ejecuta una escritura dentro del cupo de ESCRITURA y la reintenta si falla por un
+     * deadlock o un timeout de bloqueo; cada intento es una transacción completa
+     */
+    private void escribir(String operacion, ReintentosTransaccion.Unidad unidad) throws Exception {
+        LimitadorConcurrencia.Permiso permiso = limitador.adquirir(ClaseOperacion.ESCRITURA);
+        try {
+            reintentos.ejecutar(operacion, unidad);
+        } finally {
+            permiso.liberar();
+        }
+    }
+    
     /**
      * Valida los datos de un Vehiculo según reglas de negocio
      */
@@ -457,7 +691,9 @@ public class VehiculoService implements GenericService<Vehiculo> {
      * Valida que el dominio sea único
      */
     private void validarDominioUnico(String dominio, Long vehiculoId) throws Exception {
-        Vehiculo existente = vehiculoDao.buscarPorDominio(dominio.trim().toUpperCase());
+        String clave = dominio.trim().toUpperCase();
+        // Siempre contra la base: el filtro puede no tener altas hechas por fuera de la aplicación
+        Vehiculo existente = buscarEnFragmento(clave);
         
         if (existente != null) {
             // Si es una actualización y es el mismo vehículo, está OK
@@ -472,7 +708,9 @@ public class VehiculoService implements GenericService<Vehiculo> {
      * Valida que el número de chasis sea único
      */
     private void validarChasisUnico(String nroChasis, Long vehiculoId) throws Exception {
-        Vehiculo existente = vehiculoDao.buscarPorChasis(nroChasis.trim().toUpperCase());
+        String clave = nroChasis.trim().toUpperCase();
+        // También contra la base: uk_vehiculo_nro_chasis solo garantiza unicidad dentro de cada esquema
+        Vehiculo existente = buscarChasisEnFragmentos(clave);
         
         if (existente != null) {
             // Si es una actualización y es el mismo vehículo, está OK
@@ -484,20 +722,114 @@ public class VehiculoService implements GenericService<Vehiculo> {
     }
     
     /**
-     * Valida que el seguro no esté ya asignado a otro vehículo (relación 1→1)
+     * Reserva un seguro para un vehículo dentro de la transacción (relación 1→1)
+     * Bloquea la fila del seguro con SELECT ... FOR UPDATE, así las asignaciones
+     * concurrentes del mismo seguro se ordenan y cada una ve la anterior ya confirmada;
+     * luego busca por el índice único quién lo tiene. Orden de bloqueo en todas las
+     * escrituras: primero el seguro, después los vehículos.
      */
-    private void validarSeguroDisponible(long seguroId, Long vehiculoId, Connection conn) throws Exception {
-        // Buscar si hay algún vehículo con este seguro
-        List<Vehiculo> todosVehiculos = vehiculoDao.leerTodos(conn);
+    private SeguroVehicular reservarSeguro(long seguroId, Long vehiculoId, Connection conn) throws Exception {
+        SeguroVehicular seguro = seguroDao.bloquear(seguroId, conn);
+        if (seguro == null) {
+            throw new Exception("No existe un seguro con ID: " + seguroId);
+        }
         
-        for (Vehiculo v : todosVehiculos) {
-            if (v.getSeguro() != null && v.getSeguro().getId().equals(seguroId)) {
-                // Si es el mismo vehículo que estamos actualizando, está OK
-                if (vehiculoId != null && v.getId().equals(vehiculoId)) {
-                    continue;
+        Vehiculo asignado = vehiculoDao.bloquearPorSeguro(seguroId, conn);
+        if (asignado != null && (vehiculoId == null || !asignado.getId().equals(vehiculoId))) {
+            throw new Exception("El seguro ya está asignado a otro vehículo (Dominio: " + asignado.getDominio() + ")");
+        }
+        return seguro;
+    }
+    
+    /**
+     * Busca un dominio en su fragmento
+     */
+    private Vehiculo buscarEnFragmento(String dominio) throws Exception {
+        return Fragmentos.en(Fragmentos.deDominio(dominio), () -> vehiculoDao.buscarPorDominio(dominio));
+    }
+    
+    /**
+     * Busca un número de chasis en todos los fragmentos en paralelo
+     */
+    private Vehiculo buscarChasisEnFragmentos(String nroChasis) throws Exception {
+        for (Vehiculo encontrado : Fragmentos.enTodos(() -> vehiculoDao.buscarPorChasis(nroChasis))) {
+            if (encontrado != null) {
+                return encontrado;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Deja el seguro en el fragmento indicado antes de asignarlo a un vehículo de ese fragmento
+     * Si está en otro y nadie lo tiene asignado, se copia con el mismo ID al destino y se
+     * borra del origen, con la fila de origen bloqueada durante la copia. Son dos esquemas
+     * distintos y no hay una transacción que abarque ambos: si el borrado del origen falla
+     * se intenta quitar la copia; si eso también falla queda informado en el registro.
+     */
+    private void mudarSeguro(long seguroId, int destino) throws Exception {
+        if (Fragmentos.getCantidad() == 1) {
+            return;
+        }
+        int origen = seguroService.ubicar(seguroId);
+        if (origen < 0) {
+            throw new Exception("No existe un seguro con ID: " + seguroId);
+        }
+        if (origen == destino) {
+            return;
+        }
+        
+        Connection conn = null;
+        boolean copiado = false;
+        try {
+            conn = DatabaseConnection.getConnection(origen);
+            conn.setAutoCommit(false);
+            
+            SeguroVehicular seguro = seguroDao.bloquear(seguroId, conn);
+            if (seguro == null) {
+                throw new Exception("No existe un seguro con ID: " + seguroId);
+            }
+            Vehiculo asignado = vehiculoDao.bloquearPorSeguro(seguroId, conn);
+            if (asignado != null) {
+                throw new Exception("El seguro ya está asignado a otro vehículo (Dominio: " + asignado.getDominio() + ")");
+            }
+            
+            try (Connection connDestino = DatabaseConnection.getConnection(destino)) {
+                seguroDao.crearConId(seguro, connDestino);
+            }
+            copiado = true;
+            seguroDao.borrarFisico(seguroId, conn);
+            
+            conn.commit();
+            Registro.debug("  → Seguro " + seguroId + " mudado del fragmento " + origen + " al " + destino);
+            
+        } catch (Exception e) {
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                    Registro.advertencia("✗ ROLLBACK ejecutado al mudar el seguro " + seguroId + " de fragmento");
+                } catch (SQLException ex) {
+                    Registro.error("Error al hacer rollback: " + ex.getMessage());
+                }
+            }
+            if (copiado) {
+                try (Connection connDestino = DatabaseConnection.getConnection(destino)) {
+                    seguroDao.borrarFisico(seguroId, connDestino);
+                } catch (Exception ex) {
+                    Registro.error("✗ El seguro " + seguroId + " quedó copiado en los fragmentos " + origen +
+                                   " y " + destino + ": " + ex.getMessage());
+                }
+            }
+            throw new Exception("Error al mudar el seguro de fragmento: " + e.getMessage(), e);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                } catch (SQLException e) {
+                    Registro.error("Error al cerrar conexión: " + e.getMessage());
                 }
-                throw new Exception("El seguro ya está asignado a otro vehículo (Dominio: " + v.getDominio() + ")");
             }
         }
     }
-}
\ No newline at end of file
+}
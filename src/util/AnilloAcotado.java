@@ -0,0 +1,122 @@
+package util;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Cola acotada sin bloqueos para varios productores y varios consumidores
+ * Implementa el anillo de Vyukov: cada celda lleva un número de secuencia que indica si
+ * está libre para escribir o lista para leer en la vuelta actual, así productores y
+ * consumidores solo compiten con un CAS sobre su propio contador. Cuando el anillo está
+ * lleno ofrecer devuelve false en lugar de esperar.
+ *
+ * @param <T> Tipo de elemento (no admite null)
+ */
+public final class AnilloAcotado<T> {
+
+    private final int mascara;
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong posicionEscritura = new AtomicLong();
+    private final AtomicLong posicionLectura = new AtomicLong();
+
+    /**
+     * @param capacidad Capacidad mínima; se redondea a la siguiente potencia de dos
+     */
+    public AnilloAcotado(int capacidad) {
+        if (capacidad < 1 || capacidad > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad inválida: " + capacidad);
+        }
+        int tamanio = Math.max(2, Integer.highestOneBit(capacidad - 1) << 1);
+        this.mascara = tamanio - 1;
+        this.elementos = new AtomicReferenceArray<>(tamanio);
+        this.secuencias = new AtomicLongArray(tamanio);
+        for (int i = 0; i < tamanio; i++) {
+            secuencias.setPlain(i, i);
+        }
+    }
+
+    /**
+     * Encola un elemento; devuelve false si el anillo está lleno
+     */
+    public boolean ofrecer(T elemento) {
+        Objects.requireNonNull(elemento);
+        long posicion = posicionEscritura.get();
+
+        while (true) {
+            int celda = (int) (posicion & mascara);
+            long diferencia = secuencias.getAcquire(celda) - posicion;
+
+            if (diferencia == 0) {
+                if (posicionEscritura.compareAndSet(posicion, posicion + 1)) {
+                    elementos.setPlain(celda, elemento);
+                    secuencias.setRelease(celda, posicion + 1);
+                    return true;
+                }
+                posicion = posicionEscritura.get();
+            } else if (diferencia < 0) {
+                return false;
+            } else {
+                posicion = posicionEscritura.get();
+            }
+        }
+    }
+
+    /**
+     * Desencola un elemento; devuelve null si el anillo está vacío
+     */
+    public T tomar() {
+        long posicion = posicionLectura.get();
+
+        while (true) {
+            int celda = (int) (posicion & mascara);
+            long diferencia = secuencias.getAcquire(celda) - (posicion + 1);
+
+            if (diferencia == 0) {
+                if (posicionLectura.compareAndSet(posicion, posicion + 1)) {
+                    T elemento = elementos.getPlain(celda);
+                    elementos.setPlain(celda, null);
+                    secuencias.setRelease(celda, posicion + mascara + 1);
+                    return elemento;
+                }
+                posicion = posicionLectura.get();
+            } else if (diferencia < 0) {
+                return null;
+            } else {
+                posicion = posicionLectura.get();
+            }
+        }
+    }
+
+    /**
+     * Pasa hasta maximo elementos al destino; devuelve cuántos pasó
+     */
+    public int drenar(Collection<? super T> destino, int maximo) {
+        int cantidad = 0;
+        T elemento;
+        while (cantidad < maximo && (elemento = tomar()) != null) {
+            destino.add(elemento);
+            cantidad++;
+        }
+        return cantidad;
+    }
+
+    /**
+     * Cantidad aproximada de elementos encolados (exacta si no hay operaciones en curso)
+     */
+    public int tamanio() {
+        long tamanio = posicionEscritura.get() - posicionLectura.get();
+        return (int) Math.max(0, Math.min(tamanio, capacidad()));
+    }
+
+    public boolean estaVacio() {
+        return tamanio() == 0;
+    }
+
+    public int capacidad() {
+        return mascara + 1;
+    }
+}
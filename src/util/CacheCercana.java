@@ -0,0 +1,282 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Caché acotada de búsquedas por clave secundaria: clave normalizada → ID → entidad
+ * Varias claves pueden apuntar a la misma entidad (dominio y chasis de un vehículo), que
+ * se guarda una sola vez; invalidar un ID quita todas sus claves. Las búsquedas sin
+ * resultado también se guardan (caché negativa) con su propio TTL, en general más corto.
+ * Cuando se supera la capacidad se descarta la clave usada hace más tiempo.
+ * Cada entidad puede indicar un ID relacionado (el seguro de un vehículo) para
+ * invalidarla cuando cambia la relacionada.
+ * Si hubo una invalidación mientras se cargaba una clave, el resultado se devuelve pero
+ * no se guarda: podría ser anterior al cambio que motivó la invalidación.
+ * Las entidades devueltas se comparten entre lectores y no deben modificarse.
+ *
+ * @param <T> Tipo de entidad
+ */
+public final class CacheCercana<T> {
+
+    /**
+     * Búsqueda en la base para una clave que no está en la caché
+     */
+    @FunctionalInterface
+    public interface Cargador<T> {
+        T cargar() throws Exception;
+    }
+
+    /**
+     * Tamaño y contadores de la caché
+     */
+    public record Metricas(String nombre, int claves, int entidades, long aciertos, long aciertosNegativos,
+                           long fallos, long expulsiones, long invalidaciones) {
+
+        public double proporcionAciertos() {
+            long consultas = aciertos + aciertosNegativos + fallos;
+            return consultas == 0 ? 0 : (double) (aciertos + aciertosNegativos) / consultas;
+        }
+    }
+
+    /**
+     * Clave guardada; id null indica que la clave no existe
+     */
+    private record Clave(Long id, long venceNanos) {
+    }
+
+    private final String nombre;
+    private final Function<T, Long> id;
+    private final Function<T, Long> relacionado;
+
+    private int capacidad;
+    private long ttlNanos;
+    private long ttlNegativoNanos;
+
+    // Orden de acceso: la primera es la usada hace más tiempo
+    private final LinkedHashMap<String, Clave> claves = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, T> entidades = new HashMap<>();
+    private final Map<Long, Set<String>> clavesPorId = new HashMap<>();
+    private final Map<Long, Set<Long>> idsPorRelacionado = new HashMap<>();
+    private long generacion;
+
+    private long aciertos;
+    private long aciertosNegativos;
+    private long fallos;
+    private long expulsiones;
+    private long invalidaciones;
+
+    /**
+     * @param id          ID de una entidad
+     * @param relacionado ID de la entidad de la que depende (puede devolver null), o null
+     */
+    public CacheCercana(String nombre, int capacidad, long ttlMs, long ttlNegativoMs,
+                        Function<T, Long> id, Function<T, Long> relacionado) {
+        this.nombre = nombre;
+        this.id = id;
+        this.relacionado = relacionado;
+        configurar(capacidad, ttlMs, ttlNegativoMs);
+    }
+
+    /**
+     * Cambia capacidad y TTLs; al achicarla se descartan las claves más viejas
+     * Capacidad 0 desactiva la caché; TTL negativo 0 desactiva la caché negativa
+     */
+    public synchronized void configurar(int capacidad, long ttlMs, long ttlNegativoMs) {
+        if (capacidad < 0 || ttlMs < 0 || ttlNegativoMs < 0) {
+            throw new IllegalArgumentException("Parámetros de caché inválidos");
+        }
+        this.capacidad = capacidad;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.ttlNegativoNanos = TimeUnit.MILLISECONDS.toNanos(ttlNegativoMs);
+        recortar();
+    }
+
+    /**
+     * Entidad de la clave (o null si no existe), desde la caché o desde el cargador
+     */
+    public T buscar(String clave, Cargador<T> cargador) throws Exception {
+        long generacionInicial;
+        synchronized (this) {
+            Clave guardada = claves.get(clave);
+            if (guardada != null) {
+                if (guardada.venceNanos() - System.nanoTime() > 0) {
+                    if (guardada.id() == null) {
+                        aciertosNegativos++;
+                        return null;
+                    }
+                    T entidad = entidades.get(guardada.id());
+                    if (entidad != null) {
+                        aciertos++;
+                        return entidad;
+                    }
+                }
+                quitar(clave, guardada);
+            }
+            fallos++;
+            generacionInicial = generacion;
+        }
+
+        T cargada = cargador.cargar();
+        synchronized (this) {
+            if (generacion == generacionInicial) {
+                guardar(clave, cargada);
+            }
+        }
+        return cargada;
+    }
+
+    /**
+     * Quita una entidad y todas sus claves
+     */
+    public synchronized void invalidarId(long idEntidad) {
+        generacion++;
+        invalidaciones++;
+        quitarId(idEntidad);
+    }
+
+    /**
+     * Quita una clave (en particular, una búsqueda negativa que dejó de serlo)
+     */
+    public synchronized void invalidarClave(String clave) {
+        generacion++;
+        invalidaciones++;
+        Clave guardada = claves.get(clave);
+        if (guardada != null) {
+            quitar(clave, guardada);
+        }
+    }
+
+    /**
+     * Quita las entidades que dependen de la entidad relacionada indicada
+     */
+    public synchronized void invalidarRelacionado(long idRelacionado) {
+        generacion++;
+        invalidaciones++;
+        Set<Long> dependientes = idsPorRelacionado.remove(idRelacionado);
+        if (dependientes != null) {
+            for (Long dependiente : new ArrayList<>(dependientes)) {
+                quitarId(dependiente);
+            }
+        }
+    }
+
+    public synchronized void limpiar() {
+        generacion++;
+        invalidaciones++;
+        claves.clear();
+        entidades.clear();
+        clavesPorId.clear();
+        idsPorRelacionado.clear();
+    }
+
+    public synchronized Metricas getMetricas() {
+        return new Metricas(nombre, claves.size(), entidades.size(), aciertos, aciertosNegativos, fallos,
+                            expulsiones, invalidaciones);
+    }
+
+    private void guardar(String clave, T entidad) {
+        if (capacidad == 0) {
+            return;
+        }
+        if (entidad == null) {
+            if (ttlNegativoNanos > 0) {
+                poner(clave, new Clave(null, System.nanoTime() + ttlNegativoNanos));
+            }
+            return;
+        }
+        if (ttlNanos == 0) {
+            return;
+        }
+
+        Long idEntidad = id.apply(entidad);
+        T anterior = entidades.put(idEntidad, entidad);
+        if (anterior != null && relacionado != null) {
+            desindexarRelacionado(idEntidad, anterior);
+        }
+        if (relacionado != null) {
+            Long idRelacionado = relacionado.apply(entidad);
+            if (idRelacionado != null) {
+                idsPorRelacionado.computeIfAbsent(idRelacionado, r -> new HashSet<>()).add(idEntidad);
+            }
+        }
+        clavesPorId.computeIfAbsent(idEntidad, i -> new HashSet<>()).add(clave);
+        poner(clave, new Clave(idEntidad, System.nanoTime() + ttlNanos));
+    }
+
+    private void poner(String clave, Clave nueva) {
+        Clave anterior = claves.put(clave, nueva);
+        if (anterior != null && anterior.id() != null && !anterior.id().equals(nueva.id())) {
+            desvincular(clave, anterior.id());
+        }
+        recortar();
+    }
+
+    private void recortar() {
+        Iterator<Map.Entry<String, Clave>> masViejas = claves.entrySet().iterator();
+        while (claves.size() > capacidad && masViejas.hasNext()) {
+            Map.Entry<String, Clave> vieja = masViejas.next();
+            masViejas.remove();
+            if (vieja.getValue().id() != null) {
+                desvincular(vieja.getKey(), vieja.getValue().id());
+            }
+            expulsiones++;
+        }
+    }
+
+    private void quitar(String clave, Clave guardada) {
+        claves.remove(clave);
+        if (guardada.id() != null) {
+            desvincular(clave, guardada.id());
+        }
+    }
+
+    private void quitarId(long idEntidad) {
+        Set<String> suyas = clavesPorId.get(idEntidad);
+        if (suyas != null) {
+            for (String clave : suyas) {
+                claves.remove(clave);
+            }
+        }
+        clavesPorId.remove(idEntidad);
+        T entidad = entidades.remove(idEntidad);
+        if (entidad != null && relacionado != null) {
+            desindexarRelacionado(idEntidad, entidad);
+        }
+    }
+
+    /**
+     * Quita la clave de las de la entidad; la entidad se descarta con su última clave
+     */
+    private void desvincular(String clave, long idEntidad) {
+        Set<String> suyas = clavesPorId.get(idEntidad);
+        if (suyas != null) {
+            suyas.remove(clave);
+            if (!suyas.isEmpty()) {
+                return;
+            }
+        }
+        quitarId(idEntidad);
+    }
+
+    private void desindexarRelacionado(long idEntidad, T entidad) {
+        Long idRelacionado = relacionado.apply(entidad);
+        if (idRelacionado == null) {
+            return;
+        }
+        Set<Long> dependientes = idsPorRelacionado.get(idRelacionado);
+        if (dependientes != null) {
+            dependientes.remove(idEntidad);
+            if (dependientes.isEmpty()) {
+                idsPorRelacionado.remove(idRelacionado);
+            }
+        }
+    }
+}
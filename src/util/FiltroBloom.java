@@ -0,0 +1,215 @@
+package util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom escalable para pruebas de pertenencia de claves de texto
+ * puedeContener() nunca da un falso negativo: si devuelve false la clave no fue agregada.
+ * Un true puede ser un falso positivo con probabilidad acotada por la tasa objetivo.
+ * El filtro arranca con una etapa para la capacidad inicial y, cuando se llena, agrega
+ * etapas del doble de capacidad con tasas cada vez más estrictas (razón 1/2), así la
+ * tasa total no supera la objetivo aunque no se conozca la cantidad final de claves.
+ * Si una etapa nueva no entra en el presupuesto de memoria se sigue llenando la última:
+ * sigue sin haber falsos negativos, pero la tasa estimada crece y queda informada.
+ * Agregar y consultar es seguro desde varios hilos sin bloqueos.
+ */
+public final class FiltroBloom {
+
+    private static final double RAZON_AJUSTE = 0.5;
+    private static final int FACTOR_CRECIMIENTO = 2;
+    private static final double LN2 = Math.log(2);
+
+    /**
+     * Estado del filtro
+     */
+    public record Metricas(long claves, int etapas, long bytes, double tasaObjetivo,
+                           double tasaEstimada, boolean saturado) {
+    }
+
+    /**
+     * Una etapa: arreglo de bits de tamaño fijo con k funciones de hash
+     */
+    private static final class Etapa {
+        final AtomicLongArray bits;
+        final long cantidadBits;
+        final int hashes;
+        final long capacidad;
+        final AtomicLong claves = new AtomicLong();
+
+        Etapa(long capacidad, long cantidadBits) {
+            this.capacidad = capacidad;
+            this.cantidadBits = cantidadBits;
+            this.hashes = Math.max(1, (int) Math.round((double) cantidadBits / capacidad * LN2));
+            this.bits = new AtomicLongArray((int) ((cantidadBits + 63) >>> 6));
+        }
+
+        long bytes() {
+            return (long) bits.length() * Long.BYTES;
+        }
+
+        void agregar(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, cantidadBits);
+                int palabra = (int) (bit >>> 6);
+                long mascara = 1L << bit;
+                long actual = bits.get(palabra);
+                while ((actual & mascara) == 0 && !bits.compareAndSet(palabra, actual, actual | mascara)) {
+                    actual = bits.get(palabra);
+                }
+            }
+            claves.incrementAndGet();
+        }
+
+        boolean contiene(long h1, long h2) {
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, cantidadBits);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Probabilidad de falso positivo con la ocupación actual
+         */
+        double tasaEstimada() {
+            double ocupacion = -(double) hashes * claves.get() / cantidadBits;
+            return Math.pow(1 - Math.exp(ocupacion), hashes);
+        }
+    }
+
+    private final double tasaObjetivo;
+    private final long presupuestoBytes;
+    private volatile Etapa[] etapas;
+    private volatile boolean saturado;
+
+    /**
+     * @param capacidadInicial  claves esperadas en la primera etapa
+     * @param tasaObjetivo      probabilidad de falso positivo buscada, entre 0 y 1
+     * @param presupuestoBytes  memoria máxima para los arreglos de bits
+     */
+    public FiltroBloom(long capacidadInicial, double tasaObjetivo, long presupuestoBytes) {
+        if (capacidadInicial <= 0 || tasaObjetivo <= 0 || tasaObjetivo >= 1 || presupuestoBytes < Long.BYTES) {
+            throw new IllegalArgumentException("Parámetros de filtro inválidos");
+        }
+        this.tasaObjetivo = tasaObjetivo;
+        this.presupuestoBytes = presupuestoBytes;
+
+        Etapa primera = crearEtapa(capacidadInicial, 0, presupuestoBytes);
+        this.saturado = primera.cantidadBits < bitsNecesarios(capacidadInicial, tasaEtapa(0));
+        this.etapas = new Etapa[] { primera };
+    }
+
+    /**
+     * Agrega una clave; agregar dos veces la misma no ocupa lugar
+     */
+    public void agregar(CharSequence clave) {
+        long h1 = hash(clave, 0x9E3779B97F4A7C15L);
+        long h2 = hash(clave, 0xC2B2AE3D27D4EB4FL) | 1;
+
+        Etapa[] actuales = etapas;
+        if (contiene(actuales, h1, h2)) {
+            return;
+        }
+        Etapa ultima = actuales[actuales.length - 1];
+        if (ultima.claves.get() >= ultima.capacidad && !saturado) {
+            ultima = crecer(actuales);
+        }
+        ultima.agregar(h1, h2);
+    }
+
+    /**
+     * false: la clave seguro no fue agregada; true: puede haber sido agregada
+     */
+    public boolean puedeContener(CharSequence clave) {
+        return contiene(etapas, hash(clave, 0x9E3779B97F4A7C15L), hash(clave, 0xC2B2AE3D27D4EB4FL) | 1);
+    }
+
+    public Metricas getMetricas() {
+        Etapa[] actuales = etapas;
+        long claves = 0;
+        long bytes = 0;
+        double ningunFalso = 1;
+        for (Etapa etapa : actuales) {
+            claves += etapa.claves.get();
+            bytes += etapa.bytes();
+            ningunFalso *= 1 - etapa.tasaEstimada();
+        }
+        return new Metricas(claves, actuales.length, bytes, tasaObjetivo, 1 - ningunFalso, saturado);
+    }
+
+    private static boolean contiene(Etapa[] etapas, long h1, long h2) {
+        for (Etapa etapa : etapas) {
+            if (etapa.contiene(h1, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Agrega una etapa si entra en el presupuesto; devuelve la etapa en la que agregar
+     */
+    private synchronized Etapa crecer(Etapa[] vistas) {
+        Etapa[] actuales = etapas;
+        Etapa ultima = actuales[actuales.length - 1];
+        if (actuales != vistas && ultima.claves.get() < ultima.capacidad) {
+            return ultima;
+        }
+
+        long usados = 0;
+        for (Etapa etapa : actuales) {
+            usados += etapa.bytes();
+        }
+        long capacidad = ultima.capacidad * FACTOR_CRECIMIENTO;
+        long bits = bitsNecesarios(capacidad, tasaEtapa(actuales.length));
+        if (usados + (bits + 63) / 64 * Long.BYTES > presupuestoBytes) {
+            saturado = true;
+            return ultima;
+        }
+
+        Etapa nueva = crearEtapa(capacidad, actuales.length, presupuestoBytes - usados);
+        Etapa[] ampliadas = Arrays.copyOf(actuales, actuales.length + 1);
+        ampliadas[actuales.length] = nueva;
+        etapas = ampliadas;
+        return nueva;
+    }
+
+    private Etapa crearEtapa(long capacidad, int indice, long bytesDisponibles) {
+        long bits = Math.min(bitsNecesarios(capacidad, tasaEtapa(indice)), bytesDisponibles * 8);
+        // AtomicLongArray se indexa con int
+        bits = Math.max(64, Math.min(bits, (long) Integer.MAX_VALUE * 64));
+        return new Etapa(capacidad, bits);
+    }
+
+    /**
+     * Tasa de la etapa i: la suma de todas las etapas no supera la tasa objetivo
+     */
+    private double tasaEtapa(int indice) {
+        return tasaObjetivo * (1 - RAZON_AJUSTE) * Math.pow(RAZON_AJUSTE, indice);
+    }
+
+    /**
+     * Bits óptimos para n claves con tasa p: m = -n ln p / (ln 2)^2
+     */
+    static long bitsNecesarios(long claves, double tasa) {
+        return (long) Math.ceil(-claves * Math.log(tasa) / (LN2 * LN2));
+    }
+
+    /**
+     * Hash de 64 bits de los caracteres (mezcla estilo splitmix64 por carácter)
+     */
+    private static long hash(CharSequence clave, long semilla) {
+        long h = semilla ^ clave.length();
+        for (int i = 0; i < clave.length(); i++) {
+            h = (h ^ clave.charAt(i)) * 0xBF58476D1CE4E5B9L;
+            h ^= h >>> 31;
+        }
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
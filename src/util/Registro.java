@@ -0,0 +1,196 @@
+package util;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Registro asincrónico de mensajes por nivel
+ * Quien registra solo encola el mensaje en un anillo acotado sin bloqueos; un hilo de
+ * fondo lo drena en lotes y escribe cada lote con una sola llamada por flujo (INFO y
+ * DEBUG a la salida estándar, ADVERTENCIA y ERROR a la de errores). Así las
+ * transacciones no esperan a la consola. Si el anillo se llena los mensajes se
+ * descartan y el hilo escritor informa cuántos se perdieron.
+ */
+public final class Registro {
+
+    /**
+     * Niveles de registro, de menor a mayor severidad
+     */
+    public enum Nivel {
+        DEBUG, INFO, ADVERTENCIA, ERROR;
+
+        boolean esError() {
+            return this == ADVERTENCIA || this == ERROR;
+        }
+    }
+
+    public static final int CAPACIDAD = 16384;
+    public static final int TAMANIO_LOTE = 512;
+
+    private static final long ESPERA_MAXIMA_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long ESPERA_AL_CERRAR_MS = 1000;
+
+    private record Entrada(Nivel nivel, String mensaje, Throwable error) {
+    }
+
+    private static final AnilloAcotado<Entrada> ANILLO = new AnilloAcotado<>(CAPACIDAD);
+    private static final AtomicLong ENCOLADOS = new AtomicLong();
+    private static final AtomicLong ESCRITOS = new AtomicLong();
+    private static final AtomicLong DESCARTADOS = new AtomicLong();
+    private static final Thread ESCRITOR;
+
+    private static volatile Nivel nivelMinimo = Nivel.INFO;
+    private static volatile boolean esperando;
+
+    static {
+        ESCRITOR = new Thread(Registro::escribir, "registro");
+        ESCRITOR.setDaemon(true);
+        ESCRITOR.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> vaciar(ESPERA_AL_CERRAR_MS), "registro-cierre"));
+    }
+
+    private Registro() {
+    }
+
+    public static Nivel getNivelMinimo() {
+        return nivelMinimo;
+    }
+
+    public static void setNivelMinimo(Nivel nivel) {
+        nivelMinimo = nivel;
+    }
+
+    public static boolean estaHabilitado(Nivel nivel) {
+        return nivel.compareTo(nivelMinimo) >= 0;
+    }
+
+    public static void debug(String mensaje) {
+        registrar(Nivel.DEBUG, mensaje, null);
+    }
+
+    public static void info(String mensaje) {
+        registrar(Nivel.INFO, mensaje, null);
+    }
+
+    public static void advertencia(String mensaje) {
+        registrar(Nivel.ADVERTENCIA, mensaje, null);
+    }
+
+    public static void error(String mensaje) {
+        registrar(Nivel.ERROR, mensaje, null);
+    }
+
+    /**
+     * Registra un error con su traza completa
+     */
+    public static void error(String mensaje, Throwable error) {
+        registrar(Nivel.ERROR, mensaje, error);
+    }
+
+    /**
+     * Encola un mensaje; no bloquea ni lanza excepciones
+     */
+    public static void registrar(Nivel nivel, String mensaje, Throwable error) {
+        if (!estaHabilitado(nivel)) {
+            return;
+        }
+        if (!ANILLO.ofrecer(new Entrada(nivel, String.valueOf(mensaje), error))) {
+            DESCARTADOS.incrementAndGet();
+            return;
+        }
+        ENCOLADOS.incrementAndGet();
+        if (esperando) {
+            LockSupport.unpark(ESCRITOR);
+        }
+    }
+
+    /**
+     * Espera a que se escriban los mensajes encolados hasta ahora
+     * Devuelve false si no terminó dentro del tiempo indicado
+     */
+    public static boolean vaciar(long timeoutMs) {
+        long objetivo = ENCOLADOS.get();
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (ESCRITOS.get() < objetivo) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            LockSupport.unpark(ESCRITOR);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    public static long getDescartados() {
+        return DESCARTADOS.get();
+    }
+
+    public static int getPendientes() {
+        return ANILLO.tamanio();
+    }
+
+    /**
+     * Bucle del hilo escritor: drena lotes y los escribe agrupados por flujo
+     */
+    private static void escribir() {
+        List<Entrada> lote = new ArrayList<>(TAMANIO_LOTE);
+        StringBuilder salida = new StringBuilder();
+        StringBuilder errores = new StringBuilder();
+        long descartadosInformados = 0;
+
+        while (true) {
+            if (ANILLO.drenar(lote, TAMANIO_LOTE) == 0) {
+                esperando = true;
+                // Volver a mirar después de marcar la espera para no perder un unpark
+                if (ANILLO.estaVacio()) {
+                    LockSupport.parkNanos(Registro.class, ESPERA_MAXIMA_NANOS);
+                }
+                esperando = false;
+                continue;
+            }
+
+            long descartados = DESCARTADOS.get();
+            if (descartados > descartadosInformados) {
+                errores.append("⚠ Registro saturado: se descartaron ")
+                       .append(descartados - descartadosInformados).append(" mensajes\n");
+                descartadosInformados = descartados;
+            }
+
+            for (Entrada entrada : lote) {
+                StringBuilder destino = entrada.nivel().esError() ? errores : salida;
+                if (entrada.nivel() == Nivel.DEBUG) {
+                    destino.append("[DEBUG] ");
+                }
+                destino.append(entrada.mensaje()).append('\n');
+                if (entrada.error() != null) {
+                    destino.append(traza(entrada.error()));
+                }
+            }
+
+            volcar(System.out, salida);
+            volcar(System.err, errores);
+            ESCRITOS.addAndGet(lote.size());
+            lote.clear();
+        }
+    }
+
+    private static void volcar(PrintStream flujo, StringBuilder texto) {
+        if (texto.length() > 0) {
+            flujo.print(texto);
+            flujo.flush();
+            texto.setLength(0);
+        }
+    }
+
+    private static String traza(Throwable error) {
+        StringWriter texto = new StringWriter();
+        error.printStackTrace(new PrintWriter(texto));
+        return texto.toString();
+    }
+}